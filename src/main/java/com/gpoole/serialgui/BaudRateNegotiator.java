@@ -3,15 +3,25 @@ package com.gpoole.serialgui;
 import jssc.SerialPort;
 import jssc.SerialPortException;
 
+import java.nio.charset.StandardCharsets;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
 /**
  * Handles automatic baud rate negotiation for serial ports.
- * 
+ *
  * Attempts to communicate at different baud rates to find the correct one
  * by sending an AT command and checking for a response. This is commonly used
  * with modem devices that support Hayes AT commands.
- * 
+ *
  * Tested baud rates (in order): 9600, 115200, 19200, 38400, 57600,
  * 14400, 28800, 4800, 2400, 1200
+ *
+ * A rate is accepted only when the reply has an OK or ERROR result code line;
+ * at a wrong rate the device's reply arrives as garbage, which is rejected.
+ * The input is polled, so a rate that answers is accepted as soon as the
+ * result code arrives instead of after a fixed wait. A known device's last
+ * rate can be passed to {@link #probe} to be tried before the common ones.
  */
 public class BaudRateNegotiator {
     /** Common baud rates to try, in order of frequency */
@@ -21,11 +31,32 @@ public class BaudRateNegotiator {
     };
 
     private static final String NEGOTIATE_COMMAND = "AT\r\n";
-    private static final long TIMEOUT_MS = 500;
+    private static final String MODEM_IDENTIFY_COMMAND = "ATI\r\n";
+    private static final String SCPI_IDENTIFY_COMMAND = "*IDN?\n";
+    /** Default time to wait for a reply at each rate */
+    public static final long DEFAULT_TIMEOUT_MS = 250;
+    private static final long POLL_INTERVAL_MS = 5;
+    /** A result code on a line of its own */
+    private static final Pattern RESULT_CODE = Pattern.compile("(^|[\r\n])(OK|ERROR)[\r\n]");
 
     /**
-     * Attempts to negotiate the correct baud rate for a serial port.
+     * Outcome of a negotiation.
+     *
+     * @param baudRate The rate that answered, or -1 if none did
+     * @param response The reply at that rate, or empty
+     */
+    public record Negotiation(int baudRate, String response) {
+        /**
+         * @return True if a rate answered
+         */
+        public boolean succeeded() {
+            return baudRate > 0;
+        }
+    }
 
+    /**
+     * Attempts to negotiate the correct baud rate for a serial port.
+     *
      * Tries each common baud rate and sends a test command.
      *
      * @param port The serial port to negotiate
@@ -33,14 +64,59 @@ public class BaudRateNegotiator {
      * @param stopBits Number of stop bits
      * @param parity Parity setting
      * @return The successfully negotiated baud rate, or -1 if none worked
+     * @throws InterruptedException If the thread is interrupted while waiting for a response
+     */
+    public static int negotiate(SerialPort port, int dataBits, int stopBits, int parity)
+        throws InterruptedException {
+        return negotiate(port, dataBits, stopBits, parity, DEFAULT_TIMEOUT_MS);
+    }
+
+    /**
+     * Attempts to negotiate the correct baud rate for a serial port.
+     *
+     * @param port The serial port to negotiate
+     * @param dataBits Number of data bits
+     * @param stopBits Number of stop bits
+     * @param parity Parity setting
+     * @param timeoutMs How long to wait for a reply at each rate
+     * @return The successfully negotiated baud rate, or -1 if none worked
+     * @throws InterruptedException If the thread is interrupted while waiting for a response
      */
-    public static int negotiate(SerialPort port, int dataBits, int stopBits, int parity) {
+    public static int negotiate(SerialPort port, int dataBits, int stopBits, int parity, long timeoutMs)
+        throws InterruptedException {
+        return probe(port, dataBits, stopBits, parity, timeoutMs, -1).baudRate();
+    }
+
+    /**
+     * Negotiates the baud rate, trying a likely rate before the common ones.
+     *
+     * @param port The serial port to negotiate
+     * @param dataBits Number of data bits
+     * @param stopBits Number of stop bits
+     * @param parity Parity setting
+     * @param timeoutMs How long to wait for a reply at each rate
+     * @param firstBaudRate Rate to try first (e.g. the device's last known rate), or -1
+     * @return The rate that answered and its reply
+     * @throws InterruptedException If the thread is interrupted while waiting for a response
+     */
+    public static Negotiation probe(SerialPort port, int dataBits, int stopBits, int parity, long timeoutMs,
+                                    int firstBaudRate) throws InterruptedException {
+        if (firstBaudRate > 0) {
+            String response = tryBaudRate(port, firstBaudRate, dataBits, stopBits, parity, timeoutMs);
+            if (response != null) {
+                return new Negotiation(firstBaudRate, response);
+            }
+        }
         for (int baudRate : COMMON_BAUD_RATES) {
-            if (tryBaudRate(port, baudRate, dataBits, stopBits, parity)) {
-                return baudRate;
+            if (baudRate == firstBaudRate) {
+                continue;
+            }
+            String response = tryBaudRate(port, baudRate, dataBits, stopBits, parity, timeoutMs);
+            if (response != null) {
+                return new Negotiation(baudRate, response);
             }
         }
-        return -1;
+        return new Negotiation(-1, "");
     }
 
     /**
@@ -51,31 +127,94 @@ public class BaudRateNegotiator {
      * @param dataBits Number of data bits
      * @param stopBits Number of stop bits
      * @param parity Parity setting
-     * @return True if communication was successful at this baud rate
+     * @param timeoutMs How long to wait for a reply
+     * @return The reply if communication was successful at this baud rate, otherwise null
+     * @throws InterruptedException If the thread is interrupted while waiting for a response
      */
-    private static boolean tryBaudRate(SerialPort port, int baudRate, int dataBits, int stopBits, int parity) {
+    private static String tryBaudRate(SerialPort port, int baudRate, int dataBits, int stopBits, int parity,
+                                      long timeoutMs) throws InterruptedException {
         try {
             port.setParams(baudRate, dataBits, stopBits, parity);
-            
-            // Send a simple AT command and wait for response
-            port.writeString(NEGOTIATE_COMMAND);
-            
-            // Wait a bit for response
-            Thread.sleep(TIMEOUT_MS);
-            
-            // Check if we have data to read
-            if (port.getInputBufferBytesCount() > 0) {
-                String response = port.readString();
-                // Check for typical AT command responses (OK, ERROR, +, etc.)
-                if (response != null && !response.isEmpty() &&
-                    (response.contains("OK") || response.contains("ERROR") || 
-                     response.contains("+") || response.length() > 0)) {
-                    return true;
+            String response = query(port, NEGOTIATE_COMMAND, timeoutMs, BaudRateNegotiator::hasResultCode);
+            return hasResultCode(response) ? response : null;
+        } catch (SerialPortException e) {
+            // This baud rate didn't work, try the next one
+            return null;
+        }
+    }
+
+    /**
+     * Asks the device to identify itself at the current port settings, first
+     * with ATI (modems) and then with *IDN? (SCPI instruments).
+     *
+     * @param port The serial port, already at the device's baud rate
+     * @param timeoutMs How long to wait for each reply
+     * @return The identity, with multi-line replies joined by " / ", or empty if neither command was answered
+     * @throws InterruptedException If the thread is interrupted while waiting for a response
+     */
+    public static String identify(SerialPort port, long timeoutMs) throws InterruptedException {
+        try {
+            String modem = query(port, MODEM_IDENTIFY_COMMAND, timeoutMs, BaudRateNegotiator::hasResultCode);
+            if (hasResultCode(modem) && !modem.contains("ERROR")) {
+                var identity = new StringBuilder();
+                for (String line : modem.split("[\r\n]+")) {
+                    line = line.trim();
+                    if (!line.isEmpty() && !line.equals("OK") && !line.startsWith("ATI")) {
+                        if (!identity.isEmpty()) {
+                            identity.append(" / ");
+                        }
+                        identity.append(line);
+                    }
+                }
+                if (!identity.isEmpty()) {
+                    return identity.toString();
                 }
             }
-        } catch (SerialPortException | InterruptedException e) {
-            // This baud rate didn't work, try the next one
+            String scpi = query(port, SCPI_IDENTIFY_COMMAND, timeoutMs,
+                reply -> reply.indexOf('\n') > 0 && !reply.isBlank());
+            for (String line : scpi.split("[\r\n]+")) {
+                line = line.trim();
+                // Skip an echo of the command
+                if (!line.isEmpty() && !line.startsWith("*IDN?")) {
+                    return line.contains("ERROR") ? "" : line;
+                }
+            }
+            return "";
+        } catch (SerialPortException e) {
+            return "";
+        }
+    }
+
+    /**
+     * Sends a command and collects the reply until it is complete or the timeout passes.
+     */
+    private static String query(SerialPort port, String command, long timeoutMs, Predicate<String> complete)
+        throws SerialPortException, InterruptedException {
+        // Drop anything left over from the previous rate or command
+        int stale = port.getInputBufferBytesCount();
+        if (stale > 0) {
+            port.readBytes(stale);
         }
-        return false;
+        port.writeString(command);
+        var reply = new StringBuilder();
+        long deadline = System.nanoTime() + timeoutMs * 1_000_000;
+        while (true) {
+            int available = port.getInputBufferBytesCount();
+            if (available > 0) {
+                reply.append(new String(port.readBytes(available), StandardCharsets.ISO_8859_1));
+                if (complete.test(reply.toString())) {
+                    break;
+                }
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                break;
+            }
+            Thread.sleep(POLL_INTERVAL_MS);
+        }
+        return reply.toString();
+    }
+
+    private static boolean hasResultCode(String reply) {
+        return RESULT_CODE.matcher(reply).find();
     }
 }
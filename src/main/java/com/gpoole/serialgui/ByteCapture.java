@@ -0,0 +1,287 @@
+package com.gpoole.serialgui;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Retains the raw bytes of a session in a temporary file.
+ *
+ * Appends go through a fixed-size write buffer and are flushed to the file in
+ * large blocks; reads are positional, so any range of a multi-hundred-megabyte
+ * capture can be fetched without holding the capture in memory. Memory use is
+ * constant (the write buffers) regardless of capture size. The temporary files
+ * are deleted when the capture is closed or the JVM exits.
+ *
+ * Each append is also recorded in a chunk index (a second temporary file of
+ * offset and arrival time pairs), so the capture can be replayed chunk by
+ * chunk with the original timing, e.g. by {@link PcapngWriter#export}.
+ *
+ * Appends come from the receive thread and reads from the EDT; all access is
+ * synchronized on the capture.
+ */
+public class ByteCapture implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ByteCapture.class);
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    /** Bytes per index entry: offset and arrival time, both longs */
+    private static final int INDEX_ENTRY_SIZE = 16;
+    /** Default upper bound on the capture size, in megabytes */
+    public static final int DEFAULT_MAX_MB = 64;
+    /** Default upper bound on the capture size */
+    public static final long DEFAULT_MAX_BYTES = DEFAULT_MAX_MB * 1024L * 1024;
+
+    private final Path file;
+    private final Path indexFile;
+    private final FileChannel channel;
+    private final FileChannel indexChannel;
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+    private final ByteBuffer indexBuffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE / 4);
+    private final byte[] indexScratch = new byte[INDEX_ENTRY_SIZE * 256];
+    private final long maxBytes;
+    private long flushedBytes = 0;
+    private long flushedIndexBytes = 0;
+    private long droppedBytes = 0;
+    private boolean failed = false;
+
+    /**
+     * Creates a new ByteCapture backed by a temporary file.
+     *
+     * @param prefix Temporary file name prefix
+     * @throws IOException If the temporary file cannot be created
+     */
+    public ByteCapture(String prefix) throws IOException {
+        this(prefix, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Creates a new ByteCapture backed by a temporary file.
+     *
+     * @param prefix Temporary file name prefix
+     * @param maxBytes Bytes beyond this limit are counted but not retained
+     * @throws IOException If the temporary file cannot be created
+     */
+    public ByteCapture(String prefix, long maxBytes) throws IOException {
+        this.maxBytes = maxBytes;
+        this.file = Files.createTempFile(prefix, ".bin");
+        this.file.toFile().deleteOnExit();
+        this.indexFile = Files.createTempFile(prefix, ".idx");
+        this.indexFile.toFile().deleteOnExit();
+        this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+            StandardOpenOption.DELETE_ON_CLOSE);
+        this.indexChannel = FileChannel.open(indexFile, StandardOpenOption.READ, StandardOpenOption.WRITE,
+            StandardOpenOption.DELETE_ON_CLOSE);
+    }
+
+    /**
+     * Appends bytes to the capture, timestamped now.
+     *
+     * @param data The bytes to append
+     */
+    public void append(byte[] data) {
+        append(data, System.nanoTime());
+    }
+
+    /**
+     * Appends bytes to the capture as one chunk.
+     *
+     * @param data The bytes to append
+     * @param arrivalNanos When the bytes arrived, from System.nanoTime()
+     */
+    public synchronized void append(byte[] data, long arrivalNanos) {
+        int offset = 0;
+        int remaining = data.length;
+        long room = maxBytes - size();
+        if (failed || room <= 0) {
+            droppedBytes += remaining;
+            return;
+        }
+        if (remaining > room) {
+            droppedBytes += remaining - room;
+            remaining = (int) room;
+        }
+        if (remaining > 0) {
+            indexBuffer.putLong(size()).putLong(arrivalNanos);
+            if (!indexBuffer.hasRemaining()) {
+                flushIndex();
+            }
+        }
+        while (remaining > 0) {
+            int n = Math.min(remaining, writeBuffer.remaining());
+            writeBuffer.put(data, offset, n);
+            offset += n;
+            remaining -= n;
+            if (!writeBuffer.hasRemaining()) {
+                flush();
+            }
+        }
+    }
+
+    /**
+     * Reads bytes from the capture.
+     *
+     * @param position Offset of the first byte to read
+     * @param dst Destination array
+     * @param dstOffset Offset into the destination array
+     * @param length Maximum number of bytes to read
+     * @return Number of bytes read (less than length at the end of the capture)
+     */
+    public synchronized int read(long position, byte[] dst, int dstOffset, int length) {
+        return read(channel, flushedBytes, writeBuffer, position, dst, dstOffset,
+            (int) Math.min(length, Math.max(0, size() - position)));
+    }
+
+    /**
+     * Reads entries from the chunk index.
+     *
+     * @param firstChunk Number of the first chunk to read (0 for the oldest)
+     * @param offsets Receives the capture offset of each chunk
+     * @param arrivalNanos Receives the arrival time of each chunk (System.nanoTime() base)
+     * @param count Maximum number of entries to read
+     * @return Number of entries read (less than count at the end of the index)
+     */
+    public synchronized int readIndex(long firstChunk, long[] offsets, long[] arrivalNanos, int count) {
+        int done = 0;
+        while (done < count) {
+            int batch = Math.min(count - done, indexScratch.length / INDEX_ENTRY_SIZE);
+            long position = (firstChunk + done) * INDEX_ENTRY_SIZE;
+            long available = flushedIndexBytes + indexBuffer.position() - position;
+            int bytes = read(indexChannel, flushedIndexBytes, indexBuffer, position, indexScratch, 0,
+                (int) Math.min(batch * INDEX_ENTRY_SIZE, Math.max(0, available)));
+            ByteBuffer entries = ByteBuffer.wrap(indexScratch, 0, bytes);
+            int entryCount = bytes / INDEX_ENTRY_SIZE;
+            for (int i = 0; i < entryCount; i++) {
+                offsets[done + i] = entries.getLong();
+                arrivalNanos[done + i] = entries.getLong();
+            }
+            done += entryCount;
+            if (entryCount < batch) {
+                break;
+            }
+        }
+        return done;
+    }
+
+    /**
+     * Reads from a file whose tail is still in a write buffer.
+     */
+    private int read(FileChannel source, long flushed, ByteBuffer buffer, long position,
+                     byte[] dst, int dstOffset, int count) {
+        if (position < 0 || count <= 0) {
+            return 0;
+        }
+        int done = 0;
+        try {
+            // Part already on disk
+            while (done < count && position + done < flushed) {
+                int n = (int) Math.min(count - done, flushed - (position + done));
+                int read = source.read(ByteBuffer.wrap(dst, dstOffset + done, n), position + done);
+                if (read <= 0) {
+                    break;
+                }
+                done += read;
+            }
+        } catch (IOException ex) {
+            logger.warn("Failed to read capture at {}: {}", position, ex.getMessage());
+            return done;
+        }
+        if (position + done < flushed) {
+            // The file came up short; the write buffer only holds what follows it
+            return done;
+        }
+        // Part still in the write buffer
+        if (done < count) {
+            int bufferOffset = (int) (position + done - flushed);
+            System.arraycopy(buffer.array(), bufferOffset, dst, dstOffset + done, count - done);
+            done = count;
+        }
+        return done;
+    }
+
+    private void flush() {
+        writeBuffer.flip();
+        try {
+            while (writeBuffer.hasRemaining()) {
+                flushedBytes += channel.write(writeBuffer, flushedBytes);
+            }
+        } catch (IOException ex) {
+            logger.error("Failed to write capture file {}: {}", file, ex.getMessage(), ex);
+            droppedBytes += writeBuffer.remaining();
+            failed = true;
+        }
+        writeBuffer.clear();
+    }
+
+    private void flushIndex() {
+        indexBuffer.flip();
+        try {
+            while (indexBuffer.hasRemaining()) {
+                flushedIndexBytes += indexChannel.write(indexBuffer, flushedIndexBytes);
+            }
+        } catch (IOException ex) {
+            logger.error("Failed to write capture index {}: {}", indexFile, ex.getMessage(), ex);
+            failed = true;
+        }
+        indexBuffer.clear();
+    }
+
+    /**
+     * Gets the number of bytes retained.
+     *
+     * @return Capture size in bytes
+     */
+    public synchronized long size() {
+        return flushedBytes + writeBuffer.position();
+    }
+
+    /**
+     * Gets the number of chunks retained.
+     *
+     * @return Entries in the chunk index
+     */
+    public synchronized long getChunkCount() {
+        return (flushedIndexBytes + indexBuffer.position()) / INDEX_ENTRY_SIZE;
+    }
+
+    /**
+     * Gets the number of bytes that could not be retained (size limit or disk error).
+     *
+     * @return Dropped byte count
+     */
+    public synchronized long getDroppedBytes() {
+        return droppedBytes;
+    }
+
+    /**
+     * Discards all retained bytes.
+     */
+    public synchronized void clear() {
+        writeBuffer.clear();
+        indexBuffer.clear();
+        try {
+            channel.truncate(0);
+            indexChannel.truncate(0);
+            failed = false;
+        } catch (IOException ex) {
+            logger.warn("Failed to truncate capture file {}: {}", file, ex.getMessage());
+        }
+        flushedBytes = 0;
+        flushedIndexBytes = 0;
+        droppedBytes = 0;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            channel.close();
+            indexChannel.close();
+        } catch (IOException ex) {
+            logger.warn("Failed to close capture file {}: {}", file, ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.gpoole.serialgui;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lossless capture of the session log to a file.
+ *
+ * Lines are handed to a dedicated writer thread through a bounded queue. When
+ * the disk cannot keep up the queue fills and {@link #write(String)} blocks the
+ * caller instead of dropping data; the backpressure lands on the receive thread
+ * and from there on the driver's input buffer. This is the opposite trade-off
+ * from {@link DisplayPipeline}, which drops before it blocks.
+ */
+public class CaptureWriter implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(CaptureWriter.class);
+    private static final int QUEUE_CAPACITY = 8192;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    /** Marks the end of the stream in the queue */
+    private static final String END = new String("");
+
+    private final Path file;
+    private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread writerThread;
+    private final AtomicLong linesWritten = new AtomicLong();
+    private volatile boolean closed = false;
+    private volatile IOException failure;
+
+    /**
+     * Opens (appending to) a capture file and starts the writer thread.
+     *
+     * @param file The capture file
+     * @throws IOException If the file cannot be opened
+     */
+    public CaptureWriter(Path file) throws IOException {
+        this.file = file;
+        BufferedWriter writer = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND), WRITE_BUFFER_SIZE);
+        this.writerThread = new Thread(() -> run(writer), "capture-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Queues text for the capture file, blocking while the queue is full.
+     *
+     * @param text Text including its line terminator
+     */
+    public void write(String text) {
+        if (closed || failure != null) {
+            return;
+        }
+        try {
+            queue.put(text);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while writing capture to {}", file);
+        }
+    }
+
+    private void run(BufferedWriter writer) {
+        List<String> batch = new ArrayList<>(256);
+        try (writer) {
+            while (true) {
+                String first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    writer.flush();
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, 255);
+                for (String text : batch) {
+                    if (text == END) {
+                        return;
+                    }
+                    writer.write(text);
+                    linesWritten.incrementAndGet();
+                }
+                batch.clear();
+            }
+        } catch (IOException ex) {
+            failure = ex;
+            logger.error("Capture to {} failed: {}", file, ex.getMessage(), ex);
+            queue.clear();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets the capture file.
+     *
+     * @return The file path
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Gets the number of lines written so far.
+     *
+     * @return Line count
+     */
+    public long getLinesWritten() {
+        return linesWritten.get();
+    }
+
+    /**
+     * Gets the number of lines waiting to be written.
+     *
+     * @return Queue depth
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Gets the error that stopped the capture, if any.
+     *
+     * @return The failure, or null
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Writes everything still queued and closes the file.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (failure == null) {
+                queue.put(END);
+            }
+            writerThread.join(5000);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Capture to {} closed after {} lines", file, linesWritten.get());
+    }
+}
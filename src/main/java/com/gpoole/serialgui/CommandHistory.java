@@ -1,35 +1,85 @@
 package com.gpoole.serialgui;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Manages command history for the serial communication input field.
- * 
+ *
  * Features:
  * - Allows navigating through previously entered commands using up/down keys
- * - Maintains up to 50 most recent commands
+ * - Fixed-capacity ring buffer: adding a command is O(1) and the oldest
+ *   command is dropped once the configured limit is reached
  * - Automatically prevents duplicate consecutive commands
  * - Resets position after adding new command
- * 
+ * - Optional persistence to an append-only file, loaded on first use
+ * - Incremental reverse search (Ctrl-R style), case-insensitive, backed by a
+ *   trigram index so lookups stay instant with 100k entries
+ *
  * Usage:
  * - Call add() when a command is sent
  * - Call getPrevious() when up arrow is pressed
  * - Call getNext() when down arrow is pressed
  * - Call reset() after sending to return to empty state
+ * - Call findPrevious() with the search text, starting from size() and then
+ *   from the last match to step to older matches
+ * - Call close() on exit when a history file is used
+ *
+ * The history file holds one command per line with backslash, CR and LF
+ * escaped. It is compacted to the newest entries when loading finds it has
+ * grown past twice the capacity.
  */
 public class CommandHistory {
-    private final List<String> history;
-    private int currentIndex;
-    /** Maximum number of commands to retain in history */
-    private static final int MAX_HISTORY = 50;
+    private static final Logger logger = LoggerFactory.getLogger(CommandHistory.class);
+    /** Capacity used when none is configured */
+    public static final int DEFAULT_CAPACITY = 10_000;
+    private static final int GRAM = 3;
+
+    private final String[] entries;
+    private final Path file;
+    /** Trigram of lower-cased characters to the sequence numbers of entries containing it */
+    private final Map<Long, Postings> index = new HashMap<>();
+    private int head = 0;
+    private int count = 0;
+    /** Sequence number the next added command will get; entry i has sequence nextSequence - count + i */
+    private int nextSequence = 0;
+    private int currentIndex = -1;
+    private boolean loaded;
+    private BufferedWriter writer;
 
     /**
-     * Creates a new CommandHistory with empty command list.
+     * Creates a new in-memory CommandHistory with the default capacity.
      */
     public CommandHistory() {
-        this.history = new ArrayList<>();
-        this.currentIndex = -1;
+        this(DEFAULT_CAPACITY, null);
+    }
+
+    /**
+     * Creates a new CommandHistory.
+     *
+     * @param capacity Maximum number of commands to retain
+     * @param file History file to load from and append to, or null to keep history in memory only
+     */
+    public CommandHistory(int capacity, Path file) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.entries = new String[capacity];
+        this.file = file;
+        this.loaded = file == null;
     }
 
     /**
@@ -37,19 +87,15 @@ public class CommandHistory {
      *
      * @param command The command to add
      */
-    public void add(String command) {
+    public synchronized void add(String command) {
         if (command == null || command.trim().isEmpty()) {
             return;
         }
-        // Don't add duplicates at the end
-        if (!history.isEmpty() && history.get(history.size() - 1).equals(command)) {
-            return;
-        }
-        history.add(command);
-        if (history.size() > MAX_HISTORY) {
-            history.remove(0);
-        }
+        ensureLoaded();
         currentIndex = -1; // Reset position after adding
+        if (append(command)) {
+            persist(command);
+        }
     }
 
     /**
@@ -57,18 +103,17 @@ public class CommandHistory {
      *
      * @return The previous command, or empty string if at the beginning
      */
-    public String getPrevious() {
-        if (history.isEmpty()) {
+    public synchronized String getPrevious() {
+        ensureLoaded();
+        if (count == 0) {
             return "";
         }
         if (currentIndex < 0) {
-            currentIndex = history.size() - 1;
+            currentIndex = count - 1;
         } else if (currentIndex > 0) {
             currentIndex--;
         }
-        return currentIndex >= 0 && currentIndex < history.size()
-            ? history.get(currentIndex)
-            : "";
+        return get(currentIndex);
     }
 
     /**
@@ -76,14 +121,15 @@ public class CommandHistory {
      *
      * @return The next command, or empty string if at the end
      */
-    public String getNext() {
-        if (history.isEmpty()) {
+    public synchronized String getNext() {
+        ensureLoaded();
+        if (count == 0) {
             return "";
         }
-        if (currentIndex >= 0 && currentIndex < history.size() - 1) {
+        if (currentIndex >= 0 && currentIndex < count - 1) {
             currentIndex++;
-            return history.get(currentIndex);
-        } else if (currentIndex == history.size() - 1) {
+            return get(currentIndex);
+        } else if (currentIndex == count - 1) {
             currentIndex = -1;
             return "";
         }
@@ -93,24 +139,307 @@ public class CommandHistory {
     /**
      * Resets the history position.
      */
-    public void reset() {
+    public synchronized void reset() {
         currentIndex = -1;
     }
 
+    /**
+     * Gets a command by position.
+     *
+     * @param index 0 for the oldest retained command up to size() - 1 for the newest
+     * @return The command
+     */
+    public synchronized String get(int index) {
+        ensureLoaded();
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + count);
+        }
+        return entries[(head + index) % entries.length];
+    }
+
+    /**
+     * Finds the newest command older than a position that contains the given
+     * text, ignoring case.
+     *
+     * @param query Text to look for
+     * @param beforeIndex Search positions below this one; size() to start from the newest command
+     * @return Position of the match, or -1 if there is none
+     */
+    public synchronized int findPrevious(String query, int beforeIndex) {
+        ensureLoaded();
+        int limit = Math.min(beforeIndex, count);
+        if (query == null || query.isEmpty() || limit <= 0) {
+            return -1;
+        }
+        if (query.length() < GRAM) {
+            for (int i = limit - 1; i >= 0; i--) {
+                if (containsIgnoreCase(get(i), query)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        Postings rarest = null;
+        for (int i = 0; i + GRAM <= query.length(); i++) {
+            Postings postings = index.get(gram(query, i));
+            if (postings == null) {
+                return -1;
+            }
+            if (rarest == null || postings.size() < rarest.size()) {
+                rarest = postings;
+            }
+        }
+        int oldestSequence = nextSequence - count;
+        for (int p = rarest.lastBefore(oldestSequence + limit); p >= rarest.start; p--) {
+            int position = rarest.sequences[p] - oldestSequence;
+            if (containsIgnoreCase(get(position), query)) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Gets the total number of commands in history.
      *
      * @return History size
      */
-    public int size() {
-        return history.size();
+    public synchronized int size() {
+        ensureLoaded();
+        return count;
+    }
+
+    /**
+     * Gets the maximum number of commands retained.
+     *
+     * @return Capacity
+     */
+    public int getCapacity() {
+        return entries.length;
     }
 
     /**
-     * Clears all history.
+     * Clears all history. The history file is truncated as well.
      */
-    public void clear() {
-        history.clear();
+    public synchronized void clear() {
+        Arrays.fill(entries, null);
+        index.clear();
+        head = 0;
+        count = 0;
         currentIndex = -1;
+        loaded = true;
+        if (file != null) {
+            closeWriter();
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ex) {
+                logger.warn("Failed to delete history file {}: {}", file, ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Flushes and closes the history file.
+     */
+    public synchronized void close() {
+        closeWriter();
+    }
+
+    private boolean append(String command) {
+        // Don't add duplicates at the end
+        if (count > 0 && get(count - 1).equals(command)) {
+            return false;
+        }
+        if (count == entries.length) {
+            evictOldest();
+        }
+        entries[(head + count) % entries.length] = command;
+        count++;
+        int sequence = nextSequence++;
+        for (int i = 0; i + GRAM <= command.length(); i++) {
+            index.computeIfAbsent(gram(command, i), k -> new Postings()).add(sequence);
+        }
+        return true;
+    }
+
+    private void evictOldest() {
+        String oldest = entries[head];
+        int sequence = nextSequence - count;
+        for (int i = 0; i + GRAM <= oldest.length(); i++) {
+            long key = gram(oldest, i);
+            Postings postings = index.get(key);
+            if (postings != null && postings.removeFirst(sequence) && postings.size() == 0) {
+                index.remove(key);
+            }
+        }
+        entries[head] = null;
+        head = (head + 1) % entries.length;
+        count--;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!Files.exists(file)) {
+            return;
+        }
+        long start = System.nanoTime();
+        int lines = 0;
+        try (var reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines++;
+                if (!line.isEmpty()) {
+                    append(unescape(line));
+                }
+            }
+        } catch (IOException ex) {
+            logger.warn("Failed to load command history from {}: {}", file, ex.getMessage());
+            return;
+        }
+        if (lines > entries.length * 2L) {
+            compact();
+        }
+        logger.debug("Loaded {} history entries from {} in {} ms", count, file,
+            (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void compact() {
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lines.add(escape(get(i)));
+        }
+        try {
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            logger.warn("Failed to compact command history {}: {}", file, ex.getMessage());
+        }
+    }
+
+    private void persist(String command) {
+        if (file == null) {
+            return;
+        }
+        try {
+            if (writer == null) {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            writer.write(escape(command));
+            writer.newLine();
+            writer.flush();
+        } catch (IOException ex) {
+            logger.warn("Failed to save command to {}: {}", file, ex.getMessage());
+            closeWriter();
+        }
+    }
+
+    private void closeWriter() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException ex) {
+                logger.debug("Failed to close history file: {}", ex.getMessage());
+            }
+            writer = null;
+        }
+    }
+
+    private static long gram(String text, int offset) {
+        return (long) Character.toLowerCase(text.charAt(offset)) << 32
+            | (long) Character.toLowerCase(text.charAt(offset + 1)) << 16
+            | Character.toLowerCase(text.charAt(offset + 2));
+    }
+
+    private static boolean containsIgnoreCase(String text, String query) {
+        for (int i = 0; i + query.length() <= text.length(); i++) {
+            if (text.regionMatches(true, i, query, 0, query.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String escape(String command) {
+        if (command.indexOf('\\') < 0 && command.indexOf('\n') < 0 && command.indexOf('\r') < 0) {
+            return command;
+        }
+        return command.replace("\\", "\\\\").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    static String unescape(String line) {
+        if (line.indexOf('\\') < 0) {
+            return line;
+        }
+        var out = new StringBuilder(line.length());
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\\' && i + 1 < line.length()) {
+                char next = line.charAt(++i);
+                out.append(next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Ascending sequence numbers of the entries containing one trigram. Entries
+     * are evicted oldest first, so removal only ever advances the start.
+     */
+    private static final class Postings {
+        private int[] sequences = new int[4];
+        private int start = 0;
+        private int end = 0;
+
+        int size() {
+            return end - start;
+        }
+
+        void add(int sequence) {
+            // A command repeating a trigram is listed once
+            if (end > start && sequences[end - 1] == sequence) {
+                return;
+            }
+            if (end == sequences.length) {
+                if (start > sequences.length / 2) {
+                    System.arraycopy(sequences, start, sequences, 0, end - start);
+                    end -= start;
+                    start = 0;
+                } else {
+                    sequences = Arrays.copyOf(sequences, sequences.length * 2);
+                }
+            }
+            sequences[end++] = sequence;
+        }
+
+        boolean removeFirst(int sequence) {
+            if (end > start && sequences[start] == sequence) {
+                start++;
+                return true;
+            }
+            return false;
+        }
+
+        /** Position of the last sequence below the limit, or start - 1 if none */
+        int lastBefore(int limit) {
+            int low = start;
+            int high = end - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (sequences[mid] < limit) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return high;
+        }
     }
 }
@@ -3,6 +3,11 @@ package com.gpoole.serialgui;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -15,34 +20,90 @@ import java.util.Properties;
  * - Serial port parameters (baud rate, data bits, stop bits, parity)
  * - Window dimensions and position
  * - Auto-negotiate speed preference
+ * - Auto-reconnect preference and RX stall timeout
  * - Display mode (ASCII, HEX, HEX_AND_ASCII)
  * - Last used port
+ * - Telemetry plot field pattern
+ * - Text encoding per port
+ * - Display overload policy
+ * - Reader mode (event listener or dedicated reader thread)
+ * - Flow control, DTR/RTS state and line error counting
+ * - TCP bridge port, remote access and slow-client policy
+ * - Metrics HTTP endpoint port
+ * - Command history size (the history itself is kept in history.txt)
+ * - Device fingerprints: the last working settings of each known device
+ *
+ * Device fingerprints are keyed by the port's stable identity (see
+ * {@link PortIdentity}) and hold the last baud rate, framing and probe reply
+ * that worked, so negotiation can try them first. The cache is LRU-bounded;
+ * the least recently used device is dropped when it is full.
  */
 public class ConfigurationManager {
     private static final Path CONFIG_DIR = Path.of(System.getProperty("user.home"), ".serialtalker");
     private static final Path CONFIG_FILE = CONFIG_DIR.resolve("config.properties");
 
+    /** Default number of device fingerprints kept */
+    public static final int DEFAULT_DEVICE_CACHE_SIZE = 32;
+    /** Longest probe reply kept in a fingerprint */
+    private static final int MAX_PROBE_RESPONSE_LENGTH = 200;
+
     private final Properties properties;
+    /** Fingerprints by stable id, least recently used first; guarded by this */
+    private final LinkedHashMap<String, DeviceFingerprint> devices = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The last settings that worked for a device.
+     *
+     * @param baudRate Baud rate
+     * @param dataBits Number of data bits
+     * @param stopBits Number of stop bits
+     * @param parity Parity setting
+     * @param probeResponse The device's reply to the negotiation probe, on one line, or empty
+     * @param lastUsedMillis When the settings last worked, in epoch milliseconds
+     */
+    public record DeviceFingerprint(int baudRate, int dataBits, int stopBits, int parity,
+                                    String probeResponse, long lastUsedMillis) {
+    }
+
+    /**
+     * Gets the directory holding the configuration and other per-user files.
+     *
+     * @return The ~/.serialtalker directory (may not exist yet)
+     */
+    public static Path getConfigDirectory() {
+        return CONFIG_DIR;
+    }
 
     /**
      * Creates a new ConfigurationManager and loads existing settings.
      */
     public ConfigurationManager() {
-        this.properties = new Properties();
-        loadConfiguration();
+        this(loadConfiguration());
+    }
+
+    /**
+     * Creates a ConfigurationManager over already loaded settings.
+     */
+    ConfigurationManager(Properties properties) {
+        this.properties = properties;
+        loadDeviceFingerprints();
     }
 
     /**
      * Loads configuration from file if it exists.
      */
-    private void loadConfiguration() {
+    private static Properties loadConfiguration() {
+        var properties = new Properties();
         try {
             if (Files.exists(CONFIG_FILE)) {
-                properties.load(Files.newInputStream(CONFIG_FILE));
+                try (var in = Files.newInputStream(CONFIG_FILE)) {
+                    properties.load(in);
+                }
             }
         } catch (IOException e) {
             System.err.println("Failed to load configuration: " + e.getMessage());
         }
+        return properties;
     }
 
     /**
@@ -51,7 +112,9 @@ public class ConfigurationManager {
     public void saveConfiguration() {
         try {
             Files.createDirectories(CONFIG_DIR);
-            properties.store(Files.newOutputStream(CONFIG_FILE), "Serial Talker Logger Configuration");
+            try (var out = Files.newOutputStream(CONFIG_FILE)) {
+                properties.store(out, "Serial Talker Logger Configuration");
+            }
         } catch (IOException e) {
             System.err.println("Failed to save configuration: " + e.getMessage());
         }
@@ -126,6 +189,91 @@ public class ConfigurationManager {
         properties.setProperty(key, String.valueOf(value));
     }
 
+    /**
+     * Gets the last working settings of a device and marks it as recently used.
+     *
+     * @param stableId The port's stable identity
+     * @return The fingerprint, or null if the device is not known
+     */
+    public synchronized DeviceFingerprint getDeviceFingerprint(String stableId) {
+        return stableId != null ? devices.get(stableId) : null;
+    }
+
+    /**
+     * Records the settings that just worked for a device, evicting the least
+     * recently used device if the cache is full.
+     *
+     * @param stableId The port's stable identity
+     * @param baudRate Baud rate
+     * @param dataBits Number of data bits
+     * @param stopBits Number of stop bits
+     * @param parity Parity setting
+     * @param probeResponse The device's probe reply, or null to keep the cached one
+     * @return The stored fingerprint
+     */
+    public synchronized DeviceFingerprint putDeviceFingerprint(String stableId, int baudRate, int dataBits,
+                                                               int stopBits, int parity, String probeResponse) {
+        DeviceFingerprint previous = devices.get(stableId);
+        String response = probeResponse != null ? oneLine(probeResponse)
+            : previous != null ? previous.probeResponse() : "";
+        var fingerprint = new DeviceFingerprint(baudRate, dataBits, stopBits, parity, response,
+            System.currentTimeMillis());
+        devices.put(stableId, fingerprint);
+        properties.setProperty(KEY_DEVICE_PREFIX + stableId, String.format("%d,%d,%d,%d,%d,%s",
+            baudRate, dataBits, stopBits, parity, fingerprint.lastUsedMillis(), response));
+        evictDevices();
+        return fingerprint;
+    }
+
+    /**
+     * Gets the number of devices in the fingerprint cache.
+     *
+     * @return Cached device count
+     */
+    public synchronized int getDeviceFingerprintCount() {
+        return devices.size();
+    }
+
+    private void evictDevices() {
+        int capacity = Math.max(1, getInt(KEY_DEVICE_CACHE_SIZE, DEFAULT_DEVICE_CACHE_SIZE));
+        var iterator = devices.entrySet().iterator();
+        while (devices.size() > capacity && iterator.hasNext()) {
+            properties.remove(KEY_DEVICE_PREFIX + iterator.next().getKey());
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Rebuilds the fingerprint cache from the loaded settings, oldest first.
+     */
+    private synchronized void loadDeviceFingerprints() {
+        List<Map.Entry<String, DeviceFingerprint>> loaded = new ArrayList<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (!key.startsWith(KEY_DEVICE_PREFIX)) {
+                continue;
+            }
+            String[] fields = properties.getProperty(key).split(",", 6);
+            try {
+                loaded.add(Map.entry(key.substring(KEY_DEVICE_PREFIX.length()), new DeviceFingerprint(
+                    Integer.parseInt(fields[0]), Integer.parseInt(fields[1]), Integer.parseInt(fields[2]),
+                    Integer.parseInt(fields[3]), fields.length > 5 ? fields[5] : "", Long.parseLong(fields[4]))));
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                properties.remove(key);
+            }
+        }
+        loaded.sort(Comparator.comparingLong(entry -> entry.getValue().lastUsedMillis()));
+        devices.clear();
+        for (Map.Entry<String, DeviceFingerprint> entry : loaded) {
+            devices.put(entry.getKey(), entry.getValue());
+        }
+        evictDevices();
+    }
+
+    private static String oneLine(String text) {
+        String line = text.replaceAll("[\\r\\n]+", " ").trim();
+        return line.length() > MAX_PROBE_RESPONSE_LENGTH ? line.substring(0, MAX_PROBE_RESPONSE_LENGTH) : line;
+    }
+
     // Configuration key constants
     public static final String KEY_BAUD_RATE = "serial.baudrate";
     public static final String KEY_DATA_BITS = "serial.databits";
@@ -138,4 +286,35 @@ public class ConfigurationManager {
     public static final String KEY_WINDOW_Y = "ui.window.y";
     public static final String KEY_AUTO_NEGOTIATE = "serial.autonegotiate";
     public static final String KEY_DISPLAY_MODE = "ui.displaymode";
+    public static final String KEY_AUTO_RECONNECT = "serial.autoreconnect";
+    public static final String KEY_STALL_TIMEOUT_MS = "serial.stalltimeout.ms";
+    public static final String KEY_PLOT_PATTERN = "plot.pattern";
+    /** Samples retained per plotted series */
+    public static final String KEY_PLOT_CAPACITY = "plot.capacity";
+    /** Prefix for per-port text encoding; the port name is appended */
+    public static final String KEY_ENCODING_PREFIX = "serial.encoding.";
+    /** Collapse consecutive identical received lines into a counter */
+    public static final String KEY_COLLAPSE_REPEATS = "ui.collapserepeats";
+    public static final String KEY_OVERLOAD_POLICY = "ui.overload.policy";
+    public static final String KEY_OVERLOAD_SAMPLE_EVERY = "ui.overload.sampleevery";
+    public static final String KEY_OVERLOAD_HIGH_WATERMARK = "ui.overload.highwatermark";
+    public static final String KEY_READER_MODE = "serial.reader.mode";
+    public static final String KEY_READER_VIRTUAL = "serial.reader.virtual";
+    public static final String KEY_FLOW_CONTROL = "serial.flowcontrol";
+    public static final String KEY_DTR = "serial.dtr";
+    public static final String KEY_RTS = "serial.rts";
+    public static final String KEY_COUNT_LINE_ERRORS = "serial.line.errors";
+    public static final String KEY_BRIDGE_PORT = "bridge.port";
+    public static final String KEY_BRIDGE_ALLOW_REMOTE = "bridge.allowremote";
+    public static final String KEY_BRIDGE_SLOW_POLICY = "bridge.slowclient.policy";
+    /** Port of the Prometheus metrics endpoint on localhost; 0 disables it */
+    public static final String KEY_METRICS_PORT = "metrics.http.port";
+    /** Number of sent commands kept in the persistent history */
+    public static final String KEY_HISTORY_SIZE = "history.size";
+    /** Prefix for device fingerprints; the port's stable identity is appended */
+    public static final String KEY_DEVICE_PREFIX = "device.fingerprint.";
+    /** Number of device fingerprints kept before the least recently used is dropped */
+    public static final String KEY_DEVICE_CACHE_SIZE = "device.cache.size";
+    /** Megabytes of raw bytes kept per direction for the hex view and pcapng export; 0 turns the capture off */
+    public static final String KEY_CAPTURE_MAX_MB = "capture.raw.maxmb";
 }
@@ -0,0 +1,451 @@
+package com.gpoole.serialgui;
+
+import jssc.SerialPortException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Keeps a serial connection alive on unattended rigs.
+ *
+ * Features:
+ * - Detects a lost port (I/O error, port closed, device no longer listed)
+ * - Optional RX watchdog that treats a silent line as a stalled connection
+ * - Reconnects with exponential backoff, locating the device by its stable
+ *   identity so a re-enumerated USB adapter is found under its new name
+ * - Holds outgoing messages in a bounded buffer while the port is down and
+ *   sends them once the connection is back, ahead of any newer message
+ * - Logs every outage with its start and end time
+ *
+ * Closing and reopening the port block (the reader thread is joined, the
+ * open happens in native code), so they run on the supervisor thread without
+ * holding the supervisor's lock; send() and stop() only wait for short state
+ * updates and stay safe to call from the EDT during an outage.
+ *
+ * Usage:
+ * - Call start() after a successful manual connect
+ * - Route outgoing messages through send()
+ * - Call stop() when the user disconnects
+ */
+public class ConnectionSupervisor {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionSupervisor.class);
+    /** How often the connection is checked */
+    private static final long CHECK_INTERVAL_MS = 250;
+    /** Number of completed outages remembered for display */
+    private static final int MAX_OUTAGE_HISTORY = 100;
+
+    private final SerialCommunicationManager commManager;
+    private final Supplier<String[]> portProvider;
+    private final ScheduledExecutorService scheduler;
+    /** Messages waiting to be sent, oldest first; guarded by its own monitor */
+    private final Deque<String> pendingTx = new ArrayDeque<>();
+    private final Deque<Outage> outageHistory = new ArrayDeque<>();
+
+    private int txBufferCapacity = 256;
+    private long stallTimeoutMs = 0;
+    private long initialBackoffMs = 500;
+    private long maxBackoffMs = 30_000;
+
+    private volatile boolean active = false;
+    private ScheduledFuture<?> checkTask;
+    private Target target;
+    private Outage currentOutage;
+    private long backoffMs;
+    private long nextAttemptAt;
+    private int attempts;
+    private long reconnectCount = 0;
+    private long droppedTxCount = 0; // guarded by pendingTx
+
+    private Consumer<Outage> onOutageStarted = outage -> {};
+    private Consumer<Outage> onOutageEnded = outage -> {};
+
+    /**
+     * A period during which the supervised connection was down.
+     *
+     * @param portId Stable identity of the port
+     * @param start When the outage was detected
+     * @param end When the connection was restored, or null while ongoing
+     * @param reason Why the connection was considered lost
+     */
+    public record Outage(String portId, Instant start, Instant end, String reason) {
+        /**
+         * Gets the outage duration, up to now if it is still ongoing.
+         *
+         * @return Outage duration
+         */
+        public Duration duration() {
+            return Duration.between(start, end != null ? end : Instant.now());
+        }
+    }
+
+    /**
+     * The device being supervised and the settings it is reopened with.
+     */
+    private record Target(String stableId, int baudRate, int dataBits, int stopBits, int parity) {
+    }
+
+    /**
+     * Creates a new ConnectionSupervisor.
+     *
+     * @param commManager The manager whose connection is supervised
+     * @param portProvider Supplies the currently detected port names
+     */
+    public ConnectionSupervisor(SerialCommunicationManager commManager, Supplier<String[]> portProvider) {
+        this.commManager = commManager;
+        this.portProvider = portProvider;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread t = new Thread(runnable, "connection-supervisor");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Sets the callback for when an outage is detected.
+     */
+    public ConnectionSupervisor onOutageStarted(Consumer<Outage> callback) {
+        this.onOutageStarted = callback;
+        return this;
+    }
+
+    /**
+     * Sets the callback for when the connection is restored.
+     */
+    public ConnectionSupervisor onOutageEnded(Consumer<Outage> callback) {
+        this.onOutageEnded = callback;
+        return this;
+    }
+
+    /**
+     * Sets the RX watchdog timeout. A connection that receives nothing for this
+     * long is treated as stalled and reopened.
+     *
+     * @param timeoutMs Timeout in milliseconds, or 0 to disable the watchdog
+     */
+    public synchronized void setStallTimeoutMs(long timeoutMs) {
+        this.stallTimeoutMs = Math.max(0, timeoutMs);
+    }
+
+    /**
+     * Sets the number of outgoing messages held while disconnected.
+     * When the buffer is full the oldest message is dropped.
+     *
+     * @param capacity Maximum number of buffered messages
+     */
+    public void setTxBufferCapacity(int capacity) {
+        synchronized (pendingTx) {
+            this.txBufferCapacity = Math.max(1, capacity);
+        }
+    }
+
+    /**
+     * Sets the reconnect backoff range.
+     *
+     * @param initialMs Delay before the first reconnect attempt
+     * @param maxMs Upper bound the delay doubles towards
+     */
+    public synchronized void setBackoff(long initialMs, long maxMs) {
+        this.initialBackoffMs = Math.max(1, initialMs);
+        this.maxBackoffMs = Math.max(this.initialBackoffMs, maxMs);
+    }
+
+    /**
+     * Starts supervising the current connection.
+     *
+     * @param portName The port that was just connected
+     * @param baudRate The baud rate to reconnect with
+     * @param dataBits Number of data bits
+     * @param stopBits Number of stop bits
+     * @param parity Parity setting
+     */
+    public synchronized void start(String portName, int baudRate, int dataBits, int stopBits, int parity) {
+        this.target = new Target(PortIdentity.stableIdFor(portName), baudRate, dataBits, stopBits, parity);
+        this.currentOutage = null;
+        this.active = true;
+        if (checkTask == null) {
+            checkTask = scheduler.scheduleWithFixedDelay(this::check,
+                CHECK_INTERVAL_MS, CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+        logger.info("Supervising connection to {} (stable id {})", portName, target.stableId());
+    }
+
+    /**
+     * Stops supervising and discards any buffered messages.
+     */
+    public synchronized void stop() {
+        active = false;
+        if (checkTask != null) {
+            checkTask.cancel(false);
+            checkTask = null;
+        }
+        if (currentOutage != null) {
+            logger.info("Supervision stopped during outage on {} (started {})",
+                currentOutage.portId(), currentOutage.start());
+            currentOutage = null;
+        }
+        synchronized (pendingTx) {
+            pendingTx.clear();
+        }
+    }
+
+    /**
+     * Stops supervising and releases the supervisor thread.
+     */
+    public void shutdown() {
+        stop();
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Sends a message, or buffers it if the supervised connection is down or
+     * older buffered messages have not been sent yet.
+     *
+     * @param message The message to send
+     * @return True if sent immediately, false if buffered for later
+     * @throws SerialPortException If not supervising and not connected, or the write fails
+     */
+    public boolean send(String message) throws SerialPortException {
+        boolean up = !isInOutage();
+        synchronized (pendingTx) {
+            if (up && pendingTx.isEmpty() && commManager.isConnected()) {
+                try {
+                    commManager.sendMessage(message);
+                    return true;
+                } catch (SerialPortException ex) {
+                    // The next check() sees the failed port and starts an outage
+                    if (!active) {
+                        throw ex;
+                    }
+                }
+            }
+            if (!active) {
+                throw new SerialPortException("", "", "Not connected to any port");
+            }
+            if (pendingTx.size() >= txBufferCapacity) {
+                pendingTx.removeFirst();
+                droppedTxCount++;
+            }
+            pendingTx.addLast(message);
+            return false;
+        }
+    }
+
+    /**
+     * Checks whether the supervisor is active.
+     *
+     * @return True if supervising
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Checks whether the supervised connection is currently down.
+     *
+     * @return True during an outage
+     */
+    public synchronized boolean isInOutage() {
+        return currentOutage != null;
+    }
+
+    /**
+     * Gets the outage in progress.
+     *
+     * @return The current outage, or null if the connection is up
+     */
+    public synchronized Outage getCurrentOutage() {
+        return currentOutage;
+    }
+
+    /**
+     * Gets the number of successful reconnects since this supervisor was created.
+     *
+     * @return Reconnect count
+     */
+    public synchronized long getReconnectCount() {
+        return reconnectCount;
+    }
+
+    /**
+     * Gets the number of messages waiting for the connection to come back.
+     *
+     * @return Buffered message count
+     */
+    public int getPendingTxCount() {
+        synchronized (pendingTx) {
+            return pendingTx.size();
+        }
+    }
+
+    /**
+     * Gets the number of buffered messages dropped because the buffer was full.
+     *
+     * @return Dropped message count
+     */
+    public long getDroppedTxCount() {
+        synchronized (pendingTx) {
+            return droppedTxCount;
+        }
+    }
+
+    /**
+     * Gets recent completed outages, oldest first.
+     *
+     * @return Copy of the outage history
+     */
+    public synchronized List<Outage> getOutages() {
+        return new ArrayList<>(outageHistory);
+    }
+
+    /**
+     * Runs one supervision step. Called periodically on the supervisor thread.
+     */
+    void check() {
+        Target supervised;
+        Outage outage;
+        long stallTimeout;
+        synchronized (this) {
+            if (!active) {
+                return;
+            }
+            supervised = target;
+            outage = currentOutage;
+            stallTimeout = stallTimeoutMs;
+            if (outage != null && System.currentTimeMillis() < nextAttemptAt) {
+                return;
+            }
+        }
+        try {
+            if (outage != null) {
+                attemptReconnect(supervised, outage);
+                return;
+            }
+            String reason = detectFailure(stallTimeout);
+            if (reason != null) {
+                beginOutage(supervised, reason);
+            } else {
+                // Messages left over from a flush that failed right after a reconnect
+                flushPending();
+            }
+        } catch (RuntimeException ex) {
+            logger.error("Connection supervision failed: {}", ex.getMessage(), ex);
+        }
+    }
+
+    private String detectFailure(long stallTimeout) {
+        if (!commManager.isConnected()) {
+            return "port closed";
+        }
+        if (commManager.hasFailed()) {
+            return "I/O error";
+        }
+        String portName = commManager.getPortName();
+        if (portName != null && !isListed(portName, portProvider.get())) {
+            return "port removed";
+        }
+        if (stallTimeout > 0) {
+            long silentMs = System.currentTimeMillis() - commManager.getLastReceiveTimeMillis();
+            if (silentMs > stallTimeout) {
+                return "no data received for " + silentMs + " ms";
+            }
+        }
+        return null;
+    }
+
+    private static boolean isListed(String portName, String[] ports) {
+        if (ports == null) {
+            return false;
+        }
+        for (String port : ports) {
+            if (portName.equals(port)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void beginOutage(Target supervised, String reason) {
+        Outage outage = new Outage(supervised.stableId(), Instant.now(), null, reason);
+        synchronized (this) {
+            if (!active || target != supervised) {
+                return;
+            }
+            currentOutage = outage;
+            backoffMs = initialBackoffMs;
+            attempts = 0;
+            nextAttemptAt = System.currentTimeMillis() + backoffMs;
+        }
+        logger.warn("Serial outage on {} started at {}: {}", outage.portId(), outage.start(), reason);
+        commManager.disconnect();
+        onOutageStarted.accept(outage);
+    }
+
+    private void attemptReconnect(Target supervised, Outage outage) {
+        String portName = PortIdentity.resolvePortName(supervised.stableId(), portProvider.get());
+        boolean reconnected = portName != null && commManager.tryConnect(portName, supervised.baudRate(),
+            supervised.dataBits(), supervised.stopBits(), supervised.parity());
+        Outage ended = null;
+        boolean stopped = false;
+        synchronized (this) {
+            attempts++;
+            if (currentOutage != outage) {
+                // Stopped or restarted while the port was opening
+                stopped = reconnected && !active;
+            } else if (reconnected) {
+                ended = new Outage(outage.portId(), outage.start(), Instant.now(), outage.reason());
+                currentOutage = null;
+                reconnectCount++;
+                if (outageHistory.size() >= MAX_OUTAGE_HISTORY) {
+                    outageHistory.removeFirst();
+                }
+                outageHistory.addLast(ended);
+            } else {
+                backoffMs = Math.min(backoffMs * 2, maxBackoffMs);
+                nextAttemptAt = System.currentTimeMillis() + backoffMs;
+                logger.debug("Reconnect attempt {} for {} failed, retrying in {} ms",
+                    attempts, supervised.stableId(), backoffMs);
+            }
+        }
+        if (stopped) {
+            logger.info("Supervision stopped while reconnecting {}, closing it again", portName);
+            commManager.disconnect();
+        } else if (ended != null) {
+            logger.warn("Serial outage on {} ended: {} to {} ({} ms, {} attempts), reconnected as {}",
+                ended.portId(), ended.start(), ended.end(), ended.duration().toMillis(), attempts, portName);
+            onOutageEnded.accept(ended);
+            flushPending();
+        }
+    }
+
+    /**
+     * Sends buffered messages in order. A message that fails stays at the head
+     * of the queue, and so do all newer ones, until the port is usable again.
+     */
+    private void flushPending() {
+        synchronized (pendingTx) {
+            while (!pendingTx.isEmpty()) {
+                String message = pendingTx.peekFirst();
+                try {
+                    commManager.sendMessage(message);
+                    pendingTx.removeFirst();
+                } catch (SerialPortException ex) {
+                    logger.warn("Failed to send buffered message, keeping {} queued: {}",
+                        pendingTx.size(), ex.getMessage());
+                    return;
+                }
+            }
+        }
+    }
+}
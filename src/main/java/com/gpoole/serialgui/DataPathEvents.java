@@ -0,0 +1,145 @@
+package com.gpoole.serialgui;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events for the serial data path.
+ *
+ * Each stage that can make the UI stutter emits a duration event: the port
+ * read, delivery to receive listeners, formatting, the EDT append batch,
+ * writes, export and search. With a recording running, the JFR timeline shows
+ * per thread whether time went to the RX thread, the formatter or the EDT.
+ *
+ * Usage pattern at an instrumentation point:
+ * - Create the event and call begin() before the work
+ * - After the work, set fields and call commit() only if shouldCommit()
+ *
+ * When recording is off (or the event is disabled in the settings),
+ * shouldCommit() is false and the JIT removes the event entirely, so the
+ * instrumentation costs next to nothing in normal use. Thresholds and
+ * enablement are set by the profile in src/main/resources/serialtalker.jfc:
+ *
+ * jcmd &lt;pid&gt; JFR.start settings=default,serialtalker.jfc filename=serial.jfr
+ */
+public final class DataPathEvents {
+    private static final String CATEGORY = "Serial Talker Logger";
+
+    private DataPathEvents() {
+    }
+
+    /** Bytes read from the port by the event listener or reader thread */
+    @Name("com.gpoole.serialgui.SerialRead")
+    @Label("Serial Read")
+    @Category({CATEGORY, "Serial"})
+    @StackTrace(false)
+    public static final class SerialRead extends Event {
+        @Label("Port")
+        public String port;
+
+        @Label("Bytes")
+        @DataAmount
+        public int bytes;
+
+        @Label("Reader Mode")
+        public String mode;
+    }
+
+    /** Received chunk handed to the receive listeners (decode, capture, display queue, ...) */
+    @Name("com.gpoole.serialgui.SerialDeliver")
+    @Label("Serial Deliver")
+    @Description("Time the receive thread spends in listeners for one chunk")
+    @Category({CATEGORY, "Serial"})
+    @StackTrace(false)
+    public static final class SerialDeliver extends Event {
+        @Label("Bytes")
+        @DataAmount
+        public int bytes;
+
+        @Label("Listeners")
+        public int listeners;
+    }
+
+    /** Bytes written to the port */
+    @Name("com.gpoole.serialgui.SerialWrite")
+    @Label("Serial Write")
+    @Category({CATEGORY, "Serial"})
+    public static final class SerialWrite extends Event {
+        @Label("Port")
+        public String port;
+
+        @Label("Bytes")
+        @DataAmount
+        public int bytes;
+    }
+
+    /** One message formatted for display */
+    @Name("com.gpoole.serialgui.Format")
+    @Label("Format Message")
+    @Category({CATEGORY, "Display"})
+    @StackTrace(false)
+    public static final class Format extends Event {
+        @Label("Display Mode")
+        public String mode;
+
+        @Label("Input Bytes")
+        @DataAmount
+        public int bytes;
+
+        @Label("Output Characters")
+        public int chars;
+    }
+
+    /** One batch of queued lines appended to the output area on the EDT */
+    @Name("com.gpoole.serialgui.DisplayAppend")
+    @Label("Display Append")
+    @Category({CATEGORY, "Display"})
+    @StackTrace(false)
+    public static final class DisplayAppend extends Event {
+        @Label("Lines")
+        public int lines;
+
+        @Label("Characters")
+        public int chars;
+
+        @Label("Backlog After")
+        @Description("Lines still queued for the display after this batch")
+        public int backlog;
+    }
+
+    /** Log saved or exported to a file */
+    @Name("com.gpoole.serialgui.Export")
+    @Label("Export")
+    @Category({CATEGORY, "Files"})
+    public static final class Export extends Event {
+        @Label("Format")
+        public String format;
+
+        @Label("Characters")
+        public int chars;
+
+        @Label("File")
+        public String file;
+    }
+
+    /** Search through the log */
+    @Name("com.gpoole.serialgui.Search")
+    @Label("Search")
+    @Category({CATEGORY, "Display"})
+    public static final class Search extends Event {
+        @Label("Term Length")
+        public int termLength;
+
+        @Label("Text Length")
+        public int textLength;
+
+        @Label("Matches")
+        @Description("Matches highlighted, or 1/0 for a find-next")
+        public int matches;
+    }
+}
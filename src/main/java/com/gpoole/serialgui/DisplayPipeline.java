@@ -0,0 +1,439 @@
+package com.gpoole.serialgui;
+
+import javax.swing.*;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Moves received lines to the display with explicit overload handling.
+ *
+ * The receive thread offers formatted lines; the EDT drains them on a timer in
+ * frame-sized batches with one append per frame. When the backlog reaches the
+ * high watermark the display degrades according to the configured policy and
+ * recovers once the backlog falls to the low watermark:
+ * - SAMPLE: show every Nth line, drop the rest
+ * - SUMMARIZE: show a periodic "N lines not shown" summary instead of the lines
+ * - PAUSE: show nothing until the display has caught up
+ *
+ * Only the display degrades. Anything that must be lossless (capture to disk)
+ * has to be written before lines are offered here. Dropped and summarized counts
+ * are kept so the status bar can tell operators what they are not seeing.
+ *
+ * With repeat collapsing on, a line whose message (the part after its key
+ * offset, i.e. without the timestamp) matches the previous line is not queued
+ * at all; it only bumps a counter. The match is a hash and length compare
+ * first, so distinct lines cost one pass over their text. While a run lasts,
+ * one "×N (first…last)" line under the original is updated in place each
+ * frame through the {@link TailEditor}; when a different line arrives the
+ * counter is finalised in order ahead of it.
+ */
+public class DisplayPipeline {
+    /** What the display does while overloaded */
+    public enum OverloadPolicy {
+        /** Show every Nth line */
+        SAMPLE,
+        /** Replace lines with a count per frame */
+        SUMMARIZE,
+        /** Show nothing until caught up */
+        PAUSE
+    }
+
+    /**
+     * Rewrites the end of the display, for the live repeat counter.
+     */
+    public interface TailEditor {
+        /**
+         * Replaces text at the end of the display.
+         *
+         * @param oldText Text expected at the very end
+         * @param newText Replacement
+         * @return False if the display no longer ends with oldText (nothing is changed)
+         */
+        boolean replaceTail(String oldText, String newText);
+    }
+
+    /** Ends a run of repeats; queued ahead of the line that broke the run */
+    private record RunEnd(long runId, long count, long firstMillis, long lastMillis) {
+    }
+
+    private static final int FRAME_INTERVAL_MS = 33;
+    private static final int MAX_CHARS_PER_FRAME = 256 * 1024;
+    private static final DateTimeFormatter TIME_FORMAT =
+        DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    /** Lines (String) and run ends (RunEnd) in display order */
+    private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicLong droppedLines = new AtomicLong();
+    private final AtomicLong summarizedLines = new AtomicLong();
+    private final AtomicLong pendingSummaryLines = new AtomicLong();
+    private final AtomicLong pendingSummaryChars = new AtomicLong();
+    private final AtomicLong collapsedLines = new AtomicLong();
+    private final Consumer<String> sink;
+    private final TailEditor tailEditor;
+    private final Timer drainTimer;
+    private volatile Runnable frameTask = () -> {};
+
+    private volatile OverloadPolicy policy = OverloadPolicy.SAMPLE;
+    private volatile int sampleEvery = 10;
+    private volatile int highWatermark = 2000;
+    private volatile int lowWatermark = 500;
+    private volatile boolean degraded = false;
+    private volatile boolean collapseRepeats = false;
+    private long sampleCounter = 0;
+    // Current run of repeats, guarded by repeatLock; written by offering threads
+    private final Object repeatLock = new Object();
+    private String runLine;
+    private int runKeyOffset;
+    private int runHash;
+    private long runId = 0;
+    private long runCount = 0;
+    private long runFirstMillis;
+    private long runLastMillis;
+    // Live counter at the end of the display; EDT only
+    private long shownRunId = -1;
+    private String shownCounter;
+
+    /**
+     * Creates a new DisplayPipeline without in-place repeat counters. The drain
+     * timer starts immediately.
+     *
+     * @param sink Receives batches of text on the EDT (normally the output area's append)
+     */
+    public DisplayPipeline(Consumer<String> sink) {
+        this(sink, null);
+    }
+
+    /**
+     * Creates a new DisplayPipeline. The drain timer starts immediately.
+     *
+     * @param sink Receives batches of text on the EDT (normally the output area's append)
+     * @param tailEditor Updates the live repeat counter in place, or null to
+     *                   show repeat counts only when a run ends
+     */
+    public DisplayPipeline(Consumer<String> sink, TailEditor tailEditor) {
+        this.sink = sink;
+        this.tailEditor = tailEditor;
+        this.drainTimer = new Timer(FRAME_INTERVAL_MS, e -> drain());
+        this.drainTimer.start();
+    }
+
+    /**
+     * Turns collapsing of consecutive identical messages on or off.
+     *
+     * @param collapse True to collapse repeats into a counter
+     */
+    public void setCollapseRepeats(boolean collapse) {
+        this.collapseRepeats = collapse;
+    }
+
+    /**
+     * Sets work to run on the EDT at the start of every display frame, e.g.
+     * flushing a partial line that has waited long enough.
+     *
+     * @param task The task
+     */
+    public void setFrameTask(Runnable task) {
+        this.frameTask = task;
+    }
+
+    /**
+     * Sets the overload policy.
+     *
+     * @param policy What to do while overloaded
+     * @param sampleEvery For SAMPLE, show one line out of this many
+     */
+    public void setPolicy(OverloadPolicy policy, int sampleEvery) {
+        this.policy = policy;
+        this.sampleEvery = Math.max(2, sampleEvery);
+    }
+
+    /**
+     * Sets the backlog thresholds.
+     *
+     * @param high Backlog (lines) at which the display degrades
+     * @param low Backlog (lines) at which it recovers
+     */
+    public void setWatermarks(int high, int low) {
+        this.highWatermark = Math.max(1, high);
+        this.lowWatermark = Math.max(0, Math.min(low, this.highWatermark - 1));
+    }
+
+    /**
+     * Offers a line for display. Called from the receive thread. The line is
+     * never collapsed and ends any run of repeats.
+     *
+     * @param line Formatted text including its line terminator
+     */
+    public void offer(String line) {
+        offer(line, -1, 0);
+    }
+
+    /**
+     * Offers a line that may repeat the previous one. Called from the receive thread.
+     *
+     * @param line Formatted text including its line terminator
+     * @param keyOffset Where the message starts (after the timestamp); only
+     *                  this part is compared, or -1 to never collapse
+     * @param timeMillis Time of the line, for the counter's first/last times
+     */
+    public void offer(String line, int keyOffset, long timeMillis) {
+        boolean collapsible = collapseRepeats && keyOffset >= 0;
+        int hash = collapsible ? hash(line, keyOffset) : 0;
+        synchronized (repeatLock) {
+            if (collapsible && runLine != null && hash == runHash
+                && line.length() - keyOffset == runLine.length() - runKeyOffset
+                && line.regionMatches(keyOffset, runLine, runKeyOffset, line.length() - keyOffset)) {
+                runCount++;
+                runLastMillis = timeMillis;
+                collapsedLines.incrementAndGet();
+                return;
+            }
+            if (runCount > 1) {
+                enqueue(new RunEnd(runId, runCount, runFirstMillis, runLastMillis));
+            }
+            runId++;
+            runLine = collapsible ? line : null;
+            runKeyOffset = keyOffset;
+            runHash = hash;
+            runCount = 1;
+            runFirstMillis = timeMillis;
+            runLastMillis = timeMillis;
+            admit(line);
+        }
+    }
+
+    /**
+     * Offers a line that is always shown, even while the display is degraded:
+     * sent data and connection notices. It appears after everything offered
+     * before it, including a pending "not shown" summary, and ends any run of
+     * repeats. Called from any thread.
+     *
+     * @param line Formatted text including its line terminator
+     */
+    public void offerStatus(String line) {
+        synchronized (repeatLock) {
+            if (runCount > 1) {
+                enqueue(new RunEnd(runId, runCount, runFirstMillis, runLastMillis));
+            }
+            runId++;
+            runLine = null;
+            runCount = 0;
+            long summaryLines = pendingSummaryLines.getAndSet(0);
+            if (summaryLines > 0) {
+                enqueue(summaryText(summaryLines, pendingSummaryChars.getAndSet(0)));
+            }
+            enqueue(line);
+        }
+    }
+
+    private static int hash(String line, int offset) {
+        int h = 0;
+        for (int i = offset; i < line.length(); i++) {
+            h = 31 * h + line.charAt(i);
+        }
+        return h;
+    }
+
+    private void admit(String line) {
+        int backlog = depth.get();
+        if (!degraded && backlog >= highWatermark) {
+            degraded = true;
+            enqueue("[display overloaded, " + describePolicy() + "]\n");
+        } else if (degraded && backlog <= lowWatermark) {
+            degraded = false;
+            enqueue("[display caught up, showing all data]\n");
+        }
+        if (!degraded) {
+            enqueue(line);
+            return;
+        }
+        switch (policy) {
+            case SAMPLE -> {
+                if (++sampleCounter % sampleEvery == 0) {
+                    enqueue(line);
+                } else {
+                    droppedLines.incrementAndGet();
+                }
+            }
+            case SUMMARIZE -> {
+                summarizedLines.incrementAndGet();
+                pendingSummaryLines.incrementAndGet();
+                pendingSummaryChars.addAndGet(line.length());
+            }
+            case PAUSE -> droppedLines.incrementAndGet();
+        }
+    }
+
+    private void enqueue(Object item) {
+        queue.add(item);
+        depth.incrementAndGet();
+    }
+
+    private String describePolicy() {
+        return switch (policy) {
+            case SAMPLE -> "showing 1 of every " + sampleEvery + " lines";
+            case SUMMARIZE -> "summarizing";
+            case PAUSE -> "display paused";
+        };
+    }
+
+    /**
+     * Moves up to one frame's worth of queued text to the sink. Runs on the EDT.
+     */
+    void drain() {
+        frameTask.run();
+        var event = new DataPathEvents.DisplayAppend();
+        event.begin();
+        StringBuilder batch = null;
+        int lines = 0;
+        Object item;
+        while ((batch == null || batch.length() < MAX_CHARS_PER_FRAME) && (item = queue.poll()) != null) {
+            depth.decrementAndGet();
+            String line;
+            if (item instanceof RunEnd end) {
+                line = repeatText(end.count(), end.firstMillis(), end.lastMillis());
+                boolean counterAtTail = batch == null && shownRunId == end.runId();
+                shownRunId = -1;
+                if (counterAtTail && tailEditor.replaceTail(shownCounter, line)) {
+                    continue;
+                }
+            } else {
+                line = (String) item;
+                lines++;
+            }
+            if (batch == null) {
+                batch = new StringBuilder(Math.max(line.length(), 1024));
+            }
+            batch.append(line);
+        }
+        long summaryLines = pendingSummaryLines.getAndSet(0);
+        if (summaryLines > 0) {
+            long summaryChars = pendingSummaryChars.getAndSet(0);
+            if (batch == null) {
+                batch = new StringBuilder();
+            }
+            batch.append(summaryText(summaryLines, summaryChars));
+        }
+        if (batch != null) {
+            sink.accept(batch.toString());
+            shownRunId = -1;
+            event.end();
+            if (event.shouldCommit()) {
+                event.lines = lines;
+                event.chars = batch.length();
+                event.backlog = depth.get();
+                event.commit();
+            }
+        }
+        if (tailEditor != null) {
+            updateLiveCounter();
+        }
+    }
+
+    /**
+     * Shows or refreshes the counter of the run in progress once its first
+     * line is on screen.
+     */
+    private void updateLiveCounter() {
+        long id;
+        String text;
+        synchronized (repeatLock) {
+            if (runCount < 2 || !queue.isEmpty()) {
+                return;
+            }
+            id = runId;
+            text = repeatText(runCount, runFirstMillis, runLastMillis);
+        }
+        if (id == shownRunId) {
+            if (text.equals(shownCounter) || tailEditor.replaceTail(shownCounter, text)) {
+                shownCounter = text;
+                return;
+            }
+        }
+        sink.accept(text);
+        shownRunId = id;
+        shownCounter = text;
+    }
+
+    private static String summaryText(long lines, long chars) {
+        return String.format("[%,d lines (%,d chars) not shown]%n", lines, chars);
+    }
+
+    private static String repeatText(long count, long firstMillis, long lastMillis) {
+        return String.format("    \u00d7%,d (%s\u2026%s)%n", count,
+            TIME_FORMAT.format(Instant.ofEpochMilli(firstMillis)), TIME_FORMAT.format(Instant.ofEpochMilli(lastMillis)));
+    }
+
+    /**
+     * Discards queued lines, e.g. when the output is cleared.
+     */
+    public void clear() {
+        synchronized (repeatLock) {
+            while (queue.poll() != null) {
+                depth.decrementAndGet();
+            }
+            runLine = null;
+            runCount = 0;
+        }
+        shownRunId = -1;
+    }
+
+    /**
+     * Stops the drain timer.
+     */
+    public void stop() {
+        drainTimer.stop();
+    }
+
+    /**
+     * Gets the number of lines waiting for the display.
+     *
+     * @return Backlog in lines
+     */
+    public int getQueueDepth() {
+        return depth.get();
+    }
+
+    /**
+     * Checks whether the display is currently degraded.
+     *
+     * @return True while overloaded
+     */
+    public boolean isDegraded() {
+        return degraded;
+    }
+
+    /**
+     * Gets the number of lines never shown because of SAMPLE or PAUSE.
+     *
+     * @return Dropped line count
+     */
+    public long getDroppedLines() {
+        return droppedLines.get();
+    }
+
+    /**
+     * Gets the number of repeated lines folded into counters.
+     *
+     * @return Collapsed line count
+     */
+    public long getCollapsedLines() {
+        return collapsedLines.get();
+    }
+
+    /**
+     * Gets the number of lines replaced by summaries.
+     *
+     * @return Summarized line count
+     */
+    public long getSummarizedLines() {
+        return summarizedLines.get();
+    }
+}
@@ -0,0 +1,325 @@
+package com.gpoole.serialgui;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+/**
+ * Detects stalls of the Swing event dispatch thread and keeps latency figures
+ * for it, so "the app hangs under load" reports come with evidence.
+ *
+ * A watchdog thread posts a heartbeat to the EDT every interval and measures
+ * how late it runs. A heartbeat that is still pending after the stall
+ * threshold means the EDT is stuck: the EDT's stack and the registered queue
+ * depths are logged once per stall, and again (briefly) when it recovers.
+ *
+ * Features:
+ * - Heartbeat lateness histogram (how long queued work waits for the EDT)
+ * - Dispatch time histogram of every AWT event, via a pushed EventQueue
+ * - Per-operation histograms recorded by callers, e.g. search and export
+ * - Stall count and longest stall
+ *
+ * Usage:
+ * - Register queue depths with withQueueDepth(), then start()
+ * - Call record() with the duration of expensive EDT work
+ * - getReport() for a text summary; stop() when the UI closes
+ */
+public class EdtWatchdog {
+    private static final Logger logger = LoggerFactory.getLogger(EdtWatchdog.class);
+    /** Default time between heartbeats */
+    public static final long DEFAULT_INTERVAL_MS = 100;
+    /** Default heartbeat lateness that counts as a stall */
+    public static final long DEFAULT_STALL_THRESHOLD_MS = 1000;
+    private static final int MAX_STACK_FRAMES = 40;
+
+    /**
+     * A stall as reported to the stall callback.
+     *
+     * @param lateNanos How long the heartbeat had been pending when the stall was detected
+     * @param queues Queue depths at that moment, e.g. "display=1200, capture=0"
+     * @param stack The EDT's stack at that moment, empty if not yet known
+     */
+    public record Stall(long lateNanos, String queues, StackTraceElement[] stack) {
+    }
+
+    private record QueueDepth(String name, IntSupplier depth) {
+    }
+
+    private final LatencyHistogram heartbeatLatency = new LatencyHistogram();
+    private final LatencyHistogram dispatchTime = new LatencyHistogram();
+    private final Map<String, LatencyHistogram> operations = new ConcurrentSkipListMap<>();
+    private final List<QueueDepth> queueDepths = new CopyOnWriteArrayList<>();
+    private final Runnable heartbeat = this::heartbeat;
+    private Consumer<Stall> onStall = stall -> {};
+    private long intervalMs = DEFAULT_INTERVAL_MS;
+    private long stallThresholdNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_STALL_THRESHOLD_MS);
+    private ScheduledExecutorService scheduler;
+    private TimingEventQueue timingQueue;
+    private volatile Thread edtThread;
+    /** When the pending heartbeat was posted, or 0 if none is pending */
+    private volatile long pendingSinceNanos = 0;
+    private volatile long lastLateNanos = 0;
+    /** Only touched by the watchdog thread */
+    private boolean inStall = false;
+    private volatile long stallCount = 0;
+    private volatile long longestStallNanos = 0;
+
+    /**
+     * Adds a queue whose depth is logged with each stall.
+     *
+     * @param name Short name for the log, e.g. "display"
+     * @param depth Supplies the current depth; called from the watchdog thread
+     * @return This watchdog for method chaining
+     */
+    public EdtWatchdog withQueueDepth(String name, IntSupplier depth) {
+        queueDepths.add(new QueueDepth(name, depth));
+        return this;
+    }
+
+    /**
+     * Sets the callback for detected stalls. It runs on the watchdog thread.
+     *
+     * @param callback Receives each stall once, when it crosses the threshold
+     * @return This watchdog for method chaining
+     */
+    public EdtWatchdog onStall(Consumer<Stall> callback) {
+        this.onStall = callback;
+        return this;
+    }
+
+    /**
+     * Sets the heartbeat interval. Takes effect on the next start().
+     *
+     * @param intervalMs Milliseconds between heartbeats
+     */
+    public void setIntervalMs(long intervalMs) {
+        this.intervalMs = Math.max(1, intervalMs);
+    }
+
+    /**
+     * Sets how late a heartbeat must be to count as a stall.
+     *
+     * @param thresholdMs Stall threshold in milliseconds
+     */
+    public void setStallThresholdMs(long thresholdMs) {
+        this.stallThresholdNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, thresholdMs));
+    }
+
+    /**
+     * Starts the heartbeat and installs the dispatch timer on the system event queue.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        timingQueue = new TimingEventQueue(dispatchTime);
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(timingQueue);
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread t = new Thread(runnable, "edt-watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleAtFixedRate(this::tick, 0, intervalMs, TimeUnit.MILLISECONDS);
+        logger.debug("EDT watchdog started ({} ms interval, {} ms threshold)",
+            intervalMs, TimeUnit.NANOSECONDS.toMillis(stallThresholdNanos));
+    }
+
+    /**
+     * Stops the heartbeat and removes the dispatch timer.
+     */
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        scheduler = null;
+        timingQueue.uninstall();
+        timingQueue = null;
+        pendingSinceNanos = 0;
+    }
+
+    /**
+     * Runs on the watchdog thread: posts a heartbeat, or checks the pending one.
+     */
+    private void tick() {
+        long pending = pendingSinceNanos;
+        if (pending == 0) {
+            if (inStall) {
+                inStall = false;
+                logger.warn("EDT responsive again after {} ms", TimeUnit.NANOSECONDS.toMillis(lastLateNanos));
+            }
+            pendingSinceNanos = System.nanoTime();
+            EventQueue.invokeLater(heartbeat);
+            return;
+        }
+        long late = System.nanoTime() - pending;
+        if (late >= stallThresholdNanos && !inStall) {
+            inStall = true;
+            stallCount++;
+            Thread edt = edtThread;
+            var stall = new Stall(late, describeQueues(),
+                edt != null ? edt.getStackTrace() : new StackTraceElement[0]);
+            logger.warn("EDT stalled for {} ms (queues: {})\n{}",
+                TimeUnit.NANOSECONDS.toMillis(late), stall.queues(), formatStack(stall.stack()));
+            onStall.accept(stall);
+        }
+    }
+
+    /**
+     * Runs on the EDT.
+     */
+    private void heartbeat() {
+        edtThread = Thread.currentThread();
+        long late = System.nanoTime() - pendingSinceNanos;
+        heartbeatLatency.record(late);
+        lastLateNanos = late;
+        if (late >= stallThresholdNanos) {
+            longestStallNanos = Math.max(longestStallNanos, late);
+        }
+        pendingSinceNanos = 0;
+    }
+
+    private String describeQueues() {
+        var out = new StringBuilder();
+        for (QueueDepth queue : queueDepths) {
+            if (!out.isEmpty()) {
+                out.append(", ");
+            }
+            out.append(queue.name()).append('=');
+            try {
+                out.append(queue.depth().getAsInt());
+            } catch (RuntimeException ex) {
+                out.append('?');
+            }
+        }
+        return out.toString();
+    }
+
+    private static String formatStack(StackTraceElement[] stack) {
+        var out = new StringBuilder();
+        int frames = Math.min(stack.length, MAX_STACK_FRAMES);
+        for (int i = 0; i < frames; i++) {
+            out.append("\tat ").append(stack[i]).append('\n');
+        }
+        if (stack.length > frames) {
+            out.append("\t... ").append(stack.length - frames).append(" more\n");
+        }
+        return out.toString();
+    }
+
+    /**
+     * Records the duration of an operation that ran on the EDT.
+     *
+     * @param operation Operation name, e.g. "exportAsJSON"
+     * @param nanos Duration in nanoseconds
+     */
+    public void record(String operation, long nanos) {
+        operations.computeIfAbsent(operation, name -> new LatencyHistogram()).record(nanos);
+    }
+
+    /**
+     * Gets the heartbeat lateness histogram.
+     *
+     * @return Copy of the histogram
+     */
+    public LatencyHistogram getHeartbeatLatency() {
+        return heartbeatLatency.copy();
+    }
+
+    /**
+     * Gets the AWT event dispatch time histogram.
+     *
+     * @return Copy of the histogram
+     */
+    public LatencyHistogram getDispatchTime() {
+        return dispatchTime.copy();
+    }
+
+    /**
+     * Gets the histogram of a recorded operation.
+     *
+     * @param operation Operation name
+     * @return Copy of the histogram, or null if the operation was never recorded
+     */
+    public LatencyHistogram getOperation(String operation) {
+        LatencyHistogram histogram = operations.get(operation);
+        return histogram != null ? histogram.copy() : null;
+    }
+
+    /**
+     * Gets the number of stalls detected.
+     *
+     * @return Stall count
+     */
+    public long getStallCount() {
+        return stallCount;
+    }
+
+    /**
+     * Gets the longest stall seen so far.
+     *
+     * @return Longest heartbeat lateness above the threshold, in nanoseconds
+     */
+    public long getLongestStallNanos() {
+        return longestStallNanos;
+    }
+
+    /**
+     * Formats the stall count and latency percentiles as text.
+     *
+     * @return One line per histogram, in milliseconds
+     */
+    public String getReport() {
+        var out = new StringBuilder();
+        out.append(String.format("Stalls (> %d ms): %d, longest %.1f ms%n%n",
+            TimeUnit.NANOSECONDS.toMillis(stallThresholdNanos), stallCount, longestStallNanos / 1e6));
+        out.append(String.format("%-22s %9s %9s %9s %9s %9s%n", "", "count", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        appendRow(out, "Heartbeat lateness", heartbeatLatency.copy());
+        appendRow(out, "Event dispatch", dispatchTime.copy());
+        operations.forEach((name, histogram) -> appendRow(out, name, histogram.copy()));
+        return out.toString();
+    }
+
+    private static void appendRow(StringBuilder out, String name, LatencyHistogram histogram) {
+        out.append(String.format("%-22s %9d %9.2f %9.2f %9.2f %9.2f%n", name, histogram.getTotalCount(),
+            histogram.getValueAtPercentile(50) / 1e6, histogram.getValueAtPercentile(99) / 1e6,
+            histogram.getValueAtPercentile(99.9) / 1e6, histogram.getMax() / 1e6));
+    }
+
+    /**
+     * Event queue that times every dispatched event.
+     */
+    private static final class TimingEventQueue extends EventQueue {
+        private final LatencyHistogram dispatchTime;
+
+        TimingEventQueue(LatencyHistogram dispatchTime) {
+            this.dispatchTime = dispatchTime;
+        }
+
+        @Override
+        protected void dispatchEvent(AWTEvent event) {
+            long start = System.nanoTime();
+            try {
+                super.dispatchEvent(event);
+            } finally {
+                dispatchTime.record(System.nanoTime() - start);
+            }
+        }
+
+        void uninstall() {
+            pop();
+        }
+    }
+}
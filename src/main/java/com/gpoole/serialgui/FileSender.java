@@ -0,0 +1,418 @@
+package com.gpoole.serialgui;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Streams a file to the serial port from a background thread.
+ *
+ * The file is read through a {@link FileChannel} into one reusable chunk
+ * buffer, so memory use does not depend on the file size and multi-GB files
+ * can be sent. jssc only writes whole byte arrays, so a short final chunk (or
+ * a line in line mode) is copied; full chunks are written straight from the
+ * reused buffer.
+ *
+ * Pacing modes:
+ * - FLOW_CONTROL: chunks are written back to back and the driver blocks when
+ *   its transmit buffer is full, so the pace is set by the baud rate and by
+ *   RTS/CTS or XON/XOFF if the device uses them
+ * - DELAY: a fixed pause after every chunk, for devices without flow control
+ *   that need time to digest input
+ * - LINE_ECHO: one line at a time, waiting until the device echoes a line end
+ *   (or a timeout passes) before sending the next, for consoles and bootloaders
+ *   that process input line by line
+ *
+ * Usage:
+ * - Configure with the with...() methods, then call start()
+ * - Poll getProgress(), getThroughputBytesPerSecond() and getEtaSeconds()
+ *   while isRunning(); getSummary() describes the result
+ * - Call stop() to cancel
+ */
+public class FileSender {
+    private static final Logger logger = LoggerFactory.getLogger(FileSender.class);
+    /** Default chunk size; small enough for progress to move smoothly at 9600 baud */
+    public static final int DEFAULT_CHUNK_SIZE = 256;
+
+    /**
+     * How sends are paced.
+     */
+    public enum Pacing {
+        FLOW_CONTROL("Flow control / as fast as the port accepts"),
+        DELAY("Fixed delay between chunks"),
+        LINE_ECHO("Line by line, wait for echo");
+
+        private final String description;
+
+        Pacing(String description) {
+            this.description = description;
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+
+    private final SerialCommunicationManager commManager;
+    private final Path file;
+    private final Pacing pacing;
+    private final Consumer<SerialChunk> receiveListener;
+    private final Semaphore echoedLines = new Semaphore(0);
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private int chunkDelayMs = 10;
+    private int echoTimeoutMs = 1000;
+    private Thread senderThread;
+    private volatile boolean running = false;
+    private volatile boolean completed = false;
+    private volatile long totalBytes = 0;
+    private volatile long bytesSent = 0;
+    private volatile long linesSent = 0;
+    private volatile long echoTimeouts = 0;
+    private volatile long startNanos = 0;
+    private volatile long stopNanos = 0;
+    private volatile String failure;
+
+    /**
+     * Creates a new FileSender.
+     *
+     * @param commManager The connection to send through
+     * @param file The file to send
+     * @param pacing How to pace the sends
+     */
+    public FileSender(SerialCommunicationManager commManager, Path file, Pacing pacing) {
+        this.commManager = commManager;
+        this.file = file;
+        this.pacing = pacing;
+        this.receiveListener = chunk -> {
+            int lineEnds = 0;
+            for (byte b : chunk.data()) {
+                if (b == '\n' || b == '\r') {
+                    lineEnds++;
+                }
+            }
+            if (lineEnds > 0) {
+                echoedLines.release(lineEnds);
+            }
+        };
+    }
+
+    /**
+     * Sets the number of bytes read and written at a time.
+     *
+     * @param chunkSize Bytes per write
+     * @return This instance for method chaining
+     */
+    public FileSender withChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * Sets the pause after each chunk in DELAY mode.
+     *
+     * @param chunkDelayMs Delay in milliseconds
+     * @return This instance for method chaining
+     */
+    public FileSender withChunkDelayMs(int chunkDelayMs) {
+        this.chunkDelayMs = Math.max(0, chunkDelayMs);
+        return this;
+    }
+
+    /**
+     * Sets how long LINE_ECHO mode waits for the echo of a line before sending the next.
+     *
+     * @param echoTimeoutMs Timeout in milliseconds
+     * @return This instance for method chaining
+     */
+    public FileSender withEchoTimeoutMs(int echoTimeoutMs) {
+        this.echoTimeoutMs = Math.max(1, echoTimeoutMs);
+        return this;
+    }
+
+    /**
+     * Opens the file and starts sending.
+     *
+     * @throws IOException If the file cannot be opened
+     */
+    public synchronized void start() throws IOException {
+        if (running) {
+            throw new IllegalStateException("File send already running");
+        }
+        if (!commManager.isConnected()) {
+            throw new IllegalStateException("Not connected to any port");
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        totalBytes = channel.size();
+        bytesSent = 0;
+        linesSent = 0;
+        echoTimeouts = 0;
+        failure = null;
+        completed = false;
+        startNanos = System.nanoTime();
+        stopNanos = 0;
+        running = true;
+        if (pacing == Pacing.LINE_ECHO) {
+            echoedLines.drainPermits();
+            commManager.addReceiveListener(receiveListener);
+        }
+        senderThread = new Thread(() -> sendLoop(channel), "file-sender");
+        senderThread.setDaemon(true);
+        senderThread.start();
+        logger.info("Sending {} ({} bytes) to {}, pacing {}", file, totalBytes, commManager.getPortName(), pacing.name());
+    }
+
+    private void sendLoop(FileChannel channel) {
+        try (channel) {
+            if (pacing == Pacing.LINE_ECHO) {
+                sendLines(channel);
+            } else {
+                sendChunks(channel);
+            }
+            completed = running;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ex) {
+            if (!running) {
+                // stop() interrupted a read (ClosedByInterruptException): a cancel, not a failure
+                return;
+            }
+            failure = ex.getMessage() != null ? ex.getMessage() : ex.toString();
+            logger.warn("File send stopped: {}", failure);
+        } finally {
+            running = false;
+            stopNanos = System.nanoTime();
+            commManager.removeReceiveListener(receiveListener);
+            logger.info("File send finished: {}", getSummary().replace('\n', ' '));
+        }
+    }
+
+    private void sendChunks(FileChannel channel) throws Exception {
+        byte[] chunk = new byte[chunkSize];
+        ByteBuffer buffer = ByteBuffer.wrap(chunk);
+        while (running) {
+            buffer.clear();
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // fill the chunk unless the file ends
+            }
+            int length = buffer.position();
+            if (length == 0) {
+                return;
+            }
+            commManager.sendBytes(length == chunk.length ? chunk : Arrays.copyOf(chunk, length));
+            bytesSent += length;
+            if (pacing == Pacing.DELAY && chunkDelayMs > 0 && bytesSent < totalBytes) {
+                Thread.sleep(chunkDelayMs);
+            }
+        }
+    }
+
+    private void sendLines(FileChannel channel) throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(chunkSize);
+        boolean endOfFile = false;
+        while (running) {
+            if (!endOfFile && buffer.hasRemaining()) {
+                endOfFile = channel.read(buffer) < 0;
+            }
+            buffer.flip();
+            if (!buffer.hasRemaining()) {
+                return;
+            }
+            int end = lineEnd(buffer);
+            if (end < 0 && !endOfFile && buffer.limit() < buffer.capacity()) {
+                // partial line, read more before deciding
+                buffer.compact();
+                continue;
+            }
+            // A line longer than the chunk size is sent in chunk-sized pieces
+            int length = end >= 0 ? end - buffer.position() : buffer.remaining();
+            byte[] line = new byte[length];
+            buffer.get(line);
+            buffer.compact();
+            echoedLines.drainPermits();
+            commManager.sendBytes(line);
+            bytesSent += length;
+            if (end >= 0) {
+                linesSent++;
+                if (!echoedLines.tryAcquire(echoTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    echoTimeouts++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the end of the first line, including its terminator (LF or CRLF).
+     *
+     * @return Index just past the line end, or -1 if the buffer holds no line end
+     */
+    private static int lineEnd(ByteBuffer buffer) {
+        for (int i = buffer.position(); i < buffer.limit(); i++) {
+            if (buffer.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Cancels the send and waits briefly for the sender thread to finish.
+     */
+    public synchronized void stop() {
+        if (senderThread == null) {
+            return;
+        }
+        running = false;
+        senderThread.interrupt();
+        try {
+            senderThread.join(2000);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        senderThread = null;
+    }
+
+    /**
+     * Checks whether the send is in progress.
+     *
+     * @return True while sending
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Checks whether the whole file was sent.
+     *
+     * @return True once the last byte has been written
+     */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * Gets the reason the send stopped early.
+     *
+     * @return Error message, or null if none
+     */
+    public String getFailure() {
+        return failure;
+    }
+
+    /**
+     * Gets the file size.
+     *
+     * @return Bytes to send
+     */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Gets the number of bytes written so far.
+     *
+     * @return Bytes sent
+     */
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    /**
+     * Gets the number of complete lines sent in LINE_ECHO mode.
+     *
+     * @return Lines sent
+     */
+    public long getLinesSent() {
+        return linesSent;
+    }
+
+    /**
+     * Gets the number of lines in LINE_ECHO mode whose echo did not arrive in time.
+     *
+     * @return Echo timeouts
+     */
+    public long getEchoTimeouts() {
+        return echoTimeouts;
+    }
+
+    /**
+     * Gets the fraction of the file sent.
+     *
+     * @return 0 to 1
+     */
+    public double getProgress() {
+        long total = totalBytes;
+        return total > 0 ? Math.min(1.0, (double) bytesSent / total) : (completed ? 1.0 : 0.0);
+    }
+
+    /**
+     * Gets the time since the send started.
+     *
+     * @return Seconds, up to the end of the send once finished
+     */
+    public double getElapsedSeconds() {
+        if (startNanos == 0) {
+            return 0;
+        }
+        long end = stopNanos != 0 ? stopNanos : System.nanoTime();
+        return (end - startNanos) / 1e9;
+    }
+
+    /**
+     * Gets the average send rate.
+     *
+     * @return Bytes per second
+     */
+    public double getThroughputBytesPerSecond() {
+        double elapsed = getElapsedSeconds();
+        return elapsed > 0 ? bytesSent / elapsed : 0;
+    }
+
+    /**
+     * Estimates the time left at the average rate so far.
+     *
+     * @return Seconds, or -1 if not yet known
+     */
+    public long getEtaSeconds() {
+        double rate = getThroughputBytesPerSecond();
+        if (!running) {
+            return completed ? 0 : -1;
+        }
+        return rate > 0 ? Math.round((totalBytes - bytesSent) / rate) : -1;
+    }
+
+    /**
+     * Formats progress and results.
+     *
+     * @return Human readable summary
+     */
+    public String getSummary() {
+        var out = new StringBuilder();
+        out.append(String.format("%s: %,d of %,d bytes (%.1f%%) in %.1f s, %.0f B/s",
+            file.getFileName(), bytesSent, totalBytes, getProgress() * 100, getElapsedSeconds(),
+            getThroughputBytesPerSecond()));
+        long eta = getEtaSeconds();
+        if (running && eta >= 0) {
+            out.append(String.format(", ETA %d:%02d", eta / 60, eta % 60));
+        }
+        if (pacing == Pacing.LINE_ECHO) {
+            out.append(String.format("\n%,d lines, %,d echo timeouts", linesSent, echoTimeouts));
+        }
+        if (!running && startNanos != 0) {
+            out.append(completed ? "\nCompleted" : failure != null ? "\nFailed: " + failure : "\nCancelled");
+        }
+        return out.toString();
+    }
+}
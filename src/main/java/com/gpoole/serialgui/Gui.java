@@ -6,22 +6,32 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
 import javax.swing.text.BadLocationException;
 import javax.swing.text.DefaultHighlighter;
 import javax.swing.text.Highlighter;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.function.Function;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Main GUI window for serial communication application.
@@ -29,9 +39,25 @@ import java.util.concurrent.TimeUnit;
  * Provides a complete serial communication interface with:
  * - Port selection and connection management
  * - Real-time data display with timestamps and formatting options
- * - Text input with command history navigation
+ * - Text input with persistent command history and Ctrl+R reverse search
+ * - Streamed file send with pacing, progress and ETA
+ * - XMODEM/YMODEM transfers that borrow the port from the log
  * - Search/filter functionality
  * - CSV/JSON export capabilities
+ * - Live plotting of numeric telemetry fields
+ * - Hex dump viewer over the raw received bytes
+ * - Modbus RTU frame decoder timed from byte arrival
+ * - GNSS status decoded from NMEA 0183 sentences
+ * - Lossless capture to file with a display that degrades under overload
+ * - Consecutive identical lines collapsed into a live repeat counter
+ * - pcapng capture and session export for Wireshark, with direction and
+ *   microsecond timestamps per chunk
+ * - Round-trip latency test against an echoing device
+ * - PRBS throughput and bit-error-rate test over a loopback
+ * - TCP bridge sharing the open port with other tools
+ * - JMX MBean and optional Prometheus endpoint for connection metrics
+ * - Fast startup: the window is shown before ports are enumerated, with
+ *   phase timings logged once startup completes
  * - Configuration persistence
  * - Performance metrics and connection status indicator
  * 
@@ -40,6 +66,11 @@ import java.util.concurrent.TimeUnit;
  */
 public class Gui extends JFrame {
     private static final Logger logger = LoggerFactory.getLogger(Gui.class);
+    private static final String CDS_TRAINING_PROPERTY = "serialtalker.cdsTraining";
+    /** How long a received line without a line end waits for the rest before it is shown */
+    private static final long PARTIAL_LINE_HOLD_NANOS = 50_000_000L;
+    /** Characters of held scroll-lock output returned to the display per frame */
+    private static final int HELD_OUTPUT_CHARS_PER_FRAME = 64 * 1024;
     
     private final JTextArea outputArea;
     private final JComboBox<String> portsDropdown;
@@ -47,23 +78,69 @@ public class Gui extends JFrame {
     private final JTextField messageInput;
     private JLabel connectionStatusLabel;
     private boolean autoNegotiateSpeed = false;
+    private boolean autoReconnect = false;
+    private volatile boolean collapseRepeats = true;
+    private int stallTimeoutMs = 0;
     private boolean noPortsWarningShown = false;
     private int baudRate = 9600;
     private int dataBits = SerialPort.DATABITS_8;
     private int stopBits = SerialPort.STOPBITS_1;
     private int parity = SerialPort.PARITY_NONE;
     private final ScheduledExecutorService portUpdater;
+    private final ScheduledExecutorService statusUpdater;
+    private final StartupTimer startupTimer;
     private final Supplier<String[]> portProvider;
-    private final Consumer<String> errorHandler;
     private final Function<String, SerialPort> serialPortFactory;
+    private final Consumer<String> errorHandler;
     private final MessageFormatter messageFormatter;
     private final ConfigurationManager config;
     private final SerialCommunicationManager commManager;
+    private final ConnectionSupervisor supervisor;
+    /** Connect in progress on the connect worker, or null */
+    private CompletableFuture<Integer> pendingConnect;
+    private final SerialTcpBridge tcpBridge;
+    private final SerialPortMetrics metrics;
+    private final MetricsHttpServer metricsServer = new MetricsHttpServer();
+    private final EdtWatchdog edtWatchdog = new EdtWatchdog();
+    private int metricsPort = 0;
     private final StatusLED statusLED;
-    private boolean scrollLocked = false;
+    private volatile boolean scrollLocked = false;
     private JLabel statusLabel;
     private final CommandHistory commandHistory;
-    private final StringBuilder bufferedMessages = new StringBuilder();
+    /** Output held back while scroll lock is on, and until it has been shown again */
+    private final SpillBuffer heldOutput = new SpillBuffer("serial-held-");
+    /** Splits received text into lines for repeat collapsing; guarded by itself */
+    private final LineAssembler displayLines = new LineAssembler(this::offerReceivedLine);
+    private long displayPartialSinceNanos;
+    private volatile TelemetryExtractor telemetryExtractor;
+    private JFrame plotWindow;
+    private final ByteCapture rxCapture;
+    private final ByteCapture txCapture;
+    private volatile PcapngWriter pcapngWriter;
+    private JMenuItem pcapngMenuItem;
+    private final DisplayPipeline displayPipeline;
+    private volatile CaptureWriter captureWriter;
+    private JMenuItem captureMenuItem;
+    private DisplayPipeline.OverloadPolicy overloadPolicy = DisplayPipeline.OverloadPolicy.SAMPLE;
+    private int overloadSampleEvery = 10;
+    private int overloadHighWatermark = 2000;
+    private JFrame hexWindow;
+    private JFrame latencyWindow;
+    private JFrame prbsWindow;
+    private JFrame sendFileWindow;
+    private JFrame modemWindow;
+    private JFrame modbusWindow;
+    private JFrame nmeaWindow;
+    private JFrame responsivenessWindow;
+    private JFrame scanWindow;
+    private JMenuItem bridgeMenuItem;
+    private JDialog searchDialog;
+    private JLabel messageLabel;
+    /** Reverse history search state; the query is null when not searching */
+    private StringBuilder historyQuery;
+    private int historyMatch = -1;
+    private String historyOriginal = "";
+    private volatile boolean displaySuspended = false;
     private final Highlighter.HighlightPainter highlightPainter =
         new DefaultHighlighter.DefaultHighlightPainter(new Color(255, 255, 0, 160));
 
@@ -75,8 +152,18 @@ public class Gui extends JFrame {
         this(startPortUpdater, SerialPortList::getPortNames, null, SerialPort::new);
     }
 
+    Gui(ConfigurationManager config, StartupTimer startupTimer) {
+        this(true, SerialPortList::getPortNames, null, SerialPort::new, config, startupTimer);
+    }
+
     Gui(boolean startPortUpdater, Supplier<String[]> portNamesProvider, Consumer<String> errorHandler, Function<String, SerialPort> serialPortFactory) {
-        this.config = new ConfigurationManager();
+        this(startPortUpdater, portNamesProvider, errorHandler, serialPortFactory, new ConfigurationManager(), new StartupTimer());
+    }
+
+    private Gui(boolean startPortUpdater, Supplier<String[]> portNamesProvider, Consumer<String> errorHandler,
+                Function<String, SerialPort> serialPortFactory, ConfigurationManager config, StartupTimer startupTimer) {
+        this.config = config;
+        this.startupTimer = startupTimer;
         this.messageFormatter = new MessageFormatter(MessageFormatter.DisplayMode.ASCII);
         this.portProvider = portNamesProvider;
         this.errorHandler = errorHandler != null
@@ -85,21 +172,44 @@ public class Gui extends JFrame {
         this.serialPortFactory = serialPortFactory != null ? serialPortFactory : SerialPort::new;
         
         // Initialize SerialCommunicationManager with callbacks
-        this.commManager = new SerialCommunicationManager(serialPortFactory, 
+        this.commManager = new SerialCommunicationManager(this.serialPortFactory,
             dataBits, stopBits, parity);
-        this.commManager.onDataReceived(this::onDataReceived);
+        this.commManager.addReceiveListener(this::onDataReceived);
         this.commManager.onError(this::onError);
         this.commManager.onConnected(this::onConnected);
         this.commManager.onDisconnected(this::onDisconnected);
+        this.commManager.onConnectProgress(this::onConnectProgress);
+        this.supervisor = new ConnectionSupervisor(commManager, portNamesProvider);
+        this.tcpBridge = new SerialTcpBridge(commManager);
+        this.supervisor.onOutageStarted(this::onOutageStarted);
+        this.supervisor.onOutageEnded(this::onOutageEnded);
+        int captureMb = config.getInt(ConfigurationManager.KEY_CAPTURE_MAX_MB, ByteCapture.DEFAULT_MAX_MB);
+        this.rxCapture = createCapture("serialtalker-rx-", captureMb);
+        if (rxCapture != null) {
+            this.commManager.addReceiveListener(chunk -> rxCapture.append(chunk.data(), chunk.arrivalNanos()));
+        }
+        this.txCapture = createCapture("serialtalker-tx-", captureMb);
+        if (txCapture != null) {
+            this.commManager.addTransmitListener(chunk -> txCapture.append(chunk.data(), chunk.arrivalNanos()));
+        }
+        this.commManager.addReceiveListener(chunk -> writePcapng(chunk, PcapngWriter.Direction.INBOUND));
+        this.commManager.addTransmitListener(chunk -> writePcapng(chunk, PcapngWriter.Direction.OUTBOUND));
         
         this.statusLED = new StatusLED();
-        this.commandHistory = new CommandHistory();
+        this.commandHistory = new CommandHistory(
+            Math.max(1, config.getInt(ConfigurationManager.KEY_HISTORY_SIZE, CommandHistory.DEFAULT_CAPACITY)),
+            ConfigurationManager.getConfigDirectory().resolve("history.txt"));
         
         portUpdater = Executors.newScheduledThreadPool(1, runnable -> {
             Thread t = new Thread(runnable, "port-list-updater");
             t.setDaemon(true);
             return t;
         });
+        statusUpdater = Executors.newScheduledThreadPool(1, runnable -> {
+            Thread t = new Thread(runnable, "status-updater");
+            t.setDaemon(true);
+            return t;
+        });
         setupFrame();
         
         // Create main components
@@ -107,23 +217,106 @@ public class Gui extends JFrame {
         portsDropdown = new JComboBox<>();
         connectButton = new JButton("Connect");
         messageInput = new JTextField(30);
+        displayPipeline = new DisplayPipeline(outputArea::append, this::replaceOutputTail);
+        displayPipeline.setFrameTask(() -> {
+            drainHeldOutput();
+            flushIdleDisplayLine();
+        });
+        applyOverloadSettings();
+        metrics = new SerialPortMetrics("main", commManager)
+            .withSupervisor(supervisor)
+            .withDisplayPipeline(displayPipeline)
+            .withCaptureQueueDepth(() -> {
+                CaptureWriter capture = captureWriter;
+                return capture != null ? capture.getQueueDepth() : 0;
+            });
+        metricsServer.add(metrics);
+        edtWatchdog.withQueueDepth("display", displayPipeline::getQueueDepth)
+            .withQueueDepth("capture", () -> {
+                CaptureWriter capture = captureWriter;
+                return capture != null ? capture.getQueueDepth() : 0;
+            });
         
         setupMenuBar();
         setupMainPanel();
         setupControlPanel();
+        startupTimer.mark("ui built");
         
-        // Start port list updater
+        // Work that is not needed to paint the first frame runs in the background:
+        // the platform MBean server is slow to create, and enumerating ports can
+        // take seconds on machines with many (virtual) COM ports
+        portUpdater.execute(() -> {
+            commandHistory.size(); // loads the history file
+            metrics.register();
+            int port = config.getInt(ConfigurationManager.KEY_METRICS_PORT, 0);
+            SwingUtilities.invokeLater(() -> applyMetricsPort(port));
+        });
         if (startPortUpdater) {
             portUpdater.scheduleAtFixedRate(this::updateAvailablePorts, 0, 2, TimeUnit.SECONDS);
         }
         
         // Add window closing handler
         addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowOpened(WindowEvent e) {
+                startupTimer.mark("window shown");
+                startupTimer.logWhenComplete("window shown", "ports listed");
+                edtWatchdog.start();
+            }
+
             @Override
             public void windowClosing(WindowEvent e) {
                 saveConfiguration();
+                edtWatchdog.stop();
+                logger.info("UI responsiveness for this session:\n{}", edtWatchdog.getReport());
+                supervisor.shutdown();
+                tcpBridge.stop();
+                metricsServer.stop();
+                metrics.unregister();
                 commManager.disconnect();
+                displayPipeline.stop();
+                heldOutput.close();
+                stopCapture();
+                stopPcapngCapture();
                 portUpdater.shutdownNow();
+                statusUpdater.shutdownNow();
+                commandHistory.close();
+                if (plotWindow != null) {
+                    plotWindow.dispose();
+                }
+                if (hexWindow != null) {
+                    hexWindow.dispose();
+                }
+                if (latencyWindow != null) {
+                    latencyWindow.dispose();
+                }
+                if (prbsWindow != null) {
+                    prbsWindow.dispose();
+                }
+                if (sendFileWindow != null) {
+                    sendFileWindow.dispose();
+                }
+                if (modemWindow != null) {
+                    modemWindow.dispose();
+                }
+                if (modbusWindow != null) {
+                    modbusWindow.dispose();
+                }
+                if (nmeaWindow != null) {
+                    nmeaWindow.dispose();
+                }
+                if (responsivenessWindow != null) {
+                    responsivenessWindow.dispose();
+                }
+                if (scanWindow != null) {
+                    scanWindow.dispose();
+                }
+                if (rxCapture != null) {
+                    rxCapture.close();
+                }
+                if (txCapture != null) {
+                    txCapture.close();
+                }
                 dispose();
             }
         });
@@ -148,11 +341,28 @@ public class Gui extends JFrame {
         csvMenuItem.addActionListener(e -> exportAsCSV());
         var jsonMenuItem = new JMenuItem("Export as JSON");
         jsonMenuItem.addActionListener(e -> exportAsJSON());
+        var sendFileMenuItem = new JMenuItem("Send File...");
+        sendFileMenuItem.setToolTipText("Stream a file to the port with pacing and progress");
+        sendFileMenuItem.addActionListener(e -> showSendFileWindow());
+        captureMenuItem = new JMenuItem("Start Capture to File...");
+        captureMenuItem.setToolTipText("Write every message to a file, even when the display is overloaded");
+        captureMenuItem.addActionListener(e -> toggleCapture());
+        var pcapngExportMenuItem = new JMenuItem("Export Session as pcapng...");
+        pcapngExportMenuItem.setToolTipText("Write the raw RX/TX chunks of this session for Wireshark");
+        pcapngExportMenuItem.addActionListener(e -> exportAsPcapng());
+        pcapngMenuItem = new JMenuItem("Start pcapng Capture...");
+        pcapngMenuItem.setToolTipText("Write every RX/TX chunk to a pcapng file as it happens");
+        pcapngMenuItem.addActionListener(e -> togglePcapngCapture());
         var exitMenuItem = new JMenuItem("Exit");
         exitMenuItem.addActionListener(e -> System.exit(0));
         fileMenu.add(saveMenuItem);
         fileMenu.add(csvMenuItem);
         fileMenu.add(jsonMenuItem);
+        fileMenu.add(captureMenuItem);
+        fileMenu.add(pcapngExportMenuItem);
+        fileMenu.add(pcapngMenuItem);
+        fileMenu.addSeparator();
+        fileMenu.add(sendFileMenuItem);
         fileMenu.addSeparator();
         fileMenu.add(exitMenuItem);
         
@@ -166,8 +376,72 @@ public class Gui extends JFrame {
         autoNegotiateItem.setSelected(autoNegotiateSpeed);
         autoNegotiateItem.addActionListener(e -> autoNegotiateSpeed = autoNegotiateItem.isSelected());
         settingsMenu.add(autoNegotiateItem);
+        var autoReconnectItem = new JCheckBoxMenuItem("Auto-Reconnect");
+        autoReconnectItem.setSelected(autoReconnect);
+        autoReconnectItem.setToolTipText("Reopen the port automatically if the device drops off or stalls");
+        autoReconnectItem.addActionListener(e -> {
+            autoReconnect = autoReconnectItem.isSelected();
+            if (!autoReconnect) {
+                supervisor.stop();
+            } else if (commManager.isConnected()) {
+                startSupervisor(commManager.getPortName());
+            }
+        });
+        settingsMenu.add(autoReconnectItem);
+        
+        // View Menu
+        var viewMenu = new JMenu("View");
+        var plotMenuItem = new JMenuItem("Telemetry Plot");
+        plotMenuItem.addActionListener(e -> showPlotWindow());
+        viewMenu.add(plotMenuItem);
+        var hexMenuItem = new JMenuItem("Hex Dump");
+        hexMenuItem.addActionListener(e -> showHexWindow());
+        viewMenu.add(hexMenuItem);
+        var modbusMenuItem = new JMenuItem("Modbus RTU Decoder");
+        modbusMenuItem.addActionListener(e -> showModbusWindow());
+        viewMenu.add(modbusMenuItem);
+        var nmeaMenuItem = new JMenuItem("GNSS (NMEA) Status");
+        nmeaMenuItem.addActionListener(e -> showNmeaWindow());
+        viewMenu.add(nmeaMenuItem);
+        viewMenu.addSeparator();
+        var collapseItem = new JCheckBoxMenuItem("Collapse Repeated Lines");
+        collapseItem.setToolTipText("Show runs of identical received lines once with a count; captures keep every line");
+        collapseItem.setSelected(collapseRepeats);
+        collapseItem.addActionListener(e -> {
+            collapseRepeats = collapseItem.isSelected();
+            displayPipeline.setCollapseRepeats(collapseRepeats);
+            flushDisplayLines();
+        });
+        viewMenu.add(collapseItem);
+        
+        // Tools Menu
+        var toolsMenu = new JMenu("Tools");
+        var latencyMenuItem = new JMenuItem("Latency Test...");
+        latencyMenuItem.addActionListener(e -> showLatencyWindow());
+        toolsMenu.add(latencyMenuItem);
+        var prbsMenuItem = new JMenuItem("PRBS Link Test...");
+        prbsMenuItem.addActionListener(e -> showPrbsWindow());
+        toolsMenu.add(prbsMenuItem);
+        var modemMenuItem = new JMenuItem("XMODEM/YMODEM Transfer...");
+        modemMenuItem.addActionListener(e -> showModemWindow());
+        toolsMenu.add(modemMenuItem);
+        var scanMenuItem = new JMenuItem("Scan Ports...");
+        scanMenuItem.setToolTipText("Probe every detected port for an answering device and its baud rate");
+        scanMenuItem.addActionListener(e -> showScanWindow());
+        toolsMenu.add(scanMenuItem);
+        var responsivenessMenuItem = new JMenuItem("UI Responsiveness...");
+        responsivenessMenuItem.setToolTipText("EDT stalls and event latency percentiles for this session");
+        responsivenessMenuItem.addActionListener(e -> showResponsivenessWindow());
+        toolsMenu.add(responsivenessMenuItem);
+        toolsMenu.addSeparator();
+        bridgeMenuItem = new JMenuItem("Start TCP Bridge...");
+        bridgeMenuItem.setToolTipText("Let other tools read and write the open port over TCP");
+        bridgeMenuItem.addActionListener(e -> toggleTcpBridge());
+        toolsMenu.add(bridgeMenuItem);
         
         menuBar.add(fileMenu);
+        menuBar.add(viewMenu);
+        menuBar.add(toolsMenu);
         menuBar.add(settingsMenu);
         setJMenuBar(menuBar);
     }
@@ -189,7 +463,9 @@ public class Gui extends JFrame {
         
         var inputLabelPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
         inputLabelPanel.setBackground(outputArea.getBackground());
-        inputLabelPanel.add(new JLabel("Message:"));
+        messageLabel = new JLabel("Message:");
+        messageLabel.setToolTipText("Ctrl+R searches the command history");
+        inputLabelPanel.add(messageLabel);
         inputLabelPanel.setPreferredSize(new Dimension(100, 25));
         
         var commandPanel = new JPanel(new BorderLayout(5, 0));
@@ -213,9 +489,27 @@ public class Gui extends JFrame {
         
         // Add keyboard shortcuts
         messageInput.addKeyListener(new java.awt.event.KeyAdapter() {
+            @Override
+            public void keyTyped(java.awt.event.KeyEvent e) {
+                char c = e.getKeyChar();
+                if (historyQuery != null && !e.isControlDown() && c >= ' ' && c != '\u007f') {
+                    historyQuery.append(c);
+                    searchHistory(commandHistory.size());
+                    e.consume();
+                }
+            }
+
             @Override
             public void keyPressed(java.awt.event.KeyEvent e) {
-                if (e.isControlDown() && e.getKeyCode() == java.awt.event.KeyEvent.VK_ENTER) {
+                if (historyQuery != null && handleHistorySearchKey(e)) {
+                    e.consume();
+                } else if (e.isControlDown() && e.getKeyCode() == java.awt.event.KeyEvent.VK_R) {
+                    historyOriginal = messageInput.getText();
+                    historyQuery = new StringBuilder();
+                    historyMatch = -1;
+                    updateHistorySearchLabel(true);
+                    e.consume();
+                } else if (e.isControlDown() && e.getKeyCode() == java.awt.event.KeyEvent.VK_ENTER) {
                     String message = messageInput.getText();
                     sendSerialMessage(message);
                     if (!message.trim().isEmpty()) {
@@ -242,7 +536,7 @@ public class Gui extends JFrame {
             @Override
             public void keyPressed(java.awt.event.KeyEvent e) {
                 if (e.isControlDown() && e.getKeyCode() == java.awt.event.KeyEvent.VK_L) {
-                    outputArea.setText("");
+                    clearOutput();
                     e.consume();
                 } else if (e.isControlDown() && e.getKeyCode() == java.awt.event.KeyEvent.VK_S) {
                     saveOutputToFile();
@@ -258,6 +552,85 @@ public class Gui extends JFrame {
         add(mainPanel);
     }
 
+    /**
+     * Handles a key press while reverse-searching the command history.
+     *
+     * @param e The key event
+     * @return True if the key was used by the search
+     */
+    private boolean handleHistorySearchKey(java.awt.event.KeyEvent e) {
+        switch (e.getKeyCode()) {
+            case java.awt.event.KeyEvent.VK_R -> {
+                if (!e.isControlDown()) {
+                    return false;
+                }
+                // Step to the next older match
+                searchHistory(historyMatch >= 0 ? historyMatch : commandHistory.size());
+                return true;
+            }
+            case java.awt.event.KeyEvent.VK_BACK_SPACE -> {
+                if (!historyQuery.isEmpty()) {
+                    historyQuery.setLength(historyQuery.length() - 1);
+                }
+                searchHistory(commandHistory.size());
+                return true;
+            }
+            case java.awt.event.KeyEvent.VK_ESCAPE -> {
+                endHistorySearch();
+                messageInput.setText(historyOriginal);
+                return true;
+            }
+            case java.awt.event.KeyEvent.VK_ENTER -> {
+                endHistorySearch();
+                // Ctrl+Enter accepts the match and sends it
+                return !e.isControlDown();
+            }
+            case java.awt.event.KeyEvent.VK_SHIFT, java.awt.event.KeyEvent.VK_CONTROL,
+                 java.awt.event.KeyEvent.VK_ALT, java.awt.event.KeyEvent.VK_ALT_GRAPH -> {
+                return false;
+            }
+            default -> {
+                // Printable keys arrive through keyTyped; anything else accepts the match
+                if (e.isActionKey()) {
+                    endHistorySearch();
+                }
+                return false;
+            }
+        }
+    }
+
+    private void searchHistory(int beforeIndex) {
+        if (historyQuery.isEmpty()) {
+            historyMatch = -1;
+            messageInput.setText(historyOriginal);
+            updateHistorySearchLabel(true);
+            return;
+        }
+        int match = commandHistory.findPrevious(historyQuery.toString(), beforeIndex);
+        if (match >= 0) {
+            historyMatch = match;
+            String command = commandHistory.get(match);
+            messageInput.setText(command);
+            messageInput.setCaretPosition(command.length());
+        } else {
+            Toolkit.getDefaultToolkit().beep();
+        }
+        updateHistorySearchLabel(match >= 0);
+    }
+
+    private void updateHistorySearchLabel(boolean found) {
+        messageLabel.setText(historyQuery.isEmpty() ? "R-search:" : "R: " + historyQuery);
+        messageLabel.setForeground(found ? UIManager.getColor("Label.foreground") : Color.RED);
+    }
+
+    private void endHistorySearch() {
+        historyQuery = null;
+        historyMatch = -1;
+        commandHistory.reset();
+        messageLabel.setText("Message:");
+        messageLabel.setForeground(UIManager.getColor("Label.foreground"));
+    }
+
     private void setupControlPanel() {
         var controlPanel = new JPanel(new FlowLayout());
         
@@ -277,7 +650,7 @@ public class Gui extends JFrame {
         
         var clearOutputButton = new JButton("Clear");
         clearOutputButton.setToolTipText("Clear output area (Ctrl+L)");
-        clearOutputButton.addActionListener(e -> outputArea.setText(""));
+        clearOutputButton.addActionListener(e -> clearOutput());
         controlPanel.add(clearOutputButton);
         
         var scrollLockCheckbox = new JCheckBox("Scroll Lock");
@@ -291,7 +664,6 @@ public class Gui extends JFrame {
             } else {
                 outputArea.setBackground(Color.WHITE);
                 outputArea.setToolTipText("Communication log");
-                flushBufferedMessages();
             }
         });
         controlPanel.add(scrollLockCheckbox);
@@ -305,15 +677,10 @@ public class Gui extends JFrame {
         add(statusBar, BorderLayout.SOUTH);
         
         // Update status and connection label periodically
-        var statusUpdater = Executors.newScheduledThreadPool(1, runnable -> {
-            Thread t = new Thread(runnable, "status-updater");
-            t.setDaemon(true);
-            return t;
-        });
         statusUpdater.scheduleAtFixedRate(() -> {
             final String status;
             status = String.format("Bytes Sent: %d | Bytes Received: %d", 
-                commManager.getBytesSent(), commManager.getBytesReceived());
+                commManager.getBytesSent(), commManager.getBytesReceived()) + displayStatus();
             if (commManager.isConnected()) {
                 long elapsedSec = commManager.getUptimeSeconds();
                 long hours = elapsedSec / 3600;
@@ -327,16 +694,27 @@ public class Gui extends JFrame {
         }, 1, 1, TimeUnit.SECONDS);
     }
 
+    /**
+     * Enumerates ports on the updater thread and applies the result on the EDT,
+     * so a slow driver query never blocks painting.
+     */
     private void updateAvailablePorts() {
-        SwingUtilities.invokeLater(this::refreshPortList);
+        String[] detectedPorts = portProvider.get();
+        SwingUtilities.invokeLater(() -> {
+            applyPortList(detectedPorts);
+            startupTimer.mark("ports listed");
+            startupTimer.logWhenComplete("window shown", "ports listed");
+        });
     }
 
     void refreshPortList() {
+        applyPortList(portProvider.get());
+    }
+
+    private void applyPortList(String[] detectedPorts) {
         var currentSelection = (String) portsDropdown.getSelectedItem();
         portsDropdown.removeAllItems();
 
-        String[] detectedPorts = portProvider.get();
-        
         if (detectedPorts == null || detectedPorts.length == 0) {
             portsDropdown.addItem("No COM ports found");
             portsDropdown.setEnabled(false);
@@ -359,13 +737,21 @@ public class Gui extends JFrame {
     }
 
     private void toggleSerialConnection() {
-        if (commManager.isConnected()) {
+        if (pendingConnect != null) {
+            logger.info("Connect cancelled");
+            pendingConnect.cancel(true);
+        } else if (commManager.isConnected() || supervisor.isActive()) {
+            supervisor.stop();
             commManager.disconnect();
         } else {
             connectToSerialPort();
         }
     }
 
+    /**
+     * Starts connecting to the selected port. Negotiation and opening run on the
+     * connect worker; until they finish the connect button cancels instead.
+     */
     private void connectToSerialPort() {
         String selectedPort = (String) portsDropdown.getSelectedItem();
         if (selectedPort == null || "No COM ports found".equals(selectedPort)) {
@@ -373,57 +759,182 @@ public class Gui extends JFrame {
             showError("No port selected");
             return;
         }
+        if (pendingConnect != null) {
+            pendingConnect.cancel(true);
+        }
 
-        try {
-            logger.info("Attempting to connect to port: {}", selectedPort);
-            int actualBaudRate = baudRate;
-            if (autoNegotiateSpeed) {
-                logger.debug("Auto-negotiating baud rate");
-                SerialPort probePort = serialPortFactory.apply(selectedPort);
-                try {
-                    if (!probePort.openPort()) {
-                        showError("Failed to open port for negotiation: " + selectedPort);
-                        actualBaudRate = baudRate;
-                    } else {
-                        actualBaudRate = BaudRateNegotiator.negotiate(
-                            probePort, dataBits, stopBits, parity
-                        );
-                    }
-                } finally {
-                    try {
-                        if (probePort.isOpened()) {
-                            probePort.closePort();
-                        }
-                    } catch (Exception ex) {
-                        logger.warn("Failed to close negotiation port: {}", ex.getMessage());
-                    }
+        logger.info("Attempting to connect to port: {}", selectedPort);
+        commManager.setEncoding(encodingFor(selectedPort));
+        boolean negotiate = autoNegotiateSpeed;
+        String stableId = PortIdentity.stableIdFor(selectedPort);
+        // A known device is tried at its last working settings before the common rates
+        ConfigurationManager.DeviceFingerprint known = negotiate ? config.getDeviceFingerprint(stableId) : null;
+        int connectDataBits = known != null ? known.dataBits() : dataBits;
+        int connectStopBits = known != null ? known.stopBits() : stopBits;
+        int connectParity = known != null ? known.parity() : parity;
+        if (known != null) {
+            logger.info("Trying last working settings for {} first: {} baud", stableId, known.baudRate());
+        }
+        var connect = commManager.connectAsync(selectedPort, known != null ? known.baudRate() : baudRate,
+            connectDataBits, connectStopBits, connectParity, negotiate);
+        pendingConnect = connect;
+        connectButton.setText("Cancel");
+        connectionStatusLabel.setText("Connecting to " + selectedPort + "...");
+        connectionStatusLabel.setForeground(new Color(200, 120, 0)); // Orange
+        connect.whenComplete((rate, ex) -> SwingUtilities.invokeLater(() -> {
+            if (pendingConnect == connect) {
+                pendingConnect = null;
+            }
+            if (ex == null) {
+                baudRate = rate;
+                dataBits = connectDataBits;
+                stopBits = connectStopBits;
+                parity = connectParity;
+                String response = commManager.getNegotiationResponse();
+                if (!negotiate) {
+                    config.putDeviceFingerprint(stableId, rate, dataBits, stopBits, parity, null);
+                } else if (!response.isEmpty()) {
+                    showLine(messageFormatter.format("Auto-negotiated baud rate: " + rate, false) + "\n");
+                    // Keep an identity recorded by a port scan rather than the bare result code
+                    config.putDeviceFingerprint(stableId, rate, dataBits, stopBits, parity,
+                        known != null && !known.probeResponse().isEmpty() ? null : response);
                 }
-                if (actualBaudRate > 0) {
-                    logger.info("Auto-negotiated baud rate: {}", actualBaudRate);
-                    outputArea.append(messageFormatter.format("Auto-negotiated baud rate: " + actualBaudRate, false) + "\n");
-                } else {
-                    logger.warn("Failed to negotiate baud rate. Using default: {}", baudRate);
-                    showError("Failed to negotiate baud rate. Using default: " + baudRate);
-                    actualBaudRate = baudRate;
+                connectionStatusLabel.setText(String.format("Connected to %s @ %d baud", selectedPort, rate));
+                if (autoReconnect) {
+                    startSupervisor(selectedPort);
                 }
+            } else if (!(ex instanceof CancellationException)) {
+                connectButton.setText("Connect");
+                connectionStatusLabel.setText("Disconnected");
+                connectionStatusLabel.setForeground(new Color(192, 0, 0)); // Dark red
+                showError(ex.getMessage());
+            } else if (pendingConnect == null && !commManager.isConnected()) {
+                connectButton.setText("Connect");
+                connectionStatusLabel.setText("Disconnected");
+                connectionStatusLabel.setForeground(new Color(192, 0, 0)); // Dark red
             }
-            baudRate = actualBaudRate;
-            commManager.connect(selectedPort, actualBaudRate, dataBits, stopBits, parity);
-        } catch (Exception ex) {
-            logger.error("Error opening port: {}", ex.getMessage(), ex);
-            showError("Error opening port: " + ex.getMessage());
+        }));
+    }
+
+    private void onConnectProgress(String message) {
+        logger.info(message);
+        SwingUtilities.invokeLater(() -> {
+            if (pendingConnect != null) {
+                connectionStatusLabel.setText(message);
+            }
+        });
+    }
+
+    private void startSupervisor(String portName) {
+        supervisor.setStallTimeoutMs(stallTimeoutMs);
+        supervisor.start(portName, baudRate, dataBits, stopBits, parity);
+    }
+
+    private void onOutageStarted(ConnectionSupervisor.Outage outage) {
+        SwingUtilities.invokeLater(() -> {
+            connectButton.setText("Disconnect");
+            connectionStatusLabel.setText("Reconnecting...");
+            connectionStatusLabel.setForeground(new Color(200, 120, 0)); // Orange
+            showLine(messageFormatter.format(
+                "Connection lost (" + outage.reason() + "), reconnecting", false) + "\n");
+        });
+    }
+
+    private void onOutageEnded(ConnectionSupervisor.Outage outage) {
+        SwingUtilities.invokeLater(() -> showLine(messageFormatter.format(
+            String.format("Reconnected after %.1f s outage", outage.duration().toMillis() / 1000.0), false) + "\n"));
+    }
+
+    private void onDataReceived(SerialChunk chunk) {
+        if (displaySuspended) {
+            // A link test owns the stream; its bytes are not meant for the log
+            return;
+        }
+        TelemetryExtractor extractor = telemetryExtractor;
+        if (extractor != null) {
+            extractor.accept(chunk.text(), chunk.arrivalNanos());
+        }
+        if (chunk.text().isEmpty() && messageFormatter.getDisplayMode() == MessageFormatter.DisplayMode.ASCII) {
+            // Only the start of a multi-byte character; it is shown with the next chunk
+            return;
+        }
+        String formatted = messageFormatter.format(chunk.data(), chunk.text(), true) + "\n";
+        CaptureWriter capture = captureWriter;
+        if (capture != null) {
+            capture.write(formatted);
         }
+        if (scrollLocked || heldOutput.hasPending()) {
+            // A partial line still being assembled belongs ahead of this chunk
+            flushDisplayLines();
+            heldOutput.append(formatted);
+            return;
+        }
+        if (collapseRepeats && messageFormatter.getDisplayMode() == MessageFormatter.DisplayMode.ASCII) {
+            // Repeats can only be recognised line by line, whatever the chunking
+            synchronized (displayLines) {
+                displayLines.accept(chunk.text());
+                displayPartialSinceNanos = chunk.arrivalNanos();
+            }
+            return;
+        }
+        flushDisplayLines();
+        displayPipeline.offer(formatted);
     }
 
-    private void onDataReceived(String data) {
-        String formatted = messageFormatter.format(data, true) + "\n";
-        if (scrollLocked) {
-            synchronized (bufferedMessages) {
-                bufferedMessages.append(formatted);
+    private void offerReceivedLine(String line) {
+        String formatted = messageFormatter.format(line, true) + "\n";
+        if (scrollLocked || heldOutput.hasPending()) {
+            heldOutput.append(formatted);
+            return;
+        }
+        // Compare the message only, not the "[time] RX: " prefix
+        displayPipeline.offer(formatted, formatted.indexOf(": ") + 2, System.currentTimeMillis());
+    }
+
+    /**
+     * Shows a partial line once no more of it has arrived for a while, so
+     * prompts without a line end still appear. Runs on the EDT each frame.
+     */
+    private void flushIdleDisplayLine() {
+        synchronized (displayLines) {
+            if (displayLines.hasPartial() && System.nanoTime() - displayPartialSinceNanos > PARTIAL_LINE_HOLD_NANOS) {
+                displayLines.flush();
             }
+        }
+    }
+
+    /**
+     * Shows a sent or status line after everything received before it, whether
+     * that is still queued for the display or held by scroll lock.
+     */
+    private void showLine(String formatted) {
+        flushDisplayLines();
+        if (scrollLocked || heldOutput.hasPending()) {
+            heldOutput.append(formatted);
             return;
         }
-        SwingUtilities.invokeLater(() -> outputArea.append(formatted));
+        displayPipeline.offerStatus(formatted);
+    }
+
+    private void flushDisplayLines() {
+        synchronized (displayLines) {
+            displayLines.flush();
+        }
+    }
+
+    private boolean replaceOutputTail(String oldText, String newText) {
+        var document = outputArea.getDocument();
+        int end = document.getLength();
+        int start = end - oldText.length();
+        try {
+            if (start < 0 || !document.getText(start, oldText.length()).equals(oldText)) {
+                return false;
+            }
+        } catch (BadLocationException ex) {
+            return false;
+        }
+        outputArea.replaceRange(newText, start, end);
+        return true;
     }
 
     private void onConnected(String portName) {
@@ -433,39 +944,65 @@ public class Gui extends JFrame {
             String statusText = String.format("Connected to %s @ %d baud", portName, baudRate);
             connectionStatusLabel.setText(statusText);
             connectionStatusLabel.setForeground(new Color(0, 128, 0)); // Green
-            outputArea.append(messageFormatter.format("Connected to " + portName, false) + "\n");
+            showLine(messageFormatter.format("Connected to " + portName, false) + "\n");
             logger.info("Connection status updated: {}", statusText);
         });
     }
 
     private void onDisconnected(String reason) {
         SwingUtilities.invokeLater(() -> {
+            if (supervisor.isActive()) {
+                // The supervisor is reopening the port; keep the session controls as they are
+                return;
+            }
             connectButton.setText("Connect");
             statusLED.setConnected(false);
             connectionStatusLabel.setText("Disconnected");
             connectionStatusLabel.setForeground(new Color(192, 0, 0)); // Dark red
-            outputArea.append(messageFormatter.format("Disconnected: " + reason, false) + "\n");
+            showLine(messageFormatter.format("Disconnected: " + reason, false) + "\n");
         });
     }
 
     private void onError(String errorMessage) {
+        if (supervisor.isActive()) {
+            // Unattended mode: log instead of stacking up modal dialogs
+            logger.warn("Serial error while supervised: {}", errorMessage);
+            SwingUtilities.invokeLater(() -> showLine(messageFormatter.format(errorMessage, false) + "\n"));
+            return;
+        }
         SwingUtilities.invokeLater(() -> showError(errorMessage));
     }
 
     private void sendSerialMessage(String message) {
-        if (!commManager.isConnected()) {
+        if (!commManager.isConnected() && !supervisor.isActive()) {
             logger.warn("Send attempt while not connected");
             showError("Not connected to any port");
             return;
         }
 
+        long start = System.nanoTime();
         try {
             logger.debug("Sending message: {}", message);
-            commManager.sendMessage(message);
-            outputArea.append(messageFormatter.format(message, false) + "\n");
+            if (supervisor.isActive()) {
+                if (!supervisor.send(message)) {
+                    showLine(messageFormatter.format("(queued until reconnected) " + message, false) + "\n");
+                    return;
+                }
+            } else {
+                commManager.sendMessage(message);
+            }
+            String formatted = messageFormatter.format(
+                commManager.getEncoding().encode(message), message, false) + "\n";
+            CaptureWriter capture = captureWriter;
+            if (capture != null) {
+                capture.write(formatted);
+            }
+            showLine(formatted);
         } catch (Exception ex) {
             logger.error("Error sending data: {}", ex.getMessage(), ex);
             showError("Error sending data: " + ex.getMessage());
+        } finally {
+            edtWatchdog.record("sendSerialMessage", System.nanoTime() - start);
         }
     }
 
@@ -473,7 +1010,13 @@ public class Gui extends JFrame {
         var fileChooser = new JFileChooser();
         if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
             try {
-                Files.writeString(Path.of(fileChooser.getSelectedFile().getPath()), outputArea.getText());
+                var event = new DataPathEvents.Export();
+                event.begin();
+                long start = System.nanoTime();
+                String text = outputArea.getText();
+                Files.writeString(Path.of(fileChooser.getSelectedFile().getPath()), text);
+                commitExport(event, "TEXT", text.length(), fileChooser.getSelectedFile().getPath());
+                edtWatchdog.record("saveOutputToFile", System.nanoTime() - start);
             } catch (IOException ex) {
                 showError("Error saving file: " + ex.getMessage());
             }
@@ -481,6 +1024,12 @@ public class Gui extends JFrame {
     }
 
     private void openSearchDialog() {
+        // Built on first use and then reused, so the search term survives closing the dialog
+        if (searchDialog != null) {
+            searchDialog.setVisible(true);
+            searchDialog.toFront();
+            return;
+        }
         var searchPanel = new JPanel(new BorderLayout(5, 5));
         searchPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
         
@@ -500,16 +1049,15 @@ public class Gui extends JFrame {
                 return;
             }
             
+            var event = new DataPathEvents.Search();
+            event.begin();
             String text = outputArea.getText();
             int index = text.indexOf(searchTerm, currentIndex[0]);
             
             if (index == -1 && currentIndex[0] > 0) {
                 index = text.indexOf(searchTerm, 0);
-                if (index == -1) {
-                    resultLabel.setText("No matches found");
-                    return;
-                }
             }
+            commitSearch(event, searchTerm, text, index == -1 ? 0 : 1);
             
             if (index != -1) {
                 outputArea.setCaretPosition(index);
@@ -568,6 +1116,7 @@ public class Gui extends JFrame {
         dialog.add(resultLabel, BorderLayout.SOUTH);
         dialog.setSize(400, 120);
         dialog.setLocationRelativeTo(this);
+        searchDialog = dialog;
         dialog.setVisible(true);
         searchField.requestFocus();
         
@@ -581,6 +1130,9 @@ public class Gui extends JFrame {
             return;
         }
 
+        var event = new DataPathEvents.Search();
+        event.begin();
+        long start = System.nanoTime();
         String text = outputArea.getText();
         int count = 0;
         int index = 0;
@@ -593,19 +1145,266 @@ public class Gui extends JFrame {
             }
             index += searchTerm.length();
         }
+        commitSearch(event, searchTerm, text, count);
+        edtWatchdog.record("highlightAllMatches", System.nanoTime() - start);
         logger.debug("Found {} matches for '{}'", count, searchTerm);
     }
 
-    private void flushBufferedMessages() {
-        final String buffered;
-        synchronized (bufferedMessages) {
-            if (bufferedMessages.length() == 0) {
-                return;
+    private static void commitSearch(DataPathEvents.Search event, String term, String text, int matches) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.termLength = term.length();
+            event.textLength = text.length();
+            event.matches = matches;
+            event.commit();
+        }
+    }
+
+    private static void commitExport(DataPathEvents.Export event, String format, int chars, String file) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.format = format;
+            event.chars = chars;
+            event.file = file;
+            event.commit();
+        }
+    }
+
+    private void clearOutput() {
+        synchronized (displayLines) {
+            displayLines.reset();
+        }
+        displayPipeline.clear();
+        heldOutput.clear();
+        outputArea.setText("");
+    }
+
+    private String displayStatus() {
+        StringBuilder status = new StringBuilder();
+        if (displayPipeline.isDegraded()) {
+            status.append(" | Display: OVERLOADED");
+        }
+        long collapsed = displayPipeline.getCollapsedLines();
+        if (collapsed > 0) {
+            status.append(String.format(" | Repeats collapsed: %d", collapsed));
+        }
+        long dropped = displayPipeline.getDroppedLines();
+        long summarized = displayPipeline.getSummarizedLines();
+        if (dropped > 0 || summarized > 0) {
+            status.append(String.format(" | Not shown: %d dropped, %d summarized", dropped, summarized));
+        }
+        long framing = commManager.getFramingErrors();
+        long overruns = commManager.getOverrunErrors();
+        long parityErrors = commManager.getParityErrors();
+        if (framing > 0 || overruns > 0 || parityErrors > 0) {
+            status.append(String.format(" | Line errors: %d framing, %d overrun, %d parity",
+                framing, overruns, parityErrors));
+        }
+        long held = heldOutput.getPendingChars();
+        if (held > 0) {
+            status.append(String.format(" | Held: %d KB", (held + 1023) / 1024));
+        }
+        CaptureWriter capture = captureWriter;
+        if (capture != null) {
+            status.append(capture.getFailure() != null
+                ? " | Capture FAILED"
+                : String.format(" | Capturing: %d lines", capture.getLinesWritten()));
+        }
+        PcapngWriter pcapng = pcapngWriter;
+        if (pcapng != null) {
+            try {
+                pcapng.flush();
+                status.append(String.format(" | pcapng: %d packets", pcapng.getPacketCount()));
+            } catch (IOException ex) {
+                status.append(" | pcapng FAILED");
+            }
+        }
+        if (tcpBridge.isRunning()) {
+            status.append(String.format(" | TCP %d: %d clients", tcpBridge.getLocalPort(), tcpBridge.getClientCount()));
+        }
+        return status.toString();
+    }
+
+    private void applyMetricsPort(int port) {
+        if (port == metricsPort && (port == 0 || metricsServer.getLocalPort() > 0)) {
+            return;
+        }
+        metricsServer.stop();
+        metricsPort = port;
+        if (port <= 0) {
+            return;
+        }
+        try {
+            metricsServer.start(port);
+        } catch (IOException ex) {
+            logger.error("Metrics endpoint unavailable on port {}: {}", port, ex.getMessage());
+            showError("Could not start metrics endpoint on port " + port + ": " + ex.getMessage());
+        }
+    }
+
+    private void toggleTcpBridge() {
+        if (tcpBridge.isRunning()) {
+            tcpBridge.stop();
+            bridgeMenuItem.setText("Start TCP Bridge...");
+            return;
+        }
+        var portField = new JTextField(String.valueOf(config.getInt(ConfigurationManager.KEY_BRIDGE_PORT, 7000)), 6);
+        var remoteCheckbox = new JCheckBox("Allow connections from other hosts",
+            config.getBoolean(ConfigurationManager.KEY_BRIDGE_ALLOW_REMOTE, false));
+        var policyDropdown = new JComboBox<>(new String[]{"Disconnect", "Drop data"});
+        policyDropdown.setSelectedIndex(SerialTcpBridge.SlowClientPolicy.DROP.name().equals(
+            config.getString(ConfigurationManager.KEY_BRIDGE_SLOW_POLICY, "")) ? 1 : 0);
+        policyDropdown.setToolTipText("What happens to a client that cannot keep up with the port");
+        
+        var panel = new JPanel(new GridLayout(0, 2, 5, 5));
+        panel.add(new JLabel("TCP Port:"));
+        panel.add(portField);
+        panel.add(new JLabel("Slow Clients:"));
+        panel.add(policyDropdown);
+        panel.add(remoteCheckbox);
+        if (JOptionPane.showConfirmDialog(this, panel, "Start TCP Bridge",
+                JOptionPane.OK_CANCEL_OPTION) != JOptionPane.OK_OPTION) {
+            return;
+        }
+        try {
+            int port = Integer.parseInt(portField.getText().trim());
+            var policy = policyDropdown.getSelectedIndex() == 1
+                ? SerialTcpBridge.SlowClientPolicy.DROP
+                : SerialTcpBridge.SlowClientPolicy.DISCONNECT;
+            tcpBridge.setSlowClientPolicy(policy, SerialTcpBridge.DEFAULT_MAX_QUEUED_BYTES);
+            tcpBridge.start(port, remoteCheckbox.isSelected());
+            config.setInt(ConfigurationManager.KEY_BRIDGE_PORT, port);
+            config.setBoolean(ConfigurationManager.KEY_BRIDGE_ALLOW_REMOTE, remoteCheckbox.isSelected());
+            config.setString(ConfigurationManager.KEY_BRIDGE_SLOW_POLICY, policy.name());
+            bridgeMenuItem.setText("Stop TCP Bridge (port " + tcpBridge.getLocalPort() + ")");
+        } catch (NumberFormatException ex) {
+            showError("Invalid TCP port: " + portField.getText());
+        } catch (IOException ex) {
+            showError("Error starting TCP bridge: " + ex.getMessage());
+        }
+    }
+
+    private void toggleCapture() {
+        if (captureWriter != null) {
+            stopCapture();
+            return;
+        }
+        var fileChooser = new JFileChooser();
+        fileChooser.setSelectedFile(new java.io.File("capture.log"));
+        if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
+            try {
+                captureWriter = new CaptureWriter(fileChooser.getSelectedFile().toPath());
+                captureMenuItem.setText("Stop Capture");
+                logger.info("Capturing to {}", fileChooser.getSelectedFile().getPath());
+            } catch (IOException ex) {
+                logger.error("Error starting capture: {}", ex.getMessage(), ex);
+                showError("Error starting capture: " + ex.getMessage());
+            }
+        }
+    }
+
+    private void stopCapture() {
+        CaptureWriter capture = captureWriter;
+        if (capture != null) {
+            captureWriter = null;
+            capture.close();
+            if (captureMenuItem != null) {
+                captureMenuItem.setText("Start Capture to File...");
+            }
+        }
+    }
+
+    private void writePcapng(SerialChunk chunk, PcapngWriter.Direction direction) {
+        PcapngWriter pcapng = pcapngWriter;
+        if (pcapng == null) {
+            return;
+        }
+        try {
+            pcapng.write(chunk, direction);
+        } catch (IOException ex) {
+            logger.error("pcapng capture to {} failed: {}", pcapng.getFile(), ex.getMessage(), ex);
+            SwingUtilities.invokeLater(this::stopPcapngCapture);
+        }
+    }
+
+    private void togglePcapngCapture() {
+        if (pcapngWriter != null) {
+            stopPcapngCapture();
+            return;
+        }
+        var fileChooser = new JFileChooser();
+        fileChooser.setSelectedFile(new java.io.File("capture.pcapng"));
+        if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
+            try {
+                String name = commManager.getPortName() != null ? commManager.getPortName() : "serial";
+                pcapngWriter = new PcapngWriter(fileChooser.getSelectedFile().toPath(), name);
+                pcapngMenuItem.setText("Stop pcapng Capture");
+                logger.info("Capturing pcapng to {}", fileChooser.getSelectedFile().getPath());
+            } catch (IOException ex) {
+                logger.error("Error starting pcapng capture: {}", ex.getMessage(), ex);
+                showError("Error starting pcapng capture: " + ex.getMessage());
+            }
+        }
+    }
+
+    private void stopPcapngCapture() {
+        PcapngWriter pcapng = pcapngWriter;
+        if (pcapng != null) {
+            pcapngWriter = null;
+            pcapng.close();
+            if (pcapngMenuItem != null) {
+                pcapngMenuItem.setText("Start pcapng Capture...");
             }
-            buffered = bufferedMessages.toString();
-            bufferedMessages.setLength(0);
         }
-        SwingUtilities.invokeLater(() -> outputArea.append(buffered));
+    }
+
+    private void exportAsPcapng() {
+        if (rxCapture == null || txCapture == null) {
+            showError("Raw byte capture is unavailable (turned off with "
+                + ConfigurationManager.KEY_CAPTURE_MAX_MB + "=0, or the temporary file could not be created)");
+            return;
+        }
+        var fileChooser = new JFileChooser();
+        fileChooser.setSelectedFile(new java.io.File("session.pcapng"));
+        if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path file = fileChooser.getSelectedFile().toPath();
+        String name = commManager.getPortName() != null ? commManager.getPortName() : "serial";
+        // Large sessions take a while to replay; keep the EDT free
+        var exporter = new Thread(() -> {
+            try {
+                var event = new DataPathEvents.Export();
+                event.begin();
+                PcapngWriter.export(rxCapture, txCapture, file, name);
+                commitExport(event, "PCAPNG", (int) Math.min(Integer.MAX_VALUE, Files.size(file)), file.toString());
+            } catch (IOException ex) {
+                logger.error("Error exporting pcapng: {}", ex.getMessage(), ex);
+                SwingUtilities.invokeLater(() -> showError("Error exporting pcapng: " + ex.getMessage()));
+            }
+        }, "pcapng-export");
+        exporter.setDaemon(true);
+        exporter.start();
+    }
+
+    private void applyOverloadSettings() {
+        displayPipeline.setPolicy(overloadPolicy, overloadSampleEvery);
+        displayPipeline.setWatermarks(overloadHighWatermark, overloadHighWatermark / 4);
+        displayPipeline.setCollapseRepeats(collapseRepeats);
+    }
+
+    /**
+     * Returns output held during scroll lock to the display, one batch per
+     * frame. Until it is all shown, new output queues up behind it. Runs on the EDT.
+     */
+    private void drainHeldOutput() {
+        if (scrollLocked) {
+            return;
+        }
+        String batch = heldOutput.poll(HELD_OUTPUT_CHARS_PER_FRAME);
+        if (batch != null) {
+            outputArea.append(batch);
+        }
     }
 
     private void exportAsCSV() {
@@ -613,6 +1412,9 @@ public class Gui extends JFrame {
         fileChooser.setSelectedFile(new java.io.File("output.csv"));
         if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
             try {
+                var event = new DataPathEvents.Export();
+                event.begin();
+                long start = System.nanoTime();
                 String text = outputArea.getText();
                 String[] lines = text.split("\n");
                 
@@ -637,6 +1439,8 @@ public class Gui extends JFrame {
                 }
                 
                 Files.writeString(Path.of(fileChooser.getSelectedFile().getPath()), csv.toString());
+                commitExport(event, "CSV", csv.length(), fileChooser.getSelectedFile().getPath());
+                edtWatchdog.record("exportAsCSV", System.nanoTime() - start);
                 logger.info("Exported data to CSV: {}", fileChooser.getSelectedFile().getPath());
             } catch (IOException ex) {
                 logger.error("Error exporting CSV: {}", ex.getMessage(), ex);
@@ -650,6 +1454,9 @@ public class Gui extends JFrame {
         fileChooser.setSelectedFile(new java.io.File("output.json"));
         if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
             try {
+                var event = new DataPathEvents.Export();
+                event.begin();
+                long start = System.nanoTime();
                 String text = outputArea.getText();
                 String[] lines = text.split("\n");
                 
@@ -681,6 +1488,8 @@ public class Gui extends JFrame {
                 
                 json.append("\n  ]\n}\n");
                 Files.writeString(Path.of(fileChooser.getSelectedFile().getPath()), json.toString());
+                commitExport(event, "JSON", json.length(), fileChooser.getSelectedFile().getPath());
+                edtWatchdog.record("exportAsJSON", System.nanoTime() - start);
                 logger.info("Exported data to JSON: {}", fileChooser.getSelectedFile().getPath());
             } catch (IOException ex) {
                 logger.error("Error exporting JSON: {}", ex.getMessage(), ex);
@@ -697,13 +1506,750 @@ public class Gui extends JFrame {
                   .replace("\t", "\\t");
     }
 
+    private void showPlotWindow() {
+        if (plotWindow != null) {
+            plotWindow.setVisible(true);
+            plotWindow.toFront();
+            return;
+        }
+        var plotPanel = new PlotPanel(
+            Math.max(1, config.getInt(ConfigurationManager.KEY_PLOT_CAPACITY, PlotPanel.DEFAULT_CAPACITY)));
+        var extractor = new TelemetryExtractor(plotPanel::series);
+        String savedPattern = config.getString(ConfigurationManager.KEY_PLOT_PATTERN, TelemetryExtractor.DEFAULT_PATTERN);
+        try {
+            extractor.setPattern(savedPattern);
+        } catch (IllegalArgumentException ex) {
+            logger.warn("Ignoring saved plot pattern: {}", ex.getMessage());
+        }
+        
+        var patternField = new JTextField(extractor.getPattern(), 40);
+        patternField.setToolTipText("Regular expression with a name group and a value group");
+        patternField.addActionListener(e -> {
+            try {
+                extractor.setPattern(patternField.getText());
+                config.setString(ConfigurationManager.KEY_PLOT_PATTERN, patternField.getText());
+                plotPanel.clear();
+            } catch (IllegalArgumentException ex) {
+                showError(ex.getMessage());
+            }
+        });
+        var windowDropdown = new JComboBox<>(new String[]{"10 s", "30 s", "60 s", "300 s", "All"});
+        windowDropdown.setSelectedIndex(1);
+        windowDropdown.addActionListener(e -> plotPanel.setWindowSeconds(switch (windowDropdown.getSelectedIndex()) {
+            case 0 -> 10;
+            case 1 -> 30;
+            case 2 -> 60;
+            case 3 -> 300;
+            default -> 0;
+        }));
+        var clearButton = new JButton("Clear");
+        clearButton.addActionListener(e -> plotPanel.clear());
+        
+        var controls = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        controls.add(new JLabel("Pattern:"));
+        controls.add(patternField);
+        controls.add(new JLabel("Window:"));
+        controls.add(windowDropdown);
+        controls.add(clearButton);
+        
+        plotWindow = new JFrame("Telemetry Plot");
+        plotWindow.setDefaultCloseOperation(JFrame.HIDE_ON_CLOSE);
+        plotWindow.add(controls, BorderLayout.NORTH);
+        plotWindow.add(plotPanel, BorderLayout.CENTER);
+        plotWindow.pack();
+        plotWindow.setLocationRelativeTo(this);
+        plotWindow.setVisible(true);
+        telemetryExtractor = extractor;
+        logger.debug("Telemetry plot opened");
+    }
+
+    private static ByteCapture createCapture(String prefix, int maxMb) {
+        if (maxMb <= 0) {
+            return null;
+        }
+        try {
+            return new ByteCapture(prefix, maxMb * 1024L * 1024);
+        } catch (IOException ex) {
+            logger.error("Raw byte capture unavailable: {}", ex.getMessage(), ex);
+            return null;
+        }
+    }
+
+    private void showHexWindow() {
+        if (rxCapture == null) {
+            showError("Raw byte capture is unavailable (turned off with "
+                + ConfigurationManager.KEY_CAPTURE_MAX_MB + "=0, or the temporary file could not be created)");
+            return;
+        }
+        if (hexWindow == null) {
+            var hexPanel = new HexDumpPanel(rxCapture);
+            var clearButton = new JButton("Clear Capture");
+            clearButton.addActionListener(e -> {
+                rxCapture.clear();
+                if (txCapture != null) {
+                    txCapture.clear();
+                }
+            });
+            hexWindow = new JFrame("Hex Dump (received bytes)");
+            hexWindow.setDefaultCloseOperation(JFrame.HIDE_ON_CLOSE);
+            hexWindow.add(hexPanel, BorderLayout.CENTER);
+            hexWindow.add(clearButton, BorderLayout.SOUTH);
+            hexWindow.pack();
+            hexWindow.setLocationRelativeTo(this);
+        }
+        hexWindow.setVisible(true);
+        hexWindow.toFront();
+    }
+
+    private void showModbusWindow() {
+        if (modbusWindow != null) {
+            modbusWindow.setVisible(true);
+            modbusWindow.toFront();
+            return;
+        }
+        var frameArea = new JTextArea(20, 80);
+        frameArea.setEditable(false);
+        frameArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        var countLabel = new JLabel(" ");
+        var resetButton = new JButton("Clear");
+        var pending = new ConcurrentLinkedQueue<String>();
+        var timeFormat = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+        // Replaced on the EDT and read by the receive thread; the reference publishes the new decoder
+        var decoder = new AtomicReference<ModbusRtuDecoder>();
+        Consumer<SerialChunk> listener = chunk -> decoder.get().accept(chunk);
+        Runnable newDecoder = () -> decoder.set(new ModbusRtuDecoder(baudRate).onFrame(frame -> {
+            // Runs on the receive thread; only the formatted line crosses to the EDT
+            long ageNanos = System.nanoTime() - frame.startNanos();
+            var time = LocalTime.now().minusNanos(ageNanos);
+            String gap = frame.gapNanos() < 0 ? "" : String.format("+%.1f ms", frame.gapNanos() / 1e6);
+            pending.add(String.format("%s %10s  %s%n", timeFormat.format(time), gap, frame.text()));
+        }));
+        newDecoder.run();
+
+        var refreshTimer = new Timer(50, e -> {
+            ModbusRtuDecoder current = decoder.get();
+            current.poll(System.nanoTime());
+            var batch = new StringBuilder();
+            for (String line; (line = pending.poll()) != null; ) {
+                batch.append(line);
+            }
+            if (!batch.isEmpty()) {
+                frameArea.append(batch.toString());
+                int excess = frameArea.getDocument().getLength() - 500_000;
+                if (excess > 0) {
+                    frameArea.replaceRange("", 0, excess);
+                }
+                frameArea.setCaretPosition(frameArea.getDocument().getLength());
+            }
+            countLabel.setText(String.format("%,d frames, %,d CRC errors, t3.5 = %.2f ms at %d baud",
+                current.getFrameCount(), current.getCrcErrors(), current.getSilenceNanos() / 1e6, baudRate));
+        });
+        resetButton.addActionListener(e -> {
+            // Also picks up a changed baud rate
+            newDecoder.run();
+            pending.clear();
+            frameArea.setText("");
+        });
+
+        var bottom = new JPanel(new BorderLayout());
+        bottom.add(countLabel, BorderLayout.CENTER);
+        bottom.add(resetButton, BorderLayout.EAST);
+        modbusWindow = new JFrame("Modbus RTU Decoder");
+        modbusWindow.setDefaultCloseOperation(JFrame.HIDE_ON_CLOSE);
+        modbusWindow.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowActivated(WindowEvent e) {
+                // Decode only while the window is open
+                if (!refreshTimer.isRunning()) {
+                    commManager.addReceiveListener(listener);
+                    refreshTimer.start();
+                }
+            }
+
+            @Override
+            public void windowClosing(WindowEvent e) {
+                commManager.removeReceiveListener(listener);
+                refreshTimer.stop();
+            }
+        });
+        modbusWindow.add(new JScrollPane(frameArea), BorderLayout.CENTER);
+        modbusWindow.add(bottom, BorderLayout.SOUTH);
+        modbusWindow.pack();
+        modbusWindow.setLocationRelativeTo(this);
+        modbusWindow.setVisible(true);
+    }
+
+    private void showNmeaWindow() {
+        if (nmeaWindow != null) {
+            nmeaWindow.setVisible(true);
+            nmeaWindow.toFront();
+            return;
+        }
+        var statusArea = new JTextArea(10, 50);
+        statusArea.setEditable(false);
+        statusArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 13));
+        var resetButton = new JButton("Reset");
+        // Replaced on the EDT and read by the receive thread; the reference publishes the new parser
+        var parser = new AtomicReference<>(new NmeaParser());
+        Consumer<SerialChunk> listener = chunk -> parser.get().accept(chunk);
+        // The parser keeps its state in primitives; a snapshot is taken only at display rate
+        var refreshTimer = new Timer(200, e -> statusArea.setText(parser.get().getFix().describe()));
+        resetButton.addActionListener(e -> parser.set(new NmeaParser()));
+
+        var buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(resetButton);
+        nmeaWindow = new JFrame("GNSS (NMEA) Status");
+        nmeaWindow.setDefaultCloseOperation(JFrame.HIDE_ON_CLOSE);
+        nmeaWindow.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowActivated(WindowEvent e) {
+                // Decode only while the window is open
+                if (!refreshTimer.isRunning()) {
+                    commManager.addReceiveListener(listener);
+                    refreshTimer.start();
+                }
+            }
+
+            @Override
+            public void windowClosing(WindowEvent e) {
+                commManager.removeReceiveListener(listener);
+                refreshTimer.stop();
+            }
+        });
+        nmeaWindow.add(statusArea, BorderLayout.CENTER);
+        nmeaWindow.add(buttons, BorderLayout.SOUTH);
+        nmeaWindow.pack();
+        nmeaWindow.setLocationRelativeTo(this);
+        nmeaWindow.setVisible(true);
+    }
+
+    private void showScanWindow() {
+        if (scanWindow != null) {
+            scanWindow.setVisible(true);
+            scanWindow.toFront();
+            return;
+        }
+        var tableModel = new DefaultTableModel(new Object[]{"Port", "Baud Rate", "Identity", "Status", "Time (ms)"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        var table = new JTable(tableModel);
+        table.setToolTipText("Double-click a device to select its port and baud rate");
+        table.getColumnModel().getColumn(2).setPreferredWidth(300);
+        var identifyCheckbox = new JCheckBox("Identify devices (ATI, *IDN?)", true);
+        var scanButton = new JButton("Scan");
+        var summaryLabel = new JLabel("Probes all detected ports at once; the open port is skipped");
+        Thread[] scanThread = {null};
+
+        scanButton.addActionListener(e -> {
+            if (scanThread[0] != null) {
+                scanThread[0].interrupt();
+                return;
+            }
+            String inUse = commManager.isConnected() ? commManager.getPortName() : null;
+            List<String> ports = new ArrayList<>();
+            tableModel.setRowCount(0);
+            for (String port : portProvider.get()) {
+                if (port.equals(inUse)) {
+                    tableModel.addRow(new Object[]{port, baudRate, "", "In use", ""});
+                } else {
+                    ports.add(port);
+                    tableModel.addRow(new Object[]{port, "", "", "Probing...", ""});
+                }
+            }
+            var scanner = new PortScanner(serialPortFactory);
+            scanner.setIdentify(identifyCheckbox.isSelected());
+            scanner.setFraming(dataBits, stopBits, parity);
+            scanner.onResult(result -> SwingUtilities.invokeLater(() -> {
+                if (result.found()) {
+                    config.putDeviceFingerprint(PortIdentity.stableIdFor(result.portName()), result.baudRate(),
+                        dataBits, stopBits, parity, result.identity().isEmpty() ? null : result.identity());
+                }
+                for (int row = 0; row < tableModel.getRowCount(); row++) {
+                    if (result.portName().equals(tableModel.getValueAt(row, 0))) {
+                        tableModel.setValueAt(result.found() ? result.baudRate() : "", row, 1);
+                        tableModel.setValueAt(result.identity(), row, 2);
+                        tableModel.setValueAt(result.status(), row, 3);
+                        tableModel.setValueAt(result.elapsedMillis(), row, 4);
+                    }
+                }
+            }));
+            scanButton.setText("Stop");
+            summaryLabel.setText("Scanning " + ports.size() + " ports...");
+            long start = System.nanoTime();
+            scanThread[0] = new Thread(() -> {
+                String summary;
+                try {
+                    List<PortScanner.Result> results = scanner.scan(ports);
+                    summary = String.format("%d of %d ports answered in %.1f s",
+                        results.stream().filter(PortScanner.Result::found).count(), ports.size(),
+                        (System.nanoTime() - start) / 1e9);
+                } catch (InterruptedException ex) {
+                    summary = "Scan stopped";
+                }
+                String text = summary;
+                SwingUtilities.invokeLater(() -> {
+                    scanThread[0] = null;
+                    scanButton.setText("Scan");
+                    summaryLabel.setText(text);
+                });
+            }, "port-scan");
+            scanThread[0].setDaemon(true);
+            scanThread[0].start();
+        });
+        table.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int row = table.getSelectedRow();
+                if (e.getClickCount() != 2 || row < 0 || !(tableModel.getValueAt(row, 1) instanceof Integer rate)) {
+                    return;
+                }
+                if (commManager.isConnected() || pendingConnect != null) {
+                    showError("Disconnect before selecting another port");
+                    return;
+                }
+                portsDropdown.setSelectedItem(tableModel.getValueAt(row, 0));
+                baudRate = rate;
+                summaryLabel.setText("Selected " + tableModel.getValueAt(row, 0) + " @ " + rate + " baud");
+            }
+        });
+
+        var controls = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        controls.add(identifyCheckbox);
+        controls.add(scanButton);
+        controls.add(summaryLabel);
+        scanWindow = new JFrame("Scan Ports");
+        scanWindow.setDefaultCloseOperation(JFrame.HIDE_ON_CLOSE);
+        scanWindow.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                Thread thread = scanThread[0];
+                if (thread != null) {
+                    thread.interrupt();
+                }
+            }
+        });
+        scanWindow.add(controls, BorderLayout.NORTH);
+        scanWindow.add(new JScrollPane(table), BorderLayout.CENTER);
+        scanWindow.setSize(800, 300);
+        scanWindow.setLocationRelativeTo(this);
+        scanWindow.setVisible(true);
+    }
+
+    private void showResponsivenessWindow() {
+        if (responsivenessWindow != null) {
+            responsivenessWindow.setVisible(true);
+            responsivenessWindow.toFront();
+            return;
+        }
+        var reportArea = new JTextArea(10, 75);
+        reportArea.setEditable(false);
+        reportArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        var refreshTimer = new Timer(1000, e -> reportArea.setText(edtWatchdog.getReport()));
+        refreshTimer.setInitialDelay(0);
+
+        responsivenessWindow = new JFrame("UI Responsiveness");
+        responsivenessWindow.setDefaultCloseOperation(JFrame.HIDE_ON_CLOSE);
+        responsivenessWindow.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowActivated(WindowEvent e) {
+                if (!refreshTimer.isRunning()) {
+                    refreshTimer.start();
+                }
+            }
+
+            @Override
+            public void windowClosing(WindowEvent e) {
+                refreshTimer.stop();
+            }
+        });
+        responsivenessWindow.add(new JScrollPane(reportArea), BorderLayout.CENTER);
+        responsivenessWindow.pack();
+        responsivenessWindow.setLocationRelativeTo(this);
+        responsivenessWindow.setVisible(true);
+    }
+
+    private void showLatencyWindow() {
+        if (latencyWindow != null) {
+            latencyWindow.setVisible(true);
+            latencyWindow.toFront();
+            return;
+        }
+        var probe = new LatencyProbe(commManager);
+        var countField = new JTextField("1000", 6);
+        var intervalField = new JTextField("10", 4);
+        var timeoutField = new JTextField("1000", 5);
+        var paddingField = new JTextField("0", 4);
+        paddingField.setToolTipText("Extra payload bytes per probe frame");
+        var startButton = new JButton("Start");
+        var exportButton = new JButton("Export Report...");
+        var summaryLabel = new JLabel("Connect to an echoing device or loopback plug, then press Start");
+        var reportArea = new JTextArea(20, 60);
+        reportArea.setEditable(false);
+        reportArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        
+        var refreshTimer = new Timer(250, e -> {
+            summaryLabel.setText(probe.getSummary());
+            reportArea.setText(probe.getReport());
+            if (!probe.isRunning()) {
+                ((Timer) e.getSource()).stop();
+                startButton.setText("Start");
+            }
+        });
+        startButton.addActionListener(e -> {
+            if (probe.isRunning()) {
+                probe.stop();
+                return;
+            }
+            try {
+                probe.start(Integer.parseInt(countField.getText().trim()),
+                    Integer.parseInt(intervalField.getText().trim()),
+                    Integer.parseInt(timeoutField.getText().trim()),
+                    Integer.parseInt(paddingField.getText().trim()));
+                startButton.setText("Stop");
+                refreshTimer.start();
+            } catch (NumberFormatException ex) {
+                showError("Invalid number format in latency test settings");
+            } catch (IllegalStateException ex) {
+                showError(ex.getMessage());
+            }
+        });
+        exportButton.addActionListener(e -> {
+            var fileChooser = new JFileChooser();
+            if (fileChooser.showSaveDialog(latencyWindow) == JFileChooser.APPROVE_OPTION) {
+                try {
+                    Files.writeString(fileChooser.getSelectedFile().toPath(), probe.getReport());
+                } catch (IOException ex) {
+                    showError("Error saving report: " + ex.getMessage());
+                }
+            }
+        });
+        
+        var controls = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        controls.add(new JLabel("Probes:"));
+        controls.add(countField);
+        controls.add(new JLabel("Interval (ms):"));
+        controls.add(intervalField);
+        controls.add(new JLabel("Timeout (ms):"));
+        controls.add(timeoutField);
+        controls.add(new JLabel("Padding:"));
+        controls.add(paddingField);
+        controls.add(startButton);
+        controls.add(exportButton);
+        
+        latencyWindow = new JFrame("Round-Trip Latency Test");
+        latencyWindow.setDefaultCloseOperation(JFrame.HIDE_ON_CLOSE);
+        latencyWindow.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                probe.stop();
+            }
+        });
+        latencyWindow.add(controls, BorderLayout.NORTH);
+        latencyWindow.add(new JScrollPane(reportArea), BorderLayout.CENTER);
+        latencyWindow.add(summaryLabel, BorderLayout.SOUTH);
+        latencyWindow.pack();
+        latencyWindow.setLocationRelativeTo(this);
+        latencyWindow.setVisible(true);
+    }
+
+    private void showPrbsWindow() {
+        if (prbsWindow != null) {
+            prbsWindow.setVisible(true);
+            prbsWindow.toFront();
+            return;
+        }
+        var patternDropdown = new JComboBox<>(PrbsGenerator.Pattern.values());
+        patternDropdown.setSelectedItem(PrbsGenerator.Pattern.PRBS15);
+        var startButton = new JButton("Start");
+        var resultArea = new JTextArea(10, 50);
+        resultArea.setEditable(false);
+        resultArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        resultArea.setText("Fit a loopback plug (TX to RX), connect, then press Start.\n"
+            + "Received data is not shown in the main window while the test runs.");
+        PrbsRunner[] runner = new PrbsRunner[1];
+        
+        var refreshTimer = new Timer(500, e -> {
+            PrbsRunner current = runner[0];
+            if (current == null) {
+                return;
+            }
+            String text = current.getSummary();
+            if (current.getFailure() != null) {
+                text += "Stopped: " + current.getFailure() + "\n";
+            }
+            resultArea.setText(text);
+            if (!current.isRunning()) {
+                current.stop();
+                displaySuspended = false;
+                startButton.setText("Start");
+                patternDropdown.setEnabled(true);
+                ((Timer) e.getSource()).stop();
+            }
+        });
+        Runnable stopTest = () -> {
+            if (runner[0] != null && runner[0].isRunning()) {
+                runner[0].stop();
+            }
+        };
+        startButton.addActionListener(e -> {
+            if (runner[0] != null && runner[0].isRunning()) {
+                stopTest.run();
+                return;
+            }
+            var current = new PrbsRunner(commManager, (PrbsGenerator.Pattern) patternDropdown.getSelectedItem(),
+                baudRate, dataBits, stopBits, parity);
+            try {
+                displaySuspended = true;
+                current.start();
+            } catch (IllegalStateException ex) {
+                displaySuspended = false;
+                showError(ex.getMessage());
+                return;
+            }
+            runner[0] = current;
+            startButton.setText("Stop");
+            patternDropdown.setEnabled(false);
+            refreshTimer.start();
+        });
+        
+        var controls = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        controls.add(new JLabel("Pattern:"));
+        controls.add(patternDropdown);
+        controls.add(startButton);
+        
+        prbsWindow = new JFrame("PRBS Link Test");
+        prbsWindow.setDefaultCloseOperation(JFrame.HIDE_ON_CLOSE);
+        prbsWindow.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                stopTest.run();
+            }
+        });
+        prbsWindow.add(controls, BorderLayout.NORTH);
+        prbsWindow.add(new JScrollPane(resultArea), BorderLayout.CENTER);
+        prbsWindow.pack();
+        prbsWindow.setLocationRelativeTo(this);
+        prbsWindow.setVisible(true);
+    }
+
+    private void showSendFileWindow() {
+        if (sendFileWindow != null) {
+            sendFileWindow.setVisible(true);
+            sendFileWindow.toFront();
+            return;
+        }
+        var fileField = new JTextField(30);
+        var browseButton = new JButton("Browse...");
+        var pacingDropdown = new JComboBox<>(FileSender.Pacing.values());
+        var chunkSizeField = new JTextField(String.valueOf(FileSender.DEFAULT_CHUNK_SIZE), 6);
+        var delayField = new JTextField("10", 5);
+        var echoTimeoutField = new JTextField("1000", 5);
+        var startButton = new JButton("Send");
+        var progressBar = new JProgressBar(0, 1000);
+        progressBar.setStringPainted(true);
+        var statusArea = new JTextArea(3, 50);
+        statusArea.setEditable(false);
+        statusArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        FileSender[] sender = new FileSender[1];
+
+        browseButton.addActionListener(e -> {
+            var fileChooser = new JFileChooser();
+            if (fileChooser.showOpenDialog(sendFileWindow) == JFileChooser.APPROVE_OPTION) {
+                fileField.setText(fileChooser.getSelectedFile().getPath());
+            }
+        });
+        Runnable updatePacingFields = () -> {
+            var pacing = (FileSender.Pacing) pacingDropdown.getSelectedItem();
+            delayField.setEnabled(pacing == FileSender.Pacing.DELAY);
+            echoTimeoutField.setEnabled(pacing == FileSender.Pacing.LINE_ECHO);
+        };
+        pacingDropdown.addActionListener(e -> updatePacingFields.run());
+        updatePacingFields.run();
+
+        var refreshTimer = new Timer(250, e -> {
+            FileSender current = sender[0];
+            if (current == null) {
+                return;
+            }
+            progressBar.setValue((int) (current.getProgress() * 1000));
+            progressBar.setString(String.format("%.1f%%", current.getProgress() * 100));
+            statusArea.setText(current.getSummary());
+            if (!current.isRunning()) {
+                startButton.setText("Send");
+                ((Timer) e.getSource()).stop();
+            }
+        });
+        startButton.addActionListener(e -> {
+            if (sender[0] != null && sender[0].isRunning()) {
+                sender[0].stop();
+                return;
+            }
+            try {
+                var current = new FileSender(commManager, Path.of(fileField.getText().trim()),
+                    (FileSender.Pacing) pacingDropdown.getSelectedItem())
+                    .withChunkSize(Integer.parseInt(chunkSizeField.getText().trim()))
+                    .withChunkDelayMs(Integer.parseInt(delayField.getText().trim()))
+                    .withEchoTimeoutMs(Integer.parseInt(echoTimeoutField.getText().trim()));
+                current.start();
+                sender[0] = current;
+            } catch (NumberFormatException ex) {
+                showError("Chunk size, delay and echo timeout must be whole numbers");
+                return;
+            } catch (IllegalArgumentException | IllegalStateException | IOException ex) {
+                showError("Cannot send file: " + ex.getMessage());
+                return;
+            }
+            startButton.setText("Cancel");
+            refreshTimer.start();
+        });
+
+        var filePanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        filePanel.add(new JLabel("File:"));
+        filePanel.add(fileField);
+        filePanel.add(browseButton);
+        var pacingPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        pacingPanel.add(new JLabel("Pacing:"));
+        pacingPanel.add(pacingDropdown);
+        pacingPanel.add(new JLabel("Chunk:"));
+        pacingPanel.add(chunkSizeField);
+        pacingPanel.add(new JLabel("Delay (ms):"));
+        pacingPanel.add(delayField);
+        pacingPanel.add(new JLabel("Echo timeout (ms):"));
+        pacingPanel.add(echoTimeoutField);
+        var controls = new JPanel(new GridLayout(0, 1));
+        controls.add(filePanel);
+        controls.add(pacingPanel);
+        var progressPanel = new JPanel(new BorderLayout(5, 5));
+        progressPanel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+        progressPanel.add(progressBar, BorderLayout.CENTER);
+        progressPanel.add(startButton, BorderLayout.EAST);
+        progressPanel.add(new JScrollPane(statusArea), BorderLayout.SOUTH);
+
+        sendFileWindow = new JFrame("Send File");
+        sendFileWindow.setDefaultCloseOperation(JFrame.HIDE_ON_CLOSE);
+        sendFileWindow.add(controls, BorderLayout.NORTH);
+        sendFileWindow.add(progressPanel, BorderLayout.CENTER);
+        sendFileWindow.pack();
+        sendFileWindow.setLocationRelativeTo(this);
+        sendFileWindow.setVisible(true);
+    }
+
+    private void showModemWindow() {
+        if (modemWindow != null) {
+            modemWindow.setVisible(true);
+            modemWindow.toFront();
+            return;
+        }
+        var protocolDropdown = new JComboBox<>(ModemTransfer.Protocol.values());
+        protocolDropdown.setSelectedItem(ModemTransfer.Protocol.XMODEM_1K);
+        var directionDropdown = new JComboBox<>(new String[]{"Send", "Receive"});
+        var fileField = new JTextField(30);
+        var browseButton = new JButton("Browse...");
+        var startButton = new JButton("Start");
+        var progressBar = new JProgressBar(0, 1000);
+        progressBar.setStringPainted(true);
+        var resultArea = new JTextArea(4, 50);
+        resultArea.setEditable(false);
+        resultArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        resultArea.setText("Start the transfer here, then on the device (or the other way round for Receive).\n"
+            + "For a YMODEM receive the file may be a directory.");
+        ModemTransfer[] transfer = new ModemTransfer[1];
+
+        browseButton.addActionListener(e -> {
+            var fileChooser = new JFileChooser();
+            fileChooser.setFileSelectionMode(JFileChooser.FILES_AND_DIRECTORIES);
+            boolean send = "Send".equals(directionDropdown.getSelectedItem());
+            int choice = send ? fileChooser.showOpenDialog(modemWindow) : fileChooser.showSaveDialog(modemWindow);
+            if (choice == JFileChooser.APPROVE_OPTION) {
+                fileField.setText(fileChooser.getSelectedFile().getPath());
+            }
+        });
+        var refreshTimer = new Timer(250, e -> {
+            ModemTransfer current = transfer[0];
+            if (current == null) {
+                return;
+            }
+            long total = current.getTotalBytes();
+            if (total > 0) {
+                double progress = Math.min(1.0, (double) current.getBytesTransferred() / total);
+                progressBar.setIndeterminate(false);
+                progressBar.setValue((int) (progress * 1000));
+                progressBar.setString(String.format("%.1f%%", progress * 100));
+            } else {
+                progressBar.setIndeterminate(current.isRunning());
+                progressBar.setString(String.format("%,d bytes", current.getBytesTransferred()));
+            }
+            resultArea.setText(current.getSummary());
+            if (!current.isRunning()) {
+                progressBar.setIndeterminate(false);
+                startButton.setText("Start");
+                protocolDropdown.setEnabled(true);
+                directionDropdown.setEnabled(true);
+                ((Timer) e.getSource()).stop();
+            }
+        });
+        startButton.addActionListener(e -> {
+            if (transfer[0] != null && transfer[0].isRunning()) {
+                transfer[0].cancel();
+                return;
+            }
+            if (fileField.getText().isBlank()) {
+                showError("Choose a file first");
+                return;
+            }
+            var protocol = (ModemTransfer.Protocol) protocolDropdown.getSelectedItem();
+            Path path = Path.of(fileField.getText().trim());
+            ModemTransfer current = "Send".equals(directionDropdown.getSelectedItem())
+                ? new ModemSender(commManager, protocol, path)
+                : new ModemReceiver(commManager, protocol, path);
+            current.withLineRate(PrbsRunner.charactersPerSecond(baudRate, dataBits, stopBits, parity));
+            try {
+                current.start();
+            } catch (IllegalStateException ex) {
+                showError(ex.getMessage());
+                return;
+            }
+            transfer[0] = current;
+            startButton.setText("Cancel");
+            protocolDropdown.setEnabled(false);
+            directionDropdown.setEnabled(false);
+            refreshTimer.start();
+        });
+
+        var controls = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        controls.add(directionDropdown);
+        controls.add(protocolDropdown);
+        controls.add(new JLabel("File:"));
+        controls.add(fileField);
+        controls.add(browseButton);
+        var progressPanel = new JPanel(new BorderLayout(5, 5));
+        progressPanel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+        progressPanel.add(progressBar, BorderLayout.CENTER);
+        progressPanel.add(startButton, BorderLayout.EAST);
+        progressPanel.add(new JScrollPane(resultArea), BorderLayout.SOUTH);
+
+        modemWindow = new JFrame("XMODEM/YMODEM Transfer");
+        modemWindow.setDefaultCloseOperation(JFrame.HIDE_ON_CLOSE);
+        modemWindow.add(controls, BorderLayout.NORTH);
+        modemWindow.add(progressPanel, BorderLayout.CENTER);
+        modemWindow.pack();
+        modemWindow.setLocationRelativeTo(this);
+        modemWindow.setVisible(true);
+    }
+
     private void showSettingsDialog() {
         var settingsPanel = new JPanel(new GridLayout(0, 2, 5, 5));
         settingsPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
         
-        var baudRateOptions = List.of("9600", "14400", "19200", "28800", "38400", "57600", "115200");
+        var baudRateOptions = List.of("9600", "14400", "19200", "28800", "38400", "57600", "115200",
+            "230400", "460800", "921600", "1000000", "1500000", "2000000", "3000000");
         var baudRateDropdown = new JComboBox<>(baudRateOptions.toArray(new String[0]));
+        baudRateDropdown.setEditable(true);
         baudRateDropdown.setSelectedItem(String.valueOf(baudRate));
+        baudRateDropdown.setToolTipText("Any rate the adapter supports, e.g. 2000000 for FTDI or CP210x");
         
         var parityOptions = List.of("None", "Odd", "Even", "Mark", "Space");
         var parityDropdown = new JComboBox<>(parityOptions.toArray(new String[0]));
@@ -716,8 +2262,51 @@ public class Gui extends JFrame {
             case HEX_AND_ASCII -> 2;
         });
         
+        var encodingDropdown = new JComboBox<>(TextEncoding.values());
+        encodingDropdown.setRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                Object label = value instanceof TextEncoding encoding ? encoding.getDisplayName() : value;
+                return super.getListCellRendererComponent(list, label, index, isSelected, cellHasFocus);
+            }
+        });
+        String encodingPort = selectedPortName();
+        encodingDropdown.setSelectedItem(encodingFor(encodingPort));
+        encodingDropdown.setToolTipText(encodingPort != null
+            ? "Text encoding used for " + encodingPort
+            : "Text encoding (select a port to save it per port)");
+        
         var dataBitsField = new JTextField(String.valueOf(dataBits));
         var stopBitsField = new JTextField(String.valueOf(stopBits));
+        var overloadOptions = List.of("Sample every Nth line", "Summarize", "Pause");
+        var overloadDropdown = new JComboBox<>(overloadOptions.toArray(new String[0]));
+        overloadDropdown.setSelectedIndex(overloadPolicy.ordinal());
+        overloadDropdown.setToolTipText("What the display does when data arrives faster than it can be shown");
+        var sampleEveryField = new JTextField(String.valueOf(overloadSampleEvery));
+        var highWatermarkField = new JTextField(String.valueOf(overloadHighWatermark));
+        highWatermarkField.setToolTipText("Number of lines waiting for the display before it degrades");
+        var readerModeOptions = List.of("Event listener", "Busy spin", "Short timeout", "Long block");
+        var readerModeDropdown = new JComboBox<>(readerModeOptions.toArray(new String[0]));
+        readerModeDropdown.setSelectedIndex(commManager.getReaderSettings().mode().ordinal());
+        readerModeDropdown.setToolTipText("How received data is read: jssc events or a dedicated reader thread");
+        var virtualReaderCheckbox = new JCheckBox("Virtual thread", commManager.getReaderSettings().virtualThread());
+        LineSettings line = commManager.getLineSettings();
+        var flowControlOptions = List.of("None", "RTS/CTS (hardware)", "XON/XOFF (software)");
+        var flowControlDropdown = new JComboBox<>(flowControlOptions.toArray(new String[0]));
+        flowControlDropdown.setSelectedIndex(line.flowControl().ordinal());
+        flowControlDropdown.setToolTipText("Lets the device be paused instead of overrunning the input buffer at high baud rates");
+        var dtrCheckbox = new JCheckBox("DTR", line.dtr());
+        var rtsCheckbox = new JCheckBox("RTS", line.rts());
+        rtsCheckbox.setToolTipText("Ignored with RTS/CTS flow control, where the driver drives RTS");
+        var controlLinesPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
+        controlLinesPanel.add(dtrCheckbox);
+        controlLinesPanel.add(rtsCheckbox);
+        var countErrorsCheckbox = new JCheckBox("Count framing/overrun/parity errors", line.countErrors());
+        var stallTimeoutField = new JTextField(String.valueOf(stallTimeoutMs));
+        stallTimeoutField.setToolTipText("Auto-Reconnect reopens the port after this much RX silence (0 = off)");
+        var metricsPortField = new JTextField(String.valueOf(metricsPort));
+        metricsPortField.setToolTipText("Serve Prometheus metrics on http://localhost:<port>/metrics (0 = off)");
         
         settingsPanel.add(new JLabel("Baud Rate:"));
         settingsPanel.add(baudRateDropdown);
@@ -727,15 +2316,57 @@ public class Gui extends JFrame {
         settingsPanel.add(stopBitsField);
         settingsPanel.add(new JLabel("Parity:"));
         settingsPanel.add(parityDropdown);
+        settingsPanel.add(new JLabel("Flow Control:"));
+        settingsPanel.add(flowControlDropdown);
+        settingsPanel.add(new JLabel("Assert Lines:"));
+        settingsPanel.add(controlLinesPanel);
+        settingsPanel.add(new JLabel("Line Errors:"));
+        settingsPanel.add(countErrorsCheckbox);
         settingsPanel.add(new JLabel("Display Mode:"));
         settingsPanel.add(displayModeDropdown);
+        settingsPanel.add(new JLabel("Encoding:"));
+        settingsPanel.add(encodingDropdown);
+        settingsPanel.add(new JLabel("Overload Mode:"));
+        settingsPanel.add(overloadDropdown);
+        settingsPanel.add(new JLabel("Sample N:"));
+        settingsPanel.add(sampleEveryField);
+        settingsPanel.add(new JLabel("Overload Threshold (lines):"));
+        settingsPanel.add(highWatermarkField);
+        settingsPanel.add(new JLabel("Reader Mode:"));
+        settingsPanel.add(readerModeDropdown);
+        settingsPanel.add(new JLabel("Reader Thread:"));
+        settingsPanel.add(virtualReaderCheckbox);
+        settingsPanel.add(new JLabel("RX Stall Timeout (ms):"));
+        settingsPanel.add(stallTimeoutField);
+        settingsPanel.add(new JLabel("Metrics HTTP Port:"));
+        settingsPanel.add(metricsPortField);
         
         if (JOptionPane.showConfirmDialog(this, settingsPanel, "Settings",
                 JOptionPane.OK_CANCEL_OPTION) == JOptionPane.OK_OPTION) {
             try {
-                baudRate = Integer.parseInt(baudRateDropdown.getSelectedItem().toString());
+                int newBaudRate = Integer.parseInt(baudRateDropdown.getSelectedItem().toString().trim());
+                if (newBaudRate <= 0) {
+                    showError("Baud rate must be positive");
+                    return;
+                }
+                baudRate = newBaudRate;
                 dataBits = Integer.parseInt(dataBitsField.getText().trim());
                 stopBits = Integer.parseInt(stopBitsField.getText().trim());
+                stallTimeoutMs = Math.max(0, Integer.parseInt(stallTimeoutField.getText().trim()));
+                supervisor.setStallTimeoutMs(stallTimeoutMs);
+                int newMetricsPort = Math.max(0, Integer.parseInt(metricsPortField.getText().trim()));
+                applyMetricsPort(newMetricsPort);
+                config.setInt(ConfigurationManager.KEY_METRICS_PORT, newMetricsPort);
+                overloadPolicy = DisplayPipeline.OverloadPolicy.values()[overloadDropdown.getSelectedIndex()];
+                overloadSampleEvery = Math.max(2, Integer.parseInt(sampleEveryField.getText().trim()));
+                overloadHighWatermark = Math.max(10, Integer.parseInt(highWatermarkField.getText().trim()));
+                applyOverloadSettings();
+                commManager.setReaderSettings(ReaderSettings.forMode(
+                    ReaderSettings.Mode.values()[readerModeDropdown.getSelectedIndex()])
+                    .withVirtualThread(virtualReaderCheckbox.isSelected()));
+                commManager.setLineSettings(new LineSettings(
+                    LineSettings.FlowControl.values()[flowControlDropdown.getSelectedIndex()],
+                    dtrCheckbox.isSelected(), rtsCheckbox.isSelected(), countErrorsCheckbox.isSelected()));
                 
                 switch (parityDropdown.getSelectedIndex()) {
                     case 0 -> parity = SerialPort.PARITY_NONE;
@@ -755,7 +2386,13 @@ public class Gui extends JFrame {
                 config.setString(ConfigurationManager.KEY_DISPLAY_MODE, newMode.name());
                 messageFormatter.setDisplayMode(newMode);
                 
+                TextEncoding newEncoding = (TextEncoding) encodingDropdown.getSelectedItem();
+                if (encodingPort != null && newEncoding != null) {
+                    config.setString(ConfigurationManager.KEY_ENCODING_PREFIX + encodingPort, newEncoding.name());
+                }
+                
                 if (commManager.isConnected()) {
+                    supervisor.stop();
                     commManager.disconnect();
                     connectToSerialPort();
                 }
@@ -766,6 +2403,21 @@ public class Gui extends JFrame {
     }
 
 
+    private String selectedPortName() {
+        Object selected = portsDropdown.getSelectedItem();
+        if (selected == null || "No COM ports found".equals(selected)) {
+            return null;
+        }
+        return selected.toString();
+    }
+
+    private TextEncoding encodingFor(String portName) {
+        if (portName == null) {
+            return commManager.getEncoding();
+        }
+        return TextEncoding.fromName(config.getString(ConfigurationManager.KEY_ENCODING_PREFIX + portName, null));
+    }
+
     private void showError(String errorMessage) {
         errorHandler.accept(errorMessage);
     }
@@ -776,6 +2428,19 @@ public class Gui extends JFrame {
         config.setInt(ConfigurationManager.KEY_STOP_BITS, stopBits);
         config.setInt(ConfigurationManager.KEY_PARITY, parity);
         config.setBoolean(ConfigurationManager.KEY_AUTO_NEGOTIATE, autoNegotiateSpeed);
+        config.setBoolean(ConfigurationManager.KEY_AUTO_RECONNECT, autoReconnect);
+        config.setBoolean(ConfigurationManager.KEY_COLLAPSE_REPEATS, collapseRepeats);
+        config.setInt(ConfigurationManager.KEY_STALL_TIMEOUT_MS, stallTimeoutMs);
+        config.setString(ConfigurationManager.KEY_OVERLOAD_POLICY, overloadPolicy.name());
+        config.setInt(ConfigurationManager.KEY_OVERLOAD_SAMPLE_EVERY, overloadSampleEvery);
+        config.setInt(ConfigurationManager.KEY_OVERLOAD_HIGH_WATERMARK, overloadHighWatermark);
+        config.setString(ConfigurationManager.KEY_READER_MODE, commManager.getReaderSettings().mode().name());
+        config.setBoolean(ConfigurationManager.KEY_READER_VIRTUAL, commManager.getReaderSettings().virtualThread());
+        LineSettings line = commManager.getLineSettings();
+        config.setString(ConfigurationManager.KEY_FLOW_CONTROL, line.flowControl().name());
+        config.setBoolean(ConfigurationManager.KEY_DTR, line.dtr());
+        config.setBoolean(ConfigurationManager.KEY_RTS, line.rts());
+        config.setBoolean(ConfigurationManager.KEY_COUNT_LINE_ERRORS, line.countErrors());
         config.setInt(ConfigurationManager.KEY_WINDOW_WIDTH, getWidth());
         config.setInt(ConfigurationManager.KEY_WINDOW_HEIGHT, getHeight());
         config.setInt(ConfigurationManager.KEY_WINDOW_X, getX());
@@ -793,6 +2458,35 @@ public class Gui extends JFrame {
         stopBits = config.getInt(ConfigurationManager.KEY_STOP_BITS, SerialPort.STOPBITS_1);
         parity = config.getInt(ConfigurationManager.KEY_PARITY, SerialPort.PARITY_NONE);
         autoNegotiateSpeed = config.getBoolean(ConfigurationManager.KEY_AUTO_NEGOTIATE, false);
+        autoReconnect = config.getBoolean(ConfigurationManager.KEY_AUTO_RECONNECT, false);
+        collapseRepeats = config.getBoolean(ConfigurationManager.KEY_COLLAPSE_REPEATS, true);
+        stallTimeoutMs = config.getInt(ConfigurationManager.KEY_STALL_TIMEOUT_MS, 0);
+        try {
+            overloadPolicy = DisplayPipeline.OverloadPolicy.valueOf(config.getString(
+                ConfigurationManager.KEY_OVERLOAD_POLICY, DisplayPipeline.OverloadPolicy.SAMPLE.name()));
+        } catch (IllegalArgumentException ex) {
+            overloadPolicy = DisplayPipeline.OverloadPolicy.SAMPLE;
+        }
+        overloadSampleEvery = config.getInt(ConfigurationManager.KEY_OVERLOAD_SAMPLE_EVERY, 10);
+        overloadHighWatermark = config.getInt(ConfigurationManager.KEY_OVERLOAD_HIGH_WATERMARK, 2000);
+        try {
+            commManager.setReaderSettings(ReaderSettings.forMode(ReaderSettings.Mode.valueOf(config.getString(
+                ConfigurationManager.KEY_READER_MODE, ReaderSettings.Mode.EVENT.name())))
+                .withVirtualThread(config.getBoolean(ConfigurationManager.KEY_READER_VIRTUAL, false)));
+        } catch (IllegalArgumentException ex) {
+            commManager.setReaderSettings(ReaderSettings.DEFAULT);
+        }
+        LineSettings.FlowControl flowControl;
+        try {
+            flowControl = LineSettings.FlowControl.valueOf(config.getString(
+                ConfigurationManager.KEY_FLOW_CONTROL, LineSettings.FlowControl.NONE.name()));
+        } catch (IllegalArgumentException ex) {
+            flowControl = LineSettings.FlowControl.NONE;
+        }
+        commManager.setLineSettings(new LineSettings(flowControl,
+            config.getBoolean(ConfigurationManager.KEY_DTR, true),
+            config.getBoolean(ConfigurationManager.KEY_RTS, true),
+            config.getBoolean(ConfigurationManager.KEY_COUNT_LINE_ERRORS, true)));
         String mode = config.getString(ConfigurationManager.KEY_DISPLAY_MODE, MessageFormatter.DisplayMode.ASCII.name());
         try {
             messageFormatter.setDisplayMode(MessageFormatter.DisplayMode.valueOf(mode));
@@ -814,13 +2508,30 @@ public class Gui extends JFrame {
     }
 
     public static void main(String[] args) {
+        var startupTimer = new StartupTimer();
+        // Read the configuration while the EDT loads the look and feel
+        var configLoad = CompletableFuture.supplyAsync(ConfigurationManager::new);
         SwingUtilities.invokeLater(() -> {
             try {
                 UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
             } catch (Exception e) {
                 e.printStackTrace();
             }
-            new Gui().setVisible(true);
+            startupTimer.mark("look and feel");
+            var config = configLoad.join();
+            startupTimer.mark("config loaded");
+            var gui = new Gui(config, startupTimer);
+            if (Boolean.getBoolean(CDS_TRAINING_PROPERTY)) {
+                gui.addWindowListener(new WindowAdapter() {
+                    @Override
+                    public void windowOpened(WindowEvent e) {
+                        // AppCDS training run: the classes needed to show the window are
+                        // loaded now, so exit and let the JVM write the archive
+                        SwingUtilities.invokeLater(() -> System.exit(0));
+                    }
+                });
+            }
+            gui.setVisible(true);
         });
     }
 }
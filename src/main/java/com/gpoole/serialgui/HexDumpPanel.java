@@ -0,0 +1,218 @@
+package com.gpoole.serialgui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseWheelEvent;
+
+/**
+ * Virtualized hex dump of a {@link ByteCapture}.
+ *
+ * Shows the classic offset | hex | ASCII layout with 16 bytes per row. Only the
+ * rows that fit in the window are read from the capture and drawn, using buffers
+ * that are allocated once, so scrolling through hundreds of megabytes costs the
+ * same as scrolling through a few kilobytes. The scroll bar counts rows rather
+ * than pixels, which keeps very large captures within Swing's int range.
+ *
+ * Features:
+ * - Follow mode keeps the newest bytes in view while data arrives
+ * - Jump to an offset entered in decimal or hex (0x1F40 / 1F40h)
+ */
+public class HexDumpPanel extends JPanel {
+    private static final int BYTES_PER_ROW = 16;
+    private static final int REFRESH_INTERVAL_MS = 100;
+    /** Characters per row: 12 offset + 2 + 16*3 hex + 1 group gap + 1 + 16 ASCII */
+    private static final int ROW_CHARS = 12 + 2 + BYTES_PER_ROW * 3 + 1 + 1 + BYTES_PER_ROW;
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+    private static final Color MARK_COLOR = new Color(255, 255, 0, 160);
+
+    private final ByteCapture capture;
+    private final RowsView rowsView = new RowsView();
+    private final JScrollBar scrollBar = new JScrollBar(JScrollBar.VERTICAL);
+    private final JCheckBox followCheckbox = new JCheckBox("Follow", true);
+    private final JLabel sizeLabel = new JLabel();
+    private final Timer refreshTimer;
+    private long lastSize = -1;
+    private long markedOffset = -1;
+
+    /**
+     * Creates a new HexDumpPanel.
+     *
+     * @param capture The bytes to display
+     */
+    public HexDumpPanel(ByteCapture capture) {
+        super(new BorderLayout());
+        this.capture = capture;
+
+        var offsetField = new JTextField(12);
+        offsetField.setToolTipText("Offset in decimal, or hex as 0x1F40 / 1F40h");
+        var goButton = new JButton("Go");
+        Runnable jump = () -> {
+            try {
+                jumpToOffset(parseOffset(offsetField.getText()));
+            } catch (NumberFormatException ex) {
+                JOptionPane.showMessageDialog(this, "Invalid offset: " + offsetField.getText(),
+                    "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        };
+        offsetField.addActionListener(e -> jump.run());
+        goButton.addActionListener(e -> jump.run());
+
+        var toolbar = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        toolbar.add(new JLabel("Offset:"));
+        toolbar.add(offsetField);
+        toolbar.add(goButton);
+        toolbar.add(followCheckbox);
+        toolbar.add(sizeLabel);
+
+        rowsView.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        rowsView.setBackground(Color.WHITE);
+        rowsView.setOpaque(true);
+        rowsView.addMouseWheelListener(this::onMouseWheel);
+        scrollBar.addAdjustmentListener(e -> {
+            if (e.getValueIsAdjusting()) {
+                followCheckbox.setSelected(false);
+            }
+            rowsView.repaint();
+        });
+
+        add(toolbar, BorderLayout.NORTH);
+        add(rowsView, BorderLayout.CENTER);
+        add(scrollBar, BorderLayout.EAST);
+        setPreferredSize(new Dimension(640, 480));
+
+        refreshTimer = new Timer(REFRESH_INTERVAL_MS, e -> refresh());
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        refreshTimer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        refreshTimer.stop();
+        super.removeNotify();
+    }
+
+    /**
+     * Scrolls so the given offset is visible and marks it.
+     *
+     * @param offset Byte offset into the capture
+     */
+    public void jumpToOffset(long offset) {
+        followCheckbox.setSelected(false);
+        markedOffset = Math.max(0, Math.min(offset, capture.size() - 1));
+        refresh();
+        scrollBar.setValue((int) (markedOffset / BYTES_PER_ROW));
+        rowsView.repaint();
+    }
+
+    static long parseOffset(String text) {
+        String value = text.trim().toLowerCase();
+        if (value.startsWith("0x")) {
+            return Long.parseLong(value.substring(2), 16);
+        }
+        if (value.endsWith("h")) {
+            return Long.parseLong(value.substring(0, value.length() - 1), 16);
+        }
+        return Long.parseLong(value);
+    }
+
+    private void onMouseWheel(MouseWheelEvent e) {
+        followCheckbox.setSelected(false);
+        scrollBar.setValue(scrollBar.getValue() + e.getWheelRotation() * 3);
+    }
+
+    /** Updates the scroll range when the capture has grown. */
+    private void refresh() {
+        long size = capture.size();
+        int visibleRows = rowsView.visibleRows();
+        int totalRows = (int) Math.min(Integer.MAX_VALUE - 1, (size + BYTES_PER_ROW - 1) / BYTES_PER_ROW);
+        int value = followCheckbox.isSelected()
+            ? Math.max(0, totalRows - visibleRows)
+            : Math.min(scrollBar.getValue(), Math.max(0, totalRows - visibleRows));
+        scrollBar.setValues(value, visibleRows, 0, Math.max(totalRows, visibleRows));
+        scrollBar.setBlockIncrement(Math.max(1, visibleRows - 1));
+        if (size != lastSize) {
+            lastSize = size;
+            sizeLabel.setText(String.format("%,d bytes", size));
+            rowsView.repaint();
+        }
+    }
+
+    /**
+     * Draws the visible rows straight from the capture.
+     */
+    private final class RowsView extends JComponent {
+        private byte[] rowBytes = new byte[0];
+        private final char[] line = new char[ROW_CHARS];
+
+        int visibleRows() {
+            int rowHeight = getFontMetrics(getFont()).getHeight();
+            return Math.max(1, getHeight() / Math.max(1, rowHeight));
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            g.setColor(getBackground());
+            g.fillRect(0, 0, getWidth(), getHeight());
+            g.setFont(getFont());
+            FontMetrics metrics = g.getFontMetrics();
+            int rowHeight = metrics.getHeight();
+            int charWidth = metrics.charWidth('0');
+            int rows = visibleRows() + 1;
+            if (rowBytes.length < rows * BYTES_PER_ROW) {
+                rowBytes = new byte[rows * BYTES_PER_ROW];
+            }
+
+            long firstOffset = (long) scrollBar.getValue() * BYTES_PER_ROW;
+            int count = capture.read(firstOffset, rowBytes, 0, rows * BYTES_PER_ROW);
+            for (int row = 0; row * BYTES_PER_ROW < count; row++) {
+                long rowOffset = firstOffset + (long) row * BYTES_PER_ROW;
+                int rowLength = Math.min(BYTES_PER_ROW, count - row * BYTES_PER_ROW);
+                int baseline = (row + 1) * rowHeight - metrics.getDescent();
+                if (markedOffset >= rowOffset && markedOffset < rowOffset + rowLength) {
+                    int column = (int) (markedOffset - rowOffset);
+                    g.setColor(MARK_COLOR);
+                    g.fillRect((14 + column * 3 + (column >= 8 ? 1 : 0)) * charWidth, row * rowHeight,
+                        2 * charWidth, rowHeight);
+                    g.fillRect((14 + BYTES_PER_ROW * 3 + 2 + column) * charWidth, row * rowHeight,
+                        charWidth, rowHeight);
+                }
+                g.setColor(Color.BLACK);
+                int length = formatRow(rowOffset, rowBytes, row * BYTES_PER_ROW, rowLength);
+                g.drawChars(line, 0, length, 2, baseline);
+            }
+        }
+
+        private int formatRow(long offset, byte[] data, int start, int length) {
+            int pos = 0;
+            for (int shift = 44; shift >= 0; shift -= 4) {
+                line[pos++] = HEX_DIGITS[(int) (offset >>> shift) & 0xF];
+            }
+            line[pos++] = ' ';
+            line[pos++] = ' ';
+            for (int i = 0; i < BYTES_PER_ROW; i++) {
+                if (i == 8) {
+                    line[pos++] = ' ';
+                }
+                if (i < length) {
+                    int b = data[start + i] & 0xFF;
+                    line[pos++] = HEX_DIGITS[b >>> 4];
+                    line[pos++] = HEX_DIGITS[b & 0xF];
+                } else {
+                    line[pos++] = ' ';
+                    line[pos++] = ' ';
+                }
+                line[pos++] = ' ';
+            }
+            line[pos++] = ' ';
+            for (int i = 0; i < length; i++) {
+                int b = data[start + i] & 0xFF;
+                line[pos++] = b >= 0x20 && b < 0x7F ? (char) b : '.';
+            }
+            return pos;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.gpoole.serialgui;
+
+import java.util.Arrays;
+
+/**
+ * High-dynamic-range histogram of latencies in nanoseconds.
+ *
+ * Uses the log-linear bucket layout popularised by HdrHistogram: values below
+ * 128 get one bucket each, and every power of two above that is split into 64
+ * linear sub-buckets. Any recorded value is therefore reported to within 1/64
+ * (about 1.6%) of its true value, whether it is 20 microseconds or 20 seconds,
+ * with a fixed array of a few thousand counters and no allocation per record.
+ *
+ * Recording happens on the receive thread while the UI reads, so access is
+ * synchronized; take a {@link #copy()} to work on a consistent snapshot.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_COUNT = 128;
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT / 2;
+    private static final int SUB_BUCKET_HALF_BITS = 6;
+    /** Largest trackable value is just under 2^MAX_VALUE_BITS ns (about 18 minutes) */
+    private static final int MAX_VALUE_BITS = 40;
+    private static final long MAX_TRACKABLE = (1L << MAX_VALUE_BITS) - 1;
+
+    private final long[] counts;
+    private long totalCount = 0;
+    private long min = Long.MAX_VALUE;
+    private long max = 0;
+    private double sum = 0;
+
+    /**
+     * Creates an empty histogram.
+     */
+    public LatencyHistogram() {
+        counts = new long[indexOf(MAX_TRACKABLE) + 1];
+    }
+
+    /**
+     * Records one value. Values beyond the trackable range are clamped.
+     *
+     * @param nanos Latency in nanoseconds
+     */
+    public synchronized void record(long nanos) {
+        long value = Math.max(0, Math.min(nanos, MAX_TRACKABLE));
+        counts[indexOf(value)]++;
+        totalCount++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_HALF_BITS;
+        int subBucket = (int) (value >>> shift);
+        return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF + (subBucket - SUB_BUCKET_HALF);
+    }
+
+    static long lowestValueAt(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF + 1;
+        int subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_HALF + SUB_BUCKET_HALF;
+        return (long) subBucket << shift;
+    }
+
+    static long highestValueAt(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF + 1;
+        return lowestValueAt(index) + (1L << shift) - 1;
+    }
+
+    /**
+     * Gets the value at a percentile, reported as the top of its bucket.
+     *
+     * @param percentile Percentile between 0 and 100
+     * @return Latency in nanoseconds, or 0 if nothing was recorded
+     */
+    public synchronized long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(100.0, percentile) / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(highestValueAt(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Gets the number of recorded values.
+     *
+     * @return Value count
+     */
+    public synchronized long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Gets the smallest recorded value.
+     *
+     * @return Minimum in nanoseconds, or 0 if nothing was recorded
+     */
+    public synchronized long getMin() {
+        return totalCount == 0 ? 0 : min;
+    }
+
+    /**
+     * Gets the largest recorded value.
+     *
+     * @return Maximum in nanoseconds
+     */
+    public synchronized long getMax() {
+        return max;
+    }
+
+    /**
+     * Gets the mean of the recorded values.
+     *
+     * @return Mean in nanoseconds, or 0 if nothing was recorded
+     */
+    public synchronized double getMean() {
+        return totalCount == 0 ? 0 : sum / totalCount;
+    }
+
+    /**
+     * Discards all recorded values.
+     */
+    public synchronized void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+        sum = 0;
+    }
+
+    /**
+     * Creates a consistent copy of this histogram.
+     *
+     * @return The copy
+     */
+    public synchronized LatencyHistogram copy() {
+        LatencyHistogram copy = new LatencyHistogram();
+        System.arraycopy(counts, 0, copy.counts, 0, counts.length);
+        copy.totalCount = totalCount;
+        copy.min = min;
+        copy.max = max;
+        copy.sum = sum;
+        return copy;
+    }
+
+    /**
+     * Formats the percentile distribution as text, one row per percentile step,
+     * halving the remaining tail at each step (50, 75, 87.5, ...) like HdrHistogram.
+     *
+     * @return Table with value (microseconds), percentile and cumulative count
+     */
+    public synchronized String formatDistribution() {
+        var out = new StringBuilder();
+        out.append(String.format("%14s %12s %12s%n", "Value (us)", "Percentile", "TotalCount"));
+        if (totalCount == 0) {
+            return out.toString();
+        }
+        double percentile = 0;
+        double step = 50;
+        while (true) {
+            long value = getValueAtPercentile(percentile);
+            long below = countAtOrBelow(value);
+            out.append(String.format("%14.3f %12.6f %12d%n", value / 1000.0, percentile / 100.0, below));
+            if (below >= totalCount || step < 1e-4) {
+                break;
+            }
+            percentile += step;
+            step /= 2;
+        }
+        if (getValueAtPercentile(percentile) != max) {
+            out.append(String.format("%14.3f %12.6f %12d%n", max / 1000.0, 1.0, totalCount));
+        }
+        return out.toString();
+    }
+
+    private long countAtOrBelow(long value) {
+        long seen = 0;
+        for (int i = 0; i < counts.length && lowestValueAt(i) <= value; i++) {
+            seen += counts[i];
+        }
+        return seen;
+    }
+}
@@ -0,0 +1,316 @@
+package com.gpoole.serialgui;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Round-trip latency test against an echoing device or a loopback plug.
+ *
+ * Sends sequence-numbered probe frames at a fixed interval, matches replies by
+ * sequence number and records the round trip into a {@link LatencyHistogram}.
+ * The round trip runs from just before the write to the arrival timestamp of
+ * the chunk holding the end of the reply header, so it includes the adapter's
+ * USB latency timer and the driver on both legs, which is what we are trying to
+ * qualify.
+ *
+ * Probe frame (printable ASCII so it survives echoing terminals and shows up
+ * readably in the log): {@code @LP} + 8 hex digits of sequence number + optional
+ * padding + CR LF.
+ *
+ * Features:
+ * - Replies are found anywhere in the receive stream, however the bytes are chunked
+ * - Probes not answered within the timeout are counted as lost
+ * - Replies with an unknown or already answered sequence number are counted separately
+ * - Text report with summary percentiles and the full percentile distribution
+ */
+public class LatencyProbe {
+    private static final Logger logger = LoggerFactory.getLogger(LatencyProbe.class);
+    private static final byte[] HEADER = {'@', 'L', 'P'};
+    private static final int SEQ_DIGITS = 8;
+
+    private final SerialCommunicationManager commManager;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final Map<Integer, Long> outstanding = new ConcurrentHashMap<>();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong lost = new AtomicLong();
+    private final AtomicLong unexpected = new AtomicLong();
+    private final Consumer<SerialChunk> receiveListener = this::onChunk;
+    private Consumer<String> onFinished = msg -> {};
+
+    private ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> sendTask;
+    private volatile boolean running = false;
+    private int count;
+    private long timeoutNanos;
+    private byte[] padding = new byte[0];
+    private int nextSeq = 0;
+    private LocalDateTime startedAt;
+
+    // Reply parser state, only touched by the receive thread
+    private int matched = 0;
+    private int seqValue = 0;
+
+    /**
+     * Creates a new LatencyProbe.
+     *
+     * @param commManager The connection to probe
+     */
+    public LatencyProbe(SerialCommunicationManager commManager) {
+        this.commManager = commManager;
+    }
+
+    /**
+     * Sets the callback for when a run completes or is stopped.
+     *
+     * @param callback Receives a one-line summary
+     * @return This probe for method chaining
+     */
+    public LatencyProbe onFinished(Consumer<String> callback) {
+        this.onFinished = callback;
+        return this;
+    }
+
+    /**
+     * Starts a run. Previous results are discarded.
+     *
+     * @param count Number of probes to send
+     * @param intervalMs Time between probes in milliseconds
+     * @param timeoutMs Time after which an unanswered probe counts as lost
+     * @param paddingBytes Extra payload bytes per probe
+     */
+    public synchronized void start(int count, int intervalMs, int timeoutMs, int paddingBytes) {
+        if (running) {
+            throw new IllegalStateException("Latency test already running");
+        }
+        if (!commManager.isConnected()) {
+            throw new IllegalStateException("Not connected to any port");
+        }
+        this.count = count;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        this.padding = new byte[Math.max(0, paddingBytes)];
+        Arrays.fill(padding, (byte) '.');
+        histogram.reset();
+        outstanding.clear();
+        sent.set(0);
+        received.set(0);
+        lost.set(0);
+        unexpected.set(0);
+        nextSeq = 0;
+        startedAt = LocalDateTime.now();
+        running = true;
+
+        commManager.addReceiveListener(receiveListener);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "latency-probe");
+            t.setDaemon(true);
+            return t;
+        });
+        sendTask = scheduler.scheduleAtFixedRate(this::tick, 0, Math.max(1, intervalMs), TimeUnit.MILLISECONDS);
+        logger.info("Latency test started: {} probes every {} ms on {}", count, intervalMs, commManager.getPortName());
+    }
+
+    /**
+     * Stops the run. Probes still in flight are counted as lost.
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        sendTask.cancel(false);
+        scheduler.shutdownNow();
+        commManager.removeReceiveListener(receiveListener);
+        lost.addAndGet(outstanding.size());
+        outstanding.clear();
+        String summary = getSummary();
+        logger.info("Latency test finished: {}", summary);
+        onFinished.accept(summary);
+    }
+
+    private void tick() {
+        expireOutstanding();
+        if (nextSeq < count) {
+            sendProbe(nextSeq++);
+        } else if (outstanding.isEmpty()) {
+            stop();
+        }
+    }
+
+    private void sendProbe(int seq) {
+        byte[] frame = new byte[HEADER.length + SEQ_DIGITS + padding.length + 2];
+        System.arraycopy(HEADER, 0, frame, 0, HEADER.length);
+        byte[] digits = String.format("%08X", seq).getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(digits, 0, frame, HEADER.length, SEQ_DIGITS);
+        System.arraycopy(padding, 0, frame, HEADER.length + SEQ_DIGITS, padding.length);
+        frame[frame.length - 2] = '\r';
+        frame[frame.length - 1] = '\n';
+        outstanding.put(seq, System.nanoTime());
+        try {
+            commManager.sendBytes(frame);
+            sent.incrementAndGet();
+        } catch (Exception ex) {
+            outstanding.remove(seq);
+            logger.warn("Latency probe {} could not be sent: {}", seq, ex.getMessage());
+            stop();
+        }
+    }
+
+    private void expireOutstanding() {
+        long now = System.nanoTime();
+        Iterator<Long> it = outstanding.values().iterator();
+        while (it.hasNext()) {
+            if (now - it.next() > timeoutNanos) {
+                it.remove();
+                lost.incrementAndGet();
+            }
+        }
+    }
+
+    private void onChunk(SerialChunk chunk) {
+        for (byte b : chunk.data()) {
+            if (matched < HEADER.length) {
+                if (b == HEADER[matched]) {
+                    matched++;
+                } else {
+                    matched = b == HEADER[0] ? 1 : 0;
+                }
+                seqValue = 0;
+                continue;
+            }
+            int digit = Character.digit(b, 16);
+            if (digit < 0) {
+                matched = b == HEADER[0] ? 1 : 0;
+                continue;
+            }
+            seqValue = (seqValue << 4) | digit;
+            if (++matched == HEADER.length + SEQ_DIGITS) {
+                onReply(seqValue, chunk.arrivalNanos());
+                matched = 0;
+            }
+        }
+    }
+
+    private void onReply(int seq, long arrivalNanos) {
+        Long sentAt = outstanding.remove(seq);
+        if (sentAt == null) {
+            unexpected.incrementAndGet();
+            return;
+        }
+        histogram.record(arrivalNanos - sentAt);
+        received.incrementAndGet();
+    }
+
+    /**
+     * Checks whether a run is in progress.
+     *
+     * @return True while probing
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Gets a snapshot of the round-trip times recorded so far.
+     *
+     * @return Histogram copy
+     */
+    public LatencyHistogram getHistogram() {
+        return histogram.copy();
+    }
+
+    /**
+     * Gets the number of probes sent.
+     *
+     * @return Sent count
+     */
+    public long getSent() {
+        return sent.get();
+    }
+
+    /**
+     * Gets the number of probes answered.
+     *
+     * @return Received count
+     */
+    public long getReceived() {
+        return received.get();
+    }
+
+    /**
+     * Gets the number of probes not answered within the timeout.
+     *
+     * @return Lost count
+     */
+    public long getLost() {
+        return lost.get();
+    }
+
+    /**
+     * Gets the number of replies with an unknown or duplicate sequence number.
+     *
+     * @return Unexpected reply count
+     */
+    public long getUnexpected() {
+        return unexpected.get();
+    }
+
+    /**
+     * Gets a one-line summary of the current results.
+     *
+     * @return Summary text
+     */
+    public String getSummary() {
+        LatencyHistogram snapshot = histogram.copy();
+        return String.format("sent %d, received %d, lost %d, unexpected %d | p50 %s  p99 %s  p99.9 %s  max %s",
+            sent.get(), received.get(), lost.get(), unexpected.get(),
+            formatMicros(snapshot.getValueAtPercentile(50)), formatMicros(snapshot.getValueAtPercentile(99)),
+            formatMicros(snapshot.getValueAtPercentile(99.9)), formatMicros(snapshot.getMax()));
+    }
+
+    /**
+     * Builds the full text report for export.
+     *
+     * @return Report text
+     */
+    public String getReport() {
+        LatencyHistogram snapshot = histogram.copy();
+        var report = new StringBuilder();
+        report.append("Serial round-trip latency report\n");
+        report.append("Port:       ").append(commManager.getPortName()).append('\n');
+        if (startedAt != null) {
+            report.append("Started:    ").append(startedAt.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)).append('\n');
+        }
+        report.append("Frame size: ").append(HEADER.length + SEQ_DIGITS + padding.length + 2).append(" bytes\n");
+        report.append(String.format("Probes:     sent %d, received %d, lost %d, unexpected %d%n",
+            sent.get(), received.get(), lost.get(), unexpected.get()));
+        report.append(String.format("Min %s  Mean %s  p50 %s  p90 %s  p99 %s  p99.9 %s  Max %s%n%n",
+            formatMicros(snapshot.getMin()), formatMicros((long) snapshot.getMean()),
+            formatMicros(snapshot.getValueAtPercentile(50)), formatMicros(snapshot.getValueAtPercentile(90)),
+            formatMicros(snapshot.getValueAtPercentile(99)), formatMicros(snapshot.getValueAtPercentile(99.9)),
+            formatMicros(snapshot.getMax())));
+        report.append(snapshot.formatDistribution());
+        return report.toString();
+    }
+
+    static String formatMicros(long nanos) {
+        if (nanos >= 10_000_000) {
+            return String.format("%.1f ms", nanos / 1_000_000.0);
+        }
+        return String.format("%.0f us", nanos / 1000.0);
+    }
+}
@@ -0,0 +1,99 @@
+package com.gpoole.serialgui;
+
+import java.util.function.Consumer;
+
+/**
+ * Reassembles complete lines from arbitrarily split receive chunks.
+ *
+ * Serial data arrives in whatever pieces the driver hands over, so a line like
+ * "temp=23.4" may be split across several chunks. Text is accumulated until a
+ * line feed and then delivered without its terminator (a trailing carriage
+ * return is also dropped). Lines longer than the limit are delivered in pieces
+ * so binary noise cannot grow the buffer without bound.
+ *
+ * Not thread-safe; feed it from a single thread (normally the receive thread).
+ */
+public class LineAssembler {
+    /** Default maximum line length */
+    public static final int DEFAULT_MAX_LINE_LENGTH = 4096;
+
+    private final StringBuilder partial = new StringBuilder();
+    private final Consumer<String> lineConsumer;
+    private final int maxLineLength;
+
+    /**
+     * Creates a new LineAssembler with the default maximum line length.
+     *
+     * @param lineConsumer Receives each complete line
+     */
+    public LineAssembler(Consumer<String> lineConsumer) {
+        this(lineConsumer, DEFAULT_MAX_LINE_LENGTH);
+    }
+
+    /**
+     * Creates a new LineAssembler.
+     *
+     * @param lineConsumer Receives each complete line
+     * @param maxLineLength Length at which an unterminated line is delivered anyway
+     */
+    public LineAssembler(Consumer<String> lineConsumer, int maxLineLength) {
+        this.lineConsumer = lineConsumer;
+        this.maxLineLength = maxLineLength;
+    }
+
+    /**
+     * Adds received text.
+     *
+     * @param chunk The received text
+     */
+    public void accept(String chunk) {
+        int start = 0;
+        int length = chunk.length();
+        for (int i = 0; i < length; i++) {
+            if (chunk.charAt(i) == '\n') {
+                partial.append(chunk, start, i);
+                emit();
+                start = i + 1;
+            }
+        }
+        partial.append(chunk, start, length);
+        if (partial.length() >= maxLineLength) {
+            emit();
+        }
+    }
+
+    private void emit() {
+        int end = partial.length();
+        if (end > 0 && partial.charAt(end - 1) == '\r') {
+            end--;
+        }
+        String line = partial.substring(0, end);
+        partial.setLength(0);
+        lineConsumer.accept(line);
+    }
+
+    /**
+     * Delivers the partially received line, if any, as if it had ended.
+     */
+    public void flush() {
+        if (!partial.isEmpty()) {
+            emit();
+        }
+    }
+
+    /**
+     * Checks whether text is waiting for a line end.
+     *
+     * @return True if a partial line is buffered
+     */
+    public boolean hasPartial() {
+        return !partial.isEmpty();
+    }
+
+    /**
+     * Discards any partially received line.
+     */
+    public void reset() {
+        partial.setLength(0);
+    }
+}
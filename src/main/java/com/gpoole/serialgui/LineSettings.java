@@ -0,0 +1,87 @@
+package com.gpoole.serialgui;
+
+import jssc.SerialPort;
+
+/**
+ * Flow control and modem line state applied when a port is opened.
+ *
+ * Above a few hundred kbaud the host cannot always empty the driver's input
+ * buffer in time, and bytes are lost as overruns. Hardware flow control
+ * (RTS/CTS) lets the adapter pause the sender instead; XON/XOFF does the same
+ * in-band for devices without the handshake wires. With RTS/CTS the driver
+ * owns the RTS line, so the RTS setting only applies without it.
+ *
+ * Line errors (framing, overrun, parity) and breaks are counted through jssc's
+ * ERR and BREAK events. In the event reader mode this costs nothing extra; with
+ * a dedicated reader thread it adds jssc's event thread, so counting can be
+ * turned off for the lowest-overhead modes.
+ *
+ * @param flowControl Flow control mode
+ * @param dtr Assert DTR after opening
+ * @param rts Assert RTS after opening (ignored with RTS/CTS flow control)
+ * @param countErrors Count line errors and breaks
+ */
+public record LineSettings(FlowControl flowControl, boolean dtr, boolean rts, boolean countErrors) {
+    /** Flow control modes */
+    public enum FlowControl {
+        /** No flow control */
+        NONE(SerialPort.FLOWCONTROL_NONE),
+        /** Hardware handshake on the RTS and CTS lines */
+        RTS_CTS(SerialPort.FLOWCONTROL_RTSCTS_IN | SerialPort.FLOWCONTROL_RTSCTS_OUT),
+        /** Software handshake with XON/XOFF characters */
+        XON_XOFF(SerialPort.FLOWCONTROL_XONXOFF_IN | SerialPort.FLOWCONTROL_XONXOFF_OUT);
+
+        private final int mask;
+
+        FlowControl(int mask) {
+            this.mask = mask;
+        }
+
+        /**
+         * @return The jssc flow control mask
+         */
+        public int mask() {
+            return mask;
+        }
+    }
+
+    /** The default: no flow control, DTR and RTS asserted (as jssc's setParams does), errors counted */
+    public static final LineSettings DEFAULT = new LineSettings(FlowControl.NONE, true, true, true);
+
+    public LineSettings {
+        if (flowControl == null) {
+            throw new IllegalArgumentException("Flow control mode is required");
+        }
+    }
+
+    /**
+     * Gets a copy with another flow control mode.
+     *
+     * @param mode The flow control mode
+     * @return Adjusted settings
+     */
+    public LineSettings withFlowControl(FlowControl mode) {
+        return new LineSettings(mode, dtr, rts, countErrors);
+    }
+
+    /**
+     * Gets a copy with other DTR and RTS states.
+     *
+     * @param dtr Assert DTR
+     * @param rts Assert RTS
+     * @return Adjusted settings
+     */
+    public LineSettings withLines(boolean dtr, boolean rts) {
+        return new LineSettings(flowControl, dtr, rts, countErrors);
+    }
+
+    /**
+     * Gets a copy with error counting on or off.
+     *
+     * @param count True to count line errors and breaks
+     * @return Adjusted settings
+     */
+    public LineSettings withErrorCounting(boolean count) {
+        return new LineSettings(flowControl, dtr, rts, count);
+    }
+}
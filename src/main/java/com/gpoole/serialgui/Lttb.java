@@ -0,0 +1,82 @@
+package com.gpoole.serialgui;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling.
+ *
+ * Reduces a series to a target number of points while keeping its visual shape:
+ * the first and last points are always kept, the rest of the data is split into
+ * equal buckets and from each bucket the point forming the largest triangle with
+ * the previously selected point and the average of the next bucket is chosen.
+ * Peaks and dips therefore survive, unlike with plain striding or averaging.
+ *
+ * Runs in O(n) and writes into caller-supplied arrays, so rendering a million
+ * samples into a plot a thousand pixels wide costs one pass and no allocation.
+ */
+public final class Lttb {
+    private Lttb() {
+    }
+
+    /**
+     * Downsamples a series.
+     *
+     * @param x Sample x values (non-decreasing)
+     * @param y Sample y values
+     * @param count Number of valid samples in x and y
+     * @param threshold Desired number of output points; values below 3 are treated as 3
+     * @param outX Destination for selected x values; must hold min(count, threshold) entries
+     * @param outY Destination for selected y values; must hold min(count, threshold) entries
+     * @return Number of points written
+     */
+    public static int downsample(double[] x, double[] y, int count, int threshold, double[] outX, double[] outY) {
+        threshold = Math.max(threshold, 3);
+        if (count <= threshold) {
+            System.arraycopy(x, 0, outX, 0, count);
+            System.arraycopy(y, 0, outY, 0, count);
+            return count;
+        }
+
+        double bucketSize = (double) (count - 2) / (threshold - 2);
+        int selected = 0;
+        outX[0] = x[0];
+        outY[0] = y[0];
+        int out = 1;
+
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            // Average of the next bucket is the third vertex of the triangle
+            int nextStart = (int) ((bucket + 1) * bucketSize) + 1;
+            int nextEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, count);
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += x[i];
+                avgY += y[i];
+            }
+            int nextLength = nextEnd - nextStart;
+            avgX /= nextLength;
+            avgY /= nextLength;
+
+            int start = (int) (bucket * bucketSize) + 1;
+            int end = nextStart;
+            double ax = x[selected];
+            double ay = y[selected];
+            double maxArea = -1;
+            int maxIndex = start;
+            for (int i = start; i < end; i++) {
+                // Twice the triangle area; the factor does not change the argmax
+                double area = Math.abs((ax - avgX) * (y[i] - ay) - (ax - x[i]) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxIndex = i;
+                }
+            }
+            outX[out] = x[maxIndex];
+            outY[out] = y[maxIndex];
+            out++;
+            selected = maxIndex;
+        }
+
+        outX[out] = x[count - 1];
+        outY[out] = y[count - 1];
+        return out + 1;
+    }
+}
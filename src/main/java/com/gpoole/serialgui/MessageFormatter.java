@@ -1,5 +1,6 @@
 package com.gpoole.serialgui;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 
@@ -10,11 +11,13 @@ import java.time.format.DateTimeFormatter;
  * - Adds [HH:mm:ss.SSS] timestamp to each message
  * - Supports three display modes: ASCII (plain text), HEX (hex codes), HEX_AND_ASCII (both)
  * - Prefixes with TX (transmitted) or RX (received) indicator
+ * - HEX output is taken from the wire bytes, not from the decoded text
  * 
  * Example output: "[12:34:56.789] RX: Hello World"
  */
 public class MessageFormatter {
     private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
     private DisplayMode displayMode;
 
     /**
@@ -46,41 +49,70 @@ public class MessageFormatter {
      * @return Formatted message with timestamp and display mode conversion
      */
     public String format(String message, boolean isReceived) {
+        return format(message.getBytes(StandardCharsets.UTF_8), message, isReceived);
+    }
+
+    /**
+     * Formats a message whose wire bytes are known.
+     *
+     * @param raw The bytes as sent or received
+     * @param text The same bytes decoded to text
+     * @param isReceived true if message was received, false if sent
+     * @return Formatted message with timestamp and display mode conversion
+     */
+    public String format(byte[] raw, String text, boolean isReceived) {
+        var event = new DataPathEvents.Format();
+        event.begin();
         String timestamp = "[" + LocalTime.now().format(TIME_FORMAT) + "]";
         String direction = isReceived ? "RX" : "TX";
-        String formattedMessage = convertToDisplayMode(message);
-        return timestamp + " " + direction + ": " + formattedMessage;
+        String formattedMessage = convertToDisplayMode(raw, text);
+        String result = timestamp + " " + direction + ": " + formattedMessage;
+        event.end();
+        if (event.shouldCommit()) {
+            event.mode = displayMode.name();
+            event.bytes = raw.length;
+            event.chars = result.length();
+            event.commit();
+        }
+        return result;
     }
 
     /**
      * Converts message to the current display mode.
      *
-     * @param message The message to convert
+     * @param raw The wire bytes
+     * @param text The decoded text
      * @return Message in current display mode
      */
-    private String convertToDisplayMode(String message) {
+    private String convertToDisplayMode(byte[] raw, String text) {
         return switch (displayMode) {
-            case ASCII -> message;
-            case HEX -> stringToHex(message);
-            case HEX_AND_ASCII -> stringToHex(message) + " (" + message + ")";
+            case ASCII -> text;
+            case HEX -> bytesToHex(raw);
+            case HEX_AND_ASCII -> bytesToHex(raw) + " (" + text + ")";
         };
     }
 
     /**
-     * Converts a string to its hexadecimal representation.
+     * Converts bytes to their hexadecimal representation.
      *
-     * @param input The string to convert
-     * @return Hexadecimal representation
+     * @param input The bytes to convert
+     * @return Space separated hex pairs
      */
-    private String stringToHex(String input) {
-        if (input == null || input.isEmpty()) {
+    static String bytesToHex(byte[] input) {
+        if (input == null || input.length == 0) {
             return "";
         }
-        StringBuilder hex = new StringBuilder();
-        for (char c : input.toCharArray()) {
-            hex.append(String.format("%02X ", (int) c));
+        char[] hex = new char[input.length * 3 - 1];
+        int pos = 0;
+        for (int i = 0; i < input.length; i++) {
+            if (i > 0) {
+                hex[pos++] = ' ';
+            }
+            int b = input[i] & 0xFF;
+            hex[pos++] = HEX_DIGITS[b >>> 4];
+            hex[pos++] = HEX_DIGITS[b & 0xF];
         }
-        return hex.toString().trim();
+        return new String(hex);
     }
 
     /**
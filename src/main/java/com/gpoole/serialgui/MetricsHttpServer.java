@@ -0,0 +1,189 @@
+package com.gpoole.serialgui;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Serves {@link SerialPortMetrics} in the Prometheus text exposition format.
+ *
+ * Uses the JDK's built-in HttpServer on a single daemon thread and listens on
+ * localhost only; a lab scraper on another machine is expected to go through a
+ * node exporter or SSH tunnel rather than reaching into the GUI process.
+ *
+ * Endpoints:
+ * - GET /metrics: all registered connections, one label set per connection
+ *
+ * Every series is labelled with the connection name only ({@code connection},
+ * since {@code instance} belongs to the scraper). The port name changes when a
+ * device re-enumerates or disconnects, so it is published once per connection
+ * in the {@code serialtalker_port_info} gauge rather than on every counter,
+ * where it would split the counters into new series.
+ */
+public class MetricsHttpServer {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsHttpServer.class);
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final List<SerialPortMetrics> sources = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * Adds a connection to the output.
+     *
+     * @param metrics The connection's metrics
+     * @return This server for method chaining
+     */
+    public MetricsHttpServer add(SerialPortMetrics metrics) {
+        sources.add(metrics);
+        return this;
+    }
+
+    /**
+     * Starts serving.
+     *
+     * @param port TCP port on localhost, or 0 for any free port
+     * @throws IOException If the port cannot be bound
+     */
+    public synchronized void start(int port) throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("Metrics endpoint already running");
+        }
+        HttpServer httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        httpServer.createContext("/metrics", this::handle);
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "metrics-http");
+            t.setDaemon(true);
+            return t;
+        });
+        httpServer.setExecutor(executor);
+        httpServer.start();
+        server = httpServer;
+        logger.info("Metrics endpoint at http://{}:{}/metrics", InetAddress.getLoopbackAddress().getHostAddress(),
+            getLocalPort());
+    }
+
+    /**
+     * Stops serving.
+     */
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Gets the port the endpoint listens on.
+     *
+     * @return Port number, or -1 if not running
+     */
+    public synchronized int getLocalPort() {
+        return server != null ? server.getAddress().getPort() : -1;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = format(sources).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * Formats metrics in the Prometheus text format, grouped by metric family.
+     *
+     * @param metrics The connections to include
+     * @return Exposition text
+     */
+    static String format(List<SerialPortMetrics> metrics) {
+        var out = new StringBuilder(2048);
+        portInfo(out, metrics);
+        gauge(out, metrics, "serialtalker_connected", "1 while the port is open", m -> m.isConnected() ? 1 : 0);
+        gauge(out, metrics, "serialtalker_uptime_seconds", "Seconds since the port was opened", m -> m.getUptimeSeconds());
+        counter(out, metrics, "serialtalker_sent_bytes_total", "Bytes written to the port", m -> m.getTotalBytesSent());
+        counter(out, metrics, "serialtalker_received_bytes_total", "Bytes read from the port", m -> m.getTotalBytesReceived());
+        counter(out, metrics, "serialtalker_sent_messages_total", "Text messages sent", m -> m.getTotalMessagesSent());
+        counter(out, metrics, "serialtalker_received_chunks_total", "Received chunks delivered", m -> m.getTotalChunksReceived());
+        gauge(out, metrics, "serialtalker_receive_bytes_per_second", "Receive rate over the last second", m -> m.getReceiveBytesPerSecond());
+        gauge(out, metrics, "serialtalker_send_bytes_per_second", "Send rate over the last second", m -> m.getSendBytesPerSecond());
+        counter(out, metrics, "serialtalker_read_errors_total", "Failed port reads", m -> m.getTotalReadErrors());
+        counter(out, metrics, "serialtalker_write_errors_total", "Failed port writes", m -> m.getTotalWriteErrors());
+        counter(out, metrics, "serialtalker_framing_errors_total", "Received framing errors", m -> m.getTotalFramingErrors());
+        counter(out, metrics, "serialtalker_overrun_errors_total", "Receive overruns (bytes lost)", m -> m.getTotalOverrunErrors());
+        counter(out, metrics, "serialtalker_parity_errors_total", "Received parity errors", m -> m.getTotalParityErrors());
+        counter(out, metrics, "serialtalker_breaks_total", "Break conditions on the line", m -> m.getTotalBreaks());
+        gauge(out, metrics, "serialtalker_peak_read_bytes", "Largest single read this session", m -> m.getPeakReadBytes());
+        counter(out, metrics, "serialtalker_reconnects_total", "Successful automatic reconnects", m -> m.getTotalReconnects());
+        gauge(out, metrics, "serialtalker_in_outage", "1 while auto-reconnect is handling an outage", m -> m.isInOutage() ? 1 : 0);
+        gauge(out, metrics, "serialtalker_pending_tx_messages", "Messages buffered during an outage", m -> m.getPendingTxMessages());
+        counter(out, metrics, "serialtalker_dropped_tx_messages_total", "Messages dropped from a full outage buffer", m -> m.getTotalDroppedTxMessages());
+        gauge(out, metrics, "serialtalker_display_queue_lines", "Lines waiting for the display", m -> m.getDisplayQueueDepth());
+        counter(out, metrics, "serialtalker_display_dropped_lines_total", "Lines not shown because the display was overloaded", m -> m.getTotalDisplayDroppedLines());
+        gauge(out, metrics, "serialtalker_capture_queue_lines", "Lines waiting for the capture file", m -> m.getCaptureQueueDepth());
+        return out.toString();
+    }
+
+    private static void gauge(StringBuilder out, List<SerialPortMetrics> metrics, String name, String help,
+                              Function<SerialPortMetrics, Number> value) {
+        family(out, metrics, name, help, "gauge", value);
+    }
+
+    private static void counter(StringBuilder out, List<SerialPortMetrics> metrics, String name, String help,
+                                Function<SerialPortMetrics, Number> value) {
+        family(out, metrics, name, help, "counter", value);
+    }
+
+    private static void family(StringBuilder out, List<SerialPortMetrics> metrics, String name, String help,
+                               String type, Function<SerialPortMetrics, Number> value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        for (SerialPortMetrics m : metrics) {
+            out.append(name).append("{connection=\"").append(escapeLabel(m.getName())).append("\"} ");
+            Number number = value.apply(m);
+            if (number instanceof Double d) {
+                out.append(d.isNaN() ? "NaN" : String.format(Locale.ROOT, "%.3f", d));
+            } else {
+                out.append(number.longValue());
+            }
+            out.append('\n');
+        }
+    }
+
+    /**
+     * Writes the info gauge carrying each connection's current port name.
+     */
+    private static void portInfo(StringBuilder out, List<SerialPortMetrics> metrics) {
+        out.append("# HELP serialtalker_port_info Port currently used by the connection (empty when disconnected)\n");
+        out.append("# TYPE serialtalker_port_info gauge\n");
+        for (SerialPortMetrics m : metrics) {
+            out.append("serialtalker_port_info{connection=\"").append(escapeLabel(m.getName()))
+                .append("\",port=\"").append(escapeLabel(m.getPortName())).append("\"} 1\n");
+        }
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,480 @@
+package com.gpoole.serialgui;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Splits a Modbus RTU byte stream into frames and describes each one.
+ *
+ * RTU frames are delimited by at least 3.5 character times of silence (a
+ * fixed 1.75 ms above 19200 baud). The decoder works from the nanosecond
+ * arrival time of each received chunk: the first byte of a chunk is taken to
+ * have started one character time per byte before the chunk arrived, and a
+ * gap of t3.5 or more since the previous chunk ends the frame.
+ *
+ * USB adapters deliver bytes in batches, which can hide a gap (two frames in
+ * one chunk) or invent one (a frame split across two chunks). So at each
+ * boundary the buffer is split using the lengths implied by the function
+ * code and checked with the CRC; a buffer that does not check out is held
+ * for one more chunk in case it was split, and only then reported as a CRC
+ * error.
+ *
+ * Features:
+ * - Table-driven CRC-16/MODBUS validation
+ * - Function name, slave address, request/response parameters and register
+ *   or coil values; responses are matched to the preceding request so
+ *   register addresses can be shown
+ * - Exception responses with the exception name
+ * - No allocation per received byte; keeps up with continuous 115200 baud
+ *   traffic with a large margin on one core
+ *
+ * Usage:
+ * - Feed every received chunk to accept() from the receive thread
+ * - Call poll() periodically so the last frame before a pause is reported
+ * - Frames are passed to the onFrame callback on the thread that completed them
+ */
+public class ModbusRtuDecoder {
+    /** Longest RTU frame allowed by the specification */
+    public static final int MAX_FRAME = 256;
+    /** Idle time after which a held buffer is reported even if it fails the CRC */
+    private static final long HOLD_LIMIT_NANOS = 100_000_000L;
+    private static final int MAX_VALUES_SHOWN = 32;
+
+    /**
+     * One decoded frame.
+     *
+     * @param startNanos Estimated arrival time of the first byte (System.nanoTime() base)
+     * @param gapNanos Silence before the frame, or -1 for the first frame
+     * @param data The frame bytes including the CRC
+     * @param crcValid True if the CRC checked out
+     * @param text Human readable description
+     */
+    public record Frame(long startNanos, long gapNanos, byte[] data, boolean crcValid, String text) {
+    }
+
+    private final long charNanos;
+    private final long silenceNanos;
+    private final byte[] buffer = new byte[MAX_FRAME * 2];
+    private int length = 0;
+    private long bufferStartNanos = 0;
+    private long lastArrivalNanos = 0;
+    private boolean hasArrival = false;
+    private long lastFrameEndNanos = -1;
+    private boolean held = false;
+    private boolean merging = false;
+    private Consumer<Frame> onFrame = frame -> {};
+    private long frameCount = 0;
+    private long crcErrors = 0;
+    // Last request seen, to describe the response that follows it
+    private int requestSlave = -1;
+    private int requestFunction = -1;
+    private int requestStart = 0;
+    private int requestCount = 0;
+
+    /**
+     * Creates a decoder for a bus running at the given baud rate, assuming
+     * 11 bits per character as the specification requires.
+     *
+     * @param baudRate Bus baud rate
+     */
+    public ModbusRtuDecoder(int baudRate) {
+        this.charNanos = 11_000_000_000L / baudRate;
+        this.silenceNanos = baudRate > 19200 ? 1_750_000L : charNanos * 7 / 2;
+    }
+
+    /**
+     * Sets the callback for completed frames.
+     *
+     * @param callback Receives each frame
+     * @return This decoder for method chaining
+     */
+    public ModbusRtuDecoder onFrame(Consumer<Frame> callback) {
+        this.onFrame = callback;
+        return this;
+    }
+
+    /**
+     * Gets the silence that ends a frame.
+     *
+     * @return t3.5 in nanoseconds
+     */
+    public long getSilenceNanos() {
+        return silenceNanos;
+    }
+
+    /**
+     * Adds received bytes.
+     *
+     * @param chunk A received chunk with its arrival time
+     */
+    public void accept(SerialChunk chunk) {
+        accept(chunk.data(), chunk.arrivalNanos());
+    }
+
+    /**
+     * Adds received bytes.
+     *
+     * @param data The bytes
+     * @param arrivalNanos When the last of them arrived (System.nanoTime() base)
+     */
+    public synchronized void accept(byte[] data, long arrivalNanos) {
+        if (data.length == 0) {
+            return;
+        }
+        long chunkStart = arrivalNanos - data.length * charNanos;
+        if (length > 0 && chunkStart - lastArrivalNanos >= silenceNanos) {
+            if (held && !merging) {
+                // Give a buffer that failed the CRC one more chunk
+                merging = true;
+            } else {
+                endFrame(merging);
+            }
+        }
+        int offset = 0;
+        while (offset < data.length) {
+            if (length == 0) {
+                bufferStartNanos = chunkStart + offset * charNanos;
+                if (hasArrival && bufferStartNanos - lastArrivalNanos < 0) {
+                    bufferStartNanos = lastArrivalNanos;
+                }
+            }
+            int count = Math.min(data.length - offset, buffer.length - length);
+            System.arraycopy(data, offset, buffer, length, count);
+            length += count;
+            offset += count;
+            if (length == buffer.length) {
+                // No silence for two maximum frames: report what is there
+                endFrame(true);
+            }
+        }
+        lastArrivalNanos = arrivalNanos;
+        hasArrival = true;
+    }
+
+    /**
+     * Ends the current frame if the bus has been quiet long enough.
+     *
+     * @param nowNanos Current System.nanoTime()
+     */
+    public synchronized void poll(long nowNanos) {
+        long idle = nowNanos - lastArrivalNanos;
+        if (length > 0 && idle >= silenceNanos) {
+            endFrame(merging || idle >= HOLD_LIMIT_NANOS);
+        }
+    }
+
+    /**
+     * Gets the number of frames reported.
+     *
+     * @return Frames, including ones with CRC errors
+     */
+    public synchronized long getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Gets the number of frames that failed the CRC.
+     *
+     * @return CRC errors
+     */
+    public synchronized long getCrcErrors() {
+        return crcErrors;
+    }
+
+    private void endFrame(boolean force) {
+        if (!force && !splitsCleanly()) {
+            // Possibly a frame cut in two by the driver; wait for the next chunk
+            held = true;
+            return;
+        }
+        int position = 0;
+        while (position < length) {
+            int frameLength = validFrameAt(position, length - position);
+            if (frameLength > 0) {
+                emit(position, frameLength, true);
+                position += frameLength;
+                continue;
+            }
+            int next = position + 1;
+            while (next < length && validFrameAt(next, length - next) == 0) {
+                next++;
+            }
+            emit(position, next - position, false);
+            position = next;
+        }
+        length = 0;
+        held = false;
+        merging = false;
+    }
+
+    private boolean splitsCleanly() {
+        int position = 0;
+        while (position < length) {
+            int frameLength = validFrameAt(position, length - position);
+            if (frameLength == 0) {
+                return false;
+            }
+            position += frameLength;
+        }
+        return true;
+    }
+
+    /**
+     * Finds a CRC-valid frame starting at a position, trying the lengths the
+     * function code allows before the whole remainder.
+     *
+     * @return Frame length, or 0 if none checks out
+     */
+    private int validFrameAt(int position, int available) {
+        if (available < 4) {
+            return 0;
+        }
+        int function = buffer[position + 1] & 0xFF;
+        int first = 0;
+        int second = 0;
+        if ((function & 0x80) != 0) {
+            first = 5;
+        } else {
+            switch (function) {
+                case 1, 2, 3, 4 -> {
+                    first = 8;
+                    second = 5 + (buffer[position + 2] & 0xFF);
+                }
+                case 5, 6, 8 -> first = 8;
+                case 7 -> {
+                    first = 4;
+                    second = 5;
+                }
+                case 11 -> {
+                    first = 4;
+                    second = 8;
+                }
+                case 12, 17 -> {
+                    first = 4;
+                    second = 5 + (buffer[position + 2] & 0xFF);
+                }
+                case 15, 16 -> {
+                    first = 8;
+                    second = available > 6 ? 9 + (buffer[position + 6] & 0xFF) : 0;
+                }
+                case 22 -> first = 10;
+                case 23 -> {
+                    first = 5 + (buffer[position + 2] & 0xFF);
+                    second = available > 10 ? 13 + (buffer[position + 10] & 0xFF) : 0;
+                }
+                default -> {
+                }
+            }
+        }
+        if (crcMatches(position, first, available)) {
+            return first;
+        }
+        if (crcMatches(position, second, available)) {
+            return second;
+        }
+        if (available <= MAX_FRAME && crcMatches(position, available, available)) {
+            return available;
+        }
+        return 0;
+    }
+
+    private boolean crcMatches(int position, int frameLength, int available) {
+        if (frameLength < 4 || frameLength > available) {
+            return false;
+        }
+        int crc = Crc16.computeModbus(buffer, position, frameLength - 2);
+        int received = (buffer[position + frameLength - 2] & 0xFF) | (buffer[position + frameLength - 1] & 0xFF) << 8;
+        return crc == received;
+    }
+
+    private void emit(int position, int frameLength, boolean crcValid) {
+        byte[] data = Arrays.copyOfRange(buffer, position, position + frameLength);
+        long start = bufferStartNanos + position * charNanos;
+        long gap = lastFrameEndNanos < 0 ? -1 : Math.max(0, start - lastFrameEndNanos);
+        lastFrameEndNanos = start + frameLength * charNanos;
+        frameCount++;
+        if (!crcValid) {
+            crcErrors++;
+        }
+        onFrame.accept(new Frame(start, gap, data, crcValid, crcValid ? describe(data) : describeInvalid(data)));
+    }
+
+    private static String describeInvalid(byte[] data) {
+        var out = new StringBuilder(24 + data.length * 3);
+        out.append("CRC error, ").append(data.length).append(" bytes:");
+        appendHex(out, data, 0, data.length);
+        return out.toString();
+    }
+
+    /**
+     * Describes a CRC-valid frame.
+     *
+     * @param data The frame including the CRC
+     * @return Description
+     */
+    String describe(byte[] data) {
+        int slave = data[0] & 0xFF;
+        int function = data[1] & 0xFF;
+        int payload = data.length - 2;
+        var out = new StringBuilder(64);
+        out.append("slave ").append(slave).append(' ');
+        if ((function & 0x80) != 0) {
+            int code = data[2] & 0xFF;
+            appendFunction(out, function & 0x7F);
+            out.append(" exception ").append(String.format("%02X", code)).append(' ').append(exceptionName(code));
+            requestFunction = -1;
+            return out.toString();
+        }
+        appendFunction(out, function);
+        boolean expectResponse = requestSlave == slave && requestFunction == function;
+        switch (function) {
+            case 1, 2, 3, 4 -> {
+                boolean response = payload == 3 + (data[2] & 0xFF) && (payload != 6 || expectResponse);
+                if (response) {
+                    out.append(" response:");
+                    if (function <= 2) {
+                        appendBits(out, data, 3, data[2] & 0xFF, expectResponse ? requestStart : 0,
+                            expectResponse ? requestCount : (data[2] & 0xFF) * 8);
+                    } else {
+                        appendRegisters(out, data, 3, (data[2] & 0xFF) / 2, expectResponse ? requestStart : -1);
+                    }
+                    requestFunction = -1;
+                } else {
+                    remember(slave, function, u16(data, 2), u16(data, 4));
+                    out.append(" request: start ").append(requestStart).append(", count ").append(requestCount);
+                }
+            }
+            case 5 -> out.append(": coil ").append(u16(data, 2)).append(" = ")
+                .append(u16(data, 4) == 0xFF00 ? "ON" : u16(data, 4) == 0 ? "OFF" : String.format("0x%04X", u16(data, 4)));
+            case 6 -> {
+                out.append(':');
+                appendRegisters(out, data, 4, 1, u16(data, 2));
+            }
+            case 15, 16 -> {
+                if (payload == 6) {
+                    out.append(": wrote ").append(u16(data, 4)).append(function == 15 ? " coils" : " registers")
+                        .append(" from ").append(u16(data, 2));
+                } else {
+                    out.append(" request:");
+                    if (function == 15) {
+                        appendBits(out, data, 7, data[6] & 0xFF, u16(data, 2), u16(data, 4));
+                    } else {
+                        appendRegisters(out, data, 7, (data[6] & 0xFF) / 2, u16(data, 2));
+                    }
+                }
+            }
+            case 22 -> out.append(String.format(": register %d AND 0x%04X OR 0x%04X",
+                u16(data, 2), u16(data, 4), u16(data, 6)));
+            case 23 -> {
+                if (payload == 3 + (data[2] & 0xFF) && expectResponse) {
+                    out.append(" response:");
+                    appendRegisters(out, data, 3, (data[2] & 0xFF) / 2, requestStart);
+                    requestFunction = -1;
+                } else {
+                    remember(slave, function, u16(data, 2), u16(data, 4));
+                    out.append(" request: read ").append(requestStart).append(" count ").append(requestCount)
+                        .append(", write");
+                    appendRegisters(out, data, 11, (data[10] & 0xFF) / 2, u16(data, 6));
+                }
+            }
+            default -> {
+                out.append(':');
+                appendHex(out, data, 2, payload - 2);
+            }
+        }
+        return out.toString();
+    }
+
+    private void remember(int slave, int function, int start, int count) {
+        requestSlave = slave;
+        requestFunction = function;
+        requestStart = start;
+        requestCount = count;
+    }
+
+    private static void appendFunction(StringBuilder out, int function) {
+        out.append(functionName(function)).append(" (").append(String.format("%02X", function)).append(')');
+    }
+
+    private static void appendRegisters(StringBuilder out, byte[] data, int offset, int count, int start) {
+        int shown = Math.min(count, MAX_VALUES_SHOWN);
+        for (int i = 0; i < shown && offset + 2 * i + 1 < data.length - 2; i++) {
+            int value = u16(data, offset + 2 * i);
+            out.append(' ');
+            if (start >= 0) {
+                out.append('[').append(start + i).append("]=");
+            }
+            out.append(value);
+        }
+        if (count > shown) {
+            out.append(" ... (").append(count).append(" registers)");
+        }
+    }
+
+    private static void appendBits(StringBuilder out, byte[] data, int offset, int byteCount, int start, int count) {
+        int bits = Math.min(count, Math.min(byteCount * 8, MAX_VALUES_SHOWN * 8));
+        out.append(" [").append(start).append("..").append(start + bits - 1).append("]=");
+        for (int i = 0; i < bits && offset + i / 8 < data.length - 2; i++) {
+            out.append((data[offset + i / 8] >> (i % 8) & 1) != 0 ? '1' : '0');
+        }
+    }
+
+    private static void appendHex(StringBuilder out, byte[] data, int offset, int count) {
+        for (int i = offset; i < offset + count; i++) {
+            out.append(' ').append(Character.toUpperCase(Character.forDigit((data[i] >> 4) & 0xF, 16)))
+                .append(Character.toUpperCase(Character.forDigit(data[i] & 0xF, 16)));
+        }
+    }
+
+    private static int u16(byte[] data, int offset) {
+        return (data[offset] & 0xFF) << 8 | (data[offset + 1] & 0xFF);
+    }
+
+    /**
+     * Gets the name of a public function code.
+     *
+     * @param function Function code without the exception bit
+     * @return Name, or "Function" for codes without a standard name
+     */
+    public static String functionName(int function) {
+        return switch (function) {
+            case 1 -> "Read Coils";
+            case 2 -> "Read Discrete Inputs";
+            case 3 -> "Read Holding Registers";
+            case 4 -> "Read Input Registers";
+            case 5 -> "Write Single Coil";
+            case 6 -> "Write Single Register";
+            case 7 -> "Read Exception Status";
+            case 8 -> "Diagnostics";
+            case 11 -> "Get Comm Event Counter";
+            case 12 -> "Get Comm Event Log";
+            case 15 -> "Write Multiple Coils";
+            case 16 -> "Write Multiple Registers";
+            case 17 -> "Report Server ID";
+            case 22 -> "Mask Write Register";
+            case 23 -> "Read/Write Multiple Registers";
+            default -> "Function";
+        };
+    }
+
+    /**
+     * Gets the name of an exception code.
+     *
+     * @param code Exception code from an exception response
+     * @return Name
+     */
+    public static String exceptionName(int code) {
+        return switch (code) {
+            case 1 -> "Illegal Function";
+            case 2 -> "Illegal Data Address";
+            case 3 -> "Illegal Data Value";
+            case 4 -> "Server Device Failure";
+            case 5 -> "Acknowledge";
+            case 6 -> "Server Device Busy";
+            case 8 -> "Memory Parity Error";
+            case 10 -> "Gateway Path Unavailable";
+            case 11 -> "Gateway Target Device Failed to Respond";
+            default -> "Unknown Exception";
+        };
+    }
+}
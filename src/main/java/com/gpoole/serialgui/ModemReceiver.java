@@ -0,0 +1,197 @@
+package com.gpoole.serialgui;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Receives a file with XMODEM-CRC, XMODEM-1K or YMODEM.
+ *
+ * The receiver asks for CRC mode by sending 'C' every 3 seconds, up to 10
+ * times. Each block is checked for header, block number complement and CRC;
+ * a bad block is NAKed after the line has gone quiet, a repeated block (our
+ * ACK was lost) is acknowledged again without being written.
+ *
+ * XMODEM has no file size, so the last block's SUB padding ends up in the
+ * file. YMODEM sends the size in its header block and the padding is cut off.
+ * For YMODEM the target may be a directory, in which case the file name from
+ * the header is used.
+ */
+public class ModemReceiver extends ModemTransfer {
+    private static final long START_INTERVAL_MS = 3_000;
+    private static final int START_ATTEMPTS = 10;
+    private static final long BLOCK_TIMEOUT_MS = 10_000;
+    private static final long CHAR_TIMEOUT_MS = 1_000;
+
+    private final Path target;
+    private final byte[] block = new byte[2 + 1024 + 2];
+    private volatile Path receivedFile;
+
+    /**
+     * Creates a new ModemReceiver.
+     *
+     * @param commManager The connection to receive through
+     * @param protocol Protocol the sender uses
+     * @param target File to write, or for YMODEM a directory to write the sent file into
+     */
+    public ModemReceiver(SerialCommunicationManager commManager, Protocol protocol, Path target) {
+        super(commManager, protocol);
+        this.target = target;
+    }
+
+    @Override
+    protected String threadName() {
+        return "modem-receiver";
+    }
+
+    /**
+     * Gets the file written.
+     *
+     * @return Path, or null before the transfer has started writing
+     */
+    public Path getReceivedFile() {
+        return receivedFile;
+    }
+
+    @Override
+    protected void transfer() throws Exception {
+        Path file = target;
+        int expected = 1;
+        if (protocol == Protocol.YMODEM) {
+            int size = receiveBlock(true, true, 0);
+            String[] header = parseHeader(size);
+            if (header[0].isEmpty()) {
+                throw new TransferException("Sender has no file to send");
+            }
+            if (Files.isDirectory(target)) {
+                file = target.resolve(Path.of(header[0]).getFileName().toString());
+            }
+            totalBytes = header[1].isEmpty() ? -1 : Long.parseLong(header[1]);
+        }
+        receivedFile = file;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            // The first data block is requested with 'C'; later ones with ACK
+            int size = receiveBlock(true, false, expected);
+            while (size > 0) {
+                write(channel, size);
+                expected = (expected + 1) & 0xFF;
+                size = receiveBlock(false, false, expected);
+            }
+        }
+        if (protocol == Protocol.YMODEM) {
+            // Read (and acknowledge) the empty header that ends the batch
+            receiveBlock(true, true, 0);
+        }
+    }
+
+    private void write(FileChannel channel, int size) throws IOException {
+        int length = size;
+        if (totalBytes >= 0) {
+            length = (int) Math.min(size, totalBytes - bytesTransferred);
+        }
+        ByteBuffer data = ByteBuffer.wrap(block, 2, length);
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+        bytesTransferred += length;
+        blocks++;
+    }
+
+    /**
+     * Requests and receives one block, acknowledging the previous one.
+     *
+     * @param start True to ask with 'C' (start of file or batch), false to send ACK
+     * @param header True for a YMODEM header block, which is acknowledged here and cannot be an EOT.
+     *               Data block numbers wrap through 0 too, so the number alone does not tell.
+     * @param expected The block number wanted
+     * @return Data length of the block (left in the buffer after the 2-byte header), or 0 at end of transmission
+     */
+    private int receiveBlock(boolean start, boolean header, int expected) throws Exception {
+        send(start ? CRC_REQUEST : ACK);
+        int attempts = 0;
+        boolean seenEot = false;
+        while (true) {
+            checkNotCancelled();
+            int b = readByte(start ? START_INTERVAL_MS : BLOCK_TIMEOUT_MS);
+            if (b < 0) {
+                if (++attempts >= (start ? START_ATTEMPTS : MAX_RETRIES)) {
+                    throw new TransferException(start ? "Sender did not start" : "Timed out waiting for block " + expected);
+                }
+                retries += start ? 0 : 1;
+                send(start ? CRC_REQUEST : NAK);
+                continue;
+            }
+            if (b == EOT && !header) {
+                if (protocol == Protocol.YMODEM && !seenEot) {
+                    // Ask again to make sure the EOT was not line noise
+                    seenEot = true;
+                    send(NAK);
+                    continue;
+                }
+                send(ACK);
+                return 0;
+            }
+            if (b == CAN) {
+                checkCancel(CHAR_TIMEOUT_MS);
+                continue;
+            }
+            if (b != SOH && b != STX) {
+                continue;
+            }
+            int size = b == STX ? 1024 : 128;
+            if (readFully(block, 0, 2 + size + 2, CHAR_TIMEOUT_MS) && isValid(size)) {
+                int number = block[0] & 0xFF;
+                if (number == expected) {
+                    if (header) {
+                        send(ACK);
+                    }
+                    return size;
+                }
+                if (number == ((expected - 1) & 0xFF)) {
+                    // Our ACK was lost and the sender repeated the block
+                    send(ACK);
+                    continue;
+                }
+                throw new TransferException("Block sequence error: expected " + expected + ", got " + number);
+            }
+            if (++attempts >= MAX_RETRIES) {
+                throw new TransferException("Too many bad blocks");
+            }
+            retries++;
+            purge(CHAR_TIMEOUT_MS);
+            send(NAK);
+        }
+    }
+
+    private boolean isValid(int size) {
+        if (((block[0] ^ block[1]) & 0xFF) != 0xFF) {
+            return false;
+        }
+        int crc = ((block[2 + size] & 0xFF) << 8) | (block[3 + size] & 0xFF);
+        return Crc16.compute(block, 2, size) == crc;
+    }
+
+    /**
+     * Splits a YMODEM header block into file name and size.
+     */
+    private String[] parseHeader(int size) {
+        int nameEnd = 2;
+        while (nameEnd < 2 + size && block[nameEnd] != 0) {
+            nameEnd++;
+        }
+        String name = new String(block, 2, nameEnd - 2, StandardCharsets.US_ASCII);
+        int sizeEnd = nameEnd + 1;
+        while (sizeEnd < 2 + size && block[sizeEnd] >= '0' && block[sizeEnd] <= '9') {
+            sizeEnd++;
+        }
+        String length = sizeEnd > nameEnd + 1
+            ? new String(block, nameEnd + 1, sizeEnd - nameEnd - 1, StandardCharsets.US_ASCII)
+            : "";
+        return new String[]{name, length};
+    }
+}
@@ -0,0 +1,222 @@
+package com.gpoole.serialgui;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Sends a file with XMODEM-CRC, XMODEM-1K or YMODEM.
+ *
+ * Block preparation is pipelined: as soon as a block has been written, the
+ * next one is read from the file and framed (header, data, CRC) while the
+ * receiver is still checking the current one, so the acknowledgement
+ * turnaround is the only gap between blocks. Two frame buffers alternate, so
+ * the current block stays available for retransmission.
+ *
+ * Timeouts follow the protocol documents: up to 60 s for the receiver to
+ * start (it sends 'C' every few seconds), 10 s for each acknowledgement, and
+ * 10 attempts per block. A receiver that starts with NAK instead of 'C' gets
+ * 128-byte blocks with the original arithmetic checksum.
+ */
+public class ModemSender extends ModemTransfer {
+    private static final long START_TIMEOUT_MS = 60_000;
+    private static final long ACK_TIMEOUT_MS = 10_000;
+
+    private final Path file;
+    private final byte[][] largeFrames = new byte[2][3 + 1024 + 2];
+    private final byte[][] smallFrames = new byte[2][3 + 128 + 2];
+    private final byte[][] checksumFrames = new byte[2][3 + 128 + 1];
+    private boolean useCrc = true;
+    private int slot = 0;
+
+    /**
+     * Creates a new ModemSender.
+     *
+     * @param commManager The connection to send through
+     * @param protocol Protocol the receiver expects
+     * @param file The file to send
+     */
+    public ModemSender(SerialCommunicationManager commManager, Protocol protocol, Path file) {
+        super(commManager, protocol);
+        this.file = file;
+    }
+
+    @Override
+    protected String threadName() {
+        return "modem-sender";
+    }
+
+    @Override
+    protected void transfer() throws Exception {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            totalBytes = channel.size();
+            awaitStart();
+            if (protocol == Protocol.YMODEM) {
+                sendBlock(headerFrame(file.getFileName().toString(), totalBytes));
+                awaitStart();
+            }
+            int blockNumber = 1;
+            byte[] frame = nextFrame(channel, blockNumber);
+            while (frame != null) {
+                send(frame);
+                // Prepare the next block while the receiver checks this one
+                byte[] next = nextFrame(channel, blockNumber + 1);
+                awaitAck(frame);
+                bytesTransferred = Math.min(totalBytes, bytesTransferred + dataLength(frame));
+                blocks++;
+                blockNumber++;
+                frame = next;
+            }
+            sendEndOfTransmission();
+            if (protocol == Protocol.YMODEM) {
+                // An empty header block ends the batch
+                awaitStart();
+                sendBlock(headerFrame("", 0));
+            }
+        }
+    }
+
+    /**
+     * Waits for the receiver's 'C' (CRC) or NAK (checksum) start request.
+     */
+    private void awaitStart() throws Exception {
+        long deadline = System.nanoTime() + START_TIMEOUT_MS * 1_000_000;
+        while (true) {
+            checkNotCancelled();
+            int b = readByteBy(deadline);
+            if (b < 0) {
+                throw new TransferException("Receiver did not start within " + START_TIMEOUT_MS / 1000 + " s");
+            }
+            if (b == CRC_REQUEST) {
+                useCrc = true;
+                return;
+            }
+            if (b == NAK && protocol == Protocol.XMODEM) {
+                useCrc = false;
+                return;
+            }
+            if (b == CAN) {
+                checkCancel(1000);
+            }
+        }
+    }
+
+    private void sendBlock(byte[] frame) throws Exception {
+        send(frame);
+        awaitAck(frame);
+    }
+
+    /**
+     * Waits for the block to be acknowledged, resending it on NAK or timeout.
+     */
+    private void awaitAck(byte[] frame) throws Exception {
+        int attempts = 1;
+        while (true) {
+            checkNotCancelled();
+            int b = readByte(ACK_TIMEOUT_MS);
+            if (b == ACK) {
+                return;
+            }
+            if (b == CAN) {
+                checkCancel(1000);
+                continue;
+            }
+            if (b >= 0 && b != NAK) {
+                // Line noise or a late 'C' from the start handshake; resending on it would
+                // make the receiver ACK twice and throw the block numbering out of step
+                continue;
+            }
+            if (++attempts > MAX_RETRIES) {
+                throw new TransferException("Block " + (frame[1] & 0xFF) + " not acknowledged after "
+                    + MAX_RETRIES + " attempts");
+            }
+            retries++;
+            send(frame);
+        }
+    }
+
+    private void sendEndOfTransmission() throws Exception {
+        for (int attempt = 1; attempt <= MAX_RETRIES; attempt++) {
+            checkNotCancelled();
+            send(EOT);
+            // YMODEM receivers NAK the first EOT to make sure it was not noise
+            int b = readByte(ACK_TIMEOUT_MS);
+            if (b == ACK) {
+                return;
+            }
+            if (b == CAN) {
+                checkCancel(1000);
+            }
+        }
+        throw new TransferException("End of transmission not acknowledged");
+    }
+
+    /**
+     * Reads the next block from the file and frames it into the idle buffer.
+     *
+     * @return The frame, or null at the end of the file
+     */
+    private byte[] nextFrame(FileChannel channel, int blockNumber) throws IOException {
+        long remaining = channel.size() - channel.position();
+        if (remaining <= 0) {
+            return null;
+        }
+        slot ^= 1;
+        byte[] frame;
+        if (!useCrc) {
+            frame = checksumFrames[slot];
+        } else if (protocol.getBlockSize() == 1024 && remaining > 128) {
+            frame = largeFrames[slot];
+        } else {
+            // A short tail goes in a 128-byte block to avoid padding out a whole 1K block
+            frame = smallFrames[slot];
+        }
+        int dataLength = dataLength(frame);
+        ByteBuffer data = ByteBuffer.wrap(frame, 3, dataLength);
+        while (data.hasRemaining() && channel.read(data) >= 0) {
+            // fill the block unless the file ends
+        }
+        Arrays.fill(frame, data.position(), 3 + dataLength, SUB);
+        frame(frame, blockNumber);
+        return frame;
+    }
+
+    private byte[] headerFrame(String name, long size) {
+        byte[] frame = new byte[3 + 128 + 2];
+        if (!name.isEmpty()) {
+            byte[] info = (name + '\0' + size).getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(info, 0, frame, 3, Math.min(info.length, 127));
+        }
+        frame(frame, 0);
+        return frame;
+    }
+
+    private int dataLength(byte[] frame) {
+        return frame.length == 3 + 128 + 1 ? 128 : frame.length - 5;
+    }
+
+    /**
+     * Writes the header and CRC (or checksum) around the data already in the frame.
+     */
+    private void frame(byte[] frame, int blockNumber) {
+        int dataLength = dataLength(frame);
+        frame[0] = dataLength == 1024 ? STX : SOH;
+        frame[1] = (byte) blockNumber;
+        frame[2] = (byte) ~blockNumber;
+        if (frame.length == 3 + dataLength + 1) {
+            int sum = 0;
+            for (int i = 3; i < 3 + dataLength; i++) {
+                sum += frame[i] & 0xFF;
+            }
+            frame[3 + dataLength] = (byte) sum;
+        } else {
+            int crc = Crc16.compute(frame, 3, dataLength);
+            frame[3 + dataLength] = (byte) (crc >>> 8);
+            frame[4 + dataLength] = (byte) crc;
+        }
+    }
+}
@@ -0,0 +1,445 @@
+package com.gpoole.serialgui;
+
+import jssc.SerialPortException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Common engine for XMODEM and YMODEM transfers over a
+ * {@link SerialCommunicationManager}.
+ *
+ * While a transfer runs it claims the receive path, so protocol bytes never
+ * reach the display, capture or other listeners; the port goes back to normal
+ * logging when the transfer ends, however it ends. Received chunks are queued
+ * and read a byte at a time with deadlines on System.nanoTime(), so every
+ * timeout in the protocol is measured from the moment the wait began and is
+ * not stretched by chunk boundaries.
+ *
+ * Features:
+ * - XMODEM-CRC (128-byte blocks), XMODEM-1K and YMODEM (batch header with
+ *   file name and size, 1K blocks)
+ * - Runs on its own thread; poll the counters or wait for onFinished
+ * - Cancel sends CAN to the peer; two CANs from the peer abort the transfer
+ * - Effective throughput is reported against the line rate
+ */
+public abstract class ModemTransfer {
+    private static final Logger logger = LoggerFactory.getLogger(ModemTransfer.class);
+
+    static final byte SOH = 0x01;
+    static final byte STX = 0x02;
+    static final byte EOT = 0x04;
+    static final byte ACK = 0x06;
+    static final byte NAK = 0x15;
+    static final byte CAN = 0x18;
+    static final byte CRC_REQUEST = 'C';
+    static final byte SUB = 0x1A;
+    /** Attempts per block (or EOT) before giving up, as in the protocol documents */
+    static final int MAX_RETRIES = 10;
+
+    /**
+     * Transfer protocol.
+     */
+    public enum Protocol {
+        XMODEM("XMODEM-CRC", 128),
+        XMODEM_1K("XMODEM-1K", 1024),
+        YMODEM("YMODEM", 1024);
+
+        private final String label;
+        private final int blockSize;
+
+        Protocol(String label, int blockSize) {
+            this.label = label;
+            this.blockSize = blockSize;
+        }
+
+        /**
+         * Gets the data block size used for full blocks.
+         *
+         * @return 128 or 1024 bytes
+         */
+        public int getBlockSize() {
+            return blockSize;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    /**
+     * Raised inside the transfer thread to end the transfer with a message.
+     */
+    static final class TransferException extends Exception {
+        TransferException(String message) {
+            super(message);
+        }
+    }
+
+    protected final SerialCommunicationManager commManager;
+    protected final Protocol protocol;
+    private final LinkedBlockingQueue<byte[]> input = new LinkedBlockingQueue<>();
+    private final Consumer<SerialChunk> receiveClaim = chunk -> input.add(chunk.data());
+    private byte[] current = new byte[0];
+    private int currentPos = 0;
+    private double lineBytesPerSecond = 0;
+    private Consumer<ModemTransfer> onFinished = t -> {};
+    private Thread thread;
+    private volatile boolean running = false;
+    private volatile boolean cancelled = false;
+    private volatile boolean completed = false;
+    private volatile String failure;
+    private volatile long startNanos = 0;
+    private volatile long stopNanos = 0;
+    protected volatile long totalBytes = -1;
+    protected volatile long bytesTransferred = 0;
+    protected volatile int blocks = 0;
+    protected volatile int retries = 0;
+
+    protected ModemTransfer(SerialCommunicationManager commManager, Protocol protocol) {
+        this.commManager = commManager;
+        this.protocol = protocol;
+    }
+
+    /**
+     * Sets the line rate used to report efficiency.
+     *
+     * @param bytesPerSecond Maximum character rate of the line, e.g. from
+     *                       {@link PrbsRunner#charactersPerSecond(int, int, int, int)}
+     * @return This instance for method chaining
+     */
+    public ModemTransfer withLineRate(double bytesPerSecond) {
+        this.lineBytesPerSecond = bytesPerSecond;
+        return this;
+    }
+
+    /**
+     * Sets a callback run on the transfer thread when the transfer ends.
+     *
+     * @param callback Receives this transfer
+     * @return This instance for method chaining
+     */
+    public ModemTransfer onFinished(Consumer<ModemTransfer> callback) {
+        this.onFinished = callback;
+        return this;
+    }
+
+    /**
+     * Starts the transfer on a background thread.
+     */
+    public synchronized void start() {
+        if (running) {
+            throw new IllegalStateException("Transfer already running");
+        }
+        if (!commManager.isConnected()) {
+            throw new IllegalStateException("Not connected to any port");
+        }
+        if (!commManager.claimReceive(receiveClaim)) {
+            throw new IllegalStateException("Another transfer is using the port");
+        }
+        input.clear();
+        current = new byte[0];
+        currentPos = 0;
+        cancelled = false;
+        completed = false;
+        failure = null;
+        bytesTransferred = 0;
+        blocks = 0;
+        retries = 0;
+        startNanos = System.nanoTime();
+        stopNanos = 0;
+        running = true;
+        thread = new Thread(this::run, threadName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run() {
+        try {
+            transfer();
+            completed = true;
+        } catch (InterruptedException ex) {
+            failure = "Cancelled";
+            sendCancel();
+        } catch (TransferException ex) {
+            failure = ex.getMessage();
+            sendCancel();
+        } catch (Exception ex) {
+            failure = ex.getMessage() != null ? ex.getMessage() : ex.toString();
+            sendCancel();
+        } finally {
+            stopNanos = System.nanoTime();
+            commManager.releaseReceive(receiveClaim);
+            running = false;
+            if (completed) {
+                logger.info("{} finished: {}", protocol, getSummary().replace('\n', ' '));
+            } else {
+                logger.warn("{} failed: {}", protocol, failure);
+            }
+            onFinished.accept(this);
+        }
+    }
+
+    /**
+     * Runs the protocol. Called on the transfer thread.
+     */
+    protected abstract void transfer() throws Exception;
+
+    /**
+     * Names the transfer thread.
+     */
+    protected abstract String threadName();
+
+    /**
+     * Cancels the transfer; the peer is told with CAN.
+     */
+    public void cancel() {
+        Thread t;
+        synchronized (this) {
+            t = thread;
+        }
+        if (t != null && running) {
+            cancelled = true;
+            t.interrupt();
+        }
+    }
+
+    /**
+     * Waits for the transfer to end.
+     *
+     * @param timeoutMs Maximum wait in milliseconds
+     * @return True if the transfer has ended
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public boolean await(long timeoutMs) throws InterruptedException {
+        Thread t;
+        synchronized (this) {
+            t = thread;
+        }
+        if (t != null) {
+            t.join(timeoutMs);
+        }
+        return !running;
+    }
+
+    protected void send(byte[] data) throws SerialPortException {
+        commManager.sendBytes(data);
+    }
+
+    protected void send(byte b) throws SerialPortException {
+        commManager.sendBytes(new byte[]{b});
+    }
+
+    private void sendCancel() {
+        try {
+            if (commManager.isConnected()) {
+                commManager.sendBytes(new byte[]{CAN, CAN, CAN});
+            }
+        } catch (SerialPortException ex) {
+            logger.debug("Failed to send CAN: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Reads one byte.
+     *
+     * @param timeoutMs Time to wait from now
+     * @return The byte (0-255), or -1 on timeout
+     * @throws InterruptedException If the transfer was cancelled
+     */
+    protected int readByte(long timeoutMs) throws InterruptedException {
+        return readByteBy(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs));
+    }
+
+    /**
+     * Reads one byte before a deadline.
+     *
+     * @param deadlineNanos System.nanoTime() value to give up at
+     * @return The byte (0-255), or -1 on timeout
+     * @throws InterruptedException If the transfer was cancelled
+     */
+    protected int readByteBy(long deadlineNanos) throws InterruptedException {
+        while (currentPos >= current.length) {
+            long remaining = deadlineNanos - System.nanoTime();
+            byte[] next = remaining > 0 ? input.poll(remaining, TimeUnit.NANOSECONDS) : input.poll();
+            if (next == null) {
+                return -1;
+            }
+            current = next;
+            currentPos = 0;
+        }
+        return current[currentPos++] & 0xFF;
+    }
+
+    /**
+     * Fills a buffer, allowing each byte the given time to arrive.
+     *
+     * @return True if filled, false on an inter-character timeout
+     */
+    protected boolean readFully(byte[] buffer, int offset, int length, long charTimeoutMs) throws InterruptedException {
+        for (int i = offset; i < offset + length; i++) {
+            int b = readByte(charTimeoutMs);
+            if (b < 0) {
+                return false;
+            }
+            buffer[i] = (byte) b;
+        }
+        return true;
+    }
+
+    /**
+     * Discards input until the line has been quiet for the given time, so a
+     * retry starts on a block boundary.
+     */
+    protected void purge(long quietMs) throws InterruptedException {
+        while (readByte(quietMs) >= 0) {
+            // drop
+        }
+    }
+
+    /**
+     * Handles a CAN received from the peer; a second CAN aborts.
+     */
+    protected void checkCancel(long timeoutMs) throws InterruptedException, TransferException {
+        if (readByte(timeoutMs) == CAN) {
+            throw new TransferException("Cancelled by remote");
+        }
+    }
+
+    protected void checkNotCancelled() throws InterruptedException {
+        if (cancelled || Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+    /**
+     * Checks whether the transfer is running.
+     *
+     * @return True while running
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Checks whether the transfer completed successfully.
+     *
+     * @return True once the peer has acknowledged the end of the transfer
+     */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * Gets why the transfer failed.
+     *
+     * @return Message, or null if none
+     */
+    public String getFailure() {
+        return failure;
+    }
+
+    /**
+     * Gets the protocol in use.
+     *
+     * @return The protocol
+     */
+    public Protocol getProtocol() {
+        return protocol;
+    }
+
+    /**
+     * Gets the number of payload bytes sent or received.
+     *
+     * @return Bytes
+     */
+    public long getBytesTransferred() {
+        return bytesTransferred;
+    }
+
+    /**
+     * Gets the size of the file, when known.
+     *
+     * @return Bytes, or -1 if unknown (XMODEM receive)
+     */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Gets the number of data blocks transferred.
+     *
+     * @return Blocks
+     */
+    public int getBlocks() {
+        return blocks;
+    }
+
+    /**
+     * Gets the number of retransmissions (NAKs and timeouts).
+     *
+     * @return Retries
+     */
+    public int getRetries() {
+        return retries;
+    }
+
+    /**
+     * Gets the time since the transfer started.
+     *
+     * @return Seconds, up to the end of the transfer once finished
+     */
+    public double getElapsedSeconds() {
+        if (startNanos == 0) {
+            return 0;
+        }
+        long end = stopNanos != 0 ? stopNanos : System.nanoTime();
+        return (end - startNanos) / 1e9;
+    }
+
+    /**
+     * Gets the payload rate.
+     *
+     * @return Bytes per second
+     */
+    public double getThroughputBytesPerSecond() {
+        double elapsed = getElapsedSeconds();
+        return elapsed > 0 ? bytesTransferred / elapsed : 0;
+    }
+
+    /**
+     * Gets the payload rate as a fraction of the line rate. Block headers,
+     * CRCs, acknowledgement turnaround and retries make up the difference.
+     *
+     * @return 0 to 1, or 0 if the line rate is not set
+     */
+    public double getEfficiency() {
+        return lineBytesPerSecond > 0 ? getThroughputBytesPerSecond() / lineBytesPerSecond : 0;
+    }
+
+    /**
+     * Formats progress and results.
+     *
+     * @return Human readable summary
+     */
+    public String getSummary() {
+        var out = new StringBuilder();
+        out.append(String.format("%s: %,d", protocol, bytesTransferred));
+        if (totalBytes >= 0) {
+            out.append(String.format(" of %,d", totalBytes));
+        }
+        out.append(String.format(" bytes, %d blocks, %d retries, %.1f s%n", blocks, retries, getElapsedSeconds()));
+        out.append(String.format("Throughput: %.0f B/s", getThroughputBytesPerSecond()));
+        if (lineBytesPerSecond > 0) {
+            out.append(String.format(" of %.0f B/s line rate (%.1f%%)", lineBytesPerSecond, getEfficiency() * 100));
+        }
+        if (!running && startNanos != 0) {
+            out.append(completed ? "\nCompleted" : "\nFailed: " + failure);
+        }
+        return out.toString();
+    }
+}
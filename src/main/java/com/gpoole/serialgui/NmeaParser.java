@@ -0,0 +1,444 @@
+package com.gpoole.serialgui;
+
+import java.util.Arrays;
+
+/**
+ * Decodes NMEA 0183 sentences from GNSS receivers into a live position fix.
+ *
+ * The parser works on the received bytes directly. Sentences are collected
+ * in a fixed line buffer, the checksum is verified, and fields are located by
+ * recording the offset of each comma; numbers are then read from those
+ * offsets in place. No Strings are created and nothing is allocated per
+ * sentence, so a parser keeps up with several multi-constellation receivers
+ * at 10 Hz without adding garbage collection work to the receive thread.
+ *
+ * Features:
+ * - Checksum verification; sentences without a checksum are rejected
+ * - GGA (fix quality, position, altitude, satellites used, HDOP), RMC (status,
+ *   date, time, speed, course), GSA (2D/3D mode, PDOP, HDOP, VDOP) and GSV
+ *   (satellites in view) from any talker (GP, GL, GA, GB, GN, ...)
+ * - Satellites in view are summed over the constellations reporting GSV
+ * - Resynchronises on '$' or '!', so a sentence cut short by noise does not
+ *   swallow the next one
+ *
+ * Usage:
+ * - Feed every received chunk to accept() from the receive thread; use one
+ *   parser per receiver
+ * - Call getFix() at display rate to read a snapshot of the decoded state
+ */
+public class NmeaParser {
+    /** Longest sentence accepted; the standard allows 82 characters */
+    public static final int MAX_SENTENCE = 128;
+    private static final int MAX_FIELDS = 32;
+    private static final int TALKERS = 6;
+    private static final double[] POWERS_OF_TEN = {1, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9};
+
+    /**
+     * Snapshot of the decoded receiver state. Values not yet reported are -1
+     * (counts) or NaN (measurements).
+     *
+     * @param quality GGA fix quality: 0 no fix, 1 GPS, 2 DGPS, 4 RTK fixed, 5 RTK float, 6 estimated
+     * @param mode GSA fix mode: 1 no fix, 2 2D, 3 3D
+     * @param valid RMC status is 'A' (data valid)
+     * @param utcMillis UTC time of day in milliseconds
+     * @param date RMC date as ddmmyy
+     * @param latitude Degrees, north positive
+     * @param longitude Degrees, east positive
+     * @param altitude Metres above mean sea level
+     * @param satellitesUsed Satellites used in the solution
+     * @param satellitesInView Satellites in view over all constellations
+     * @param hdop Horizontal dilution of precision
+     * @param pdop Position dilution of precision
+     * @param vdop Vertical dilution of precision
+     * @param speedKnots Speed over ground in knots
+     * @param course Course over ground in degrees true
+     * @param sentences Sentences accepted
+     * @param checksumErrors Sentences rejected for a bad or missing checksum
+     */
+    public record Fix(int quality, int mode, boolean valid, long utcMillis, int date,
+                      double latitude, double longitude, double altitude,
+                      int satellitesUsed, int satellitesInView,
+                      double hdop, double pdop, double vdop, double speedKnots, double course,
+                      long sentences, long checksumErrors) {
+
+        /**
+         * Formats the fix for display.
+         *
+         * @return Multi-line human readable description
+         */
+        public String describe() {
+            var out = new StringBuilder();
+            out.append(String.format("Fix:        %s%s%n", qualityName(quality),
+                mode == 2 ? " (2D)" : mode == 3 ? " (3D)" : ""));
+            if (utcMillis >= 0) {
+                out.append(String.format("UTC:        %02d:%02d:%02d.%03d", utcMillis / 3_600_000,
+                    utcMillis / 60_000 % 60, utcMillis / 1000 % 60, utcMillis % 1000));
+                if (date >= 0) {
+                    out.append(String.format("  20%02d-%02d-%02d", date % 100, date / 100 % 100, date / 10000));
+                }
+                out.append(String.format("%n"));
+            }
+            if (!Double.isNaN(latitude)) {
+                out.append(String.format("Position:   %.7f %.7f%n", latitude, longitude));
+            }
+            if (!Double.isNaN(altitude)) {
+                out.append(String.format("Altitude:   %.1f m%n", altitude));
+            }
+            out.append(String.format("Satellites: %s used, %s in view%n",
+                satellitesUsed >= 0 ? satellitesUsed : "-", satellitesInView >= 0 ? satellitesInView : "-"));
+            out.append(String.format("DOP:        H %s  P %s  V %s%n", dop(hdop), dop(pdop), dop(vdop)));
+            if (!Double.isNaN(speedKnots)) {
+                out.append(String.format("Speed:      %.2f kn (%.2f km/h), course %s%n", speedKnots, speedKnots * 1.852,
+                    Double.isNaN(course) ? "-" : String.format("%.1f deg", course)));
+            }
+            out.append(String.format("Sentences:  %,d, %,d checksum errors", sentences, checksumErrors));
+            return out.toString();
+        }
+
+        private static String dop(double value) {
+            return Double.isNaN(value) ? "-" : String.format("%.2f", value);
+        }
+    }
+
+    private final byte[] line = new byte[MAX_SENTENCE];
+    private final int[] fieldStart = new int[MAX_FIELDS];
+    private final int[] fieldEnd = new int[MAX_FIELDS];
+    private final int[] satellitesInView = new int[TALKERS];
+    private int length = 0;
+    private boolean inSentence = false;
+    private int fieldCount = 0;
+    private long sentences = 0;
+    private long checksumErrors = 0;
+    private int quality = -1;
+    private int mode = -1;
+    private boolean valid = false;
+    private long utcMillis = -1;
+    private int date = -1;
+    private double latitude = Double.NaN;
+    private double longitude = Double.NaN;
+    private double altitude = Double.NaN;
+    private int satellitesUsed = -1;
+    private double hdop = Double.NaN;
+    private double pdop = Double.NaN;
+    private double vdop = Double.NaN;
+    private double speedKnots = Double.NaN;
+    private double course = Double.NaN;
+
+    /**
+     * Creates a new NmeaParser.
+     */
+    public NmeaParser() {
+        Arrays.fill(satellitesInView, -1);
+    }
+
+    /**
+     * Adds received bytes.
+     *
+     * @param chunk A received chunk
+     */
+    public void accept(SerialChunk chunk) {
+        byte[] data = chunk.data();
+        accept(data, 0, data.length);
+    }
+
+    /**
+     * Adds received bytes.
+     *
+     * @param data Buffer holding the bytes
+     * @param offset Index of the first byte
+     * @param count Number of bytes
+     */
+    public synchronized void accept(byte[] data, int offset, int count) {
+        for (int i = offset; i < offset + count; i++) {
+            byte b = data[i];
+            if (b == '$' || b == '!') {
+                inSentence = true;
+                length = 0;
+            }
+            if (!inSentence) {
+                continue;
+            }
+            if (b == '\r' || b == '\n') {
+                inSentence = false;
+                sentence();
+            } else if (length == line.length) {
+                // Too long to be NMEA; drop it and wait for the next start character
+                inSentence = false;
+            } else {
+                line[length++] = b;
+            }
+        }
+    }
+
+    /**
+     * Gets a snapshot of the decoded state.
+     *
+     * @return The current fix
+     */
+    public synchronized Fix getFix() {
+        int inView = -1;
+        for (int count : satellitesInView) {
+            if (count >= 0) {
+                inView = Math.max(inView, 0) + count;
+            }
+        }
+        return new Fix(quality, mode, valid, utcMillis, date, latitude, longitude, altitude,
+            satellitesUsed, inView, hdop, pdop, vdop, speedKnots, course, sentences, checksumErrors);
+    }
+
+    /**
+     * Gets the number of sentences accepted.
+     *
+     * @return Sentences with a valid checksum
+     */
+    public synchronized long getSentenceCount() {
+        return sentences;
+    }
+
+    /**
+     * Gets the number of sentences rejected for a bad or missing checksum.
+     *
+     * @return Checksum errors
+     */
+    public synchronized long getChecksumErrors() {
+        return checksumErrors;
+    }
+
+    /**
+     * Verifies and splits the sentence in the line buffer, then decodes it.
+     */
+    private void sentence() {
+        // "$" + 5-character address + "*hh" at least
+        if (length < 9) {
+            return;
+        }
+        int star = length - 3;
+        int expected = (hex(line[star + 1]) << 4) | hex(line[star + 2]);
+        if (line[star] != '*' || expected < 0) {
+            checksumErrors++;
+            return;
+        }
+        int checksum = 0;
+        fieldCount = 0;
+        fieldStart[0] = 1;
+        for (int i = 1; i < star; i++) {
+            byte b = line[i];
+            checksum ^= b;
+            if (b == ',' && fieldCount < MAX_FIELDS - 1) {
+                fieldEnd[fieldCount++] = i;
+                fieldStart[fieldCount] = i + 1;
+            }
+        }
+        fieldEnd[fieldCount++] = star;
+        if ((checksum & 0xFF) != expected) {
+            checksumErrors++;
+            return;
+        }
+        sentences++;
+        // Address field: two-character talker and three-character type ("GPGGA")
+        if (fieldEnd[0] - fieldStart[0] != 5) {
+            return;
+        }
+        int t = fieldStart[0] + 2;
+        if (is(t, 'G', 'G', 'A')) {
+            gga();
+        } else if (is(t, 'R', 'M', 'C')) {
+            rmc();
+        } else if (is(t, 'G', 'S', 'A')) {
+            gsa();
+        } else if (is(t, 'G', 'S', 'V')) {
+            gsv(talker(line[fieldStart[0]], line[fieldStart[0] + 1]));
+        }
+    }
+
+    // $--GGA,hhmmss.ss,llll.ll,a,yyyyy.yy,a,q,nn,h.h,a.a,M,g.g,M,age,ref*hh
+    private void gga() {
+        time(1);
+        latitude = coordinate(2, 'S');
+        longitude = coordinate(4, 'W');
+        quality = integer(6);
+        satellitesUsed = integer(7);
+        hdop = decimal(8);
+        altitude = decimal(9);
+    }
+
+    // $--RMC,hhmmss.ss,A,llll.ll,a,yyyyy.yy,a,x.x,x.x,ddmmyy,x.x,a*hh
+    private void rmc() {
+        time(1);
+        valid = fieldCount > 2 && fieldEnd[2] > fieldStart[2] && line[fieldStart[2]] == 'A';
+        if (valid) {
+            latitude = coordinate(3, 'S');
+            longitude = coordinate(5, 'W');
+        }
+        speedKnots = decimal(7);
+        course = decimal(8);
+        int d = integer(9);
+        if (d >= 0) {
+            date = d;
+        }
+    }
+
+    // $--GSA,a,x,sv1,...,sv12,p.p,h.h,v.v*hh (NMEA 4.1 adds a system ID after VDOP)
+    private void gsa() {
+        mode = integer(2);
+        pdop = decimal(15);
+        hdop = decimal(16);
+        vdop = decimal(17);
+    }
+
+    // $--GSV,total,number,inView,sv,el,az,snr,...*hh
+    private void gsv(int talker) {
+        int inView = integer(3);
+        if (inView >= 0) {
+            satellitesInView[talker] = inView;
+        }
+    }
+
+    private boolean is(int offset, char a, char b, char c) {
+        return line[offset] == a && line[offset + 1] == b && line[offset + 2] == c;
+    }
+
+    private static int talker(byte a, byte b) {
+        if (a != 'G' && a != 'B') {
+            return TALKERS - 1;
+        }
+        return switch (b) {
+            case 'P' -> 0;
+            case 'L' -> 1;
+            case 'A' -> 2;
+            case 'B', 'D' -> 3;
+            case 'Q' -> 4;
+            default -> TALKERS - 1;
+        };
+    }
+
+    /**
+     * Reads hhmmss.sss into utcMillis, if the field is present.
+     */
+    private void time(int field) {
+        if (field >= fieldCount || fieldEnd[field] - fieldStart[field] < 6) {
+            return;
+        }
+        int s = fieldStart[field];
+        int hh = digits(s, 2);
+        int mm = digits(s + 2, 2);
+        double ss = decimal(field) % 100;
+        if (hh >= 0 && mm >= 0 && !Double.isNaN(ss)) {
+            utcMillis = hh * 3_600_000L + mm * 60_000L + Math.round(ss * 1000);
+        }
+    }
+
+    /**
+     * Reads (d)ddmm.mmmm and its hemisphere into signed degrees.
+     *
+     * @param negative Hemisphere letter that makes the value negative
+     * @return Degrees, or NaN if the field is empty
+     */
+    private double coordinate(int field, char negative) {
+        double value = decimal(field);
+        if (Double.isNaN(value) || field + 1 >= fieldCount) {
+            return Double.NaN;
+        }
+        double degrees = Math.floor(value / 100);
+        degrees += (value - degrees * 100) / 60;
+        int hemisphere = fieldStart[field + 1];
+        return fieldEnd[field + 1] > hemisphere && line[hemisphere] == negative ? -degrees : degrees;
+    }
+
+    /**
+     * Reads an unsigned integer field.
+     *
+     * @return The value, or -1 if the field is missing, empty or not a number
+     */
+    private int integer(int field) {
+        if (field >= fieldCount) {
+            return -1;
+        }
+        int length = fieldEnd[field] - fieldStart[field];
+        return length == 0 || length > 9 ? -1 : digits(fieldStart[field], length);
+    }
+
+    private int digits(int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            int digit = line[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Reads a decimal field such as "-12.345".
+     *
+     * @return The value, or NaN if the field is missing, empty or not a number
+     */
+    private double decimal(int field) {
+        if (field >= fieldCount || fieldEnd[field] == fieldStart[field]) {
+            return Double.NaN;
+        }
+        int i = fieldStart[field];
+        int end = fieldEnd[field];
+        boolean negative = line[i] == '-';
+        if (negative || line[i] == '+') {
+            i++;
+        }
+        long mantissa = 0;
+        int fractionDigits = -1;
+        int significant = 0;
+        for (; i < end; i++) {
+            byte b = line[i];
+            if (b == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else if (b >= '0' && b <= '9') {
+                if (significant < 18) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    significant++;
+                    if (fractionDigits >= 0) {
+                        fractionDigits++;
+                    }
+                } else if (fractionDigits < 0) {
+                    return Double.NaN;
+                }
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (significant == 0 || fractionDigits >= POWERS_OF_TEN.length) {
+            return Double.NaN;
+        }
+        double value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+        return negative ? -value : value;
+    }
+
+    private static int hex(byte b) {
+        if (b >= '0' && b <= '9') {
+            return b - '0';
+        }
+        if (b >= 'A' && b <= 'F') {
+            return b - 'A' + 10;
+        }
+        if (b >= 'a' && b <= 'f') {
+            return b - 'a' + 10;
+        }
+        return -1;
+    }
+
+    private static String qualityName(int quality) {
+        return switch (quality) {
+            case -1 -> "-";
+            case 0 -> "No fix";
+            case 1 -> "GPS";
+            case 2 -> "DGPS";
+            case 3 -> "PPS";
+            case 4 -> "RTK fixed";
+            case 5 -> "RTK float";
+            case 6 -> "Estimated";
+            case 7 -> "Manual";
+            case 8 -> "Simulation";
+            default -> "Quality " + quality;
+        };
+    }
+}
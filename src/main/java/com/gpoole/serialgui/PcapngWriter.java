@@ -0,0 +1,368 @@
+package com.gpoole.serialgui;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes serial traffic to a pcapng file for dissection in Wireshark.
+ *
+ * Every chunk (or framed message) becomes one Enhanced Packet Block with a
+ * microsecond timestamp and the epb_flags direction bits (inbound for RX,
+ * outbound for TX). The interface uses a user link type, LINKTYPE_USER0 (147)
+ * by default, which Wireshark maps to a custom dissector under Preferences >
+ * Protocols > DLT_USER.
+ *
+ * Blocks are assembled in one fixed 64 KB buffer and written to a
+ * {@link FileChannel} when it fills, so memory use does not depend on the
+ * capture size. A packet arriving more than a second after the last flush
+ * flushes the buffer; a live capture should also call flush() periodically so
+ * the file can be opened while it grows.
+ *
+ * Usage:
+ * - Live: create a writer and call write() from the receive and transmit
+ *   listeners; close() when done
+ * - Export: {@link #export} replays the chunk indexes of the session's RX and
+ *   TX {@link ByteCapture}s in arrival order
+ */
+public class PcapngWriter implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(PcapngWriter.class);
+    /** First of the link types reserved for private use (DLT_USER0) */
+    public static final int LINKTYPE_USER0 = 147;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int SECTION_HEADER = 0x0A0D0D0A;
+    private static final int INTERFACE_DESCRIPTION = 1;
+    private static final int ENHANCED_PACKET = 6;
+    private static final int BYTE_ORDER_MAGIC = 0x1A2B3C4D;
+    private static final int OPT_END = 0;
+    private static final int OPT_SHB_USERAPPL = 4;
+    private static final int OPT_IF_NAME = 2;
+    private static final int OPT_IF_TSRESOL = 9;
+    private static final int OPT_EPB_FLAGS = 2;
+    /** Enhanced Packet Block length without data: 28 header, 12 flags option and end, 4 trailer */
+    private static final int PACKET_OVERHEAD = 44;
+    private static final long FLUSH_INTERVAL_NANOS = 1_000_000_000L;
+    /** Offset from System.nanoTime() microseconds to Unix epoch microseconds */
+    private static final long EPOCH_OFFSET_MICROS = System.currentTimeMillis() * 1000 - System.nanoTime() / 1000;
+
+    /**
+     * Packet direction, as encoded in the epb_flags option.
+     */
+    public enum Direction {
+        INBOUND(1),
+        OUTBOUND(2);
+
+        private final int flags;
+
+        Direction(int flags) {
+            this.flags = flags;
+        }
+    }
+
+    private final Path file;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private long lastFlushNanos = System.nanoTime();
+    private long packets = 0;
+    private long bytesWritten = 0;
+    private boolean closed = false;
+
+    /**
+     * Creates a pcapng file with one interface using LINKTYPE_USER0.
+     *
+     * @param file The file to create or replace
+     * @param interfaceName Interface name shown in Wireshark, e.g. the port name
+     * @throws IOException If the file cannot be written
+     */
+    public PcapngWriter(Path file, String interfaceName) throws IOException {
+        this(file, interfaceName, LINKTYPE_USER0);
+    }
+
+    /**
+     * Creates a pcapng file with one interface.
+     *
+     * @param file The file to create or replace
+     * @param interfaceName Interface name shown in Wireshark, e.g. the port name
+     * @param linkType Link type of the packets (147-162 for user types)
+     * @throws IOException If the file cannot be written
+     */
+    public PcapngWriter(Path file, String interfaceName, int linkType) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            writeSectionHeader();
+            writeInterfaceDescription(interfaceName, linkType);
+            flush();
+        } catch (IOException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Converts a System.nanoTime() value to microseconds since the Unix epoch.
+     *
+     * @param nanoTime Time from System.nanoTime()
+     * @return Wall-clock time in microseconds
+     */
+    public static long epochMicros(long nanoTime) {
+        return EPOCH_OFFSET_MICROS + nanoTime / 1000;
+    }
+
+    /**
+     * Writes a received or transmitted chunk as one packet.
+     *
+     * @param chunk The chunk, timestamped with its arrival time
+     * @param direction INBOUND for received data, OUTBOUND for sent data
+     * @throws IOException If writing fails
+     */
+    public void write(SerialChunk chunk, Direction direction) throws IOException {
+        write(direction, epochMicros(chunk.arrivalNanos()), chunk.data(), 0, chunk.data().length);
+    }
+
+    /**
+     * Writes one packet.
+     *
+     * @param direction Packet direction
+     * @param timestampMicros Microseconds since the Unix epoch
+     * @param data Buffer holding the packet bytes
+     * @param offset Index of the first byte
+     * @param length Number of bytes
+     * @throws IOException If writing fails
+     */
+    public synchronized void write(Direction direction, long timestampMicros, byte[] data, int offset, int length)
+        throws IOException {
+        if (closed) {
+            throw new IOException("Capture file is closed");
+        }
+        int padding = -length & 3;
+        int blockLength = PACKET_OVERHEAD + length + padding;
+        if (buffer.remaining() < blockLength) {
+            flush();
+        }
+        buffer.putInt(ENHANCED_PACKET).putInt(blockLength)
+            .putInt(0)
+            .putInt((int) (timestampMicros >>> 32)).putInt((int) timestampMicros)
+            .putInt(length).putInt(length);
+        if (blockLength <= buffer.capacity()) {
+            buffer.put(data, offset, length);
+        } else {
+            // Larger than the buffer: write the header, then the data in place
+            flush();
+            ByteBuffer payload = ByteBuffer.wrap(data, offset, length);
+            while (payload.hasRemaining()) {
+                channel.write(payload);
+            }
+        }
+        for (int i = 0; i < padding; i++) {
+            buffer.put((byte) 0);
+        }
+        buffer.putShort((short) OPT_EPB_FLAGS).putShort((short) 4).putInt(direction.flags)
+            .putShort((short) OPT_END).putShort((short) 0)
+            .putInt(blockLength);
+        packets++;
+        bytesWritten += length;
+        if (System.nanoTime() - lastFlushNanos > FLUSH_INTERVAL_NANOS) {
+            flush();
+        }
+    }
+
+    private void writeSectionHeader() {
+        byte[] application = "Serial Talker Logger".getBytes(StandardCharsets.UTF_8);
+        int optionsLength = option(application.length) + 4;
+        int blockLength = 28 + optionsLength;
+        buffer.putInt(SECTION_HEADER).putInt(blockLength)
+            .putInt(BYTE_ORDER_MAGIC)
+            .putShort((short) 1).putShort((short) 0)
+            .putLong(-1); // section length not known in advance
+        putOption(OPT_SHB_USERAPPL, application);
+        buffer.putShort((short) OPT_END).putShort((short) 0)
+            .putInt(blockLength);
+    }
+
+    private void writeInterfaceDescription(String interfaceName, int linkType) {
+        byte[] name = interfaceName.getBytes(StandardCharsets.UTF_8);
+        byte[] resolution = {6}; // microseconds
+        int optionsLength = option(name.length) + option(resolution.length) + 4;
+        int blockLength = 20 + optionsLength;
+        buffer.putInt(INTERFACE_DESCRIPTION).putInt(blockLength)
+            .putShort((short) linkType).putShort((short) 0)
+            .putInt(0); // no snap length limit
+        putOption(OPT_IF_NAME, name);
+        putOption(OPT_IF_TSRESOL, resolution);
+        buffer.putShort((short) OPT_END).putShort((short) 0)
+            .putInt(blockLength);
+    }
+
+    private static int option(int valueLength) {
+        return 4 + valueLength + (-valueLength & 3);
+    }
+
+    private void putOption(int code, byte[] value) {
+        buffer.putShort((short) code).putShort((short) value.length)
+            .put(value).put(new byte[-value.length & 3]);
+    }
+
+    /**
+     * Writes buffered packets to the file.
+     *
+     * @throws IOException If writing fails
+     */
+    public synchronized void flush() throws IOException {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } finally {
+            buffer.clear();
+        }
+        lastFlushNanos = System.nanoTime();
+    }
+
+    /**
+     * Gets the capture file.
+     *
+     * @return The file path
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Gets the number of packets written.
+     *
+     * @return Packet count
+     */
+    public synchronized long getPacketCount() {
+        return packets;
+    }
+
+    /**
+     * Gets the number of payload bytes written.
+     *
+     * @return Byte count, excluding block headers
+     */
+    public synchronized long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Flushes and closes the file.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try (channel) {
+            flush();
+        } catch (IOException ex) {
+            logger.warn("Failed to close pcapng file {}: {}", file, ex.getMessage());
+        }
+    }
+
+    /**
+     * Exports a session's captures, merging received and sent chunks by
+     * arrival time. Only an index window and one chunk are held in memory.
+     *
+     * @param rx Capture of received bytes, or null
+     * @param tx Capture of sent bytes, or null
+     * @param file The pcapng file to write
+     * @param interfaceName Interface name shown in Wireshark
+     * @return Number of packets written
+     * @throws IOException If writing fails
+     */
+    public static long export(ByteCapture rx, ByteCapture tx, Path file, String interfaceName) throws IOException {
+        try (var writer = new PcapngWriter(file, interfaceName)) {
+            var inbound = new ChunkCursor(rx, Direction.INBOUND);
+            var outbound = new ChunkCursor(tx, Direction.OUTBOUND);
+            while (inbound.hasChunk() || outbound.hasChunk()) {
+                // Ties go to the received side, which was read before the reply was sent
+                ChunkCursor next = !outbound.hasChunk()
+                    || inbound.hasChunk() && inbound.arrivalNanos() - outbound.arrivalNanos() <= 0 ? inbound : outbound;
+                next.writeTo(writer);
+                next.advance();
+            }
+            writer.flush();
+            logger.info("Exported {} packets to {}", writer.getPacketCount(), file);
+            return writer.getPacketCount();
+        }
+    }
+
+    /**
+     * Walks the chunk index of a capture a window at a time.
+     */
+    private static final class ChunkCursor {
+        private static final int WINDOW = 1024;
+
+        private final ByteCapture capture;
+        private final Direction direction;
+        private final long chunkCount;
+        private final long size;
+        // One entry more than the window, so the last chunk's end offset is known
+        private final long[] offsets = new long[WINDOW + 1];
+        private final long[] arrivals = new long[WINDOW + 1];
+        private byte[] data = new byte[4096];
+        private long windowStart = 0;
+        private int windowLength = 0;
+        private int position = 0;
+
+        ChunkCursor(ByteCapture capture, Direction direction) {
+            this.capture = capture;
+            this.direction = direction;
+            if (capture == null) {
+                this.chunkCount = 0;
+                this.size = 0;
+            } else {
+                // Chunks appended during the export are left out
+                synchronized (capture) {
+                    this.chunkCount = capture.getChunkCount();
+                    this.size = capture.size();
+                }
+            }
+            load(0);
+        }
+
+        private void load(long first) {
+            windowStart = first;
+            position = 0;
+            windowLength = first < chunkCount ? capture.readIndex(first, offsets, arrivals, WINDOW + 1) : 0;
+        }
+
+        boolean hasChunk() {
+            return windowStart + position < chunkCount && position < windowLength;
+        }
+
+        long arrivalNanos() {
+            return arrivals[position];
+        }
+
+        void writeTo(PcapngWriter writer) throws IOException {
+            long start = offsets[position];
+            long end = position + 1 < windowLength ? offsets[position + 1] : size;
+            int length = (int) (end - start);
+            if (data.length < length) {
+                data = new byte[length];
+            }
+            int read = capture.read(start, data, 0, length);
+            writer.write(direction, epochMicros(arrivals[position]), data, 0, read);
+        }
+
+        void advance() {
+            position++;
+            if (position == WINDOW) {
+                load(windowStart + WINDOW);
+            }
+        }
+    }
+}
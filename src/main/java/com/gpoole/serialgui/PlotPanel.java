@@ -0,0 +1,232 @@
+package com.gpoole.serialgui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Live chart of numeric telemetry series.
+ *
+ * Each series is drawn in its own horizontal strip with its own vertical scale,
+ * so fields with different units (temperature, voltage, ...) stay readable.
+ * Samples are kept in {@link SampleRingBuffer}s and each frame only the visible
+ * time window is copied out and reduced with {@link Lttb} to about one point per
+ * horizontal pixel, so the drawing cost depends on the panel width rather than on
+ * the number of samples. Repaints are driven by a Swing timer and skipped when no
+ * new samples arrived.
+ */
+public class PlotPanel extends JPanel {
+    /**
+     * Default number of samples retained per series: the longest plot window
+     * (300 s) at 1 kHz, about 4.8 MB per series
+     */
+    public static final int DEFAULT_CAPACITY = 300 * 1000;
+    /** Upper bound on the number of series to protect against a runaway pattern */
+    private static final int MAX_SERIES = 16;
+    private static final int FRAME_INTERVAL_MS = 33;
+    private static final Color[] PALETTE = {
+        new Color(0, 90, 200), new Color(200, 60, 0), new Color(0, 140, 60), new Color(150, 0, 150),
+        new Color(180, 140, 0), new Color(0, 150, 170), new Color(120, 70, 20), new Color(90, 90, 90)
+    };
+
+    private final Map<String, SampleRingBuffer> series = new LinkedHashMap<>();
+    private final SampleRingBuffer overflowSeries = new SampleRingBuffer(1);
+    private final int capacity;
+    private final Timer repaintTimer;
+    private long windowNanos = 30_000_000_000L;
+    private long lastPaintedTotal = -1;
+
+    // Scratch buffers reused across frames
+    private final long[] snapshotTimes;
+    private final double[] snapshotValues;
+    private final double[] snapshotX;
+    private double[] reducedX = new double[0];
+    private double[] reducedY = new double[0];
+    private int[] pixelX = new int[0];
+    private int[] pixelY = new int[0];
+
+    /**
+     * Creates a new PlotPanel with the default per-series capacity.
+     */
+    public PlotPanel() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new PlotPanel.
+     *
+     * @param capacity Number of samples retained per series
+     */
+    public PlotPanel(int capacity) {
+        this.capacity = capacity;
+        this.snapshotTimes = new long[capacity];
+        this.snapshotValues = new double[capacity];
+        this.snapshotX = new double[capacity];
+        setBackground(Color.WHITE);
+        setPreferredSize(new Dimension(700, 400));
+        repaintTimer = new Timer(FRAME_INTERVAL_MS, e -> {
+            if (totalSamples() != lastPaintedTotal) {
+                repaint();
+            }
+        });
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        repaintTimer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        repaintTimer.stop();
+        super.removeNotify();
+    }
+
+    /**
+     * Gets the buffer for a series, creating it on first use. Safe to call from
+     * the receive thread.
+     *
+     * @param name Series name
+     * @return The series buffer
+     */
+    public SampleRingBuffer series(String name) {
+        synchronized (series) {
+            SampleRingBuffer buffer = series.get(name);
+            if (buffer == null) {
+                if (series.size() >= MAX_SERIES) {
+                    return overflowSeries;
+                }
+                buffer = new SampleRingBuffer(capacity);
+                series.put(name, buffer);
+            }
+            return buffer;
+        }
+    }
+
+    /**
+     * Sets the visible time window.
+     *
+     * @param seconds Window length in seconds, or 0 to show everything retained
+     */
+    public void setWindowSeconds(int seconds) {
+        windowNanos = seconds * 1_000_000_000L;
+        repaint();
+    }
+
+    /**
+     * Removes all series.
+     */
+    public void clear() {
+        synchronized (series) {
+            series.clear();
+        }
+        repaint();
+    }
+
+    private long totalSamples() {
+        long total = 0;
+        for (SampleRingBuffer buffer : seriesSnapshot().values()) {
+            total += buffer.totalAppended();
+        }
+        return total;
+    }
+
+    private Map<String, SampleRingBuffer> seriesSnapshot() {
+        synchronized (series) {
+            return new LinkedHashMap<>(series);
+        }
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Graphics2D g2d = (Graphics2D) g;
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 11));
+
+        Map<String, SampleRingBuffer> visible = seriesSnapshot();
+        lastPaintedTotal = 0;
+        if (visible.isEmpty()) {
+            g2d.setColor(Color.GRAY);
+            g2d.drawString("Waiting for numeric fields (e.g. temp=23.4,v=3.31)", 10, 20);
+            return;
+        }
+
+        long now = System.nanoTime();
+        long from = windowNanos > 0 ? now - windowNanos : Long.MIN_VALUE;
+        int stripHeight = getHeight() / visible.size();
+        int plotLeft = 70;
+        int plotWidth = Math.max(10, getWidth() - plotLeft - 10);
+        ensureScratch(plotWidth);
+
+        List<String> names = new ArrayList<>(visible.keySet());
+        for (int s = 0; s < names.size(); s++) {
+            SampleRingBuffer buffer = visible.get(names.get(s));
+            lastPaintedTotal += buffer.totalAppended();
+            int top = s * stripHeight;
+            int plotTop = top + 16;
+            int plotHeight = Math.max(10, stripHeight - 22);
+            Color color = PALETTE[s % PALETTE.length];
+
+            int count = buffer.snapshotSince(from, snapshotTimes, snapshotValues);
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < count; i++) {
+                double v = snapshotValues[i];
+                if (v < min) {
+                    min = v;
+                }
+                if (v > max) {
+                    max = v;
+                }
+                snapshotX[i] = (snapshotTimes[i] - now) / 1e9;
+            }
+
+            g2d.setColor(new Color(245, 245, 245));
+            g2d.fillRect(plotLeft, plotTop, plotWidth, plotHeight);
+            g2d.setColor(color);
+            g2d.drawString(String.format("%s = %s  (%d pts)", names.get(s),
+                formatValue(buffer.latest()), count), plotLeft, top + 12);
+            if (count == 0) {
+                continue;
+            }
+            if (max == min) {
+                max += 0.5;
+                min -= 0.5;
+            }
+            g2d.setColor(Color.DARK_GRAY);
+            g2d.drawString(formatValue(max), 2, plotTop + 10);
+            g2d.drawString(formatValue(min), 2, plotTop + plotHeight);
+
+            double xMin = windowNanos > 0 ? -windowNanos / 1e9 : snapshotX[0];
+            double xSpan = Math.max(-xMin, 1e-9);
+            int points = Lttb.downsample(snapshotX, snapshotValues, count, plotWidth, reducedX, reducedY);
+            for (int i = 0; i < points; i++) {
+                pixelX[i] = plotLeft + (int) ((reducedX[i] - xMin) / xSpan * (plotWidth - 1));
+                pixelY[i] = plotTop + plotHeight - 1 - (int) ((reducedY[i] - min) / (max - min) * (plotHeight - 1));
+            }
+            g2d.setColor(color);
+            g2d.drawPolyline(pixelX, pixelY, points);
+        }
+    }
+
+    private void ensureScratch(int width) {
+        if (reducedX.length < width) {
+            reducedX = new double[width];
+            reducedY = new double[width];
+            pixelX = new int[width];
+            pixelY = new int[width];
+        }
+    }
+
+    private static String formatValue(double value) {
+        if (Double.isNaN(value)) {
+            return "-";
+        }
+        return String.format("%.4g", value);
+    }
+}
@@ -0,0 +1,79 @@
+package com.gpoole.serialgui;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Resolves stable identities for serial ports.
+ *
+ * USB-serial adapters frequently come back under a different device name
+ * after they re-enumerate (e.g. /dev/ttyUSB0 becomes /dev/ttyUSB1). On Linux,
+ * udev maintains symlinks under /dev/serial/by-id that are derived from the
+ * adapter's vendor, product and serial number and therefore survive
+ * re-enumeration. On other platforms the port name itself is used.
+ */
+public final class PortIdentity {
+    /** Directory of udev-managed stable symlinks */
+    static final Path BY_ID_DIR = Path.of("/dev/serial/by-id");
+
+    private PortIdentity() {
+    }
+
+    /**
+     * Gets the stable identity of a port.
+     *
+     * @param portName The current port name (e.g. "/dev/ttyUSB0" or "COM3")
+     * @return The by-id path that points at the port, or the port name itself
+     */
+    public static String stableIdFor(String portName) {
+        return stableIdFor(portName, BY_ID_DIR);
+    }
+
+    static String stableIdFor(String portName, Path byIdDir) {
+        if (portName == null || !Files.isDirectory(byIdDir)) {
+            return portName;
+        }
+        try (DirectoryStream<Path> links = Files.newDirectoryStream(byIdDir)) {
+            Path target = Path.of(portName).toRealPath();
+            for (Path link : links) {
+                if (link.toRealPath().equals(target)) {
+                    return link.toString();
+                }
+            }
+        } catch (IOException ex) {
+            // Port is gone or not a filesystem path; fall back to the name
+        }
+        return portName;
+    }
+
+    /**
+     * Finds the current port name for a stable identity.
+     *
+     * @param stableId The identity returned by {@link #stableIdFor(String)}
+     * @param availablePorts Currently detected port names
+     * @return The port name to open, or null if the device is not present
+     */
+    public static String resolvePortName(String stableId, String[] availablePorts) {
+        if (stableId == null) {
+            return null;
+        }
+        Path path = Path.of(stableId);
+        if (path.startsWith(BY_ID_DIR)) {
+            try {
+                return path.toRealPath().toString();
+            } catch (IOException ex) {
+                return null;
+            }
+        }
+        if (availablePorts != null) {
+            for (String port : availablePorts) {
+                if (stableId.equals(port)) {
+                    return port;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,186 @@
+package com.gpoole.serialgui;
+
+import jssc.SerialPort;
+import jssc.SerialPortException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Probes many ports at once for an answering device, its baud rate and its
+ * identity.
+ *
+ * Each port gets its own virtual thread, which opens the port, runs
+ * {@link BaudRateNegotiator} with a short per-rate timeout and, if a rate
+ * answers, asks the device to identify itself (ATI, then *IDN?). Ports are
+ * independent, so a scan takes as long as the slowest port rather than the
+ * sum of all of them: a silent port costs ten rates times the timeout.
+ *
+ * Usage:
+ * - Create with the port factory, adjust the timeout and identify options
+ * - Call scan() off the EDT; onResult() reports each port as it finishes
+ */
+public class PortScanner {
+    private static final Logger logger = LoggerFactory.getLogger(PortScanner.class);
+    /** Default reply timeout per baud rate */
+    public static final long DEFAULT_TIMEOUT_MS = 120;
+
+    /**
+     * What was found on one port.
+     *
+     * @param portName The port
+     * @param baudRate Rate at which the device answered, or -1 if none did
+     * @param identity Identification reply, or empty
+     * @param error Why the port could not be probed, or null
+     * @param elapsedMillis Time spent on this port
+     */
+    public record Result(String portName, int baudRate, String identity, String error, long elapsedMillis) {
+        /**
+         * @return True if a device answered
+         */
+        public boolean found() {
+            return baudRate > 0;
+        }
+
+        /**
+         * @return Short status text for a table cell
+         */
+        public String status() {
+            if (error != null) {
+                return error;
+            }
+            return found() ? "Answered" : "No answer";
+        }
+    }
+
+    private final Function<String, SerialPort> serialPortFactory;
+    private Consumer<Result> onResult = result -> {};
+    private long timeoutMs = DEFAULT_TIMEOUT_MS;
+    private boolean identify = true;
+    private int dataBits = SerialPort.DATABITS_8;
+    private int stopBits = SerialPort.STOPBITS_1;
+    private int parity = SerialPort.PARITY_NONE;
+
+    /**
+     * Creates a new PortScanner.
+     *
+     * @param serialPortFactory Creates the port objects to probe
+     */
+    public PortScanner(Function<String, SerialPort> serialPortFactory) {
+        this.serialPortFactory = serialPortFactory;
+    }
+
+    /**
+     * Sets the callback for each finished port. It runs on that port's virtual thread.
+     *
+     * @param callback Receives results in completion order
+     * @return This scanner for method chaining
+     */
+    public PortScanner onResult(Consumer<Result> callback) {
+        this.onResult = callback;
+        return this;
+    }
+
+    /**
+     * Sets how long to wait for a reply at each baud rate.
+     *
+     * @param timeoutMs Reply timeout in milliseconds
+     */
+    public void setTimeoutMs(long timeoutMs) {
+        this.timeoutMs = Math.max(1, timeoutMs);
+    }
+
+    /**
+     * Sets whether answering devices are asked to identify themselves.
+     *
+     * @param identify True to send ATI and *IDN?
+     */
+    public void setIdentify(boolean identify) {
+        this.identify = identify;
+    }
+
+    /**
+     * Sets the framing used while probing.
+     *
+     * @param dataBits Number of data bits
+     * @param stopBits Number of stop bits
+     * @param parity Parity setting
+     */
+    public void setFraming(int dataBits, int stopBits, int parity) {
+        this.dataBits = dataBits;
+        this.stopBits = stopBits;
+        this.parity = parity;
+    }
+
+    /**
+     * Probes all ports concurrently and waits for every one to finish.
+     *
+     * @param portNames Ports to probe; none of them may be open elsewhere
+     * @return One result per port, in the order given
+     * @throws InterruptedException If interrupted; the probes are interrupted and the ports closed
+     */
+    public List<Result> scan(List<String> portNames) throws InterruptedException {
+        long start = System.nanoTime();
+        List<Result> results = new ArrayList<>(portNames.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Result>> probes = new ArrayList<>(portNames.size());
+            for (String portName : portNames) {
+                probes.add(executor.submit(() -> probe(portName)));
+            }
+            try {
+                for (Future<Result> probe : probes) {
+                    results.add(probe.get());
+                }
+            } catch (InterruptedException ex) {
+                executor.shutdownNow();
+                throw ex;
+            } catch (ExecutionException ex) {
+                // probe() reports its own failures in the result
+                throw new IllegalStateException(ex.getCause());
+            }
+        }
+        logger.info("Scanned {} ports in {} ms, {} answered", portNames.size(),
+            (System.nanoTime() - start) / 1_000_000, results.stream().filter(Result::found).count());
+        return results;
+    }
+
+    private Result probe(String portName) throws InterruptedException {
+        long start = System.nanoTime();
+        Result result;
+        SerialPort port = serialPortFactory.apply(portName);
+        try {
+            if (!port.openPort()) {
+                result = new Result(portName, -1, "", "Could not open", elapsedMillis(start));
+            } else {
+                int baudRate = BaudRateNegotiator.negotiate(port, dataBits, stopBits, parity, timeoutMs);
+                String identity = baudRate > 0 && identify ? BaudRateNegotiator.identify(port, timeoutMs) : "";
+                result = new Result(portName, baudRate, identity, null, elapsedMillis(start));
+            }
+        } catch (SerialPortException ex) {
+            result = new Result(portName, -1, "", ex.getExceptionType(), elapsedMillis(start));
+        } finally {
+            try {
+                if (port.isOpened()) {
+                    port.closePort();
+                }
+            } catch (SerialPortException ex) {
+                logger.warn("Failed to close {} after probing: {}", portName, ex.getMessage());
+            }
+        }
+        logger.debug("Probed {}: {}", portName, result);
+        onResult.accept(result);
+        return result;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
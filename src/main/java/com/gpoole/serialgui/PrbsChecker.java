@@ -0,0 +1,172 @@
+package com.gpoole.serialgui;
+
+/**
+ * Self-synchronizing checker for a received PRBS stream.
+ *
+ * The checker has no shared starting point with the sender. It loads its own
+ * generator from the first k received bits and from then on compares every
+ * received byte with the predicted one. Comparing against a local reference
+ * rather than predicting each bit from the received history means a single bit
+ * error is counted once instead of being multiplied by the feedback taps.
+ *
+ * A lost or duplicated byte (driver overrun, USB packet loss) shifts the stream
+ * and makes roughly half of all bits mismatch. The checker evaluates errors in
+ * blocks of {@value #BLOCK_BITS} bits; a block with more than a quarter of its
+ * bits wrong is treated as loss of sync. Its counts are moved out of the bit
+ * error totals into the slipped-byte count and the checker re-seeds from the
+ * stream, counting a resync event.
+ *
+ * Not thread safe; feed it from the receive thread only and read the counters
+ * from anywhere (they are volatile).
+ */
+public class PrbsChecker {
+    private static final int BLOCK_BITS = 512;
+
+    private final PrbsGenerator reference;
+    private final int length;
+    private final int mask;
+
+    private boolean locked = false;
+    private int seed = 0;
+    private int seedBits = 0;
+    private long blockBits = 0;
+    private long blockBitErrors = 0;
+    private long blockByteErrors = 0;
+
+    private volatile long bytesReceived = 0;
+    private volatile long bitsChecked = 0;
+    private volatile long bitErrors = 0;
+    private volatile long byteErrors = 0;
+    private volatile long slippedBytes = 0;
+    private volatile long resyncs = 0;
+
+    /**
+     * Creates a new PrbsChecker.
+     *
+     * @param pattern The sequence the sender transmits
+     */
+    public PrbsChecker(PrbsGenerator.Pattern pattern) {
+        this.reference = new PrbsGenerator(pattern);
+        this.length = pattern.getLength();
+        this.mask = pattern.mask();
+    }
+
+    /**
+     * Checks received bytes.
+     *
+     * @param data Received bytes
+     */
+    public void accept(byte[] data) {
+        for (byte b : data) {
+            bytesReceived++;
+            if (!locked) {
+                seed = ((seed << 8) | (b & 0xFF)) & mask;
+                seedBits += 8;
+                if (seedBits >= length && seed != 0) {
+                    reference.setState(seed);
+                    locked = true;
+                }
+                continue;
+            }
+            int diff = Integer.bitCount((b ^ reference.nextByte()) & 0xFF);
+            blockBits += 8;
+            blockBitErrors += diff;
+            if (diff > 0) {
+                blockByteErrors++;
+            }
+            if (blockBits >= BLOCK_BITS) {
+                endBlock();
+            }
+        }
+    }
+
+    private void endBlock() {
+        if (blockBitErrors * 4 > blockBits) {
+            slippedBytes += blockBits / 8;
+            resyncs++;
+            locked = false;
+            seed = 0;
+            seedBits = 0;
+        } else {
+            bitsChecked += blockBits;
+            bitErrors += blockBitErrors;
+            byteErrors += blockByteErrors;
+        }
+        blockBits = 0;
+        blockBitErrors = 0;
+        blockByteErrors = 0;
+    }
+
+    /**
+     * Checks whether the checker is synchronized to the stream.
+     *
+     * @return True once seeded and until sync is lost
+     */
+    public boolean isLocked() {
+        return locked;
+    }
+
+    /**
+     * Gets the number of bytes fed to the checker.
+     *
+     * @return Byte count
+     */
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    /**
+     * Gets the number of bits compared while in sync (whole blocks only).
+     *
+     * @return Bit count
+     */
+    public long getBitsChecked() {
+        return bitsChecked;
+    }
+
+    /**
+     * Gets the number of mismatched bits while in sync.
+     *
+     * @return Bit error count
+     */
+    public long getBitErrors() {
+        return bitErrors;
+    }
+
+    /**
+     * Gets the number of bytes with at least one mismatched bit while in sync.
+     *
+     * @return Byte error count
+     */
+    public long getByteErrors() {
+        return byteErrors;
+    }
+
+    /**
+     * Gets the number of bytes in blocks discarded because sync was lost.
+     *
+     * @return Slipped byte count
+     */
+    public long getSlippedBytes() {
+        return slippedBytes;
+    }
+
+    /**
+     * Gets the number of times sync was lost and re-acquired.
+     *
+     * @return Resync count
+     */
+    public long getResyncs() {
+        return resyncs;
+    }
+
+    /**
+     * Gets the bit error rate over the bits checked so far.
+     *
+     * @return Errors per bit, or 0 before the first full block
+     */
+    public double getBitErrorRate() {
+        long checked = bitsChecked;
+        return checked == 0 ? 0 : (double) bitErrors / checked;
+    }
+}
@@ -0,0 +1,108 @@
+package com.gpoole.serialgui;
+
+/**
+ * Pseudo-random bit sequence generator (ITU-T O.150 style PRBS).
+ *
+ * A Fibonacci linear feedback shift register whose output bit is also shifted
+ * into the register, so after k output bits the register holds the last k bits
+ * of the sequence. That property lets a receiver seed an identical generator
+ * from the received stream and predict every following bit (see
+ * {@link PrbsChecker}). Bits are packed into bytes most significant bit first.
+ */
+public class PrbsGenerator {
+    /** Supported sequences, named by register length */
+    public enum Pattern {
+        /** x^7 + x^6 + 1, period 127 bits */
+        PRBS7(7, 6),
+        /** x^15 + x^14 + 1, period 32767 bits */
+        PRBS15(15, 14),
+        /** x^31 + x^28 + 1, period 2^31 - 1 bits */
+        PRBS31(31, 28);
+
+        private final int length;
+        private final int tap;
+
+        Pattern(int length, int tap) {
+            this.length = length;
+            this.tap = tap;
+        }
+
+        /**
+         * Gets the shift register length.
+         *
+         * @return Register length in bits
+         */
+        public int getLength() {
+            return length;
+        }
+
+        int mask() {
+            return (int) ((1L << length) - 1);
+        }
+    }
+
+    private final Pattern pattern;
+    private final int mask;
+    private int state;
+
+    /**
+     * Creates a new PrbsGenerator starting from the all-ones state.
+     *
+     * @param pattern The sequence to generate
+     */
+    public PrbsGenerator(Pattern pattern) {
+        this.pattern = pattern;
+        this.mask = pattern.mask();
+        this.state = mask;
+    }
+
+    /**
+     * Gets the sequence this generator produces.
+     *
+     * @return The pattern
+     */
+    public Pattern getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Produces the next 8 bits of the sequence.
+     *
+     * @return The next byte
+     */
+    public byte nextByte() {
+        int s = state;
+        int out = 0;
+        int high = pattern.length - 1;
+        int low = pattern.tap - 1;
+        for (int i = 0; i < 8; i++) {
+            int bit = ((s >>> high) ^ (s >>> low)) & 1;
+            s = ((s << 1) | bit) & mask;
+            out = (out << 1) | bit;
+        }
+        state = s;
+        return (byte) out;
+    }
+
+    /**
+     * Fills part of an array with the next bytes of the sequence.
+     *
+     * @param buffer Destination array
+     * @param offset First index to fill
+     * @param length Number of bytes to fill
+     */
+    public void fill(byte[] buffer, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            buffer[i] = nextByte();
+        }
+    }
+
+    /**
+     * Replaces the register contents, e.g. with bits recovered from a received stream.
+     *
+     * @param state New register value (must not be zero)
+     */
+    void setState(int state) {
+        this.state = state & mask;
+    }
+}
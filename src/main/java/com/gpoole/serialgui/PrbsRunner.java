@@ -0,0 +1,237 @@
+package com.gpoole.serialgui;
+
+import jssc.SerialPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.Consumer;
+
+/**
+ * Throughput and bit-error-rate test over a looped-back link.
+ *
+ * A sender thread streams a PRBS through {@link SerialCommunicationManager} as
+ * fast as the driver accepts it (writes block once the transmit buffer is full,
+ * so the pace is set by the baud rate and flow control). Everything received is
+ * fed to a {@link PrbsChecker}. Throughput is compared with the theoretical
+ * limit of the line settings: each character costs a start bit, the data bits,
+ * an optional parity bit and the stop bits.
+ *
+ * Usage:
+ * - Loop TX back to RX (loopback plug, or a device that echoes raw bytes)
+ * - Call start(); read getSummary() or the individual counters while it runs
+ * - Call stop() to end the test
+ */
+public class PrbsRunner {
+    private static final Logger logger = LoggerFactory.getLogger(PrbsRunner.class);
+    private static final int BLOCK_SIZE = 256;
+
+    private final SerialCommunicationManager commManager;
+    private final PrbsGenerator.Pattern pattern;
+    private final double theoreticalBytesPerSecond;
+    private final Consumer<SerialChunk> receiveListener;
+    private volatile PrbsChecker checker;
+    private Thread senderThread;
+    private volatile boolean running = false;
+    private volatile long bytesSent = 0;
+    private volatile long startNanos = 0;
+    private volatile long stopNanos = 0;
+    private volatile String failure;
+
+    /**
+     * Creates a new PrbsRunner.
+     *
+     * @param commManager The connection to test (must be looped back)
+     * @param pattern The sequence to send
+     * @param baudRate Line baud rate
+     * @param dataBits Data bits per character
+     * @param stopBits jssc stop bits constant
+     * @param parity jssc parity constant
+     */
+    public PrbsRunner(SerialCommunicationManager commManager, PrbsGenerator.Pattern pattern,
+                      int baudRate, int dataBits, int stopBits, int parity) {
+        this.commManager = commManager;
+        this.pattern = pattern;
+        this.theoreticalBytesPerSecond = charactersPerSecond(baudRate, dataBits, stopBits, parity);
+        this.checker = new PrbsChecker(pattern);
+        this.receiveListener = chunk -> checker.accept(chunk.data());
+    }
+
+    /**
+     * Calculates the maximum character rate of an asynchronous serial line.
+     *
+     * @param baudRate Line baud rate
+     * @param dataBits Data bits per character
+     * @param stopBits jssc stop bits constant
+     * @param parity jssc parity constant
+     * @return Characters per second
+     */
+    public static double charactersPerSecond(int baudRate, int dataBits, int stopBits, int parity) {
+        double stop = switch (stopBits) {
+            case SerialPort.STOPBITS_1_5 -> 1.5;
+            case SerialPort.STOPBITS_2 -> 2;
+            default -> 1;
+        };
+        int parityBits = parity == SerialPort.PARITY_NONE ? 0 : 1;
+        return baudRate / (1 + dataBits + parityBits + stop);
+    }
+
+    /**
+     * Starts sending and checking. Previous results are discarded.
+     */
+    public synchronized void start() {
+        if (running) {
+            throw new IllegalStateException("PRBS test already running");
+        }
+        if (!commManager.isConnected()) {
+            throw new IllegalStateException("Not connected to any port");
+        }
+        checker = new PrbsChecker(pattern);
+        bytesSent = 0;
+        failure = null;
+        startNanos = System.nanoTime();
+        stopNanos = 0;
+        running = true;
+        commManager.addReceiveListener(receiveListener);
+        senderThread = new Thread(this::sendLoop, "prbs-sender");
+        senderThread.setDaemon(true);
+        senderThread.start();
+        logger.info("{} test started on {}", pattern, commManager.getPortName());
+    }
+
+    private void sendLoop() {
+        PrbsGenerator generator = new PrbsGenerator(pattern);
+        byte[] block = new byte[BLOCK_SIZE];
+        while (running) {
+            generator.fill(block, 0, block.length);
+            try {
+                commManager.sendBytes(block);
+            } catch (Exception ex) {
+                failure = ex.getMessage();
+                logger.warn("PRBS test stopped, send failed: {}", ex.getMessage());
+                running = false;
+                break;
+            }
+            bytesSent += block.length;
+        }
+    }
+
+    /**
+     * Stops sending. Bytes still in flight are checked as they arrive until the
+     * listener is removed.
+     */
+    public synchronized void stop() {
+        if (senderThread == null) {
+            return;
+        }
+        running = false;
+        try {
+            senderThread.join(2000);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        senderThread = null;
+        stopNanos = System.nanoTime();
+        commManager.removeReceiveListener(receiveListener);
+        logger.info("{} test finished: {}", pattern, getSummary());
+    }
+
+    /**
+     * Checks whether the sender is running.
+     *
+     * @return True while the test is sending
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Gets the reason the sender stopped on its own, if any.
+     *
+     * @return Error message, or null
+     */
+    public String getFailure() {
+        return failure;
+    }
+
+    /**
+     * Gets the checker with the receive-side counters.
+     *
+     * @return The current checker
+     */
+    public PrbsChecker getChecker() {
+        return checker;
+    }
+
+    /**
+     * Gets the number of bytes sent.
+     *
+     * @return Sent byte count
+     */
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    /**
+     * Gets the test duration so far.
+     *
+     * @return Elapsed seconds
+     */
+    public double getElapsedSeconds() {
+        if (startNanos == 0) {
+            return 0;
+        }
+        long end = stopNanos != 0 ? stopNanos : System.nanoTime();
+        return (end - startNanos) / 1e9;
+    }
+
+    /**
+     * Gets the sustained receive throughput.
+     *
+     * @return Received bytes per second over the whole test
+     */
+    public double getThroughputBytesPerSecond() {
+        double elapsed = getElapsedSeconds();
+        return elapsed > 0 ? checker.getBytesReceived() / elapsed : 0;
+    }
+
+    /**
+     * Gets the theoretical maximum for the line settings.
+     *
+     * @return Bytes per second
+     */
+    public double getTheoreticalBytesPerSecond() {
+        return theoreticalBytesPerSecond;
+    }
+
+    /**
+     * Gets the sustained throughput relative to the theoretical limit.
+     *
+     * @return Efficiency between 0 and 1
+     */
+    public double getEfficiency() {
+        return theoreticalBytesPerSecond > 0 ? getThroughputBytesPerSecond() / theoreticalBytesPerSecond : 0;
+    }
+
+    /**
+     * Gets a multi-line summary of the current results.
+     *
+     * @return Summary text
+     */
+    public String getSummary() {
+        PrbsChecker c = checker;
+        return String.format(
+            "Pattern:      %s (%s)%n" +
+            "Elapsed:      %.1f s%n" +
+            "Sent:         %,d bytes%n" +
+            "Received:     %,d bytes%n" +
+            "Throughput:   %,.0f B/s of %,.0f B/s theoretical (%.1f%%)%n" +
+            "Bits checked: %,d%n" +
+            "Bit errors:   %,d (BER %.3g)%n" +
+            "Byte errors:  %,d%n" +
+            "Resyncs:      %,d (%,d bytes slipped)%n",
+            pattern, c.isLocked() ? "locked" : "searching", getElapsedSeconds(), bytesSent,
+            c.getBytesReceived(), getThroughputBytesPerSecond(), theoreticalBytesPerSecond,
+            getEfficiency() * 100, c.getBitsChecked(), c.getBitErrors(), c.getBitErrorRate(),
+            c.getByteErrors(), c.getResyncs(), c.getSlippedBytes());
+    }
+}
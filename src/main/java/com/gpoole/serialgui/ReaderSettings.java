@@ -0,0 +1,73 @@
+package com.gpoole.serialgui;
+
+/**
+ * How received data is pulled from the port.
+ *
+ * EVENT uses jssc's event listener, which runs jssc's own polling loop. The
+ * other modes run a dedicated reader thread owned by this application, which
+ * makes the latency/CPU trade-off explicit:
+ * - BUSY_SPIN polls the driver's input count continuously (lowest latency, one
+ *   core fully busy)
+ * - SHORT_TIMEOUT waits for a small number of bytes with a short timeout
+ * - LONG_BLOCK waits for a larger block with a long timeout (fewest wake-ups,
+ *   highest latency for sparse traffic)
+ *
+ * After a wait completes or times out, everything the driver has buffered is
+ * read in one call, so the minimum byte count never holds data back for longer
+ * than the timeout. Note that jssc implements timed reads by polling the driver,
+ * and that a virtual reader thread stays pinned to its carrier while inside
+ * native calls; virtual threads mainly save a platform thread per idle port.
+ *
+ * @param mode How to wait for data
+ * @param virtualThread Run the reader on a virtual thread instead of a platform thread
+ * @param minBytes Bytes to wait for before returning early (timeout modes)
+ * @param timeoutMs Longest wait before delivering whatever has arrived (timeout modes)
+ */
+public record ReaderSettings(Mode mode, boolean virtualThread, int minBytes, int timeoutMs) {
+    /** Reader strategies */
+    public enum Mode {
+        /** jssc event listener */
+        EVENT,
+        /** Dedicated thread polling continuously */
+        BUSY_SPIN,
+        /** Dedicated thread, small reads with a short timeout */
+        SHORT_TIMEOUT,
+        /** Dedicated thread, large reads with a long timeout */
+        LONG_BLOCK
+    }
+
+    /** The default: jssc event listener */
+    public static final ReaderSettings DEFAULT = forMode(Mode.EVENT);
+
+    public ReaderSettings {
+        if (mode == null) {
+            throw new IllegalArgumentException("Reader mode is required");
+        }
+        minBytes = Math.max(1, minBytes);
+        timeoutMs = Math.max(1, timeoutMs);
+    }
+
+    /**
+     * Gets the preset for a mode on a platform thread.
+     *
+     * @param mode The reader mode
+     * @return Settings with the mode's default byte count and timeout
+     */
+    public static ReaderSettings forMode(Mode mode) {
+        return switch (mode) {
+            case EVENT, BUSY_SPIN -> new ReaderSettings(mode, false, 1, 1);
+            case SHORT_TIMEOUT -> new ReaderSettings(mode, false, 1, 5);
+            case LONG_BLOCK -> new ReaderSettings(mode, false, 256, 100);
+        };
+    }
+
+    /**
+     * Gets a copy running on a virtual or platform thread.
+     *
+     * @param virtual True for a virtual thread
+     * @return Adjusted settings
+     */
+    public ReaderSettings withVirtualThread(boolean virtual) {
+        return new ReaderSettings(mode, virtual, minBytes, timeoutMs);
+    }
+}
@@ -0,0 +1,150 @@
+package com.gpoole.serialgui;
+
+/**
+ * Fixed-capacity ring buffer of timestamped numeric samples.
+ *
+ * Samples are stored in parallel primitive arrays so that a series of a million
+ * points costs 16 bytes per point and appending never allocates. When full, the
+ * oldest sample is overwritten. Timestamps must be appended in non-decreasing
+ * order, which allows the visible window to be located by binary search.
+ *
+ * Appends come from the serial receive thread while the plot reads from the EDT,
+ * so both sides synchronize on the buffer. Readers copy what they need with
+ * {@link #snapshotSince(long, long[], double[])} and work on the copy.
+ */
+public class SampleRingBuffer {
+    private final long[] times;
+    private final double[] values;
+    private int head = 0;   // index of the oldest sample
+    private int size = 0;
+    private long totalAppended = 0;
+
+    /**
+     * Creates a new SampleRingBuffer.
+     *
+     * @param capacity Maximum number of samples retained
+     */
+    public SampleRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.times = new long[capacity];
+        this.values = new double[capacity];
+    }
+
+    /**
+     * Appends a sample, overwriting the oldest one if the buffer is full.
+     *
+     * @param time Sample time (any monotonic unit, e.g. nanoseconds)
+     * @param value Sample value
+     */
+    public synchronized void append(long time, double value) {
+        int index = head + size;
+        if (index >= times.length) {
+            index -= times.length;
+        }
+        times[index] = time;
+        values[index] = value;
+        if (size < times.length) {
+            size++;
+        } else {
+            head = head + 1 == times.length ? 0 : head + 1;
+        }
+        totalAppended++;
+    }
+
+    /**
+     * Copies all samples with time &gt;= fromTime, oldest first.
+     *
+     * @param fromTime Earliest sample time to include
+     * @param outTimes Destination for times; must hold {@link #capacity()} entries
+     * @param outValues Destination for values; must hold {@link #capacity()} entries
+     * @return Number of samples copied
+     */
+    public synchronized int snapshotSince(long fromTime, long[] outTimes, double[] outValues) {
+        int first = firstIndexAtOrAfter(fromTime);
+        int count = size - first;
+        int start = head + first;
+        if (start >= times.length) {
+            start -= times.length;
+        }
+        int firstPart = Math.min(count, times.length - start);
+        System.arraycopy(times, start, outTimes, 0, firstPart);
+        System.arraycopy(values, start, outValues, 0, firstPart);
+        if (firstPart < count) {
+            System.arraycopy(times, 0, outTimes, firstPart, count - firstPart);
+            System.arraycopy(values, 0, outValues, firstPart, count - firstPart);
+        }
+        return count;
+    }
+
+    /** Binary search over logical positions 0..size for the first time &gt;= fromTime. */
+    private int firstIndexAtOrAfter(long fromTime) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int index = head + mid;
+            if (index >= times.length) {
+                index -= times.length;
+            }
+            if (times[index] < fromTime) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Gets the most recent value.
+     *
+     * @return Latest value, or NaN if empty
+     */
+    public synchronized double latest() {
+        if (size == 0) {
+            return Double.NaN;
+        }
+        int index = head + size - 1;
+        if (index >= times.length) {
+            index -= times.length;
+        }
+        return values[index];
+    }
+
+    /**
+     * Gets the number of samples currently retained.
+     *
+     * @return Sample count
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of samples appended since creation, including overwritten ones.
+     *
+     * @return Total sample count
+     */
+    public synchronized long totalAppended() {
+        return totalAppended;
+    }
+
+    /**
+     * Gets the maximum number of samples retained.
+     *
+     * @return Capacity
+     */
+    public int capacity() {
+        return times.length;
+    }
+
+    /**
+     * Removes all samples.
+     */
+    public synchronized void clear() {
+        head = 0;
+        size = 0;
+    }
+}
@@ -0,0 +1,12 @@
+package com.gpoole.serialgui;
+
+/**
+ * A block of bytes as delivered by one serial read, with its decoded text.
+ *
+ * @param data The bytes exactly as read from the port; listeners must not modify them
+ * @param text The text these bytes completed under the connection's encoding; may be
+ *             empty when the chunk ends inside a multi-byte character
+ * @param arrivalNanos When the read completed, from System.nanoTime()
+ */
+public record SerialChunk(byte[] data, String text, long arrivalNanos) {
+}
@@ -4,14 +4,35 @@ import jssc.SerialPort;
 import jssc.SerialPortEvent;
 import jssc.SerialPortEventListener;
 import jssc.SerialPortException;
+import jssc.SerialPortTimeoutException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
  * Manages serial port communication independently from the GUI.
  * Handles connection, disconnection, data sending/receiving, and event notifications.
+ *
+ * Received bytes are decoded with a per-connection {@link StreamDecoder}, so
+ * multi-byte characters split across reads are reassembled, and outgoing text is
+ * encoded with the same {@link TextEncoding}.
+ *
+ * Data is read either through jssc's event listener or by a dedicated reader
+ * thread, selected with {@link #setReaderSettings(ReaderSettings)}. Flow
+ * control, DTR/RTS and line error counting are set with
+ * {@link #setLineSettings(LineSettings)}.
+ *
+ * Opening a port (and baud rate negotiation even more so) blocks in native
+ * code; UI code should use {@link #connectAsync}, which does that work on a
+ * worker thread and can be cancelled.
  */
 public class SerialCommunicationManager {
     private static final Logger logger = LoggerFactory.getLogger(SerialCommunicationManager.class);
@@ -22,15 +43,41 @@ public class SerialCommunicationManager {
     
     private SerialPort activePort;
     private SerialPortEventListener portListener;
-    private boolean connected = false;
-    private long bytesSent = 0;
-    private long bytesReceived = 0;
-    private long connectionStartTime = 0;
+    private Thread readerThread;
+    private volatile boolean readerRunning = false;
+    private volatile ReaderSettings readerSettings = ReaderSettings.DEFAULT;
+    private volatile LineSettings lineSettings = LineSettings.DEFAULT;
+    private volatile boolean connected = false;
+    private volatile boolean ioFailed = false;
+    private volatile long bytesSent = 0;
+    private volatile long bytesReceived = 0;
+    private volatile long connectionStartTime = 0;
+    private volatile long lastReceiveTime = 0;
+    // Lifetime totals; unlike the session byte counts these survive reconnects
+    private volatile long totalBytesSent = 0;
+    private volatile long totalBytesReceived = 0;
+    private volatile long messagesSent = 0;
+    private volatile long chunksReceived = 0;
+    private volatile long readErrors = 0;
+    private volatile long writeErrors = 0;
+    private volatile long framingErrors = 0;
+    private volatile long overrunErrors = 0;
+    private volatile long parityErrors = 0;
+    private volatile long breaks = 0;
+    private volatile int peakReadBytes = 0;
+    private String portName;
+    private volatile TextEncoding encoding = TextEncoding.UTF_8;
+    private StreamDecoder decoder;
 
+    private final List<Consumer<SerialChunk>> receiveListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<SerialChunk>> transmitListeners = new CopyOnWriteArrayList<>();
+    private final AtomicReference<Consumer<SerialChunk>> receiveClaim = new AtomicReference<>();
     private Consumer<String> onDataReceived;
     private Consumer<String> onError;
     private Consumer<String> onConnected;
     private Consumer<String> onDisconnected;
+    private Consumer<String> onConnectProgress;
+    private volatile String negotiationResponse = "";
 
     /**
      * Creates a new SerialCommunicationManager.
@@ -47,6 +94,7 @@ public class SerialCommunicationManager {
         this.onError = str -> {};
         this.onConnected = str -> {};
         this.onDisconnected = str -> {};
+        this.onConnectProgress = str -> {};
     }
 
     /**
@@ -68,6 +116,71 @@ public class SerialCommunicationManager {
         return this;
     }
 
+    /**
+     * Adds a listener for the raw bytes of every received chunk. Listeners run on
+     * the receive thread before the text callback and must not block.
+     */
+    public SerialCommunicationManager addReceiveListener(Consumer<SerialChunk> listener) {
+        receiveListeners.add(listener);
+        return this;
+    }
+
+    /**
+     * Removes a listener added with {@link #addReceiveListener(Consumer)}.
+     */
+    public void removeReceiveListener(Consumer<SerialChunk> listener) {
+        receiveListeners.remove(listener);
+    }
+
+    /**
+     * Adds a listener for the bytes of every successful write. Listeners run on
+     * the sending thread while the send lock is held and must not block; the
+     * chunk's text is empty. Writes made while the receive path is claimed
+     * belong to the protocol and are not reported.
+     */
+    public SerialCommunicationManager addTransmitListener(Consumer<SerialChunk> listener) {
+        transmitListeners.add(listener);
+        return this;
+    }
+
+    /**
+     * Removes a listener added with {@link #addTransmitListener(Consumer)}.
+     */
+    public void removeTransmitListener(Consumer<SerialChunk> listener) {
+        transmitListeners.remove(listener);
+    }
+
+    /**
+     * Routes received chunks exclusively to one consumer until released. While
+     * claimed, receive listeners and the text callback see nothing, so binary
+     * protocol traffic (XMODEM, ...) does not reach the display or capture.
+     * Byte counters keep counting.
+     *
+     * @param owner Consumer that takes over the receive path
+     * @return True if claimed, false if another claim is active
+     */
+    public boolean claimReceive(Consumer<SerialChunk> owner) {
+        return receiveClaim.compareAndSet(null, owner);
+    }
+
+    /**
+     * Hands the receive path back to the listeners.
+     *
+     * @param owner The consumer passed to {@link #claimReceive(Consumer)}
+     */
+    public void releaseReceive(Consumer<SerialChunk> owner) {
+        receiveClaim.compareAndSet(owner, null);
+    }
+
+    /**
+     * Checks whether a protocol currently owns the receive path.
+     *
+     * @return True while claimed
+     */
+    public boolean isReceiveClaimed() {
+        return receiveClaim.get() != null;
+    }
+
     /**
      * Sets the callback for when an error occurs.
      */
@@ -92,6 +205,110 @@ public class SerialCommunicationManager {
         return this;
     }
 
+    /**
+     * Sets the callback for progress messages from {@link #connectAsync}. It runs
+     * on the connect worker thread.
+     */
+    public SerialCommunicationManager onConnectProgress(Consumer<String> callback) {
+        this.onConnectProgress = callback;
+        return this;
+    }
+
+    /**
+     * Connects on a worker thread, optionally negotiating the baud rate first.
+     *
+     * The returned future completes with the baud rate in use once the port is
+     * open, or exceptionally with an IOException describing the failure; the
+     * error callback is not used. Cancelling the future interrupts the
+     * negotiation, and a port that finishes opening after a cancel is closed
+     * again. The connected callback fires as for {@link #connect}.
+     *
+     * @param portName The name of the port (e.g., "COM1")
+     * @param baudRate The baud rate; when negotiating it is tried first, and used if no rate answers
+     * @param dataBits Number of data bits
+     * @param stopBits Number of stop bits
+     * @param parity Parity setting
+     * @param negotiate Probe common baud rates with {@link BaudRateNegotiator} first
+     * @return Future of the baud rate the port was opened at
+     */
+    public CompletableFuture<Integer> connectAsync(String portName, int baudRate, int dataBits, int stopBits,
+                                                  int parity, boolean negotiate) {
+        var result = new CompletableFuture<Integer>();
+        var worker = new Thread(() -> {
+            try {
+                int rate = baudRate;
+                if (negotiate) {
+                    onConnectProgress.accept("Negotiating baud rate on " + portName);
+                    rate = negotiate(portName, baudRate, dataBits, stopBits, parity);
+                    if (rate > 0) {
+                        onConnectProgress.accept("Auto-negotiated baud rate: " + rate);
+                    } else {
+                        onConnectProgress.accept("Failed to negotiate baud rate. Using default: " + baudRate);
+                        rate = baudRate;
+                    }
+                }
+                if (result.isCancelled()) {
+                    return;
+                }
+                onConnectProgress.accept("Opening " + portName + " at " + rate + " baud");
+                String error = open(portName, rate, dataBits, stopBits, parity);
+                if (error != null) {
+                    result.completeExceptionally(new IOException(error));
+                } else if (!result.complete(rate)) {
+                    // Cancelled while the port was opening
+                    disconnect();
+                }
+            } catch (InterruptedException ex) {
+                result.completeExceptionally(new CancellationException("Connect cancelled"));
+            } catch (RuntimeException ex) {
+                result.completeExceptionally(ex);
+            }
+        }, "serial-connect");
+        worker.setDaemon(true);
+        result.whenComplete((rate, ex) -> {
+            if (result.isCancelled()) {
+                worker.interrupt();
+            }
+        });
+        worker.start();
+        return result;
+    }
+
+    /**
+     * Opens the port on its own just long enough to probe baud rates.
+     *
+     * @return The negotiated baud rate, or -1 if none answered or the port could not be opened
+     */
+    private int negotiate(String portName, int firstBaudRate, int dataBits, int stopBits, int parity)
+        throws InterruptedException {
+        negotiationResponse = "";
+        SerialPort probePort = serialPortFactory.apply(portName);
+        try {
+            if (!probePort.openPort()) {
+                logger.warn("Failed to open port for negotiation: {}", portName);
+                return -1;
+            }
+            BaudRateNegotiator.Negotiation result = BaudRateNegotiator.probe(probePort, dataBits, stopBits, parity,
+                BaudRateNegotiator.DEFAULT_TIMEOUT_MS, firstBaudRate);
+            negotiationResponse = result.response();
+            return result.baudRate();
+        } catch (SerialPortException ex) {
+            logger.warn("Failed to open port for negotiation: {}", ex.getMessage());
+            return -1;
+        } finally {
+            closeQuietly(probePort);
+        }
+    }
+
+    /**
+     * Gets the device's reply from the last negotiation by {@link #connectAsync}.
+     *
+     * @return The reply at the negotiated rate, or empty if none answered
+     */
+    public String getNegotiationResponse() {
+        return negotiationResponse;
+    }
+
     /**
      * Connects to a serial port with specified parameters.
      *
@@ -103,32 +320,94 @@ public class SerialCommunicationManager {
      * @return True if connection was successful
      */
     public boolean connect(String portName, int baudRate, int dataBits, int stopBits, int parity) {
+        return connect(portName, baudRate, dataBits, stopBits, parity, true);
+    }
+
+    /**
+     * Attempts a connection without reporting failures through the error callback.
+     * Used by the connection supervisor, which retries on its own schedule and
+     * should not raise a dialog for every failed attempt.
+     *
+     * @return True if connection was successful
+     */
+    boolean tryConnect(String portName, int baudRate, int dataBits, int stopBits, int parity) {
+        return connect(portName, baudRate, dataBits, stopBits, parity, false);
+    }
+
+    private boolean connect(String portName, int baudRate, int dataBits, int stopBits,
+                            int parity, boolean reportErrors) {
+        String error = open(portName, baudRate, dataBits, stopBits, parity);
+        if (error != null && reportErrors) {
+            onError.accept(error);
+        }
+        return error == null;
+    }
+
+    /**
+     * Opens and configures the port and starts receiving.
+     *
+     * @return Null on success, otherwise a message describing the failure
+     */
+    private synchronized String open(String portName, int baudRate, int dataBits, int stopBits, int parity) {
         try {
             logger.info("Opening serial port: {} at {} baud", portName, baudRate);
+            if (baudRate <= 0) {
+                return "Invalid baud rate: " + baudRate;
+            }
             activePort = serialPortFactory.apply(portName);
             if (activePort.openPort()) {
-                activePort.setParams(baudRate, dataBits, stopBits, parity);
+                LineSettings line = lineSettings;
+                // jssc reports a rate the driver cannot set (common for non-standard rates) as false
+                if (!activePort.setParams(baudRate, dataBits, stopBits, parity, line.rts(), line.dtr())) {
+                    closeQuietly(activePort);
+                    activePort = null;
+                    logger.error("Port {} rejected {} baud", portName, baudRate);
+                    return "Port " + portName + " does not support " + baudRate + " baud with these settings";
+                }
+                if (!activePort.setFlowControlMode(line.flowControl().mask())) {
+                    closeQuietly(activePort);
+                    activePort = null;
+                    return "Port " + portName + " does not support " + line.flowControl() + " flow control";
+                }
 
-                setupEventListener();
-                activePort.addEventListener(portListener, SerialPort.MASK_RXCHAR);
+                decoder = new StreamDecoder(encoding);
+                ReaderSettings reader = readerSettings;
+                int errorMask = line.countErrors() ? SerialPort.MASK_ERR | SerialPort.MASK_BREAK : 0;
+                if (reader.mode() == ReaderSettings.Mode.EVENT) {
+                    setupEventListener();
+                    activePort.addEventListener(portListener, SerialPort.MASK_RXCHAR | errorMask);
+                } else if (errorMask != 0) {
+                    // The reader thread does the reading; events are only needed for the error counts
+                    portListener = this::countLineEvent;
+                    activePort.addEventListener(portListener, errorMask);
+                }
 
                 bytesSent = 0;
                 bytesReceived = 0;
+                peakReadBytes = 0;
                 connectionStartTime = System.currentTimeMillis();
+                lastReceiveTime = connectionStartTime;
+                this.portName = portName;
+                ioFailed = false;
                 connected = true;
 
-                logger.info("Successfully connected to port: {}", portName);
+                if (reader.mode() != ReaderSettings.Mode.EVENT) {
+                    startReaderThread(reader);
+                }
+
+                logger.info("Successfully connected to port: {} at {} baud ({} reader, {} flow control)",
+                    portName, baudRate, reader.mode(), line.flowControl());
                 onConnected.accept(portName);
-                return true;
+                return null;
             } else {
                 logger.error("Failed to open port: {}", portName);
-                onError.accept("Failed to open port: " + portName);
-                return false;
+                return "Failed to open port: " + portName;
             }
         } catch (SerialPortException ex) {
             logger.error("Error opening port: {}", ex.getMessage(), ex);
-            onError.accept("Error opening port: " + ex.getMessage());
-            return false;
+            closeQuietly(activePort);
+            activePort = null;
+            return "Error opening port: " + ex.getMessage();
         }
     }
 
@@ -136,26 +415,199 @@ public class SerialCommunicationManager {
      * Sets up the event listener for receiving data.
      */
     private void setupEventListener() {
+        final SerialPort port = activePort;
+        final StreamDecoder streamDecoder = decoder;
         portListener = (SerialPortEvent event) -> {
             if (event.isRXCHAR() && event.getEventValue() > 0) {
                 try {
-                    String receivedData = activePort.readString(event.getEventValue());
-                    bytesReceived += receivedData.length();
-                    onDataReceived.accept(receivedData);
+                    var readEvent = new DataPathEvents.SerialRead();
+                    readEvent.begin();
+                    byte[] data = port.readBytes(event.getEventValue());
+                    if (data == null || data.length == 0) {
+                        return;
+                    }
+                    long arrivalNanos = System.nanoTime();
+                    commitRead(readEvent, port, data.length, ReaderSettings.Mode.EVENT);
+                    deliver(new SerialChunk(data, streamDecoder.decode(data), arrivalNanos));
                 } catch (SerialPortException ex) {
+                    ioFailed = true;
+                    readErrors++;
                     onError.accept("Error reading from port: " + ex.getMessage());
                 }
+            } else {
+                countLineEvent(event);
             }
         };
     }
 
+    /**
+     * Counts jssc ERR and BREAK events; an ERR event's value holds
+     * SerialPort.ERROR_FRAME, ERROR_OVERRUN and ERROR_PARITY flags.
+     */
+    private void countLineEvent(SerialPortEvent event) {
+        if (event.isBREAK()) {
+            breaks++;
+            return;
+        }
+        if (!event.isERR()) {
+            return;
+        }
+        int flags = event.getEventValue();
+        if ((flags & SerialPort.ERROR_FRAME) != 0) {
+            framingErrors++;
+        }
+        if ((flags & SerialPort.ERROR_OVERRUN) != 0) {
+            overrunErrors++;
+        }
+        if ((flags & SerialPort.ERROR_PARITY) != 0) {
+            parityErrors++;
+        }
+        logger.debug("Line error on {}: flags {}", portName, flags);
+    }
+
+    /**
+     * Starts a dedicated thread that pulls data from the port.
+     */
+    private void startReaderThread(ReaderSettings settings) {
+        final SerialPort port = activePort;
+        final StreamDecoder streamDecoder = decoder;
+        readerRunning = true;
+        Runnable loop = () -> {
+            while (readerRunning) {
+                try {
+                    var readEvent = new DataPathEvents.SerialRead();
+                    readEvent.begin();
+                    byte[] data = readNext(port, settings);
+                    if (data != null && data.length > 0) {
+                        long arrivalNanos = System.nanoTime();
+                        commitRead(readEvent, port, data.length, settings.mode());
+                        deliver(new SerialChunk(data, streamDecoder.decode(data), arrivalNanos));
+                    }
+                } catch (SerialPortException ex) {
+                    if (readerRunning) {
+                        ioFailed = true;
+                        readErrors++;
+                        onError.accept("Error reading from port: " + ex.getMessage());
+                    }
+                    return;
+                }
+            }
+        };
+        String name = "serial-reader-" + port.getPortName();
+        readerThread = settings.virtualThread()
+            ? Thread.ofVirtual().name(name).unstarted(loop)
+            : Thread.ofPlatform().name(name).daemon(true).unstarted(loop);
+        readerThread.start();
+    }
+
+    /**
+     * Waits for data according to the reader mode and returns everything available.
+     *
+     * @return The bytes read, or null if nothing arrived
+     */
+    static byte[] readNext(SerialPort port, ReaderSettings settings) throws SerialPortException {
+        if (settings.mode() == ReaderSettings.Mode.BUSY_SPIN) {
+            int available = port.getInputBufferBytesCount();
+            if (available <= 0) {
+                Thread.onSpinWait();
+                return null;
+            }
+            return port.readBytes(available);
+        }
+        byte[] head = null;
+        try {
+            head = port.readBytes(settings.minBytes(), settings.timeoutMs());
+        } catch (SerialPortTimeoutException ex) {
+            // Fewer than minBytes arrived; deliver whatever is buffered below
+        }
+        int available = port.getInputBufferBytesCount();
+        if (available <= 0) {
+            return head;
+        }
+        byte[] tail = port.readBytes(available);
+        if (head == null || head.length == 0) {
+            return tail;
+        }
+        byte[] combined = new byte[head.length + tail.length];
+        System.arraycopy(head, 0, combined, 0, head.length);
+        System.arraycopy(tail, 0, combined, head.length, tail.length);
+        return combined;
+    }
+
+    private void stopReaderThread() {
+        Thread thread = readerThread;
+        readerRunning = false;
+        readerThread = null;
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join(1000);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            if (thread.isAlive()) {
+                logger.warn("Reader thread {} did not stop in time", thread.getName());
+            }
+        }
+    }
+
+    private static void commitRead(DataPathEvents.SerialRead event, SerialPort port, int bytes,
+                                   ReaderSettings.Mode mode) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.port = port.getPortName();
+            event.bytes = bytes;
+            event.mode = mode.name();
+            event.commit();
+        }
+    }
+
+    private void deliver(SerialChunk chunk) {
+        var event = new DataPathEvents.SerialDeliver();
+        event.begin();
+        bytesReceived += chunk.data().length;
+        totalBytesReceived += chunk.data().length;
+        if (chunk.data().length > peakReadBytes) {
+            peakReadBytes = chunk.data().length;
+        }
+        chunksReceived++;
+        lastReceiveTime = System.currentTimeMillis();
+        Consumer<SerialChunk> claim = receiveClaim.get();
+        if (claim != null) {
+            claim.accept(chunk);
+        } else {
+            for (Consumer<SerialChunk> listener : receiveListeners) {
+                listener.accept(chunk);
+            }
+            if (!chunk.text().isEmpty()) {
+                onDataReceived.accept(chunk.text());
+            }
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.bytes = chunk.data().length;
+            event.listeners = receiveListeners.size();
+            event.commit();
+        }
+    }
+
+    private static void closeQuietly(SerialPort port) {
+        try {
+            if (port != null && port.isOpened()) {
+                port.closePort();
+            }
+        } catch (SerialPortException ex) {
+            logger.warn("Failed to close port after error: {}", ex.getMessage());
+        }
+    }
+
     /**
      * Disconnects from the serial port.
      */
-    public void disconnect() {
+    public synchronized void disconnect() {
         if (activePort != null) {
             try {
                 logger.info("Closing serial port");
+                stopReaderThread();
                 if (portListener != null) {
                     activePort.removeEventListener();
                 }
@@ -177,12 +629,99 @@ public class SerialCommunicationManager {
      * @param message The message to send
      * @throws SerialPortException If not connected or write fails
      */
-    public void sendMessage(String message) throws SerialPortException {
+    public synchronized void sendMessage(String message) throws SerialPortException {
+        sendBytes(encoding.encode(message));
+        messagesSent++;
+    }
+
+    /**
+     * Sends raw bytes through the serial port.
+     *
+     * @param data The bytes to send
+     * @throws SerialPortException If not connected or write fails
+     */
+    public synchronized void sendBytes(byte[] data) throws SerialPortException {
         if (!connected || activePort == null) {
             throw new SerialPortException("", "", "Not connected to any port");
         }
-        activePort.writeString(message);
-        bytesSent += message.length();
+        var event = new DataPathEvents.SerialWrite();
+        event.begin();
+        try {
+            activePort.writeBytes(data);
+        } catch (SerialPortException ex) {
+            ioFailed = true;
+            writeErrors++;
+            throw ex;
+        }
+        bytesSent += data.length;
+        totalBytesSent += data.length;
+        if (!transmitListeners.isEmpty() && receiveClaim.get() == null) {
+            var chunk = new SerialChunk(data, "", System.nanoTime());
+            for (Consumer<SerialChunk> listener : transmitListeners) {
+                listener.accept(chunk);
+            }
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.port = portName;
+            event.bytes = data.length;
+            event.commit();
+        }
+    }
+
+    /**
+     * Sets the text encoding. Takes effect for received data on the next
+     * connection and for sent text immediately.
+     *
+     * @param encoding The encoding
+     */
+    public void setEncoding(TextEncoding encoding) {
+        this.encoding = encoding;
+    }
+
+    /**
+     * Sets how received data is read. Takes effect on the next connection.
+     *
+     * @param settings Reader mode, thread type, minimum byte count and timeout
+     */
+    public void setReaderSettings(ReaderSettings settings) {
+        this.readerSettings = settings;
+    }
+
+    /**
+     * Gets how received data is read.
+     *
+     * @return The reader settings
+     */
+    public ReaderSettings getReaderSettings() {
+        return readerSettings;
+    }
+
+    /**
+     * Sets flow control, DTR/RTS and error counting. Takes effect on the next connection.
+     *
+     * @param settings The line settings
+     */
+    public void setLineSettings(LineSettings settings) {
+        this.lineSettings = settings;
+    }
+
+    /**
+     * Gets the flow control, DTR/RTS and error counting settings.
+     *
+     * @return The line settings
+     */
+    public LineSettings getLineSettings() {
+        return lineSettings;
+    }
+
+    /**
+     * Gets the text encoding.
+     *
+     * @return The encoding
+     */
+    public TextEncoding getEncoding() {
+        return encoding;
     }
 
     /**
@@ -203,6 +742,108 @@ public class SerialCommunicationManager {
         return bytesReceived;
     }
 
+    /**
+     * Gets the bytes sent since this manager was created, across connections.
+     *
+     * @return Lifetime bytes sent
+     */
+    public long getTotalBytesSent() {
+        return totalBytesSent;
+    }
+
+    /**
+     * Gets the bytes received since this manager was created, across connections.
+     *
+     * @return Lifetime bytes received
+     */
+    public long getTotalBytesReceived() {
+        return totalBytesReceived;
+    }
+
+    /**
+     * Gets the number of text messages sent with sendMessage().
+     *
+     * @return Lifetime message count
+     */
+    public long getMessagesSent() {
+        return messagesSent;
+    }
+
+    /**
+     * Gets the number of received chunks delivered to listeners.
+     *
+     * @return Lifetime chunk count
+     */
+    public long getChunksReceived() {
+        return chunksReceived;
+    }
+
+    /**
+     * Gets the number of failed port reads.
+     *
+     * @return Lifetime read error count
+     */
+    public long getReadErrors() {
+        return readErrors;
+    }
+
+    /**
+     * Gets the number of failed port writes.
+     *
+     * @return Lifetime write error count
+     */
+    public long getWriteErrors() {
+        return writeErrors;
+    }
+
+    /**
+     * Gets the number of received framing errors, usually a wrong baud rate or framing.
+     *
+     * @return Lifetime framing error count
+     */
+    public long getFramingErrors() {
+        return framingErrors;
+    }
+
+    /**
+     * Gets the number of receive overruns, where data arrived faster than it was read
+     * and bytes were lost.
+     *
+     * @return Lifetime overrun count
+     */
+    public long getOverrunErrors() {
+        return overrunErrors;
+    }
+
+    /**
+     * Gets the number of received parity errors.
+     *
+     * @return Lifetime parity error count
+     */
+    public long getParityErrors() {
+        return parityErrors;
+    }
+
+    /**
+     * Gets the number of break conditions seen on the line.
+     *
+     * @return Lifetime break count
+     */
+    public long getBreaks() {
+        return breaks;
+    }
+
+    /**
+     * Gets the largest single read of the current session. Each read takes
+     * everything the driver has buffered, so a peak approaching the driver's
+     * input buffer (often 4 KB) means the reader is close to overrunning.
+     *
+     * @return Peak read size in bytes
+     */
+    public int getPeakReadBytes() {
+        return peakReadBytes;
+    }
+
     /**
      * Gets the connection uptime in seconds.
      *
@@ -215,6 +856,35 @@ public class SerialCommunicationManager {
         return (System.currentTimeMillis() - connectionStartTime) / 1000;
     }
 
+    /**
+     * Gets the time the last data was received, or the connection time if
+     * nothing has been received yet.
+     *
+     * @return Epoch milliseconds of the last received byte, or 0 if never connected
+     */
+    public long getLastReceiveTimeMillis() {
+        return lastReceiveTime;
+    }
+
+    /**
+     * Gets the name of the port of the current (or most recent) connection.
+     *
+     * @return Port name, or null if never connected
+     */
+    public String getPortName() {
+        return portName;
+    }
+
+    /**
+     * Checks whether a read or write on the current connection has failed.
+     * A failed connection usually means the device was unplugged or re-enumerated.
+     *
+     * @return True if an I/O error occurred since connecting
+     */
+    public boolean hasFailed() {
+        return ioFailed;
+    }
+
     /**
      * Checks if currently connected to a port.
      *
@@ -0,0 +1,269 @@
+package com.gpoole.serialgui;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.function.IntSupplier;
+
+/**
+ * Exposes the counters of a {@link SerialCommunicationManager} (and, when
+ * attached, its supervisor, display pipeline and capture queue) as a JMX MBean
+ * so dashboards can poll unattended rigs.
+ *
+ * Registered as {@code com.gpoole.serialgui:type=SerialPort,name=<name>}.
+ * The same numbers are served in Prometheus format by {@link MetricsHttpServer}.
+ *
+ * Rates are computed from counter deltas over the last completed interval of
+ * at least one second, so any number of pollers see the same value and
+ * polling does not reset anything.
+ */
+public class SerialPortMetrics implements SerialPortMetricsMBean {
+    private static final Logger logger = LoggerFactory.getLogger(SerialPortMetrics.class);
+    private static final long RATE_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final String name;
+    private final SerialCommunicationManager commManager;
+    private volatile ConnectionSupervisor supervisor;
+    private volatile DisplayPipeline displayPipeline;
+    private volatile IntSupplier captureQueueDepth = () -> 0;
+    private ObjectName objectName;
+
+    private long rateSampleNanos = System.nanoTime();
+    private long rateSampleSent = 0;
+    private long rateSampleReceived = 0;
+    private double sendRate = 0;
+    private double receiveRate = 0;
+
+    /**
+     * Creates metrics for a connection.
+     *
+     * @param name Instance name used in the ObjectName and as a Prometheus label
+     * @param commManager The connection to report on
+     */
+    public SerialPortMetrics(String name, SerialCommunicationManager commManager) {
+        this.name = name;
+        this.commManager = commManager;
+    }
+
+    /**
+     * Adds reconnect and outage-buffer figures.
+     *
+     * @param supervisor The connection's supervisor
+     * @return This instance for method chaining
+     */
+    public SerialPortMetrics withSupervisor(ConnectionSupervisor supervisor) {
+        this.supervisor = supervisor;
+        return this;
+    }
+
+    /**
+     * Adds display backlog figures.
+     *
+     * @param displayPipeline The pipeline feeding the output area
+     * @return This instance for method chaining
+     */
+    public SerialPortMetrics withDisplayPipeline(DisplayPipeline displayPipeline) {
+        this.displayPipeline = displayPipeline;
+        return this;
+    }
+
+    /**
+     * Adds the capture writer backlog.
+     *
+     * @param captureQueueDepth Supplies lines waiting for the capture file (0 when not capturing)
+     * @return This instance for method chaining
+     */
+    public SerialPortMetrics withCaptureQueueDepth(IntSupplier captureQueueDepth) {
+        this.captureQueueDepth = captureQueueDepth;
+        return this;
+    }
+
+    /**
+     * Registers this MBean with the platform MBean server.
+     *
+     * @return True if registered
+     */
+    public synchronized boolean register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName candidate = new ObjectName("com.gpoole.serialgui:type=SerialPort,name=" + ObjectName.quote(name));
+            if (server.isRegistered(candidate)) {
+                server.unregisterMBean(candidate);
+            }
+            server.registerMBean(this, candidate);
+            objectName = candidate;
+            logger.debug("Registered MBean {}", candidate);
+            return true;
+        } catch (JMException ex) {
+            logger.warn("Failed to register metrics MBean for {}: {}", name, ex.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Removes this MBean from the platform MBean server.
+     */
+    public synchronized void unregister() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException ex) {
+            logger.debug("Failed to unregister {}: {}", objectName, ex.getMessage());
+        }
+        objectName = null;
+    }
+
+    /**
+     * Gets the instance name.
+     *
+     * @return Name used in the ObjectName and metric labels
+     */
+    public String getName() {
+        return name;
+    }
+
+    private synchronized void updateRates() {
+        long now = System.nanoTime();
+        long elapsed = now - rateSampleNanos;
+        if (elapsed < RATE_INTERVAL_NANOS) {
+            return;
+        }
+        long sent = commManager.getTotalBytesSent();
+        long received = commManager.getTotalBytesReceived();
+        sendRate = (sent - rateSampleSent) * 1e9 / elapsed;
+        receiveRate = (received - rateSampleReceived) * 1e9 / elapsed;
+        rateSampleNanos = now;
+        rateSampleSent = sent;
+        rateSampleReceived = received;
+    }
+
+    @Override
+    public boolean isConnected() {
+        return commManager.isConnected();
+    }
+
+    @Override
+    public String getPortName() {
+        String port = commManager.getPortName();
+        return port != null && commManager.isConnected() ? port : "";
+    }
+
+    @Override
+    public long getUptimeSeconds() {
+        return commManager.getUptimeSeconds();
+    }
+
+    @Override
+    public long getTotalBytesSent() {
+        return commManager.getTotalBytesSent();
+    }
+
+    @Override
+    public long getTotalBytesReceived() {
+        return commManager.getTotalBytesReceived();
+    }
+
+    @Override
+    public long getTotalMessagesSent() {
+        return commManager.getMessagesSent();
+    }
+
+    @Override
+    public long getTotalChunksReceived() {
+        return commManager.getChunksReceived();
+    }
+
+    @Override
+    public synchronized double getReceiveBytesPerSecond() {
+        updateRates();
+        return receiveRate;
+    }
+
+    @Override
+    public synchronized double getSendBytesPerSecond() {
+        updateRates();
+        return sendRate;
+    }
+
+    @Override
+    public long getTotalReadErrors() {
+        return commManager.getReadErrors();
+    }
+
+    @Override
+    public long getTotalWriteErrors() {
+        return commManager.getWriteErrors();
+    }
+
+    @Override
+    public long getTotalFramingErrors() {
+        return commManager.getFramingErrors();
+    }
+
+    @Override
+    public long getTotalOverrunErrors() {
+        return commManager.getOverrunErrors();
+    }
+
+    @Override
+    public long getTotalParityErrors() {
+        return commManager.getParityErrors();
+    }
+
+    @Override
+    public long getTotalBreaks() {
+        return commManager.getBreaks();
+    }
+
+    @Override
+    public int getPeakReadBytes() {
+        return commManager.getPeakReadBytes();
+    }
+
+    @Override
+    public long getTotalReconnects() {
+        ConnectionSupervisor s = supervisor;
+        return s != null ? s.getReconnectCount() : 0;
+    }
+
+    @Override
+    public boolean isInOutage() {
+        ConnectionSupervisor s = supervisor;
+        return s != null && s.isInOutage();
+    }
+
+    @Override
+    public int getPendingTxMessages() {
+        ConnectionSupervisor s = supervisor;
+        return s != null ? s.getPendingTxCount() : 0;
+    }
+
+    @Override
+    public long getTotalDroppedTxMessages() {
+        ConnectionSupervisor s = supervisor;
+        return s != null ? s.getDroppedTxCount() : 0;
+    }
+
+    @Override
+    public int getDisplayQueueDepth() {
+        DisplayPipeline p = displayPipeline;
+        return p != null ? p.getQueueDepth() : 0;
+    }
+
+    @Override
+    public long getTotalDisplayDroppedLines() {
+        DisplayPipeline p = displayPipeline;
+        return p != null ? p.getDroppedLines() + p.getSummarizedLines() : 0;
+    }
+
+    @Override
+    public int getCaptureQueueDepth() {
+        return captureQueueDepth.getAsInt();
+    }
+}
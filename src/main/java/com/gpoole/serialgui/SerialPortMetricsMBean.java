@@ -0,0 +1,80 @@
+package com.gpoole.serialgui;
+
+/**
+ * JMX management interface for one serial connection.
+ *
+ * Counters named Total... are monotonic for the life of the process and
+ * survive reconnects; the others describe the current session or an
+ * instantaneous value. Rates are averaged over the last completed second.
+ */
+public interface SerialPortMetricsMBean {
+
+    /** @return True while the port is open */
+    boolean isConnected();
+
+    /** @return Name of the open port, or empty when disconnected */
+    String getPortName();
+
+    /** @return Seconds since the current connection was opened */
+    long getUptimeSeconds();
+
+    /** @return Bytes sent since the process started */
+    long getTotalBytesSent();
+
+    /** @return Bytes received since the process started */
+    long getTotalBytesReceived();
+
+    /** @return Text messages sent since the process started */
+    long getTotalMessagesSent();
+
+    /** @return Received chunks delivered since the process started */
+    long getTotalChunksReceived();
+
+    /** @return Receive rate over the last second */
+    double getReceiveBytesPerSecond();
+
+    /** @return Send rate over the last second */
+    double getSendBytesPerSecond();
+
+    /** @return Failed port reads since the process started */
+    long getTotalReadErrors();
+
+    /** @return Failed port writes since the process started */
+    long getTotalWriteErrors();
+
+    /** @return Received framing errors since the process started */
+    long getTotalFramingErrors();
+
+    /** @return Receive overruns (lost bytes) since the process started */
+    long getTotalOverrunErrors();
+
+    /** @return Received parity errors since the process started */
+    long getTotalParityErrors();
+
+    /** @return Break conditions since the process started */
+    long getTotalBreaks();
+
+    /** @return Largest single read of the current session, in bytes */
+    int getPeakReadBytes();
+
+    /** @return Successful automatic reconnects */
+    long getTotalReconnects();
+
+    /** @return True while auto-reconnect is handling an outage */
+    boolean isInOutage();
+
+    /** @return Messages buffered during an outage */
+    int getPendingTxMessages();
+
+    /** @return Messages dropped because the outage buffer was full */
+    long getTotalDroppedTxMessages();
+
+    /** @return Lines waiting for the display */
+    int getDisplayQueueDepth();
+
+    /** @return Lines not shown because the display was overloaded */
+    long getTotalDisplayDroppedLines();
+
+    /** @return Lines waiting to be written to the capture file */
+    int getCaptureQueueDepth();
+}
@@ -0,0 +1,470 @@
+package com.gpoole.serialgui;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Shares the open serial port with TCP clients.
+ *
+ * Every byte received from the port is sent to every connected client, and
+ * bytes written by any client are sent to the port in the order they arrive.
+ * One selector thread serves all clients. A received chunk is wrapped once in
+ * a read-only buffer and each client queues a duplicate of it (its own position
+ * over the same bytes), so adding subscribers adds no copies of the data.
+ *
+ * A client that cannot keep up must never stall the port or the other
+ * clients. Each client has a bound on queued bytes; when a new chunk would
+ * exceed it the client is either disconnected or the chunk is dropped for that
+ * client only, depending on the policy.
+ *
+ * In the other direction the serial port is usually the slow side. Each client
+ * may have at most 64 KB on its way to the port; beyond that the bridge stops
+ * reading from that client until the port has caught up, so TCP flow control
+ * pushes back on the sender instead of the heap growing.
+ *
+ * Features:
+ * - Listens on localhost only unless remote clients are allowed
+ * - Gathering writes of up to 16 queued chunks per socket write
+ * - Client-to-port writes go through a single writer thread so slow serial
+ *   writes never block the selector
+ * - Counters for fanned-out bytes, dropped bytes and slow-client disconnects
+ */
+public class SerialTcpBridge {
+    private static final Logger logger = LoggerFactory.getLogger(SerialTcpBridge.class);
+    private static final int READ_BUFFER_SIZE = 4096;
+    private static final int MAX_GATHER = 16;
+    /** Default bound on bytes queued for one client */
+    public static final int DEFAULT_MAX_QUEUED_BYTES = 1024 * 1024;
+    /** Bytes from one client waiting for the port before reading from it pauses */
+    static final int MAX_PENDING_PORT_BYTES = 64 * 1024;
+    /** How long accepting pauses after accept() fails, e.g. when out of file descriptors */
+    private static final long ACCEPT_RETRY_MS = 1000;
+
+    /** What happens to a client whose queue is full */
+    public enum SlowClientPolicy {
+        /** Close the connection */
+        DISCONNECT,
+        /** Skip data for that client until it catches up */
+        DROP
+    }
+
+    private final SerialCommunicationManager commManager;
+    private final List<Client> clients = new CopyOnWriteArrayList<>();
+    private final Consumer<SerialChunk> receiveListener = this::onChunk;
+    private final AtomicLong bytesFannedOut = new AtomicLong();
+    private final AtomicLong droppedBytes = new AtomicLong();
+    private final AtomicLong slowDisconnects = new AtomicLong();
+    private final AtomicLong bytesFromClients = new AtomicLong();
+    private volatile SlowClientPolicy policy = SlowClientPolicy.DISCONNECT;
+    private volatile int maxQueuedBytes = DEFAULT_MAX_QUEUED_BYTES;
+
+    private Selector selector;
+    private ServerSocketChannel server;
+    private SelectionKey serverKey;
+    private long acceptPausedUntil = 0;
+    private Thread selectorThread;
+    private ExecutorService portWriter;
+    private volatile boolean running = false;
+
+    /**
+     * Creates a new SerialTcpBridge.
+     *
+     * @param commManager The connection to share
+     */
+    public SerialTcpBridge(SerialCommunicationManager commManager) {
+        this.commManager = commManager;
+    }
+
+    /**
+     * Sets how slow clients are handled.
+     *
+     * @param policy What to do when a client's queue is full
+     * @param maxQueuedBytes Bound on bytes queued per client
+     */
+    public void setSlowClientPolicy(SlowClientPolicy policy, int maxQueuedBytes) {
+        this.policy = policy;
+        this.maxQueuedBytes = Math.max(READ_BUFFER_SIZE, maxQueuedBytes);
+    }
+
+    /**
+     * Starts listening.
+     *
+     * @param port TCP port, or 0 for any free port
+     * @param allowRemote True to listen on all interfaces instead of localhost only
+     * @throws IOException If the port cannot be bound
+     */
+    public synchronized void start(int port, boolean allowRemote) throws IOException {
+        if (running) {
+            throw new IllegalStateException("TCP bridge already running");
+        }
+        SocketAddress address = allowRemote
+            ? new InetSocketAddress(port)
+            : new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        try {
+            server.bind(address);
+            server.configureBlocking(false);
+            serverKey = server.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException ex) {
+            server.close();
+            selector.close();
+            throw ex;
+        }
+        portWriter = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "tcp-bridge-port-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        running = true;
+        commManager.addReceiveListener(receiveListener);
+        selectorThread = new Thread(this::selectLoop, "tcp-bridge");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+        logger.info("TCP bridge listening on {}", server.getLocalAddress());
+    }
+
+    /**
+     * Disconnects all clients and stops listening.
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        commManager.removeReceiveListener(receiveListener);
+        selector.wakeup();
+        try {
+            selectorThread.join(2000);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        for (Client client : clients) {
+            closeQuietly(client.channel);
+        }
+        clients.clear();
+        closeQuietly(server);
+        try {
+            selector.close();
+        } catch (IOException ex) {
+            logger.debug("Failed to close selector: {}", ex.getMessage());
+        }
+        portWriter.shutdownNow();
+        logger.info("TCP bridge stopped");
+    }
+
+    /**
+     * Queues a received chunk for every client. Runs on the serial receive thread.
+     */
+    private void onChunk(SerialChunk chunk) {
+        if (clients.isEmpty()) {
+            return;
+        }
+        ByteBuffer shared = ByteBuffer.wrap(chunk.data()).asReadOnlyBuffer();
+        int length = shared.remaining();
+        int limit = maxQueuedBytes;
+        boolean queued = false;
+        for (Client client : clients) {
+            if (client.closing) {
+                continue;
+            }
+            if (client.queuedBytes.get() + length > limit) {
+                if (policy == SlowClientPolicy.DISCONNECT) {
+                    client.closing = true;
+                    slowDisconnects.incrementAndGet();
+                    logger.warn("Disconnecting slow TCP bridge client {} ({} bytes queued)",
+                        client.address, client.queuedBytes.get());
+                } else {
+                    droppedBytes.addAndGet(length);
+                }
+                queued = true;
+                continue;
+            }
+            client.queue.add(shared.duplicate());
+            client.queuedBytes.addAndGet(length);
+            queued = true;
+        }
+        if (queued) {
+            selector.wakeup();
+        }
+    }
+
+    private void selectLoop() {
+        try {
+            while (running) {
+                selector.select(acceptPausedUntil != 0 ? ACCEPT_RETRY_MS : 0);
+                if (!running) {
+                    break;
+                }
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        Client client = (Client) key.attachment();
+                        if (key.isReadable()) {
+                            read(client);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            write(client);
+                        }
+                    }
+                }
+                selector.selectedKeys().clear();
+                updateInterest();
+            }
+        } catch (IOException | ClosedSelectorException ex) {
+            if (running) {
+                logger.error("TCP bridge selector failed: {}", ex.getMessage(), ex);
+            }
+        }
+    }
+
+    private void accept() {
+        SocketChannel channel = null;
+        try {
+            channel = server.accept();
+            if (channel == null) {
+                return;
+            }
+            channel.configureBlocking(false);
+            Client client = new Client(channel);
+            client.key = channel.register(selector, SelectionKey.OP_READ, client);
+            clients.add(client);
+            logger.info("TCP bridge client connected: {} ({} clients)", client.address, clients.size());
+        } catch (IOException ex) {
+            closeQuietly(channel);
+            // The listening socket stays readable, so retrying at once would spin
+            logger.warn("TCP bridge failed to accept a client, pausing accepts for {} ms: {}",
+                ACCEPT_RETRY_MS, ex.getMessage());
+            serverKey.interestOps(0);
+            acceptPausedUntil = System.currentTimeMillis() + ACCEPT_RETRY_MS;
+        }
+    }
+
+    private void read(Client client) {
+        ByteBuffer buffer = client.readBuffer;
+        buffer.clear();
+        int n;
+        try {
+            n = client.channel.read(buffer);
+        } catch (IOException ex) {
+            n = -1;
+        }
+        if (n < 0) {
+            close(client, "closed by client");
+            return;
+        }
+        if (n == 0) {
+            return;
+        }
+        byte[] data = Arrays.copyOf(buffer.array(), n);
+        bytesFromClients.addAndGet(n);
+        client.pendingPortBytes.addAndGet(n);
+        portWriter.execute(() -> {
+            try {
+                commManager.sendBytes(data);
+            } catch (Exception ex) {
+                logger.warn("Dropped {} bytes from TCP bridge client {}: {}", data.length, client.address,
+                    ex.getMessage());
+            }
+            long pending = client.pendingPortBytes.addAndGet(-data.length);
+            if (pending < MAX_PENDING_PORT_BYTES && pending + data.length >= MAX_PENDING_PORT_BYTES) {
+                // Reading from this client was paused; let the selector resume it
+                selector.wakeup();
+            }
+        });
+    }
+
+    private void write(Client client) {
+        ByteBuffer[] batch = client.gather;
+        int count = 0;
+        for (ByteBuffer buffer : client.queue) {
+            batch[count++] = buffer;
+            if (count == batch.length) {
+                break;
+            }
+        }
+        if (count == 0) {
+            return;
+        }
+        long written;
+        try {
+            written = client.channel.write(batch, 0, count);
+        } catch (IOException ex) {
+            close(client, ex.getMessage());
+            return;
+        }
+        Arrays.fill(batch, null);
+        client.queuedBytes.addAndGet(-written);
+        bytesFannedOut.addAndGet(written);
+        ByteBuffer head;
+        while ((head = client.queue.peek()) != null && !head.hasRemaining()) {
+            client.queue.poll();
+        }
+    }
+
+    private void updateInterest() {
+        if (acceptPausedUntil != 0 && System.currentTimeMillis() >= acceptPausedUntil) {
+            acceptPausedUntil = 0;
+            serverKey.interestOps(SelectionKey.OP_ACCEPT);
+        }
+        for (Client client : clients) {
+            if (client.closing) {
+                close(client, "too slow");
+                continue;
+            }
+            if (client.key.isValid()) {
+                int ops = (client.pendingPortBytes.get() < MAX_PENDING_PORT_BYTES ? SelectionKey.OP_READ : 0)
+                    | (client.queue.isEmpty() ? 0 : SelectionKey.OP_WRITE);
+                if (client.key.interestOps() != ops) {
+                    client.key.interestOps(ops);
+                }
+            }
+        }
+    }
+
+    private void close(Client client, String reason) {
+        if (clients.remove(client)) {
+            client.key.cancel();
+            closeQuietly(client.channel);
+            client.queue.clear();
+            logger.info("TCP bridge client {} disconnected: {}", client.address, reason);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            if (closeable != null) {
+                closeable.close();
+            }
+        } catch (IOException ex) {
+            logger.debug("Failed to close bridge channel: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Checks whether the bridge is listening.
+     *
+     * @return True while running
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Gets the TCP port the bridge is listening on.
+     *
+     * @return Port number, or -1 if not running
+     */
+    public int getLocalPort() {
+        ServerSocketChannel channel = server;
+        if (!running || channel == null) {
+            return -1;
+        }
+        return channel.socket().getLocalPort();
+    }
+
+    /**
+     * Gets the number of connected clients.
+     *
+     * @return Client count
+     */
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    /**
+     * Gets the total bytes written to clients.
+     *
+     * @return Byte count summed over all clients
+     */
+    public long getBytesFannedOut() {
+        return bytesFannedOut.get();
+    }
+
+    /**
+     * Gets the total bytes clients sent towards the port.
+     *
+     * @return Byte count
+     */
+    public long getBytesFromClients() {
+        return bytesFromClients.get();
+    }
+
+    /**
+     * Gets the bytes received from clients that have not been written to the port yet.
+     *
+     * @return Byte count summed over all clients
+     */
+    public long getPendingPortBytes() {
+        long pending = 0;
+        for (Client client : clients) {
+            pending += client.pendingPortBytes.get();
+        }
+        return pending;
+    }
+
+    /**
+     * Gets the bytes skipped for slow clients under the DROP policy.
+     *
+     * @return Byte count summed over all clients
+     */
+    public long getDroppedBytes() {
+        return droppedBytes.get();
+    }
+
+    /**
+     * Gets the number of clients disconnected for being too slow.
+     *
+     * @return Disconnect count
+     */
+    public long getSlowClientDisconnects() {
+        return slowDisconnects.get();
+    }
+
+    /**
+     * State of one TCP client. The queue and counter are shared between the
+     * receive thread (producer) and the selector thread (consumer); the pending
+     * port bytes between the selector thread and the port writer.
+     */
+    private static final class Client {
+        final SocketChannel channel;
+        final String address;
+        final Queue<ByteBuffer> queue = new ConcurrentLinkedQueue<>();
+        final AtomicLong queuedBytes = new AtomicLong();
+        final AtomicLong pendingPortBytes = new AtomicLong();
+        final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        final ByteBuffer[] gather = new ByteBuffer[MAX_GATHER];
+        volatile boolean closing = false;
+        SelectionKey key;
+
+        Client(SocketChannel channel) throws IOException {
+            this.channel = channel;
+            this.address = String.valueOf(channel.getRemoteAddress());
+        }
+    }
+}
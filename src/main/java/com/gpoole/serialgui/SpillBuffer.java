@@ -0,0 +1,273 @@
+package com.gpoole.serialgui;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * FIFO text buffer that keeps a small head in memory and spills the rest to a
+ * temporary file, for output held back while the display is paused.
+ *
+ * Text fits in the in-memory head until it reaches the memory limit; from then
+ * on appends are UTF-8 encoded through a fixed 64 KB write buffer into the file
+ * and stay there until read back, so order is preserved. Reads come back in
+ * batches of a caller-chosen size, so a paused session of hundreds of megabytes
+ * can be returned to the display a frame at a time. The file is truncated each
+ * time it has been read to the end, and deleted when the buffer is closed or
+ * the JVM exits.
+ *
+ * If the file cannot be written, the unread spilled text is lost (and logged)
+ * and further text is kept in memory.
+ *
+ * Appends come from the receive thread and reads from the EDT; all access is
+ * synchronized on the buffer.
+ */
+public class SpillBuffer implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(SpillBuffer.class);
+    /** Default in-memory head size in characters */
+    public static final int DEFAULT_MEMORY_CHARS = 256 * 1024;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    private final String prefix;
+    private final int memoryChars;
+    private final StringBuilder head = new StringBuilder();
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(IO_BUFFER_SIZE);
+    // Holds read but undecoded bytes between polls; kept in write mode
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(IO_BUFFER_SIZE);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private Path file;
+    private FileChannel channel;
+    private int headRead = 0;
+    private long writePosition = 0;
+    private long readPosition = 0;
+    private long pendingChars = 0;
+    private long spilledBytes = 0;
+    private boolean failed = false;
+
+    /**
+     * Creates an empty buffer with the default in-memory head size. The
+     * temporary file is created on the first spill.
+     *
+     * @param prefix Temporary file name prefix
+     */
+    public SpillBuffer(String prefix) {
+        this(prefix, DEFAULT_MEMORY_CHARS);
+    }
+
+    /**
+     * Creates an empty buffer. The temporary file is created on the first spill.
+     *
+     * @param prefix Temporary file name prefix
+     * @param memoryChars Characters kept in memory before spilling to disk
+     */
+    public SpillBuffer(String prefix, int memoryChars) {
+        this.prefix = prefix;
+        this.memoryChars = memoryChars;
+    }
+
+    /**
+     * Appends text at the end of the buffer.
+     *
+     * @param text The text to append
+     */
+    public synchronized void append(String text) {
+        if (text.isEmpty()) {
+            return;
+        }
+        pendingChars += text.length();
+        if (failed || !isSpilling() && head.length() - headRead + text.length() <= memoryChars) {
+            head.append(text);
+            return;
+        }
+        try {
+            if (channel == null) {
+                file = Files.createTempFile(prefix, ".txt");
+                file.toFile().deleteOnExit();
+                channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+            }
+            CharBuffer in = CharBuffer.wrap(text);
+            while (encoder.encode(in, writeBuffer, true).isOverflow()) {
+                flushWrites();
+            }
+            encoder.reset();
+        } catch (IOException ex) {
+            fail(ex);
+            head.append(text);
+            pendingChars = head.length() - headRead;
+        }
+    }
+
+    /**
+     * Takes the next batch of text from the front of the buffer.
+     *
+     * @param maxChars Maximum number of characters to return
+     * @return The text, or null if the buffer is empty
+     */
+    public synchronized String poll(int maxChars) {
+        if (headRead < head.length()) {
+            int end = Math.min(head.length(), headRead + maxChars);
+            String batch = head.substring(headRead, end);
+            headRead = end;
+            if (headRead == head.length()) {
+                head.setLength(0);
+                headRead = 0;
+            }
+            pendingChars -= batch.length();
+            return batch;
+        }
+        if (!isSpilling()) {
+            return null;
+        }
+        CharBuffer chars = CharBuffer.allocate(Math.min(maxChars, IO_BUFFER_SIZE));
+        try {
+            flushWrites();
+            while (chars.hasRemaining()) {
+                int read = readPosition < writePosition ? channel.read(readBuffer, readPosition) : 0;
+                if (read > 0) {
+                    readPosition += read;
+                }
+                readBuffer.flip();
+                CoderResult result = decoder.decode(readBuffer, chars, false);
+                readBuffer.compact();
+                if (result.isOverflow() || read <= 0) {
+                    break;
+                }
+            }
+            if (readPosition >= writePosition && readBuffer.position() > 0 && chars.hasRemaining()) {
+                // A truncated character at the very end; emit it as a replacement
+                readBuffer.flip();
+                decoder.decode(readBuffer, chars, true);
+                decoder.flush(chars);
+                readBuffer.compact();
+            }
+            if (readPosition >= writePosition && readBuffer.position() == 0) {
+                // Read to the end; start the file over so it does not grow across pauses
+                channel.truncate(0);
+                readPosition = 0;
+                writePosition = 0;
+                decoder.reset();
+            }
+        } catch (IOException ex) {
+            fail(ex);
+        }
+        chars.flip();
+        if (!chars.hasRemaining()) {
+            return null;
+        }
+        String batch = chars.toString();
+        pendingChars -= batch.length();
+        return batch;
+    }
+
+    private boolean isSpilling() {
+        return writePosition + writeBuffer.position() > readPosition || readBuffer.position() > 0;
+    }
+
+    private void flushWrites() throws IOException {
+        writeBuffer.flip();
+        try {
+            while (writeBuffer.hasRemaining()) {
+                int written = channel.write(writeBuffer, writePosition);
+                writePosition += written;
+                spilledBytes += written;
+            }
+        } finally {
+            writeBuffer.clear();
+        }
+    }
+
+    private void fail(IOException ex) {
+        long lost = writePosition + writeBuffer.position() - readPosition + readBuffer.position();
+        logger.error("Failed to spill held output to {}; {} bytes lost, keeping further output in memory: {}",
+            file, lost, ex.getMessage(), ex);
+        failed = true;
+        writeBuffer.clear();
+        readBuffer.clear();
+        readPosition = 0;
+        writePosition = 0;
+        pendingChars = head.length() - headRead;
+    }
+
+    /**
+     * Checks whether any text is waiting to be read.
+     *
+     * @return True if poll() would return text
+     */
+    public synchronized boolean hasPending() {
+        return headRead < head.length() || isSpilling();
+    }
+
+    /**
+     * Gets the number of characters waiting to be read.
+     *
+     * @return Pending character count
+     */
+    public synchronized long getPendingChars() {
+        return pendingChars;
+    }
+
+    /**
+     * Gets the number of bytes written to the temporary file so far.
+     *
+     * @return Spilled byte count, including bytes already read back
+     */
+    public synchronized long getSpilledBytes() {
+        return spilledBytes;
+    }
+
+    /**
+     * Discards all pending text.
+     */
+    public synchronized void clear() {
+        head.setLength(0);
+        headRead = 0;
+        writeBuffer.clear();
+        readBuffer.clear();
+        encoder.reset();
+        decoder.reset();
+        readPosition = 0;
+        writePosition = 0;
+        pendingChars = 0;
+        if (channel != null) {
+            try {
+                channel.truncate(0);
+            } catch (IOException ex) {
+                logger.warn("Failed to truncate spill file {}: {}", file, ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Discards pending text and deletes the temporary file.
+     */
+    @Override
+    public synchronized void close() {
+        clear();
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                logger.warn("Failed to close spill file {}: {}", file, ex.getMessage());
+            }
+            channel = null;
+        }
+    }
+}
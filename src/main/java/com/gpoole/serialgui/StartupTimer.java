@@ -0,0 +1,109 @@
+package com.gpoole.serialgui;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records how long each startup phase took so slow launches on lab PCs can be
+ * diagnosed from the log instead of with a stopwatch.
+ *
+ * Features:
+ * - Milestones are measured from the moment the timer is created (normally
+ *   the first line of main), so they add up to what the user waits for
+ * - Time from JVM launch to main is included when the OS reports the process
+ *   start time, which shows class loading and CDS effects
+ * - The summary is logged once, when the last expected milestone is reached
+ */
+public class StartupTimer {
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimer.class);
+
+    private final long originNanos = System.nanoTime();
+    private final long launchToOriginMillis;
+    private final List<String> phases = new ArrayList<>();
+    private final List<Long> phaseNanos = new ArrayList<>();
+    private boolean logged = false;
+
+    /**
+     * Creates a timer starting now.
+     */
+    public StartupTimer() {
+        this.launchToOriginMillis = ProcessHandle.current().info().startInstant()
+            .map(start -> Duration.between(start, Instant.now()).toMillis())
+            .orElse(-1L);
+    }
+
+    /**
+     * Records that a phase has finished. Only the first mark of a phase counts.
+     *
+     * @param phase Short description such as "window shown"
+     */
+    public synchronized void mark(String phase) {
+        if (!phases.contains(phase)) {
+            phases.add(phase);
+            phaseNanos.add(System.nanoTime() - originNanos);
+        }
+    }
+
+    /**
+     * Checks whether a phase has been recorded.
+     *
+     * @param phase The phase
+     * @return True if marked
+     */
+    public synchronized boolean hasMark(String phase) {
+        return phases.contains(phase);
+    }
+
+    /**
+     * Gets the time from timer creation to a phase.
+     *
+     * @param phase The phase
+     * @return Milliseconds, or -1 if the phase has not been marked
+     */
+    public synchronized long getMillis(String phase) {
+        int index = phases.indexOf(phase);
+        return index >= 0 ? phaseNanos.get(index) / 1_000_000 : -1;
+    }
+
+    /**
+     * Formats the recorded phases in the order they completed.
+     *
+     * @return One line such as "launch→main 180 ms | ui built 240 ms | window shown 310 ms"
+     */
+    public synchronized String getSummary() {
+        var out = new StringBuilder();
+        if (launchToOriginMillis >= 0) {
+            out.append("launch→main ").append(launchToOriginMillis).append(" ms");
+        }
+        for (int i = 0; i < phases.size(); i++) {
+            if (!out.isEmpty()) {
+                out.append(" | ");
+            }
+            out.append(phases.get(i)).append(' ').append(phaseNanos.get(i) / 1_000_000).append(" ms");
+        }
+        return out.toString();
+    }
+
+    /**
+     * Logs the summary the first time all the given phases have been marked.
+     *
+     * @param requiredPhases Phases that complete startup
+     */
+    public synchronized void logWhenComplete(String... requiredPhases) {
+        if (logged) {
+            return;
+        }
+        for (String phase : requiredPhases) {
+            if (!phases.contains(phase)) {
+                return;
+            }
+        }
+        logged = true;
+        logger.info("Startup: {}", getSummary());
+    }
+}
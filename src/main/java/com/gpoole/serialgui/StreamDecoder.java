@@ -0,0 +1,130 @@
+package com.gpoole.serialgui;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Decodes a byte stream to text chunk by chunk.
+ *
+ * Serial reads split the stream at arbitrary points, so a multi-byte UTF-8
+ * character can start in one read and end in the next. Decoding each read on
+ * its own turns such characters into garbage; this decoder keeps the
+ * incomplete tail of a read and prepends it to the next one. Invalid input is
+ * replaced with U+FFFD rather than stopping the stream.
+ *
+ * One instance per connection; not thread-safe.
+ */
+public class StreamDecoder {
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private final TextEncoding encoding;
+    private final CharsetDecoder decoder;
+    private final ByteBuffer carry = ByteBuffer.allocate(16);
+    private CharBuffer out = CharBuffer.allocate(1024);
+
+    /**
+     * Creates a new StreamDecoder.
+     *
+     * @param encoding The encoding of the incoming bytes
+     */
+    public StreamDecoder(TextEncoding encoding) {
+        this.encoding = encoding;
+        this.decoder = encoding == TextEncoding.RAW ? null : encoding.getCharset().newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * Gets the encoding this decoder was created for.
+     *
+     * @return The encoding
+     */
+    public TextEncoding getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * Decodes the next chunk of the stream.
+     *
+     * @param data Bytes as read from the port
+     * @return The text completed by this chunk (may be empty if the chunk only
+     *         contained the start of a multi-byte character)
+     */
+    public String decode(byte[] data) {
+        if (decoder == null) {
+            return escapeRaw(data);
+        }
+        ByteBuffer in;
+        if (carry.position() > 0) {
+            carry.flip();
+            in = ByteBuffer.allocate(carry.remaining() + data.length);
+            in.put(carry).put(data).flip();
+            carry.clear();
+        } else {
+            in = ByteBuffer.wrap(data);
+        }
+        int needed = (int) Math.ceil(in.remaining() * (double) decoder.maxCharsPerByte()) + 1;
+        if (out.capacity() < needed) {
+            out = CharBuffer.allocate(needed);
+        }
+        out.clear();
+        decoder.decode(in, out, false);
+        if (in.hasRemaining()) {
+            if (in.remaining() <= carry.capacity()) {
+                carry.put(in);
+            } else {
+                // Cannot be a partial character; let the decoder replace it
+                decoder.decode(in, out, true);
+                decoder.reset();
+            }
+        }
+        out.flip();
+        return out.toString();
+    }
+
+    /**
+     * Ends the stream, emitting a replacement character for any incomplete
+     * trailing sequence, and resets the decoder for reuse.
+     *
+     * @return Remaining text, usually empty
+     */
+    public String flush() {
+        if (decoder == null || carry.position() == 0) {
+            reset();
+            return "";
+        }
+        carry.flip();
+        out.clear();
+        decoder.decode(carry, out, true);
+        decoder.flush(out);
+        out.flip();
+        String result = out.toString();
+        reset();
+        return result;
+    }
+
+    /**
+     * Discards any carried partial sequence.
+     */
+    public void reset() {
+        carry.clear();
+        if (decoder != null) {
+            decoder.reset();
+        }
+    }
+
+    private static String escapeRaw(byte[] data) {
+        StringBuilder text = new StringBuilder(data.length);
+        for (byte value : data) {
+            int b = value & 0xFF;
+            if ((b >= 0x20 && b < 0x7F) || b == '\r' || b == '\n' || b == '\t') {
+                text.append((char) b);
+            } else {
+                text.append("\\x").append(HEX_DIGITS[b >>> 4]).append(HEX_DIGITS[b & 0xF]);
+            }
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,90 @@
+package com.gpoole.serialgui;
+
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Extracts named numeric fields from received lines for plotting.
+ *
+ * The pattern must contain two capturing groups: the field name and its value.
+ * The default pattern accepts "name=value" or "name: value" pairs separated by
+ * anything, so "temp=23.4,v=3.31" yields the series "temp" and "v".
+ *
+ * Not thread-safe; feed it from a single thread (normally the receive thread).
+ */
+public class TelemetryExtractor {
+    /** Default pattern: name=value or name:value */
+    public static final String DEFAULT_PATTERN =
+        "([A-Za-z_][\\w.]*)\\s*[=:]\\s*([-+]?(?:\\d+\\.?\\d*|\\.\\d+)(?:[eE][-+]?\\d+)?)";
+
+    private final Function<String, SampleRingBuffer> seriesProvider;
+    private final LineAssembler lineAssembler;
+    private volatile Matcher matcher;
+    private long currentTime;
+
+    /**
+     * Creates a new TelemetryExtractor using the default pattern.
+     *
+     * @param seriesProvider Returns (creating if needed) the buffer for a field name
+     */
+    public TelemetryExtractor(Function<String, SampleRingBuffer> seriesProvider) {
+        this.seriesProvider = seriesProvider;
+        this.lineAssembler = new LineAssembler(this::extract);
+        this.matcher = Pattern.compile(DEFAULT_PATTERN).matcher("");
+    }
+
+    /**
+     * Changes the field pattern.
+     *
+     * @param regex Regular expression with a name group and a value group
+     * @throws IllegalArgumentException If the pattern is invalid or has fewer than two groups
+     */
+    public void setPattern(String regex) {
+        Pattern pattern;
+        try {
+            pattern = Pattern.compile(regex);
+        } catch (PatternSyntaxException ex) {
+            throw new IllegalArgumentException("Invalid pattern: " + ex.getDescription(), ex);
+        }
+        Matcher newMatcher = pattern.matcher("");
+        if (newMatcher.groupCount() < 2) {
+            throw new IllegalArgumentException("Pattern needs a name group and a value group");
+        }
+        matcher = newMatcher;
+    }
+
+    /**
+     * Gets the current field pattern.
+     *
+     * @return The regular expression
+     */
+    public String getPattern() {
+        return matcher.pattern().pattern();
+    }
+
+    /**
+     * Feeds received text. Samples from complete lines are timestamped with the
+     * given arrival time.
+     *
+     * @param chunk The received text
+     * @param arrivalNanos Arrival time from System.nanoTime()
+     */
+    public void accept(String chunk, long arrivalNanos) {
+        currentTime = arrivalNanos;
+        lineAssembler.accept(chunk);
+    }
+
+    private void extract(String line) {
+        Matcher m = matcher.reset(line);
+        while (m.find()) {
+            try {
+                double value = Double.parseDouble(m.group(2));
+                seriesProvider.apply(m.group(1)).append(currentTime, value);
+            } catch (NumberFormatException ex) {
+                // Custom patterns may capture text that is not a number; skip it
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.gpoole.serialgui;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Character encodings selectable per port for turning wire bytes into text.
+ *
+ * RAW does not decode at all: printable ASCII, tab, CR and LF are shown as
+ * themselves and every other byte as a \xNN escape, so binary data stays
+ * readable in the text log. Outgoing text is sent as ISO-8859-1 in RAW mode.
+ */
+public enum TextEncoding {
+    /** UTF-8, multi-byte sequences may span several reads */
+    UTF_8("UTF-8", StandardCharsets.UTF_8),
+    /** ISO-8859-1 (Latin-1), one byte per character */
+    ISO_8859_1("ISO-8859-1", StandardCharsets.ISO_8859_1),
+    /** No decoding, non-printable bytes escaped */
+    RAW("Raw", StandardCharsets.ISO_8859_1);
+
+    private final String displayName;
+    private final Charset charset;
+
+    TextEncoding(String displayName, Charset charset) {
+        this.displayName = displayName;
+        this.charset = charset;
+    }
+
+    /**
+     * Gets the name shown in the settings dialog.
+     *
+     * @return Display name
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Gets the charset used to encode outgoing text.
+     *
+     * @return The charset
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Encodes outgoing text to wire bytes.
+     *
+     * @param text The text to send
+     * @return The bytes to write
+     */
+    public byte[] encode(String text) {
+        return text.getBytes(charset);
+    }
+
+    /**
+     * Parses a stored encoding name, falling back to UTF-8.
+     *
+     * @param name Enum constant name
+     * @return The matching encoding, or UTF_8 if unknown
+     */
+    public static TextEncoding fromName(String name) {
+        try {
+            return name != null ? valueOf(name) : UTF_8;
+        } catch (IllegalArgumentException ex) {
+            return UTF_8;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.gpoole.serialgui;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ByteCaptureTest {
+
+    @Test
+    void readsAcrossTheWriteBufferFlush() throws Exception {
+        // 3000 chunks of 50 bytes: several 64 KiB data flushes and more index entries than its buffer holds
+        byte[] expected = new byte[3000 * 50];
+        try (var capture = new ByteCapture("capture-test-")) {
+            for (int i = 0; i < 3000; i++) {
+                byte[] chunk = new byte[50];
+                Arrays.fill(chunk, (byte) i);
+                System.arraycopy(chunk, 0, expected, i * 50, 50);
+                capture.append(chunk, i);
+            }
+            assertEquals(expected.length, capture.size());
+            assertEquals(3000, capture.getChunkCount());
+
+            // Straddles the first flush; the tail straddles the unflushed write buffer
+            byte[] dst = new byte[200];
+            assertEquals(200, capture.read(64 * 1024 - 100, dst, 0, 200));
+            assertArrayEquals(Arrays.copyOfRange(expected, 64 * 1024 - 100, 64 * 1024 + 100), dst);
+            byte[] all = new byte[expected.length + 10];
+            assertEquals(expected.length, capture.read(0, all, 10, expected.length + 10));
+            assertArrayEquals(expected, Arrays.copyOfRange(all, 10, all.length));
+            assertEquals(0, capture.read(expected.length, dst, 0, 10));
+
+            long[] offsets = new long[2000];
+            long[] arrivals = new long[2000];
+            assertEquals(2000, capture.readIndex(1000, offsets, arrivals, 2000));
+            for (int i = 0; i < 2000; i++) {
+                assertEquals((1000L + i) * 50, offsets[i]);
+                assertEquals(1000L + i, arrivals[i]);
+            }
+            assertEquals(0, capture.readIndex(3000, offsets, arrivals, 10));
+            assertEquals(0, capture.getDroppedBytes());
+        }
+    }
+
+    @Test
+    void countsBytesBeyondTheLimitAsDropped() throws Exception {
+        try (var capture = new ByteCapture("capture-test-", 100)) {
+            capture.append(new byte[60], 1);
+            byte[] second = new byte[60];
+            Arrays.fill(second, (byte) 7);
+            capture.append(second, 2);
+            capture.append(new byte[10], 3);
+
+            assertEquals(100, capture.size());
+            assertEquals(30, capture.getDroppedBytes());
+            assertEquals(2, capture.getChunkCount(), "a chunk with nothing retained is not indexed");
+            byte[] dst = new byte[200];
+            assertEquals(100, capture.read(0, dst, 0, 200));
+            assertEquals(7, dst[99]);
+        }
+    }
+
+    @Test
+    void startsOverAfterClear() throws Exception {
+        try (var capture = new ByteCapture("capture-test-", 100_000)) {
+            capture.append(new byte[90_000], 1);
+            capture.append(new byte[20_000], 2);
+            assertEquals(10_000, capture.getDroppedBytes());
+
+            capture.clear();
+            assertEquals(0, capture.size());
+            assertEquals(0, capture.getChunkCount());
+            assertEquals(0, capture.getDroppedBytes());
+            byte[] dst = new byte[10];
+            assertEquals(0, capture.read(0, dst, 0, 10));
+
+            capture.append(new byte[]{'a', 'b', 'c'}, 42);
+            assertEquals(3, capture.read(0, dst, 0, 10));
+            assertEquals('c', dst[2]);
+            long[] offsets = new long[4];
+            long[] arrivals = new long[4];
+            assertEquals(1, capture.readIndex(0, offsets, arrivals, 4));
+            assertEquals(0, offsets[0]);
+            assertEquals(42, arrivals[0]);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.gpoole.serialgui;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandHistoryTest {
+
+    @Test
+    void dropsOldestWhenFullAndSkipsConsecutiveDuplicates() {
+        CommandHistory history = new CommandHistory(3, null);
+        history.add("AT");
+        history.add("AT");
+        history.add("ATI");
+        history.add("AT+CSQ");
+        history.add("AT+COPS?");
+
+        assertEquals(3, history.size());
+        assertEquals("ATI", history.get(0));
+        assertEquals("AT+COPS?", history.getPrevious());
+        assertEquals("AT+CSQ", history.getPrevious());
+        assertEquals("ATI", history.getPrevious());
+        assertEquals("ATI", history.getPrevious());
+        assertEquals("AT+CSQ", history.getNext());
+    }
+
+    @Test
+    void reverseSearchStepsToOlderMatchesAndForgetsEvictedEntries() {
+        CommandHistory history = new CommandHistory(4, null);
+        history.add("AT+CGMR");
+        history.add("read temp");
+        history.add("at+cgmi");
+        history.add("AT+CSQ");
+        history.add("AT+CGSN");
+
+        int newest = history.findPrevious("t+cg", history.size());
+        assertEquals("AT+CGSN", history.get(newest));
+        int older = history.findPrevious("t+cg", newest);
+        assertEquals("at+cgmi", history.get(older));
+        // AT+CGMR was evicted, so there is nothing older
+        assertEquals(-1, history.findPrevious("t+cg", older));
+        assertEquals(-1, history.findPrevious("CGMR", history.size()));
+        assertEquals("read temp", history.get(history.findPrevious("p", history.size())));
+    }
+
+    @Test
+    void indexedSearchStaysFastWithManyEntries() {
+        CommandHistory history = new CommandHistory(100_000, null);
+        for (int i = 0; i < 150_000; i++) {
+            history.add("AT+REG=" + i + ",1");
+        }
+        history.add("unique marker command");
+        for (int i = 0; i < 1_000; i++) {
+            history.add("AT+POLL=" + i);
+        }
+
+        long start = System.nanoTime();
+        int match = -1;
+        for (int i = 0; i < 1_000; i++) {
+            match = history.findPrevious("marker", history.size());
+        }
+        long perLookupMicros = (System.nanoTime() - start) / 1_000 / 1_000;
+
+        assertEquals("unique marker command", history.get(match));
+        assertEquals(-1, history.findPrevious("AT+REG=49999,", history.size()));
+        assertTrue(perLookupMicros < 1_000, "lookup took " + perLookupMicros + " us");
+    }
+
+    @Test
+    void persistsAcrossInstancesAndCompactsOnLoad(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("history.txt");
+        CommandHistory first = new CommandHistory(2, file);
+        first.add("line\\with\nbreak");
+        first.add("ATZ");
+        first.add("ATI");
+        first.add("AT&V");
+        first.add("AT+GMR");
+        first.close();
+        assertEquals(5, Files.readAllLines(file).size());
+
+        CommandHistory second = new CommandHistory(2, file);
+        assertEquals(2, second.size());
+        assertEquals("AT&V", second.get(0));
+        assertEquals("AT+GMR", second.get(1));
+        assertEquals(2, Files.readAllLines(file).size());
+
+        second.add("multi\nline");
+        second.close();
+        CommandHistory third = new CommandHistory(5, file);
+        assertEquals("multi\nline", third.get(third.size() - 1));
+        third.close();
+    }
+}
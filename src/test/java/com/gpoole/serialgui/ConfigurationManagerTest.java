@@ -0,0 +1,67 @@
+package com.gpoole.serialgui;
+
+import jssc.SerialPort;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigurationManagerTest {
+    private static final String MODEM = "/dev/serial/by-id/usb-FTDI_FT232R_USB_UART_A50285BI-if00-port0";
+
+    @Test
+    void deviceFingerprintsSurviveSaveAndLoad() throws Exception {
+        var properties = new Properties();
+        var config = new ConfigurationManager(properties);
+        config.putDeviceFingerprint(MODEM, 57600, SerialPort.DATABITS_7, SerialPort.STOPBITS_2,
+            SerialPort.PARITY_EVEN, "\r\nAcme Modem 3000, rev B\r\n\r\nOK\r\n");
+        config.putDeviceFingerprint("COM3", 9600, SerialPort.DATABITS_8, SerialPort.STOPBITS_1,
+            SerialPort.PARITY_NONE, "");
+        // A connect without negotiation keeps the recorded reply
+        config.putDeviceFingerprint(MODEM, 115200, SerialPort.DATABITS_7, SerialPort.STOPBITS_2,
+            SerialPort.PARITY_EVEN, null);
+
+        var file = new StringWriter();
+        properties.store(file, null);
+        var reloaded = new Properties();
+        reloaded.load(new StringReader(file.toString()));
+        var restored = new ConfigurationManager(reloaded);
+
+        ConfigurationManager.DeviceFingerprint modem = restored.getDeviceFingerprint(MODEM);
+        assertNotNull(modem);
+        assertEquals(115200, modem.baudRate());
+        assertEquals(SerialPort.DATABITS_7, modem.dataBits());
+        assertEquals(SerialPort.STOPBITS_2, modem.stopBits());
+        assertEquals(SerialPort.PARITY_EVEN, modem.parity());
+        assertEquals("Acme Modem 3000, rev B OK", modem.probeResponse());
+        assertEquals(9600, restored.getDeviceFingerprint("COM3").baudRate());
+        assertNull(restored.getDeviceFingerprint("COM4"));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedDevice() {
+        var properties = new Properties();
+        properties.setProperty(ConfigurationManager.KEY_DEVICE_CACHE_SIZE, "3");
+        properties.setProperty(ConfigurationManager.KEY_DEVICE_PREFIX + "broken", "not,a,fingerprint");
+        var config = new ConfigurationManager(properties);
+        assertEquals(0, config.getDeviceFingerprintCount());
+        assertNull(properties.getProperty(ConfigurationManager.KEY_DEVICE_PREFIX + "broken"));
+
+        for (String port : new String[]{"COM1", "COM2", "COM3"}) {
+            config.putDeviceFingerprint(port, 9600, 8, 1, 0, "OK");
+        }
+        // Using COM1 makes COM2 the least recently used
+        assertNotNull(config.getDeviceFingerprint("COM1"));
+        config.putDeviceFingerprint("COM4", 19200, 8, 1, 0, "OK");
+
+        assertEquals(3, config.getDeviceFingerprintCount());
+        assertNull(config.getDeviceFingerprint("COM2"));
+        assertNull(properties.getProperty(ConfigurationManager.KEY_DEVICE_PREFIX + "COM2"));
+        assertNotNull(config.getDeviceFingerprint("COM1"));
+        assertNotNull(config.getDeviceFingerprint("COM3"));
+        assertEquals(19200, config.getDeviceFingerprint("COM4").baudRate());
+    }
+}
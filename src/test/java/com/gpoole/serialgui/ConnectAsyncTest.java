@@ -0,0 +1,102 @@
+package com.gpoole.serialgui;
+
+import jssc.SerialPort;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectAsyncTest {
+    private final List<SimulatedSerialPort> openedPorts = new CopyOnWriteArrayList<>();
+    private final List<String> progress = new CopyOnWriteArrayList<>();
+    private SerialCommunicationManager manager;
+
+    @AfterEach
+    void tearDown() {
+        if (manager != null) {
+            manager.disconnect();
+        }
+    }
+
+    private SerialCommunicationManager createManager(boolean modem) {
+        manager = new SerialCommunicationManager(name -> {
+            SimulatedSerialPort port = new SimulatedSerialPort(name);
+            // A modem answers AT with a result code, but only at 9600
+            port.setEcho(modem);
+            port.setWriteFilter(data -> port.getBaudRate() == 9600
+                ? "\r\nOK\r\n".getBytes(StandardCharsets.US_ASCII)
+                : new byte[]{(byte) 0xF0, 0x0F, (byte) 0x80});
+            openedPorts.add(port);
+            return port;
+        }, SerialPort.DATABITS_8, SerialPort.STOPBITS_1, SerialPort.PARITY_NONE);
+        return manager.onConnectProgress(progress::add);
+    }
+
+    @Test
+    void negotiatesOnWorkerAndConnectsAtNegotiatedRate() throws Exception {
+        var connected = new CompletableFuture<String>();
+        createManager(true).onConnected(connected::complete);
+
+        CompletableFuture<Integer> result = manager.connectAsync("COM3", 4800, SerialPort.DATABITS_8,
+            SerialPort.STOPBITS_1, SerialPort.PARITY_NONE, true);
+
+        assertEquals(9600, result.get(5, TimeUnit.SECONDS));
+        assertEquals("COM3", connected.get(1, TimeUnit.SECONDS));
+        assertTrue(manager.isConnected());
+        assertEquals(2, openedPorts.size(), "probe port and session port");
+        assertFalse(openedPorts.get(0).isOpened(), "probe port is closed after negotiation");
+        assertEquals(9600, openedPorts.get(1).getBaudRate());
+        assertTrue(progress.contains("Auto-negotiated baud rate: 9600"), progress.toString());
+    }
+
+    @Test
+    void cancelInterruptsNegotiation() throws Exception {
+        // No device answers, so negotiation would try every rate for several seconds
+        createManager(false);
+        CompletableFuture<Integer> result = manager.connectAsync("COM3", 9600, SerialPort.DATABITS_8,
+            SerialPort.STOPBITS_1, SerialPort.PARITY_NONE, true);
+        Thread.sleep(100);
+
+        long start = System.nanoTime();
+        assertTrue(result.cancel(true));
+        long deadline = System.currentTimeMillis() + 1000;
+        while (openedPorts.get(0).isOpened() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertFalse(openedPorts.get(0).isOpened(), "probe port closed after cancel");
+        assertTrue(elapsedMillis < 400, "cancel took " + elapsedMillis + " ms");
+        Thread.sleep(50);
+        assertFalse(manager.isConnected());
+        assertEquals(1, openedPorts.size(), "session port never opened");
+    }
+
+    @Test
+    void failureCompletesExceptionallyWithoutErrorCallback() {
+        List<String> errors = new CopyOnWriteArrayList<>();
+        manager = new SerialCommunicationManager(name -> new SimulatedSerialPort(name) {
+            @Override
+            public boolean openPort() {
+                return false;
+            }
+        }, SerialPort.DATABITS_8, SerialPort.STOPBITS_1, SerialPort.PARITY_NONE).onError(errors::add);
+
+        CompletableFuture<Integer> result = manager.connectAsync("COM9", 9600, SerialPort.DATABITS_8,
+            SerialPort.STOPBITS_1, SerialPort.PARITY_NONE, false);
+
+        var ex = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, ex.getCause());
+        assertEquals("Failed to open port: COM9", ex.getCause().getMessage());
+        assertTrue(errors.isEmpty());
+        assertFalse(manager.isConnected());
+    }
+}
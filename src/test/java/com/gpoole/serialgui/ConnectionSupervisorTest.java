@@ -0,0 +1,195 @@
+package com.gpoole.serialgui;
+
+import jssc.SerialPort;
+import jssc.SerialPortException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionSupervisorTest {
+    private AtomicReference<String[]> ports;
+    private List<SimulatedSerialPort> openedPorts;
+    /** Ports opened after this many ports fail their first write */
+    private final AtomicInteger failFirstWriteFrom = new AtomicInteger(Integer.MAX_VALUE);
+    /** Released to let a blocked openPort() finish; null means opening does not block */
+    private volatile CountDownLatch openGate;
+    private SerialCommunicationManager manager;
+    private ConnectionSupervisor supervisor;
+
+    @BeforeEach
+    void setUp() {
+        ports = new AtomicReference<>(new String[]{"COM7"});
+        openedPorts = new CopyOnWriteArrayList<>();
+        manager = new SerialCommunicationManager(name -> {
+            boolean failFirstWrite = openedPorts.size() == failFirstWriteFrom.get();
+            SimulatedSerialPort port = new SimulatedSerialPort(name) {
+                private boolean failed = !failFirstWrite;
+
+                @Override
+                public boolean openPort() throws SerialPortException {
+                    CountDownLatch gate = openGate;
+                    if (gate != null) {
+                        try {
+                            gate.await();
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    return super.openPort();
+                }
+
+                @Override
+                public boolean writeBytes(byte[] buffer) throws SerialPortException {
+                    if (!failed) {
+                        failed = true;
+                        throw new SerialPortException(getPortName(), "writeBytes", "Write timed out");
+                    }
+                    return super.writeBytes(buffer);
+                }
+            };
+            openedPorts.add(port);
+            return port;
+        }, SerialPort.DATABITS_8, SerialPort.STOPBITS_1, SerialPort.PARITY_NONE);
+        supervisor = new ConnectionSupervisor(manager, ports::get);
+        supervisor.setBackoff(1, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        supervisor.shutdown();
+        manager.disconnect();
+    }
+
+    @Test
+    void reconnectsAfterPortDisappearsAndReturns() throws Exception {
+        assertTrue(manager.connect("COM7", 115200));
+        supervisor.start("COM7", 115200, SerialPort.DATABITS_8, SerialPort.STOPBITS_1, SerialPort.PARITY_NONE);
+
+        ports.set(new String[0]);
+        supervisor.check();
+        assertTrue(supervisor.isInOutage());
+        assertFalse(manager.isConnected());
+
+        Thread.sleep(5);
+        supervisor.check();
+        assertTrue(supervisor.isInOutage(), "port is still missing");
+
+        ports.set(new String[]{"COM7"});
+        Thread.sleep(5);
+        supervisor.check();
+
+        assertFalse(supervisor.isInOutage());
+        assertTrue(manager.isConnected());
+        assertEquals(1, supervisor.getReconnectCount());
+        List<ConnectionSupervisor.Outage> outages = supervisor.getOutages();
+        assertEquals(1, outages.size());
+        assertEquals("port removed", outages.get(0).reason());
+        assertNotNull(outages.get(0).end());
+        assertEquals(115200, openedPorts.get(openedPorts.size() - 1).getBaudRate());
+    }
+
+    @Test
+    void buffersMessagesDuringOutageAndFlushesOnReconnect() throws Exception {
+        assertTrue(manager.connect("COM7", 9600));
+        supervisor.start("COM7", 9600, SerialPort.DATABITS_8, SerialPort.STOPBITS_1, SerialPort.PARITY_NONE);
+        supervisor.setTxBufferCapacity(2);
+
+        openedPorts.get(0).failIo();
+        assertThrows(Exception.class, () -> manager.sendMessage("lost"));
+        supervisor.check();
+        assertTrue(supervisor.isInOutage());
+
+        assertFalse(supervisor.send("one"));
+        assertFalse(supervisor.send("two"));
+        assertFalse(supervisor.send("three"));
+        assertEquals(2, supervisor.getPendingTxCount());
+        assertEquals(1, supervisor.getDroppedTxCount());
+
+        Thread.sleep(5);
+        supervisor.check();
+
+        assertFalse(supervisor.isInOutage());
+        assertEquals(0, supervisor.getPendingTxCount());
+        assertEquals("twothree", openedPorts.get(openedPorts.size() - 1).getWrittenString());
+    }
+
+    @Test
+    void stalledReceiveTriggersReconnect() throws Exception {
+        assertTrue(manager.connect("COM7", 9600));
+        supervisor.setStallTimeoutMs(1);
+        supervisor.start("COM7", 9600, SerialPort.DATABITS_8, SerialPort.STOPBITS_1, SerialPort.PARITY_NONE);
+
+        Thread.sleep(10);
+        supervisor.check();
+
+        assertTrue(supervisor.isInOutage());
+        assertTrue(supervisor.getCurrentOutage().reason().startsWith("no data received"));
+    }
+
+    @Test
+    void sendAndStopDoNotWaitForReconnect() throws Exception {
+        assertTrue(manager.connect("COM7", 9600));
+        supervisor.start("COM7", 9600, SerialPort.DATABITS_8, SerialPort.STOPBITS_1, SerialPort.PARITY_NONE);
+        ports.set(new String[0]);
+        supervisor.check();
+        assertTrue(supervisor.isInOutage());
+
+        // The next reconnect blocks in openPort(), as a hung driver would
+        openGate = new CountDownLatch(1);
+        ports.set(new String[]{"COM7"});
+        Thread.sleep(5);
+        var checker = new Thread(supervisor::check);
+        checker.start();
+        long deadline = System.currentTimeMillis() + 2000;
+        while (openedPorts.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+
+        long start = System.nanoTime();
+        assertFalse(supervisor.send("queued"));
+        supervisor.stop();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(elapsedMillis < 100, "send and stop took " + elapsedMillis + " ms");
+
+        openGate.countDown();
+        checker.join(2000);
+        assertFalse(manager.isConnected(), "a port opened after stop() is closed again");
+        assertEquals(0, supervisor.getReconnectCount());
+    }
+
+    @Test
+    void failedFlushKeepsOrderAndIsRetried() throws Exception {
+        assertTrue(manager.connect("COM7", 9600));
+        supervisor.start("COM7", 9600, SerialPort.DATABITS_8, SerialPort.STOPBITS_1, SerialPort.PARITY_NONE);
+        ports.set(new String[0]);
+        supervisor.check();
+        assertFalse(supervisor.send("one"));
+        assertFalse(supervisor.send("two"));
+
+        // The first write on the reopened port fails
+        failFirstWriteFrom.set(openedPorts.size());
+        ports.set(new String[]{"COM7"});
+        Thread.sleep(5);
+        supervisor.check();
+        assertFalse(supervisor.isInOutage());
+        assertEquals(2, supervisor.getPendingTxCount());
+
+        assertFalse(supervisor.send("three"), "must not overtake older buffered messages");
+        supervisor.check();
+        assertTrue(supervisor.isInOutage(), "the failed write starts a new outage");
+        Thread.sleep(5);
+        supervisor.check();
+
+        assertFalse(supervisor.isInOutage());
+        assertEquals(0, supervisor.getPendingTxCount());
+        assertEquals("onetwothree", openedPorts.get(openedPorts.size() - 1).getWrittenString());
+    }
+}
@@ -0,0 +1,68 @@
+package com.gpoole.serialgui;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import jssc.SerialPort;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataPathEventsTest {
+
+    @Test
+    void settingsProfileEnablesAllEvents() throws Exception {
+        try (Reader reader = new InputStreamReader(
+                getClass().getResourceAsStream("/serialtalker.jfc"), StandardCharsets.UTF_8)) {
+            Configuration configuration = Configuration.create(reader);
+            Map<String, String> settings = configuration.getSettings();
+            for (String name : List.of("SerialRead", "SerialDeliver", "SerialWrite", "Format",
+                    "DisplayAppend", "Export", "Search")) {
+                assertEquals("true", settings.get("com.gpoole.serialgui." + name + "#enabled"), name);
+            }
+        }
+    }
+
+    @Test
+    void dataPathEmitsEventsWhileRecording() throws Exception {
+        SimulatedSerialPort[] port = new SimulatedSerialPort[1];
+        SerialCommunicationManager manager = new SerialCommunicationManager(name -> {
+            port[0] = new SimulatedSerialPort(name);
+            return port[0];
+        }, SerialPort.DATABITS_8, SerialPort.STOPBITS_1, SerialPort.PARITY_NONE);
+        MessageFormatter formatter = new MessageFormatter(MessageFormatter.DisplayMode.HEX);
+        manager.addReceiveListener(chunk -> formatter.format(chunk.data(), chunk.text(), true));
+        Path file = Files.createTempFile("datapath", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : List.of("SerialRead", "SerialDeliver", "SerialWrite", "Format")) {
+                recording.enable("com.gpoole.serialgui." + name).withoutThreshold();
+            }
+            recording.start();
+            assertTrue(manager.connect("COM9", 115200));
+            port[0].inject("ping\n");
+            manager.sendMessage("pong\n");
+            manager.disconnect();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        Map<String, List<RecordedEvent>> events = RecordingFile.readAllEvents(file).stream()
+            .collect(Collectors.groupingBy(e -> e.getEventType().getName()));
+        Files.deleteIfExists(file);
+        assertEquals(5, events.get("com.gpoole.serialgui.SerialRead").get(0).getInt("bytes"));
+        assertEquals("EVENT", events.get("com.gpoole.serialgui.SerialRead").get(0).getString("mode"));
+        assertEquals(5, events.get("com.gpoole.serialgui.SerialWrite").get(0).getInt("bytes"));
+        assertEquals(1, events.get("com.gpoole.serialgui.SerialDeliver").get(0).getInt("listeners"));
+        assertEquals("HEX", events.get("com.gpoole.serialgui.Format").get(0).getString("mode"));
+    }
+}
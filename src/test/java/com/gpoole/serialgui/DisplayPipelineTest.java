@@ -0,0 +1,134 @@
+package com.gpoole.serialgui;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DisplayPipelineTest {
+    private List<String> shown;
+    private DisplayPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        shown = new ArrayList<>();
+        pipeline = new DisplayPipeline(shown::add);
+        pipeline.stop(); // drain manually for determinism
+        pipeline.setWatermarks(10, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.stop();
+    }
+
+    @Test
+    void samplesWhileOverloadedAndRecoversAfterDraining() {
+        pipeline.setPolicy(DisplayPipeline.OverloadPolicy.SAMPLE, 5);
+        for (int i = 0; i < 60; i++) {
+            pipeline.offer("line " + i + "\n");
+        }
+
+        assertTrue(pipeline.isDegraded());
+        // 10 lines before the threshold, the notice, then 1 of every 5 of the remaining 50
+        assertEquals(10 + 1 + 10, pipeline.getQueueDepth());
+        assertEquals(40, pipeline.getDroppedLines());
+
+        pipeline.drain();
+        pipeline.offer("after\n");
+
+        assertFalse(pipeline.isDegraded());
+        pipeline.drain();
+        String all = String.join("", shown);
+        assertTrue(all.contains("display overloaded"));
+        assertTrue(all.contains("display caught up"));
+        assertTrue(all.endsWith("after\n"));
+    }
+
+    @Test
+    void statusLinesAreNeverDroppedAndKeepArrivalOrder() {
+        pipeline.setPolicy(DisplayPipeline.OverloadPolicy.SUMMARIZE, 2);
+        for (int i = 0; i < 15; i++) {
+            pipeline.offer("rx " + i + "\n");
+        }
+        pipeline.offerStatus("TX: hello\n");
+        pipeline.setPolicy(DisplayPipeline.OverloadPolicy.PAUSE, 2);
+        pipeline.offer("rx dropped\n");
+        pipeline.offerStatus("Disconnected\n");
+
+        pipeline.drain();
+
+        String all = String.join("", shown);
+        assertTrue(all.indexOf("rx 9\n") < all.indexOf("[5 lines"), all);
+        assertTrue(all.indexOf("[5 lines") < all.indexOf("TX: hello"), all);
+        assertTrue(all.endsWith("TX: hello\nDisconnected\n"), all);
+        assertFalse(all.contains("rx dropped"));
+    }
+
+    @Test
+    void summarizeReplacesLinesWithCounts() {
+        pipeline.setPolicy(DisplayPipeline.OverloadPolicy.SUMMARIZE, 2);
+        for (int i = 0; i < 25; i++) {
+            pipeline.offer("x\n");
+        }
+
+        assertEquals(15, pipeline.getSummarizedLines());
+        pipeline.drain();
+
+        assertEquals(1, shown.size());
+        assertTrue(shown.get(0).contains("[15 lines (30 chars) not shown]"));
+    }
+
+    @Test
+    void collapsesRepeatsIntoLiveCounterThatIsFinalisedInOrder() {
+        var screen = new StringBuilder();
+        var collapsing = new DisplayPipeline(screen::append, (oldText, newText) -> {
+            if (screen.length() < oldText.length() || !screen.substring(screen.length() - oldText.length()).equals(oldText)) {
+                return false;
+            }
+            screen.replace(screen.length() - oldText.length(), screen.length(), newText);
+            return true;
+        });
+        collapsing.stop();
+        collapsing.setCollapseRepeats(true);
+        try {
+            for (int i = 0; i < 1000; i++) {
+                // Timestamps differ, messages do not
+                collapsing.offer(String.format("[%03d] RX: ERR 42\n", i % 1000), 10, 1_000_000 + i);
+            }
+            collapsing.drain();
+            assertEquals(999, collapsing.getCollapsedLines());
+            assertEquals(2, countLines(screen), screen.toString());
+            assertTrue(screen.toString().startsWith("[000] RX: ERR 42\n    \u00d71,000 ("), screen.toString());
+
+            for (int i = 0; i < 500; i++) {
+                collapsing.offer("[999] RX: ERR 42\n", 10, 2_000_000);
+            }
+            collapsing.drain();
+            assertEquals(2, countLines(screen), screen.toString());
+            assertTrue(screen.toString().contains("\u00d71,500 ("), screen.toString());
+
+            collapsing.offer("[999] RX: ERR 42\n", 10, 2_000_000);
+            collapsing.offer("[999] RX: OK\n", 10, 2_000_001);
+            collapsing.offer("[999] RX: OK\n", 10, 2_000_002);
+            collapsing.offer("[999] RX: ERR 42\n", 10, 2_000_003);
+            collapsing.drain();
+            String[] lines = screen.toString().split("\n");
+            assertEquals(5, lines.length, screen.toString());
+            assertTrue(lines[1].contains("\u00d71,501 ("), lines[1]);
+            assertEquals("[999] RX: OK", lines[2]);
+            assertTrue(lines[3].contains("\u00d72 ("), lines[3]);
+            assertEquals("[999] RX: ERR 42", lines[4]);
+        } finally {
+            collapsing.stop();
+        }
+    }
+
+    private static int countLines(CharSequence text) {
+        return (int) text.chars().filter(c -> c == '\n').count();
+    }
+}
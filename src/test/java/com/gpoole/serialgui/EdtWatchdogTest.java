@@ -0,0 +1,66 @@
+package com.gpoole.serialgui;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.SwingUtilities;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EdtWatchdogTest {
+    private final EdtWatchdog watchdog = new EdtWatchdog();
+
+    @AfterEach
+    void tearDown() {
+        watchdog.stop();
+    }
+
+    @Test
+    void reportsStallWithEdtStackAndQueueDepth() throws Exception {
+        var stall = new CompletableFuture<EdtWatchdog.Stall>();
+        watchdog.withQueueDepth("display", () -> 1234).onStall(stall::complete);
+        watchdog.setIntervalMs(10);
+        watchdog.setStallThresholdMs(150);
+        watchdog.start();
+        // Let a few heartbeats through so the watchdog knows the EDT
+        SwingUtilities.invokeAndWait(() -> { });
+        Thread.sleep(50);
+
+        SwingUtilities.invokeLater(EdtWatchdogTest::blockEdt);
+        EdtWatchdog.Stall reported = stall.get(5, TimeUnit.SECONDS);
+        SwingUtilities.invokeAndWait(() -> { });
+
+        assertTrue(reported.lateNanos() >= TimeUnit.MILLISECONDS.toNanos(150));
+        assertEquals("display=1234", reported.queues());
+        assertTrue(Arrays.stream(reported.stack()).anyMatch(frame -> frame.getMethodName().equals("blockEdt")),
+            Arrays.toString(reported.stack()));
+        Thread.sleep(50);
+        assertEquals(1, watchdog.getStallCount());
+        assertTrue(watchdog.getLongestStallNanos() >= TimeUnit.MILLISECONDS.toNanos(400),
+            "longest stall " + watchdog.getLongestStallNanos());
+        assertTrue(watchdog.getDispatchTime().getMax() >= TimeUnit.MILLISECONDS.toNanos(500));
+    }
+
+    @Test
+    void recordsOperationsInReport() {
+        watchdog.record("exportAsJSON", 2_000_000);
+        watchdog.record("exportAsJSON", 4_000_000);
+
+        assertEquals(2, watchdog.getOperation("exportAsJSON").getTotalCount());
+        assertNull(watchdog.getOperation("highlightAllMatches"));
+        String report = watchdog.getReport();
+        assertTrue(report.contains("exportAsJSON"), report);
+        assertTrue(report.contains("Stalls (> 1000 ms): 0"), report);
+    }
+
+    private static void blockEdt() {
+        try {
+            Thread.sleep(500);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
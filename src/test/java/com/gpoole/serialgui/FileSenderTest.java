@@ -0,0 +1,86 @@
+package com.gpoole.serialgui;
+
+import jssc.SerialPort;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSenderTest {
+
+    @Test
+    void streamsWholeFileInChunks(@TempDir Path dir) throws Exception {
+        byte[] content = new byte[100_003];
+        new Random(3).nextBytes(content);
+        Path file = Files.write(dir.resolve("blob.bin"), content);
+        SimulatedSerialPort[] port = new SimulatedSerialPort[1];
+        SerialCommunicationManager manager = connect(port, false);
+
+        FileSender sender = new FileSender(manager, file, FileSender.Pacing.FLOW_CONTROL).withChunkSize(1024);
+        sender.start();
+        awaitFinished(sender);
+
+        assertTrue(sender.isCompleted(), sender.getSummary());
+        assertNull(sender.getFailure());
+        assertEquals(content.length, sender.getBytesSent());
+        assertEquals(1.0, sender.getProgress());
+        assertArrayEquals(content, port[0].getWrittenBytes());
+    }
+
+    @Test
+    void lineModeWaitsForEchoOfEachLine(@TempDir Path dir) throws Exception {
+        String script = "ATZ\r\nATE1\r\nAT+CSQ\r\nno newline at end";
+        Path file = Files.writeString(dir.resolve("script.txt"), script);
+        SimulatedSerialPort[] port = new SimulatedSerialPort[1];
+        SerialCommunicationManager manager = connect(port, true);
+
+        FileSender sender = new FileSender(manager, file, FileSender.Pacing.LINE_ECHO)
+            .withChunkSize(8)
+            .withEchoTimeoutMs(2000);
+        sender.start();
+        awaitFinished(sender);
+
+        assertTrue(sender.isCompleted(), sender.getSummary());
+        assertEquals(3, sender.getLinesSent());
+        assertEquals(0, sender.getEchoTimeouts());
+        assertEquals(script, new String(port[0].getWrittenBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void lineModeCountsMissingEchoes(@TempDir Path dir) throws Exception {
+        Path file = Files.writeString(dir.resolve("script.txt"), "one\ntwo\n");
+        SimulatedSerialPort[] port = new SimulatedSerialPort[1];
+        SerialCommunicationManager manager = connect(port, false);
+
+        FileSender sender = new FileSender(manager, file, FileSender.Pacing.LINE_ECHO).withEchoTimeoutMs(20);
+        sender.start();
+        awaitFinished(sender);
+
+        assertEquals(2, sender.getLinesSent());
+        assertEquals(2, sender.getEchoTimeouts());
+        assertTrue(sender.getSummary().contains("2 echo timeouts"), sender.getSummary());
+    }
+
+    private static SerialCommunicationManager connect(SimulatedSerialPort[] port, boolean echo) {
+        SerialCommunicationManager manager = new SerialCommunicationManager(name -> {
+            port[0] = new SimulatedSerialPort(name);
+            port[0].setEcho(echo);
+            return port[0];
+        }, SerialPort.DATABITS_8, SerialPort.STOPBITS_1, SerialPort.PARITY_NONE);
+        assertTrue(manager.connect("SIM0", 115200));
+        return manager;
+    }
+
+    private static void awaitFinished(FileSender sender) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (sender.isRunning() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertFalse(sender.isRunning(), "send did not finish");
+    }
+}
@@ -225,6 +225,11 @@ class GuiTest {
         });
 
         SerialCommunicationManager manager = runOnEdt(() -> getField(gui, "commManager", SerialCommunicationManager.class));
+        // The port is opened on the connect worker; wait for it and the EDT updates that follow
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!"Disconnect".equals(runOnEdt(connectButton::getText)) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
         assertTrue(manager.isConnected());
         
         // Verify MockSerialPort was used with correct baud rate (would need to add getter to manager or check differently)
@@ -313,6 +318,23 @@ class GuiTest {
             return true;
         }
 
+        @Override
+        public boolean setParams(int baudRate, int dataBits, int stopBits, int parity,
+                                 boolean setRTS, boolean setDTR) throws SerialPortException {
+            this.currentBaudRate = baudRate;
+            return true;
+        }
+
+        @Override
+        public boolean setFlowControlMode(int mask) throws SerialPortException {
+            return true;
+        }
+
+        @Override
+        public boolean writeBytes(byte[] buffer) throws SerialPortException {
+            return writeString(new String(buffer));
+        }
+
         @Override
         public boolean writeString(String string) throws SerialPortException {
             writeBuffer.append(string);
@@ -321,6 +343,11 @@ class GuiTest {
             return true;
         }
 
+        @Override
+        public byte[] readBytes(int length) throws SerialPortException {
+            return readString(length).getBytes();
+        }
+
         @Override
         public String readString(int length) throws SerialPortException {
             if (readBuffer.length() == 0) {
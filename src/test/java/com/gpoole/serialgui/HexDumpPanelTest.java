@@ -0,0 +1,19 @@
+package com.gpoole.serialgui;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HexDumpPanelTest {
+
+    @Test
+    void parsesDecimalAndHexOffsets() {
+        assertEquals(4096, HexDumpPanel.parseOffset("4096"));
+        assertEquals(0x1F00, HexDumpPanel.parseOffset(" 0x1f00 "));
+        assertEquals(0x1F00, HexDumpPanel.parseOffset("0X1F00"));
+        assertEquals(0xFFAA, HexDumpPanel.parseOffset("FFAAh"));
+        assertEquals(0x10, HexDumpPanel.parseOffset("10H"));
+        assertThrows(NumberFormatException.class, () -> HexDumpPanel.parseOffset("0x"));
+        assertThrows(NumberFormatException.class, () -> HexDumpPanel.parseOffset("12g"));
+    }
+}
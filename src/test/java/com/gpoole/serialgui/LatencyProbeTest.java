@@ -0,0 +1,63 @@
+package com.gpoole.serialgui;
+
+import jssc.SerialPort;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyProbeTest {
+
+    @Test
+    void histogramPercentilesStayWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 1; v <= 100_000; v++) {
+            histogram.record(v * 1000);
+        }
+        assertEquals(100_000, histogram.getTotalCount());
+        assertEquals(1000, histogram.getMin());
+        assertEquals(100_000_000, histogram.getMax());
+        assertEquals(50_000_000, histogram.getValueAtPercentile(50), 50_000_000 / 64.0);
+        assertEquals(99_000_000, histogram.getValueAtPercentile(99), 99_000_000 / 64.0);
+        assertEquals(99_900_000, histogram.getValueAtPercentile(99.9), 99_900_000 / 64.0);
+        assertEquals(100_000_000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void bucketIndexRoundTrips() {
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            long value = random.nextLong(1L << 39);
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(LatencyHistogram.lowestValueAt(index) <= value);
+            assertTrue(LatencyHistogram.highestValueAt(index) >= value);
+        }
+    }
+
+    @Test
+    void matchesEchoedProbesBySequenceNumber() throws Exception {
+        SimulatedSerialPort[] port = new SimulatedSerialPort[1];
+        SerialCommunicationManager manager = new SerialCommunicationManager(name -> {
+            port[0] = new SimulatedSerialPort(name);
+            port[0].setEcho(true);
+            return port[0];
+        }, SerialPort.DATABITS_8, SerialPort.STOPBITS_1, SerialPort.PARITY_NONE);
+        assertTrue(manager.connect("LOOP0", 115200));
+
+        CountDownLatch finished = new CountDownLatch(1);
+        LatencyProbe probe = new LatencyProbe(manager).onFinished(summary -> finished.countDown());
+        probe.start(20, 1, 500, 4);
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+
+        assertEquals(20, probe.getSent());
+        assertEquals(20, probe.getReceived());
+        assertEquals(0, probe.getLost());
+        assertEquals(0, probe.getUnexpected());
+        assertEquals(20, probe.getHistogram().getTotalCount());
+        assertTrue(probe.getReport().contains("received 20"));
+        manager.disconnect();
+    }
+}
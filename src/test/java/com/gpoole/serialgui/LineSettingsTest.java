@@ -0,0 +1,100 @@
+package com.gpoole.serialgui;
+
+import jssc.SerialPort;
+import jssc.SerialPortEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineSettingsTest {
+    private final List<SimulatedSerialPort> ports = new CopyOnWriteArrayList<>();
+    private final List<String> errors = new CopyOnWriteArrayList<>();
+    private SerialCommunicationManager manager;
+
+    @AfterEach
+    void tearDown() {
+        manager.disconnect();
+    }
+
+    private SerialCommunicationManager createManager(int maxBaudRate) {
+        manager = new SerialCommunicationManager(name -> {
+            SimulatedSerialPort port = new SimulatedSerialPort(name);
+            port.setMaxBaudRate(maxBaudRate);
+            ports.add(port);
+            return port;
+        }, SerialPort.DATABITS_8, SerialPort.STOPBITS_1, SerialPort.PARITY_NONE).onError(errors::add);
+        return manager;
+    }
+
+    @Test
+    void appliesFlowControlAndLineStateAtCustomRate() throws Exception {
+        createManager(3_000_000).setLineSettings(LineSettings.DEFAULT
+            .withFlowControl(LineSettings.FlowControl.RTS_CTS)
+            .withLines(false, true));
+
+        assertTrue(manager.connect("COM3", 2_000_000));
+
+        SimulatedSerialPort port = ports.get(0);
+        assertEquals(2_000_000, port.getBaudRate());
+        assertEquals(SerialPort.FLOWCONTROL_RTSCTS_IN | SerialPort.FLOWCONTROL_RTSCTS_OUT,
+            port.getFlowControlMode());
+        assertFalse(port.isDTR());
+        assertTrue(port.isRTS());
+        assertEquals(SerialPort.MASK_RXCHAR | SerialPort.MASK_ERR | SerialPort.MASK_BREAK, port.getEventMask());
+    }
+
+    @Test
+    void reportsRateTheDriverRejects() {
+        createManager(921_600);
+
+        assertFalse(manager.connect("COM3", 3_000_000));
+
+        assertFalse(manager.isConnected());
+        assertFalse(ports.get(0).isOpened());
+        assertEquals(List.of("Port COM3 does not support 3000000 baud with these settings"), errors);
+    }
+
+    @Test
+    void countsLineErrorsWithReaderThread() throws Exception {
+        createManager(Integer.MAX_VALUE).setReaderSettings(ReaderSettings.forMode(ReaderSettings.Mode.SHORT_TIMEOUT));
+        List<String> received = new CopyOnWriteArrayList<>();
+        manager.onDataReceived(received::add);
+        assertTrue(manager.connect("COM3", 921_600));
+        SimulatedSerialPort port = ports.get(0);
+        // Only the error events are subscribed; the reader thread does the reading
+        assertEquals(SerialPort.MASK_ERR | SerialPort.MASK_BREAK, port.getEventMask());
+
+        port.injectEvent(SerialPortEvent.ERR, SerialPort.ERROR_OVERRUN | SerialPort.ERROR_FRAME);
+        port.injectEvent(SerialPortEvent.ERR, SerialPort.ERROR_OVERRUN);
+        port.injectEvent(SerialPortEvent.ERR, SerialPort.ERROR_PARITY);
+        port.injectEvent(SerialPortEvent.BREAK, 1);
+        port.inject("0123456789");
+        long deadline = System.currentTimeMillis() + 2000;
+        while (received.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertEquals(2, manager.getOverrunErrors());
+        assertEquals(1, manager.getFramingErrors());
+        assertEquals(1, manager.getParityErrors());
+        assertEquals(1, manager.getBreaks());
+        assertEquals("0123456789", String.join("", received));
+        assertEquals(10, manager.getPeakReadBytes());
+    }
+
+    @Test
+    void errorCountingCanBeTurnedOff() {
+        createManager(Integer.MAX_VALUE).setLineSettings(LineSettings.DEFAULT.withErrorCounting(false));
+        assertTrue(manager.connect("COM3", 115_200));
+        SimulatedSerialPort port = ports.get(0);
+
+        port.injectEvent(SerialPortEvent.ERR, SerialPort.ERROR_OVERRUN);
+
+        assertEquals(SerialPort.MASK_RXCHAR, port.getEventMask());
+        assertEquals(0, manager.getOverrunErrors());
+    }
+}
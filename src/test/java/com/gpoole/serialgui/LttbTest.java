@@ -0,0 +1,62 @@
+package com.gpoole.serialgui;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LttbTest {
+
+    @Test
+    void keepsEndpointsAndReducesToThreshold() {
+        int count = 100_000;
+        double[] x = new double[count];
+        double[] y = new double[count];
+        for (int i = 0; i < count; i++) {
+            x[i] = i;
+            y[i] = Math.sin(i / 1000.0);
+        }
+        double[] outX = new double[800];
+        double[] outY = new double[800];
+
+        int points = Lttb.downsample(x, y, count, 800, outX, outY);
+
+        assertEquals(800, points);
+        assertEquals(0, outX[0]);
+        assertEquals(count - 1, outX[points - 1]);
+        for (int i = 1; i < points; i++) {
+            assertTrue(outX[i] > outX[i - 1], "output must stay in x order");
+        }
+    }
+
+    @Test
+    void preservesIsolatedSpike() {
+        int count = 10_000;
+        double[] x = new double[count];
+        double[] y = new double[count];
+        for (int i = 0; i < count; i++) {
+            x[i] = i;
+        }
+        y[4321] = 100;
+        double[] outX = new double[50];
+        double[] outY = new double[50];
+
+        int points = Lttb.downsample(x, y, count, 50, outX, outY);
+
+        boolean found = false;
+        for (int i = 0; i < points; i++) {
+            found |= outX[i] == 4321 && outY[i] == 100;
+        }
+        assertTrue(found, "a single-sample peak must survive downsampling");
+    }
+
+    @Test
+    void copiesSmallSeriesUnchanged() {
+        double[] x = {1, 2, 3};
+        double[] y = {5, 6, 7};
+        double[] outX = new double[3];
+        double[] outY = new double[3];
+
+        assertEquals(3, Lttb.downsample(x, y, 3, 100, outX, outY));
+        assertArrayEquals(y, outY);
+    }
+}
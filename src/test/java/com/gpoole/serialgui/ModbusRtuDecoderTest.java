@@ -0,0 +1,147 @@
+package com.gpoole.serialgui;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModbusRtuDecoderTest {
+    private static final long MS = 1_000_000L;
+
+    @Test
+    void modbusCrcMatchesCheckValue() {
+        byte[] data = "123456789".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(0x4B37, Crc16.computeModbus(data, 0, data.length));
+    }
+
+    @Test
+    void splitsOnSilenceAndMatchesResponseToRequest() {
+        List<ModbusRtuDecoder.Frame> frames = new ArrayList<>();
+        ModbusRtuDecoder decoder = new ModbusRtuDecoder(9600).onFrame(frames::add);
+        long t = 1_000 * MS;
+        decoder.accept(frame(1, 3, 0x00, 0x6B, 0x00, 0x02), t);
+        decoder.accept(frame(1, 3, 0x04, 0x00, 0x0A, 0x01, 0x02), t + 20 * MS);
+        decoder.poll(t + 40 * MS);
+
+        assertEquals(2, frames.size());
+        assertTrue(frames.get(0).crcValid());
+        assertEquals("slave 1 Read Holding Registers (03) request: start 107, count 2", frames.get(0).text());
+        assertEquals("slave 1 Read Holding Registers (03) response: [107]=10 [108]=258", frames.get(1).text());
+        assertTrue(frames.get(1).gapNanos() > 3 * MS, "gap " + frames.get(1).gapNanos());
+        assertEquals(0, decoder.getCrcErrors());
+    }
+
+    @Test
+    void separatesFramesDeliveredInOneChunkByCrc() {
+        List<ModbusRtuDecoder.Frame> frames = new ArrayList<>();
+        ModbusRtuDecoder decoder = new ModbusRtuDecoder(115200).onFrame(frames::add);
+        byte[] write = frame(17, 6, 0x00, 0x01, 0x00, 0x03);
+        byte[] exception = frame(17, 0x83, 0x02);
+        byte[] coils = frame(4, 1, 0x01, 0b0000_0101);
+        decoder.accept(concat(write, exception, coils), 5_000 * MS);
+        decoder.poll(5_010 * MS);
+
+        assertEquals(3, frames.size());
+        assertEquals("slave 17 Write Single Register (06): [1]=3", frames.get(0).text());
+        assertEquals("slave 17 Read Holding Registers (03) exception 02 Illegal Data Address", frames.get(1).text());
+        assertEquals("slave 4 Read Coils (01) response: [0..7]=10100000", frames.get(2).text());
+    }
+
+    @Test
+    void mergesFrameSplitByDriverAndReportsRealCrcErrors() {
+        List<ModbusRtuDecoder.Frame> frames = new ArrayList<>();
+        ModbusRtuDecoder decoder = new ModbusRtuDecoder(19200).onFrame(frames::add);
+        byte[] request = frame(2, 16, 0x00, 0x10, 0x00, 0x02, 0x04, 0x00, 0x01, 0x00, 0x02);
+        long t = 10_000 * MS;
+        // USB latency timer splits the frame with an apparent gap
+        decoder.accept(Arrays.copyOf(request, 6), t);
+        decoder.poll(t + 5 * MS);
+        decoder.accept(Arrays.copyOfRange(request, 6, request.length), t + 16 * MS);
+        decoder.poll(t + 30 * MS);
+        assertEquals(1, frames.size());
+        assertTrue(frames.get(0).crcValid());
+        assertEquals("slave 2 Write Multiple Registers (10) request: [16]=1 [17]=2", frames.get(0).text());
+
+        byte[] corrupt = frame(2, 16, 0x00, 0x10, 0x00, 0x02);
+        corrupt[3] ^= 0x40;
+        decoder.accept(corrupt, t + 100 * MS);
+        decoder.poll(t + 110 * MS);
+        assertEquals(1, frames.size(), "bad frame should be held briefly");
+        decoder.poll(t + 300 * MS);
+        assertEquals(2, frames.size());
+        assertFalse(frames.get(1).crcValid());
+        assertEquals(1, decoder.getCrcErrors());
+    }
+
+    @Test
+    void keepsUpWithContinuous115200BaudTraffic() {
+        long[] valid = new long[1];
+        ModbusRtuDecoder decoder = new ModbusRtuDecoder(115200).onFrame(f -> {
+            if (f.crcValid()) {
+                valid[0]++;
+            }
+        });
+        byte[] request = frame(1, 3, 0x00, 0x00, 0x00, 0x10);
+        byte[] responseBody = new byte[3 + 32];
+        responseBody[0] = 1;
+        responseBody[1] = 3;
+        responseBody[2] = 32;
+        byte[] response = frame(responseBody);
+        long charNanos = 11_000_000_000L / 115200;
+        long busSeconds = 60;
+        long t = 0;
+        long frames = 0;
+        long start = System.nanoTime();
+        while (t < busSeconds * 1_000_000_000L) {
+            byte[] next = frames % 2 == 0 ? request : response;
+            // Deliver in driver-sized pieces, the way a USB adapter would
+            for (int offset = 0; offset < next.length; offset += 16) {
+                int end = Math.min(next.length, offset + 16);
+                t += (end - offset) * charNanos;
+                decoder.accept(Arrays.copyOfRange(next, offset, end), t);
+            }
+            t += 2 * MS;
+            frames++;
+        }
+        decoder.poll(t + 200 * MS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        assertEquals(frames, valid[0]);
+        assertEquals(0, decoder.getCrcErrors());
+        assertTrue(seconds < busSeconds / 10.0, "decoding " + busSeconds + " s of traffic took " + seconds + " s");
+    }
+
+    private static byte[] frame(int... bytes) {
+        byte[] body = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            body[i] = (byte) bytes[i];
+        }
+        return frame(body);
+    }
+
+    private static byte[] frame(byte[] body) {
+        byte[] out = Arrays.copyOf(body, body.length + 2);
+        int crc = Crc16.computeModbus(body, 0, body.length);
+        out[body.length] = (byte) crc;
+        out[body.length + 1] = (byte) (crc >>> 8);
+        return out;
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        int total = 0;
+        for (byte[] part : parts) {
+            total += part.length;
+        }
+        byte[] out = new byte[total];
+        int offset = 0;
+        for (byte[] part : parts) {
+            System.arraycopy(part, 0, out, offset, part.length);
+            offset += part.length;
+        }
+        return out;
+    }
+}
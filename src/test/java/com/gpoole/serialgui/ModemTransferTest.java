@@ -0,0 +1,189 @@
+package com.gpoole.serialgui;
+
+import jssc.SerialPort;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModemTransferTest {
+    private final SimulatedSerialPort[] ports = new SimulatedSerialPort[2];
+
+    @Test
+    void crcMatchesXmodemCheckValue() {
+        byte[] data = "123456789".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(0x31C3, Crc16.compute(data, 0, data.length));
+        int split = Crc16.update(Crc16.compute(data, 0, 4), data, 4, 5);
+        assertEquals(0x31C3, split);
+    }
+
+    @Test
+    void xmodemCrcTransfersFileWithPadding(@TempDir Path dir) throws Exception {
+        byte[] content = randomBytes(1000);
+        Path source = Files.write(dir.resolve("image.bin"), content);
+        Path target = dir.resolve("received.bin");
+        SerialCommunicationManager[] link = link();
+
+        ModemReceiver receiver = new ModemReceiver(link[1], ModemTransfer.Protocol.XMODEM, target);
+        ModemSender sender = new ModemSender(link[0], ModemTransfer.Protocol.XMODEM, source);
+        runBoth(sender, receiver);
+
+        byte[] received = Files.readAllBytes(target);
+        assertEquals(1024, received.length);
+        assertArrayEquals(content, Arrays.copyOf(received, content.length));
+        assertEquals(ModemTransfer.SUB, received[received.length - 1]);
+        assertEquals(8, sender.getBlocks());
+        assertEquals(0, sender.getRetries());
+    }
+
+    @Test
+    void ymodemCarriesNameAndSizeAndRecoversFromCorruptBlock(@TempDir Path dir) throws Exception {
+        byte[] content = randomBytes(5000);
+        Path source = Files.write(dir.resolve("firmware.hex"), content);
+        Path outDir = Files.createDirectory(dir.resolve("out"));
+        SerialCommunicationManager[] link = link();
+        AtomicInteger writes = new AtomicInteger();
+        ports[0].setWriteFilter(data -> {
+            // Flip one bit in the third frame the sender writes
+            if (data.length > 1000 && writes.incrementAndGet() == 3) {
+                data[500] ^= 0x10;
+            }
+            return data;
+        });
+
+        ModemReceiver receiver = new ModemReceiver(link[1], ModemTransfer.Protocol.YMODEM, outDir);
+        ModemSender sender = new ModemSender(link[0], ModemTransfer.Protocol.YMODEM, source);
+        runBoth(sender, receiver);
+
+        Path received = outDir.resolve("firmware.hex");
+        assertEquals(received, receiver.getReceivedFile());
+        assertArrayEquals(content, Files.readAllBytes(received));
+        assertEquals(1, sender.getRetries());
+        assertEquals(1, receiver.getRetries());
+        assertEquals(content.length, sender.getBytesTransferred());
+        assertTrue(sender.getSummary().contains("Completed"), sender.getSummary());
+    }
+
+    @Test
+    void blockNumbersWrapPastTwoHundredFiftyFive(@TempDir Path dir) throws Exception {
+        // 511 blocks: the numbering wraps through 0 and the last block is number 255,
+        // so the EOT arrives while block number 0 is expected
+        byte[] content = randomBytes(511 * 128);
+        Path source = Files.write(dir.resolve("image.bin"), content);
+        Path target = dir.resolve("received.bin");
+        SerialCommunicationManager[] link = link();
+
+        ModemReceiver receiver = new ModemReceiver(link[1], ModemTransfer.Protocol.XMODEM, target);
+        ModemSender sender = new ModemSender(link[0], ModemTransfer.Protocol.XMODEM, source);
+        runBoth(sender, receiver);
+
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertEquals(511, sender.getBlocks());
+        assertEquals(511, receiver.getBlocks());
+        assertEquals(0, sender.getRetries());
+    }
+
+    @Test
+    void ymodemRecoversFromCorruptBlockAfterTheWrap(@TempDir Path dir) throws Exception {
+        byte[] content = randomBytes(300 * 1024 + 77);
+        Path source = Files.write(dir.resolve("firmware.bin"), content);
+        Path outDir = Files.createDirectory(dir.resolve("out"));
+        SerialCommunicationManager[] link = link();
+        AtomicInteger dataFrames = new AtomicInteger();
+        ports[0].setWriteFilter(data -> {
+            // Flip one bit in the first copy of block 258 (numbered 2 after the wrap)
+            if (data.length > 1000 && dataFrames.incrementAndGet() == 258) {
+                data[500] ^= 0x10;
+            }
+            return data;
+        });
+
+        ModemReceiver receiver = new ModemReceiver(link[1], ModemTransfer.Protocol.YMODEM, outDir);
+        ModemSender sender = new ModemSender(link[0], ModemTransfer.Protocol.YMODEM, source);
+        runBoth(sender, receiver);
+
+        assertArrayEquals(content, Files.readAllBytes(outDir.resolve("firmware.bin")));
+        assertEquals(1, sender.getRetries());
+        assertEquals(1, receiver.getRetries());
+        assertEquals(content.length, receiver.getBytesTransferred());
+    }
+
+    @Test
+    void transferClaimsReceivePathAndHandsItBack(@TempDir Path dir) throws Exception {
+        Path source = Files.write(dir.resolve("a.bin"), randomBytes(300));
+        SerialCommunicationManager[] link = link();
+        List<byte[]> logged = new ArrayList<>();
+        link[1].addReceiveListener(chunk -> logged.add(chunk.data()));
+
+        ModemReceiver receiver = new ModemReceiver(link[1], ModemTransfer.Protocol.XMODEM_1K, dir.resolve("b.bin"));
+        ModemSender sender = new ModemSender(link[0], ModemTransfer.Protocol.XMODEM_1K, source);
+        runBoth(sender, receiver);
+        assertTrue(logged.isEmpty(), "protocol bytes reached the receive listeners");
+        assertFalse(link[1].isReceiveClaimed());
+
+        ports[0].writeString("hello");
+        long deadline = System.currentTimeMillis() + 2000;
+        while (logged.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals("hello", new String(logged.get(0), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void cancelAbortsBothSides(@TempDir Path dir) throws Exception {
+        Path source = Files.write(dir.resolve("a.bin"), randomBytes(300));
+        SerialCommunicationManager[] link = link();
+        // Nobody is receiving, so the sender waits for the start request
+        ModemSender sender = new ModemSender(link[0], ModemTransfer.Protocol.XMODEM, source);
+        sender.start();
+        Thread.sleep(50);
+        sender.cancel();
+
+        assertTrue(sender.await(2000));
+        assertFalse(sender.isCompleted());
+        assertEquals("Cancelled", sender.getFailure());
+        assertFalse(link[0].isReceiveClaimed());
+        assertArrayEquals(new byte[]{ModemTransfer.CAN, ModemTransfer.CAN, ModemTransfer.CAN},
+            ports[0].getWrittenBytes());
+    }
+
+    private SerialCommunicationManager[] link() {
+        SerialCommunicationManager[] managers = new SerialCommunicationManager[2];
+        for (int i = 0; i < 2; i++) {
+            int side = i;
+            managers[i] = new SerialCommunicationManager(name -> {
+                ports[side] = new SimulatedSerialPort(name);
+                ports[side].setEventPollIntervalMicros(200);
+                return ports[side];
+            }, SerialPort.DATABITS_8, SerialPort.STOPBITS_1, SerialPort.PARITY_NONE);
+            assertTrue(managers[i].connect("SIM" + i, 115200));
+        }
+        ports[0].setPeer(ports[1]);
+        ports[1].setPeer(ports[0]);
+        return managers;
+    }
+
+    private static void runBoth(ModemSender sender, ModemReceiver receiver) throws InterruptedException {
+        receiver.start();
+        sender.start();
+        assertTrue(sender.await(10_000), "sender did not finish");
+        assertTrue(receiver.await(10_000), "receiver did not finish");
+        assertTrue(sender.isCompleted(), "sender: " + sender.getFailure());
+        assertTrue(receiver.isCompleted(), "receiver: " + receiver.getFailure());
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] data = new byte[length];
+        new Random(length).nextBytes(data);
+        return data;
+    }
+}
@@ -0,0 +1,132 @@
+package com.gpoole.serialgui;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NmeaParserTest {
+
+    @Test
+    void decodesFixFromSentencesSplitAcrossChunks() {
+        NmeaParser parser = new NmeaParser();
+        byte[] data = ascii(
+            sentence("GPGGA,123519.25,4807.038,N,01131.000,E,1,08,0.9,545.4,M,46.9,M,,")
+            + sentence("GNRMC,123519.25,A,4807.038,N,01131.000,E,022.4,084.4,230394,003.1,W")
+            + sentence("GNGSA,A,3,04,05,,09,12,,,24,,,,,2.5,1.3,2.1")
+            + sentence("GPGSV,2,1,08,01,40,083,46,02,17,308,41,12,07,344,39,14,22,228,45")
+            + sentence("GLGSV,1,1,03,65,40,083,46,66,17,308,41,67,07,344,39"));
+        // One byte at a time, as a slow driver might deliver it
+        for (int i = 0; i < data.length; i++) {
+            parser.accept(data, i, 1);
+        }
+
+        NmeaParser.Fix fix = parser.getFix();
+        assertEquals(1, fix.quality());
+        assertEquals(3, fix.mode());
+        assertTrue(fix.valid());
+        assertEquals(12 * 3_600_000L + 35 * 60_000L + 19_250, fix.utcMillis());
+        assertEquals(230394, fix.date());
+        assertEquals(48 + 7.038 / 60, fix.latitude(), 1e-9);
+        assertEquals(11 + 31.0 / 60, fix.longitude(), 1e-9);
+        assertEquals(545.4, fix.altitude(), 1e-9);
+        assertEquals(8, fix.satellitesUsed());
+        assertEquals(11, fix.satellitesInView());
+        assertEquals(1.3, fix.hdop(), 1e-9);
+        assertEquals(2.5, fix.pdop(), 1e-9);
+        assertEquals(2.1, fix.vdop(), 1e-9);
+        assertEquals(22.4, fix.speedKnots(), 1e-9);
+        assertEquals(84.4, fix.course(), 1e-9);
+        assertEquals(5, fix.sentences());
+        assertEquals(0, fix.checksumErrors());
+    }
+
+    @Test
+    void rejectsBadChecksumsAndResynchronises() {
+        NmeaParser parser = new NmeaParser();
+        String good = sentence("GPGGA,000001,3351.000,S,15112.000,W,2,05,1.5,10.0,M,,M,,");
+        String corrupted = good.replace("3351", "3352");
+        String unterminated = "$GPGGA,0000";
+        parser.accept(chunk(corrupted + "$GPGGA,000002,0000.000,N,00000.000,E,1,04,2.0,1.0,M,,M,,\r\n"
+            + unterminated + good));
+
+        NmeaParser.Fix fix = parser.getFix();
+        assertEquals(2, parser.getChecksumErrors());
+        assertEquals(1, parser.getSentenceCount());
+        assertEquals(2, fix.quality());
+        assertEquals(-(33 + 51.0 / 60), fix.latitude(), 1e-9);
+        assertEquals(-(151 + 12.0 / 60), fix.longitude(), 1e-9);
+        assertEquals(1000, fix.utcMillis());
+        assertEquals(-1, fix.satellitesInView());
+        assertTrue(Double.isNaN(fix.speedKnots()));
+    }
+
+    @Test
+    void parsesSeveralReceiversWithoutAllocating() {
+        var stream = new ByteArrayOutputStream();
+        for (int i = 0; i < 10; i++) {
+            String time = String.format("1200%02d.%d0", i / 10, i % 10);
+            stream.writeBytes(ascii(
+                sentence("GNGGA," + time + ",4807.038,N,01131.000,E,4,24,0.6,545.4,M,46.9,M,1.0,0000")
+                + sentence("GNRMC," + time + ",A,4807.038,N,01131.000,E,0.02,,230394,,,A")
+                + sentence("GNGSA,A,3,04,05,09,12,24,25,29,31,,,,,1.1,0.6,0.9,1")
+                + sentence("GPGSV,3,1,12,01,40,083,46,02,17,308,41,12,07,344,39,14,22,228,45")
+                + sentence("GLGSV,2,1,07,65,40,083,46,66,17,308,41,67,07,344,39,68,22,228,45")
+                + sentence("GAGSV,2,1,06,02,40,083,46,07,17,308,41,11,07,344,39,30,22,228,45")));
+        }
+        // One second of 10 Hz output, split into chunks of the size a USB adapter delivers
+        byte[] second = stream.toByteArray();
+        NmeaParser[] receivers = {new NmeaParser(), new NmeaParser(), new NmeaParser(), new NmeaParser()};
+        for (int s = 0; s < 200; s++) {
+            feed(receivers, second);
+        }
+
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        int seconds = 3600;
+        for (int s = 0; s < seconds; s++) {
+            feed(receivers, second);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        long sentences = seconds * 60L * receivers.length;
+        assertTrue(allocated < 64 * 1024, allocated + " bytes allocated for " + sentences + " sentences");
+        assertTrue(elapsedNanos < 20_000_000_000L, "an hour of four receivers took " + elapsedNanos / 1_000_000 + " ms");
+        NmeaParser.Fix fix = receivers[3].getFix();
+        assertEquals(0, fix.checksumErrors());
+        assertEquals(4, fix.quality());
+        assertEquals(25, fix.satellitesInView());
+        assertEquals(12 * 3_600_000L + 900, fix.utcMillis());
+    }
+
+    private static void feed(NmeaParser[] receivers, byte[] data) {
+        for (int offset = 0; offset < data.length; offset += 62) {
+            int count = Math.min(62, data.length - offset);
+            for (NmeaParser receiver : receivers) {
+                receiver.accept(data, offset, count);
+            }
+        }
+    }
+
+    private static String sentence(String body) {
+        int checksum = 0;
+        for (int i = 0; i < body.length(); i++) {
+            checksum ^= body.charAt(i);
+        }
+        return String.format("$%s*%02X\r\n", body, checksum);
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static SerialChunk chunk(String text) {
+        return new SerialChunk(ascii(text), text, System.nanoTime());
+    }
+}
@@ -0,0 +1,112 @@
+package com.gpoole.serialgui;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PcapngWriterTest {
+    @TempDir
+    Path tempDir;
+
+    /** An Enhanced Packet Block read back from a file */
+    private record Packet(long timestampMicros, int flags, byte[] data) {
+    }
+
+    @Test
+    void writesSectionInterfaceAndPacketBlocks() throws Exception {
+        Path file = tempDir.resolve("live.pcapng");
+        byte[] large = new byte[100_000];
+        Arrays.fill(large, (byte) 0x55);
+        try (var writer = new PcapngWriter(file, "COM7")) {
+            writer.write(PcapngWriter.Direction.OUTBOUND, 1_700_000_000_123_456L, ascii("AT\r"), 0, 3);
+            writer.write(PcapngWriter.Direction.INBOUND, 1_700_000_000_125_000L, ascii("xxOK\r\n"), 2, 4);
+            writer.write(PcapngWriter.Direction.INBOUND, 1_700_000_000_200_000L, large, 0, large.length);
+            assertEquals(3, writer.getPacketCount());
+            assertEquals(3 + 4 + large.length, writer.getBytesWritten());
+        }
+
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(0x0A0D0D0A, in.getInt(0));
+        assertEquals(0x1A2B3C4D, in.getInt(8));
+        int interfaceBlock = in.getInt(4);
+        assertEquals(1, in.getInt(interfaceBlock));
+        assertEquals(PcapngWriter.LINKTYPE_USER0, in.getShort(interfaceBlock + 8));
+        List<Packet> packets = readPackets(in);
+        assertEquals(3, packets.size());
+        assertEquals("AT\r", new String(packets.get(0).data(), StandardCharsets.US_ASCII));
+        assertEquals(2, packets.get(0).flags());
+        assertEquals(1_700_000_000_123_456L, packets.get(0).timestampMicros());
+        assertEquals("OK\r\n", new String(packets.get(1).data(), StandardCharsets.US_ASCII));
+        assertEquals(1, packets.get(1).flags());
+        assertArrayEquals(large, packets.get(2).data());
+    }
+
+    @Test
+    void exportsCapturesMergedByArrivalTime() throws Exception {
+        List<byte[]> expected = new ArrayList<>();
+        List<Integer> expectedFlags = new ArrayList<>();
+        try (var rx = new ByteCapture("pcapng-test-rx-"); var tx = new ByteCapture("pcapng-test-tx-")) {
+            long t = System.nanoTime();
+            // More chunks than one index window, with varying sizes
+            for (int i = 0; i < 3000; i++) {
+                byte[] request = ascii("READ " + i + "\r");
+                tx.append(request, t + i * 2_000_000L);
+                byte[] reply = new byte[1 + i % 300];
+                Arrays.fill(reply, (byte) i);
+                rx.append(reply, t + i * 2_000_000L + 700_000);
+                expected.add(request);
+                expectedFlags.add(2);
+                expected.add(reply);
+                expectedFlags.add(1);
+            }
+            assertEquals(3000, rx.getChunkCount());
+
+            Path file = tempDir.resolve("session.pcapng");
+            assertEquals(6000, PcapngWriter.export(rx, tx, file, "SIM0"));
+
+            List<Packet> packets = readPackets(ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN));
+            assertEquals(6000, packets.size());
+            for (int i = 0; i < packets.size(); i++) {
+                assertArrayEquals(expected.get(i), packets.get(i).data(), "packet " + i);
+                assertEquals(expectedFlags.get(i), packets.get(i).flags(), "packet " + i);
+            }
+            long gap = packets.get(1).timestampMicros() - packets.get(0).timestampMicros();
+            assertEquals(700, gap, 1);
+        }
+    }
+
+    private static List<Packet> readPackets(ByteBuffer in) {
+        List<Packet> packets = new ArrayList<>();
+        int position = 0;
+        while (position < in.limit()) {
+            int type = in.getInt(position);
+            int length = in.getInt(position + 4);
+            assertEquals(length, in.getInt(position + length - 4), "trailing length of block at " + position);
+            if (type == 6) {
+                long timestamp = (long) in.getInt(position + 12) << 32 | in.getInt(position + 16) & 0xFFFFFFFFL;
+                int captured = in.getInt(position + 20);
+                byte[] data = new byte[captured];
+                in.get(position + 28, data);
+                int options = position + 28 + captured + (-captured & 3);
+                assertEquals(2, in.getShort(options));
+                packets.add(new Packet(timestamp, in.getInt(options + 4), data));
+            }
+            position += length;
+        }
+        return packets;
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
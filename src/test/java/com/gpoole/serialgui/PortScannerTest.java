@@ -0,0 +1,108 @@
+package com.gpoole.serialgui;
+
+import jssc.SerialPort;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PortScannerTest {
+
+    /**
+     * A device that only understands one baud rate; at any other rate its
+     * replies arrive as line noise.
+     */
+    private static SimulatedSerialPort device(String name, int baudRate, Map<String, String> replies) {
+        SimulatedSerialPort port = new SimulatedSerialPort(name);
+        port.setEcho(true);
+        port.setWriteFilter(data -> {
+            if (port.getBaudRate() != baudRate) {
+                return new byte[]{(byte) 0xF0, 0x0F, (byte) 0x80};
+            }
+            String reply = replies.get(new String(data, StandardCharsets.US_ASCII).trim());
+            return (reply != null ? reply : "").getBytes(StandardCharsets.US_ASCII);
+        });
+        return port;
+    }
+
+    @Test
+    void probesPortsConcurrentlyAndIdentifiesDevices() throws Exception {
+        List<String> silent = List.of("COM10", "COM11", "COM12", "COM13", "COM14", "COM15");
+        var scanner = new PortScanner(name -> switch (name) {
+            case "COM3" -> device(name, 57600, Map.of(
+                "AT", "\r\nOK\r\n",
+                "ATI", "ATI\r\nAcme Modem 3000\r\nRev B\r\n\r\nOK\r\n"));
+            case "COM4" -> device(name, 9600, Map.of(
+                "AT", "\r\nERROR\r\n",
+                "ATI", "\r\nERROR\r\n",
+                "*IDN?", "ACME,DMM-6500,04321,1.7\n"));
+            case "COM5" -> new SimulatedSerialPort(name) {
+                @Override
+                public boolean openPort() {
+                    return false;
+                }
+            };
+            default -> new SimulatedSerialPort(name);
+        });
+        scanner.setTimeoutMs(100);
+        List<PortScanner.Result> reported = new CopyOnWriteArrayList<>();
+        scanner.onResult(reported::add);
+
+        var ports = new ArrayList<>(List.of("COM3", "COM4", "COM5"));
+        ports.addAll(silent);
+        long start = System.nanoTime();
+        List<PortScanner.Result> results = scanner.scan(ports);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(ports.size(), results.size());
+        assertEquals(ports.size(), reported.size());
+        PortScanner.Result modem = results.get(0);
+        assertEquals("COM3", modem.portName());
+        assertEquals(57600, modem.baudRate(), "garbage at the wrong rates must not count as an answer");
+        assertEquals("Acme Modem 3000 / Rev B", modem.identity());
+        PortScanner.Result instrument = results.get(1);
+        assertEquals(9600, instrument.baudRate());
+        assertEquals("ACME,DMM-6500,04321,1.7", instrument.identity());
+        assertEquals("Could not open", results.get(2).status());
+        for (PortScanner.Result result : results.subList(3, results.size())) {
+            assertFalse(result.found(), result.toString());
+            assertEquals("No answer", result.status());
+        }
+        // Each silent port takes 10 rates x 100 ms; sequentially the scan would take over 6 s
+        assertTrue(elapsedMillis < 3000, "scan took " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void negotiatorStopsWaitingOnceTheResultCodeArrives() throws Exception {
+        SimulatedSerialPort port = device("COM3", 9600, Map.of("AT", "\r\nOK\r\n"));
+        port.openPort();
+        long start = System.nanoTime();
+        int rate = BaudRateNegotiator.negotiate(port, SerialPort.DATABITS_8, SerialPort.STOPBITS_1,
+            SerialPort.PARITY_NONE, 1000);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(9600, rate);
+        assertTrue(elapsedMillis < 500, "negotiation took " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void probeTriesKnownRateFirst() throws Exception {
+        SimulatedSerialPort port = device("COM3", 57600, Map.of("AT", "\r\nOK\r\n"));
+        port.openPort();
+        long start = System.nanoTime();
+        // Without the hint, 57600 comes after four rates that each wait out the timeout
+        BaudRateNegotiator.Negotiation result = BaudRateNegotiator.probe(port, SerialPort.DATABITS_8,
+            SerialPort.STOPBITS_1, SerialPort.PARITY_NONE, 300, 57600);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(result.succeeded());
+        assertEquals(57600, result.baudRate());
+        assertTrue(result.response().contains("OK"), result.response());
+        assertTrue(elapsedMillis < 300, "probe took " + elapsedMillis + " ms");
+    }
+}
@@ -0,0 +1,87 @@
+package com.gpoole.serialgui;
+
+import jssc.SerialPort;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrbsCheckerTest {
+
+    @Test
+    void sequencesHaveTheirMaximalPeriod() {
+        for (PrbsGenerator.Pattern pattern : new PrbsGenerator.Pattern[]{
+                PrbsGenerator.Pattern.PRBS7, PrbsGenerator.Pattern.PRBS15}) {
+            int period = (1 << pattern.getLength()) - 1;
+            // After 'period' bytes (8 * period bits) the register is back at its start state
+            PrbsGenerator generator = new PrbsGenerator(pattern);
+            byte[] first = new byte[16];
+            generator.fill(first, 0, first.length);
+            byte[] skip = new byte[period - first.length];
+            generator.fill(skip, 0, skip.length);
+            byte[] again = new byte[16];
+            generator.fill(again, 0, again.length);
+            assertArrayEquals(first, again, pattern + " period");
+        }
+    }
+
+    @Test
+    void cleanStreamLocksWithoutErrors() {
+        PrbsGenerator generator = new PrbsGenerator(PrbsGenerator.Pattern.PRBS31);
+        byte[] data = new byte[64 * 1024];
+        generator.fill(data, 0, data.length);
+        PrbsChecker checker = new PrbsChecker(PrbsGenerator.Pattern.PRBS31);
+        // Start mid-stream, split into odd chunks
+        for (int offset = 1000; offset < data.length; offset += 333) {
+            checker.accept(Arrays.copyOfRange(data, offset, Math.min(data.length, offset + 333)));
+        }
+        assertTrue(checker.isLocked());
+        assertEquals(0, checker.getBitErrors());
+        assertEquals(0, checker.getResyncs());
+        assertTrue(checker.getBitsChecked() > 500_000);
+    }
+
+    @Test
+    void countsBitErrorsOnceAndResyncsAfterSlip() {
+        PrbsGenerator generator = new PrbsGenerator(PrbsGenerator.Pattern.PRBS15);
+        byte[] data = new byte[32 * 1024];
+        generator.fill(data, 0, data.length);
+        data[5000] ^= 0x01;
+        data[9000] ^= 0x81;
+        byte[] slipped = new byte[data.length - 1];
+        System.arraycopy(data, 0, slipped, 0, 20000);
+        System.arraycopy(data, 20001, slipped, 20000, data.length - 20001);
+
+        PrbsChecker checker = new PrbsChecker(PrbsGenerator.Pattern.PRBS15);
+        checker.accept(slipped);
+        assertEquals(3, checker.getBitErrors());
+        assertEquals(2, checker.getByteErrors());
+        assertEquals(1, checker.getResyncs());
+        assertTrue(checker.isLocked());
+    }
+
+    @Test
+    void runnerMeasuresLoopbackAgainstTheoreticalRate() throws Exception {
+        SerialCommunicationManager manager = new SerialCommunicationManager(name -> {
+            SimulatedSerialPort port = new SimulatedSerialPort(name);
+            port.setEcho(true);
+            return port;
+        }, SerialPort.DATABITS_8, SerialPort.STOPBITS_1, SerialPort.PARITY_NONE);
+        assertTrue(manager.connect("LOOP0", 115200));
+        assertEquals(11520.0, PrbsRunner.charactersPerSecond(115200, 8, SerialPort.STOPBITS_1,
+            SerialPort.PARITY_NONE), 1e-9);
+
+        PrbsRunner runner = new PrbsRunner(manager, PrbsGenerator.Pattern.PRBS7,
+            115200, SerialPort.DATABITS_8, SerialPort.STOPBITS_1, SerialPort.PARITY_EVEN);
+        runner.start();
+        Thread.sleep(50);
+        runner.stop();
+        manager.disconnect();
+
+        assertTrue(runner.getBytesSent() > 0);
+        assertEquals(runner.getBytesSent(), runner.getChecker().getBytesReceived());
+        assertEquals(0, runner.getChecker().getBitErrors());
+        assertEquals(115200 / 11.0, runner.getTheoreticalBytesPerSecond(), 1e-9);
+    }
+}
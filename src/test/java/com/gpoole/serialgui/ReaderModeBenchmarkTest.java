@@ -0,0 +1,95 @@
+package com.gpoole.serialgui;
+
+import jssc.SerialPort;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the jssc event listener with the dedicated reader thread modes on the
+ * same simulated port. Every mode must deliver all bytes in order; delivery
+ * latency and process CPU time per mode are logged for comparison.
+ *
+ * Takes about ten seconds (LONG_BLOCK waits out its timeout on every probe),
+ * so it only runs with -Pbenchmark.
+ */
+@Tag("benchmark")
+class ReaderModeBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(ReaderModeBenchmarkTest.class);
+    private static final int PROBES = 100;
+    /** Poll interval of the simulated jssc event thread */
+    private static final long EVENT_POLL_MICROS = 1000;
+
+    @Test
+    void compareReaderModes() throws Exception {
+        logger.info("mode                     p50 us     p99 us     max us    cpu ms");
+        for (ReaderSettings settings : new ReaderSettings[]{
+                ReaderSettings.forMode(ReaderSettings.Mode.EVENT),
+                ReaderSettings.forMode(ReaderSettings.Mode.BUSY_SPIN),
+                ReaderSettings.forMode(ReaderSettings.Mode.SHORT_TIMEOUT),
+                ReaderSettings.forMode(ReaderSettings.Mode.SHORT_TIMEOUT).withVirtualThread(true),
+                ReaderSettings.forMode(ReaderSettings.Mode.LONG_BLOCK)}) {
+            long[] latencies = measure(settings);
+            Arrays.sort(latencies);
+            logger.info(String.format("%-22s %9d %10d %10d %9d",
+                settings.mode() + (settings.virtualThread() ? " (virtual)" : ""),
+                latencies[PROBES / 2] / 1000, latencies[PROBES * 99 / 100] / 1000,
+                latencies[PROBES - 1] / 1000, lastCpuMillis));
+        }
+    }
+
+    private long lastCpuMillis;
+
+    private long[] measure(ReaderSettings settings) throws Exception {
+        SimulatedSerialPort[] port = new SimulatedSerialPort[1];
+        SerialCommunicationManager manager = new SerialCommunicationManager(name -> {
+            port[0] = new SimulatedSerialPort(name);
+            port[0].setEventPollIntervalMicros(EVENT_POLL_MICROS);
+            return port[0];
+        }, SerialPort.DATABITS_8, SerialPort.STOPBITS_1, SerialPort.PARITY_NONE);
+        BlockingQueue<SerialChunk> received = new ArrayBlockingQueue<>(PROBES * 2);
+        manager.addReceiveListener(received::add);
+        manager.setReaderSettings(settings);
+        assertTrue(manager.connect("SIM0", 115200));
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long cpuBefore = processCpuNanos(threads);
+        long[] latencies = new long[PROBES];
+        try {
+            for (int i = 0; i < PROBES; i++) {
+                long sent = System.nanoTime();
+                port[0].inject(new byte[]{(byte) i});
+                SerialChunk chunk = received.poll(2, TimeUnit.SECONDS);
+                assertNotNull(chunk, settings.mode() + " lost probe " + i);
+                assertEquals((byte) i, chunk.data()[0], settings.mode() + " reordered data");
+                latencies[i] = chunk.arrivalNanos() - sent;
+                Thread.sleep(1);
+            }
+        } finally {
+            lastCpuMillis = (processCpuNanos(threads) - cpuBefore) / 1_000_000;
+            manager.disconnect();
+        }
+        return latencies;
+    }
+
+    private static long processCpuNanos(ThreadMXBean threads) {
+        long total = 0;
+        for (long id : threads.getAllThreadIds()) {
+            long cpu = threads.getThreadCpuTime(id);
+            if (cpu > 0) {
+                total += cpu;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,42 @@
+package com.gpoole.serialgui;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SampleRingBufferTest {
+
+    @Test
+    void overwritesOldestWhenFull() {
+        SampleRingBuffer buffer = new SampleRingBuffer(4);
+        for (int i = 1; i <= 6; i++) {
+            buffer.append(i, i * 10.0);
+        }
+        long[] times = new long[4];
+        double[] values = new double[4];
+
+        int count = buffer.snapshotSince(Long.MIN_VALUE, times, values);
+
+        assertEquals(4, count);
+        assertArrayEquals(new long[]{3, 4, 5, 6}, times);
+        assertArrayEquals(new double[]{30, 40, 50, 60}, values);
+        assertEquals(60, buffer.latest());
+        assertEquals(6, buffer.totalAppended());
+    }
+
+    @Test
+    void snapshotSinceSkipsOlderSamplesAcrossWrap() {
+        SampleRingBuffer buffer = new SampleRingBuffer(5);
+        for (int i = 0; i < 8; i++) {
+            buffer.append(i * 100L, i);
+        }
+        long[] times = new long[5];
+        double[] values = new double[5];
+
+        int count = buffer.snapshotSince(550, times, values);
+
+        assertEquals(2, count);
+        assertEquals(600, times[0]);
+        assertEquals(700, times[1]);
+    }
+}
@@ -0,0 +1,88 @@
+package com.gpoole.serialgui;
+
+import jssc.SerialPort;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SerialPortMetricsTest {
+
+    private SerialCommunicationManager newManager(SimulatedSerialPort[] port) {
+        return new SerialCommunicationManager(name -> {
+            port[0] = new SimulatedSerialPort(name);
+            return port[0];
+        }, SerialPort.DATABITS_8, SerialPort.STOPBITS_1, SerialPort.PARITY_NONE);
+    }
+
+    @Test
+    void exposesCountersThroughJmx() throws Exception {
+        SimulatedSerialPort[] port = new SimulatedSerialPort[1];
+        SerialCommunicationManager manager = newManager(port);
+        SerialPortMetrics metrics = new SerialPortMetrics("jmx-test", manager);
+        assertTrue(metrics.register());
+        try {
+            assertTrue(manager.connect("COM4", 9600));
+            port[0].inject("abc");
+            manager.sendMessage("hello");
+
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("com.gpoole.serialgui:type=SerialPort,name=\"jmx-test\"");
+            assertEquals(true, server.getAttribute(name, "Connected"));
+            assertEquals("COM4", server.getAttribute(name, "PortName"));
+            assertEquals(3L, server.getAttribute(name, "TotalBytesReceived"));
+            assertEquals(5L, server.getAttribute(name, "TotalBytesSent"));
+            assertEquals(1L, server.getAttribute(name, "TotalMessagesSent"));
+
+            // Lifetime totals survive a reconnect
+            manager.disconnect();
+            assertTrue(manager.connect("COM4", 9600));
+            assertEquals(0, manager.getBytesSent());
+            assertEquals(5L, server.getAttribute(name, "TotalBytesSent"));
+        } finally {
+            manager.disconnect();
+            metrics.unregister();
+        }
+    }
+
+    @Test
+    void servesPrometheusText() throws Exception {
+        SimulatedSerialPort[] port = new SimulatedSerialPort[1];
+        SerialCommunicationManager manager = newManager(port);
+        MetricsHttpServer server = new MetricsHttpServer().add(new SerialPortMetrics("main", manager));
+        server.start(0);
+        try {
+            assertTrue(manager.connect("COM5", 9600));
+            port[0].inject("12345");
+            HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getLocalPort() + "/metrics")).build(),
+                HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+            assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/plain"));
+            String body = response.body();
+            assertTrue(body.contains("# TYPE serialtalker_received_bytes_total counter"));
+            assertTrue(body.contains("serialtalker_received_bytes_total{connection=\"main\"} 5\n"));
+            assertTrue(body.contains("serialtalker_connected{connection=\"main\"} 1\n"));
+            assertTrue(body.contains("serialtalker_port_info{connection=\"main\",port=\"COM5\"} 1\n"));
+        } finally {
+            server.stop();
+            manager.disconnect();
+        }
+    }
+
+    @Test
+    void escapesLabelValues() {
+        SimulatedSerialPort[] port = new SimulatedSerialPort[1];
+        String text = MetricsHttpServer.format(List.of(new SerialPortMetrics("a\"b\\c", newManager(port))));
+        assertTrue(text.contains("serialtalker_connected{connection=\"a\\\"b\\\\c\"} 0\n"));
+        assertTrue(text.contains("serialtalker_port_info{connection=\"a\\\"b\\\\c\",port=\"\"} 1\n"));
+    }
+}
@@ -0,0 +1,147 @@
+package com.gpoole.serialgui;
+
+import jssc.SerialPort;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SerialTcpBridgeTest {
+    private SimulatedSerialPort port;
+    private SerialCommunicationManager manager;
+    private SerialTcpBridge bridge;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        manager = new SerialCommunicationManager(name -> {
+            port = new SimulatedSerialPort(name);
+            return port;
+        }, SerialPort.DATABITS_8, SerialPort.STOPBITS_1, SerialPort.PARITY_NONE);
+        assertTrue(manager.connect("COM3", 115200));
+        bridge = new SerialTcpBridge(manager);
+        bridge.start(0, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bridge.stop();
+        manager.disconnect();
+    }
+
+    @Test
+    void fansOutToAllClientsAndMultiplexesWrites() throws Exception {
+        try (Socket a = connect(); Socket b = connect()) {
+            waitFor(() -> bridge.getClientCount() == 2);
+            port.inject("hello\n");
+            assertEquals("hello\n", readExactly(a.getInputStream(), 6));
+            assertEquals("hello\n", readExactly(b.getInputStream(), 6));
+
+            a.getOutputStream().write("from-a;".getBytes(StandardCharsets.US_ASCII));
+            a.getOutputStream().flush();
+            waitFor(() -> port.getWrittenString().equals("from-a;"));
+            b.getOutputStream().write("from-b;".getBytes(StandardCharsets.US_ASCII));
+            b.getOutputStream().flush();
+            waitFor(() -> port.getWrittenString().equals("from-a;from-b;"));
+        }
+        waitFor(() -> bridge.getClientCount() == 0);
+    }
+
+    @Test
+    void disconnectsClientThatStopsReading() throws Exception {
+        bridge.setSlowClientPolicy(SerialTcpBridge.SlowClientPolicy.DISCONNECT, 64 * 1024);
+        try (Socket slow = new Socket()) {
+            slow.setReceiveBufferSize(4096);
+            slow.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), bridge.getLocalPort()));
+            waitFor(() -> bridge.getClientCount() == 1);
+            byte[] chunk = new byte[64 * 1024];
+            for (int i = 0; i < 1024 && bridge.getSlowClientDisconnects() == 0; i++) {
+                port.inject(chunk);
+            }
+            assertEquals(1, bridge.getSlowClientDisconnects());
+            waitFor(() -> bridge.getClientCount() == 0);
+        }
+    }
+
+    @Test
+    void dropPolicyKeepsSlowClientConnected() throws Exception {
+        bridge.setSlowClientPolicy(SerialTcpBridge.SlowClientPolicy.DROP, 64 * 1024);
+        try (Socket slow = new Socket()) {
+            slow.setReceiveBufferSize(4096);
+            slow.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), bridge.getLocalPort()));
+            waitFor(() -> bridge.getClientCount() == 1);
+            byte[] chunk = new byte[64 * 1024];
+            for (int i = 0; i < 1024 && bridge.getDroppedBytes() == 0; i++) {
+                port.inject(chunk);
+            }
+            assertTrue(bridge.getDroppedBytes() > 0);
+            assertEquals(1, bridge.getClientCount());
+            assertEquals(0, bridge.getSlowClientDisconnects());
+        }
+    }
+
+    @Test
+    void pausesReadingFromClientWhileThePortIsBehind() throws Exception {
+        // The port accepts nothing until the gate opens, like a slow link
+        var gate = new CountDownLatch(1);
+        port.setPeer(new SimulatedSerialPort("peer"));
+        port.setWriteFilter(data -> {
+            try {
+                gate.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return data;
+        });
+        int total = 4 * 1024 * 1024;
+        try (Socket fast = connect()) {
+            var sender = new Thread(() -> {
+                try {
+                    OutputStream out = fast.getOutputStream();
+                    out.write(new byte[total]);
+                    out.flush();
+                } catch (Exception ex) {
+                    // The socket closes at the end of the test
+                }
+            });
+            sender.setDaemon(true);
+            sender.start();
+
+            waitFor(() -> bridge.getPendingPortBytes() >= SerialTcpBridge.MAX_PENDING_PORT_BYTES);
+            Thread.sleep(200);
+            long pending = bridge.getPendingPortBytes();
+            assertTrue(pending < SerialTcpBridge.MAX_PENDING_PORT_BYTES + 4096, pending + " bytes pending");
+            assertTrue(bridge.getBytesFromClients() < total);
+
+            gate.countDown();
+            waitFor(() -> port.getWrittenBytes().length == total);
+            waitFor(() -> bridge.getPendingPortBytes() == 0);
+        }
+    }
+
+    private Socket connect() throws Exception {
+        return new Socket(InetAddress.getLoopbackAddress(), bridge.getLocalPort());
+    }
+
+    private static String readExactly(InputStream in, int length) throws Exception {
+        byte[] data = in.readNBytes(length);
+        return new String(data, StandardCharsets.US_ASCII);
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for condition");
+            Thread.sleep(5);
+        }
+    }
+}
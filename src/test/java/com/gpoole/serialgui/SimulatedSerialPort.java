@@ -0,0 +1,334 @@
+package com.gpoole.serialgui;
+
+import jssc.SerialPort;
+import jssc.SerialPortEvent;
+import jssc.SerialPortEventListener;
+import jssc.SerialPortException;
+import jssc.SerialPortTimeoutException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory SerialPort for tests that exercise the serial data path without hardware.
+ * Bytes injected with {@link #inject(byte[])} are delivered to a registered event
+ * listener (event mode) and can also be read with blocking reads (reader-thread mode).
+ * By default events are dispatched synchronously from inject(); with an event poll
+ * interval set, a background thread polls the buffer and dispatches events the way
+ * jssc's own event thread does.
+ */
+class SimulatedSerialPort extends SerialPort {
+    private final Object lock = new Object();
+    private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+    private byte[] rxBuffer = new byte[0];
+    private SerialPortEventListener listener;
+    private boolean portOpen = false;
+    private volatile boolean failIo = false;
+    private int baudRate;
+    private int maxBaudRate = Integer.MAX_VALUE;
+    private int flowControlMode = FLOWCONTROL_NONE;
+    private boolean dtr;
+    private boolean rts;
+    private int eventMask;
+    private long eventPollIntervalNanos = 0;
+    private volatile boolean echo = false;
+    private volatile SimulatedSerialPort peer;
+    private volatile UnaryOperator<byte[]> writeFilter = UnaryOperator.identity();
+    private Thread eventThread;
+
+    SimulatedSerialPort(String portName) {
+        super(portName);
+    }
+
+    /**
+     * Makes the device "send" bytes to the host.
+     */
+    void inject(byte[] data) {
+        SerialPortEventListener target;
+        synchronized (lock) {
+            byte[] grown = Arrays.copyOf(rxBuffer, rxBuffer.length + data.length);
+            System.arraycopy(data, 0, grown, rxBuffer.length, data.length);
+            rxBuffer = grown;
+            lock.notifyAll();
+            target = listener;
+        }
+        if (target != null && eventPollIntervalNanos == 0) {
+            target.serialEvent(new SerialPortEvent(getPortName(), SerialPortEvent.RXCHAR, data.length));
+        }
+    }
+
+    void inject(String data) {
+        inject(data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Delivers a line event (ERR, BREAK, ...) to the listener if its mask asks for it.
+     */
+    void injectEvent(int eventType, int eventValue) {
+        SerialPortEventListener target;
+        synchronized (lock) {
+            target = (eventMask & eventType) != 0 ? listener : null;
+        }
+        if (target != null) {
+            target.serialEvent(new SerialPortEvent(getPortName(), eventType, eventValue));
+        }
+    }
+
+    /**
+     * Makes setParams() fail above a rate, like a driver without custom baud rate support.
+     */
+    void setMaxBaudRate(int maxBaudRate) {
+        this.maxBaudRate = maxBaudRate;
+    }
+
+    /**
+     * Dispatches events from a polling thread instead of from inject().
+     * Must be set before the event listener is added.
+     */
+    void setEventPollIntervalMicros(long micros) {
+        eventPollIntervalNanos = micros * 1000;
+    }
+
+    /**
+     * Loops written bytes straight back as received bytes, like a loopback plug.
+     */
+    void setEcho(boolean echo) {
+        this.echo = echo;
+    }
+
+    /**
+     * Delivers written bytes to another simulated port, like a null-modem cable.
+     */
+    void setPeer(SimulatedSerialPort peer) {
+        this.peer = peer;
+    }
+
+    /**
+     * Transforms written bytes before they reach the peer or echo, to simulate
+     * line noise. The written-bytes record keeps the original data.
+     */
+    void setWriteFilter(UnaryOperator<byte[]> writeFilter) {
+        this.writeFilter = writeFilter;
+    }
+
+    /**
+     * Makes every subsequent read or write fail, as if the adapter was unplugged.
+     */
+    void failIo() {
+        failIo = true;
+    }
+
+    byte[] getWrittenBytes() {
+        synchronized (lock) {
+            return written.toByteArray();
+        }
+    }
+
+    String getWrittenString() {
+        return new String(getWrittenBytes(), StandardCharsets.UTF_8);
+    }
+
+    int getBaudRate() {
+        return baudRate;
+    }
+
+    boolean isDTR() {
+        return dtr;
+    }
+
+    boolean isRTS() {
+        return rts;
+    }
+
+    int getEventMask() {
+        return eventMask;
+    }
+
+    @Override
+    public boolean openPort() throws SerialPortException {
+        portOpen = true;
+        return true;
+    }
+
+    @Override
+    public boolean closePort() throws SerialPortException {
+        portOpen = false;
+        synchronized (lock) {
+            listener = null;
+            lock.notifyAll();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isOpened() {
+        return portOpen;
+    }
+
+    @Override
+    public boolean setParams(int baudRate, int dataBits, int stopBits, int parity) throws SerialPortException {
+        this.baudRate = baudRate;
+        return true;
+    }
+
+    @Override
+    public boolean setParams(int baudRate, int dataBits, int stopBits, int parity,
+                             boolean setRTS, boolean setDTR) throws SerialPortException {
+        if (baudRate > maxBaudRate) {
+            return false;
+        }
+        this.baudRate = baudRate;
+        this.rts = setRTS;
+        this.dtr = setDTR;
+        return true;
+    }
+
+    @Override
+    public boolean setFlowControlMode(int mask) throws SerialPortException {
+        flowControlMode = mask;
+        return true;
+    }
+
+    @Override
+    public int getFlowControlMode() throws SerialPortException {
+        return flowControlMode;
+    }
+
+    @Override
+    public boolean writeBytes(byte[] buffer) throws SerialPortException {
+        checkIo();
+        synchronized (lock) {
+            written.writeBytes(buffer);
+        }
+        SimulatedSerialPort target = peer;
+        if (echo || target != null) {
+            byte[] onLine = writeFilter.apply(buffer.clone());
+            if (echo) {
+                inject(onLine);
+            }
+            if (target != null) {
+                target.inject(onLine);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean writeString(String string) throws SerialPortException {
+        return writeBytes(string.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public byte[] readBytes(int byteCount) throws SerialPortException {
+        checkIo();
+        synchronized (lock) {
+            return take(Math.min(byteCount, rxBuffer.length));
+        }
+    }
+
+    @Override
+    public byte[] readBytes(int byteCount, int timeout) throws SerialPortException, SerialPortTimeoutException {
+        long deadline = System.currentTimeMillis() + timeout;
+        synchronized (lock) {
+            while (rxBuffer.length < byteCount) {
+                checkIo();
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0 || !portOpen) {
+                    throw new SerialPortTimeoutException(getPortName(), "readBytes", timeout);
+                }
+                try {
+                    lock.wait(remaining);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new SerialPortTimeoutException(getPortName(), "readBytes", timeout);
+                }
+            }
+            return take(byteCount);
+        }
+    }
+
+    @Override
+    public String readString() throws SerialPortException {
+        return new String(readBytes(Integer.MAX_VALUE), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String readString(int byteCount) throws SerialPortException {
+        return new String(readBytes(byteCount), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int getInputBufferBytesCount() throws SerialPortException {
+        checkIo();
+        synchronized (lock) {
+            return rxBuffer.length;
+        }
+    }
+
+    @Override
+    public int getOutputBufferBytesCount() throws SerialPortException {
+        return 0;
+    }
+
+    @Override
+    public void addEventListener(SerialPortEventListener listener, int eventMask) throws SerialPortException {
+        synchronized (lock) {
+            this.listener = listener;
+            this.eventMask = eventMask;
+        }
+        if (eventPollIntervalNanos > 0) {
+            eventThread = new Thread(this::pollEvents, "simulated-event-thread");
+            eventThread.setDaemon(true);
+            eventThread.start();
+        }
+    }
+
+    private void pollEvents() {
+        while (true) {
+            SerialPortEventListener target;
+            int available;
+            synchronized (lock) {
+                target = listener;
+                available = rxBuffer.length;
+            }
+            if (target == null) {
+                return;
+            }
+            if (available > 0) {
+                target.serialEvent(new SerialPortEvent(getPortName(), SerialPortEvent.RXCHAR, available));
+            }
+            LockSupport.parkNanos(eventPollIntervalNanos);
+        }
+    }
+
+    @Override
+    public boolean removeEventListener() throws SerialPortException {
+        synchronized (lock) {
+            listener = null;
+        }
+        Thread thread = eventThread;
+        if (thread != null) {
+            try {
+                thread.join(1000);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return true;
+    }
+
+    private byte[] take(int count) {
+        byte[] result = Arrays.copyOf(rxBuffer, count);
+        rxBuffer = Arrays.copyOfRange(rxBuffer, count, rxBuffer.length);
+        return result;
+    }
+
+    private void checkIo() throws SerialPortException {
+        if (failIo) {
+            throw new SerialPortException(getPortName(), "io", "Device disconnected");
+        }
+    }
+}
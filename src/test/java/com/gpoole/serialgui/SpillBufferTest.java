@@ -0,0 +1,62 @@
+package com.gpoole.serialgui;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpillBufferTest {
+
+    @Test
+    void spillsBeyondHeadAndDrainsInOrderInBatches() {
+        var expected = new StringBuilder();
+        try (var buffer = new SpillBuffer("spill-test-", 1000)) {
+            for (int i = 0; i < 20_000; i++) {
+                // Multi-byte characters so batches end inside encoded sequences
+                String line = "[12:00:00.000] RX: line " + i + " µs → 📡\n";
+                buffer.append(line);
+                expected.append(line);
+            }
+            assertEquals(expected.length(), buffer.getPendingChars());
+
+            var drained = new StringBuilder();
+            String batch;
+            int batches = 0;
+            while ((batch = buffer.poll(4096)) != null) {
+                assertTrue(batch.length() <= 4096);
+                drained.append(batch);
+                batches++;
+                if (batches == 10) {
+                    // More output arrives while draining; it goes behind what is held
+                    buffer.append("late\n");
+                    expected.append("late\n");
+                }
+            }
+            assertEquals(expected.toString(), drained.toString());
+            assertTrue(buffer.getSpilledBytes() > 500_000, "spilled " + buffer.getSpilledBytes());
+            assertFalse(buffer.hasPending());
+            assertEquals(0, buffer.getPendingChars());
+        }
+    }
+
+    @Test
+    void reusesFileAfterDrainAndClears() {
+        try (var buffer = new SpillBuffer("spill-test-", 10)) {
+            buffer.append("first pause\n");
+            assertEquals("first pause\n", buffer.poll(100));
+            assertNull(buffer.poll(100));
+
+            buffer.append("0123456789");
+            buffer.append("second pause\n");
+            assertEquals("0123456789", buffer.poll(100));
+            assertEquals("second pause\n", buffer.poll(100));
+
+            buffer.append("discarded");
+            buffer.append(" and this too");
+            buffer.clear();
+            assertFalse(buffer.hasPending());
+            assertNull(buffer.poll(100));
+            buffer.append("after clear");
+            assertEquals("after clear", buffer.poll(100));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.gpoole.serialgui;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StartupTimerTest {
+
+    @Test
+    void keepsFirstMarkOfEachPhaseInOrder() throws Exception {
+        StartupTimer timer = new StartupTimer();
+        timer.mark("ui built");
+        Thread.sleep(20);
+        timer.mark("window shown");
+        long shown = timer.getMillis("window shown");
+        Thread.sleep(20);
+        timer.mark("window shown");
+
+        assertEquals(shown, timer.getMillis("window shown"));
+        assertTrue(timer.getMillis("ui built") <= shown);
+        assertEquals(-1, timer.getMillis("ports listed"));
+        String summary = timer.getSummary();
+        assertTrue(summary.indexOf("ui built") < summary.indexOf("window shown"), summary);
+    }
+
+    @Test
+    void completesOnlyWhenAllRequiredPhasesAreMarked() {
+        StartupTimer timer = new StartupTimer();
+        timer.mark("window shown");
+        timer.logWhenComplete("window shown", "ports listed");
+        assertFalse(timer.hasMark("ports listed"));
+
+        timer.mark("ports listed");
+        timer.logWhenComplete("window shown", "ports listed");
+        assertTrue(timer.hasMark("ports listed"));
+        assertTrue(timer.getSummary().contains("ports listed"));
+    }
+}
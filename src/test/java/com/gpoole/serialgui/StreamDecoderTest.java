@@ -0,0 +1,57 @@
+package com.gpoole.serialgui;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamDecoderTest {
+
+    @Test
+    void reassemblesUtf8CharacterSplitAcrossChunks() {
+        byte[] bytes = "temp=23°C €".getBytes(StandardCharsets.UTF_8);
+        StreamDecoder decoder = new StreamDecoder(TextEncoding.UTF_8);
+        StringBuilder text = new StringBuilder();
+
+        // Feed one byte at a time so every multi-byte character is split
+        for (byte b : bytes) {
+            text.append(decoder.decode(new byte[]{b}));
+        }
+
+        assertEquals("temp=23°C €", text.toString());
+    }
+
+    @Test
+    void partialSequenceYieldsEmptyTextUntilCompleted() {
+        byte[] euro = "€".getBytes(StandardCharsets.UTF_8);
+        StreamDecoder decoder = new StreamDecoder(TextEncoding.UTF_8);
+
+        assertEquals("", decoder.decode(Arrays.copyOfRange(euro, 0, 2)));
+        assertEquals("€!", decoder.decode(new byte[]{euro[2], '!'}));
+    }
+
+    @Test
+    void replacesInvalidBytesAndIncompleteTailOnFlush() {
+        StreamDecoder decoder = new StreamDecoder(TextEncoding.UTF_8);
+
+        assertEquals("a�b", decoder.decode(new byte[]{'a', (byte) 0xFF, 'b'}));
+        assertEquals("", decoder.decode(new byte[]{(byte) 0xE2}));
+        assertEquals("�", decoder.flush());
+    }
+
+    @Test
+    void rawModeEscapesNonPrintableBytes() {
+        StreamDecoder decoder = new StreamDecoder(TextEncoding.RAW);
+
+        assertEquals("OK\\x00\\xFF\r\n", decoder.decode(new byte[]{'O', 'K', 0, (byte) 0xFF, '\r', '\n'}));
+    }
+
+    @Test
+    void latin1MapsEveryByte() {
+        StreamDecoder decoder = new StreamDecoder(TextEncoding.ISO_8859_1);
+
+        assertEquals("é", decoder.decode(new byte[]{(byte) 0xE9}));
+    }
+}